@@ -0,0 +1,123 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.config.AsyncConfig;
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import com.edu.WebScrapeApplication.service.aggregation.NewsMerger;
+import com.edu.WebScrapeApplication.service.cache.AggregatedNewsCache;
+import com.edu.WebScrapeApplication.service.fetch.FetchScheduler;
+import com.edu.WebScrapeApplication.service.fetch.HostConcurrencyLimiter;
+import com.edu.WebScrapeApplication.service.fetch.NewsApiStreamingParser;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceCatalog;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceClient;
+import com.edu.WebScrapeApplication.service.fetch.StubNewsApiServer;
+import com.edu.WebScrapeApplication.service.impl.NewsServiceImpl;
+import com.edu.WebScrapeApplication.service.metrics.NewsMetrics;
+import com.edu.WebScrapeApplication.service.resilience.SourceCircuitBreakers;
+import com.edu.WebScrapeApplication.service.resilience.SourceHedging;
+import com.edu.WebScrapeApplication.service.search.NewsSearchIndex;
+import com.edu.WebScrapeApplication.service.store.ArticleLog;
+import com.edu.WebScrapeApplication.service.store.ArticleStore;
+import com.edu.WebScrapeApplication.service.stream.NewsStreamHub;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полная агрегация {@code getAggregatedNews} против заглушки NewsAPI в том же процессе.
+ * <p>
+ * Сервис собран из тех же компонентов и с теми же настройками по умолчанию, что и в приложении
+ * (пул из 5 потоков, пул HTTP-соединений Apache HttpClient), кэш выключен - каждый вызов опрашивает
+ * все {@code sources} источников. Заглушка отвечает через {@code latencyMillis} телом из {@code articles}
+ * статей с описаниями по {@code descriptionChars} символов; все источники отдают одни и те же статьи,
+ * поэтому в замер входит и удаление дубликатов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationBenchmark {
+
+    // Число источников
+    @Param({"3", "12"})
+    public int sources;
+
+    // Задержка ответа заглушки
+    @Param({"0", "20"})
+    public int latencyMillis;
+
+    // Число статей в ответе источника
+    @Param({"20", "100"})
+    public int articles;
+
+    // Длина описания статьи (размер тела ответа)
+    @Param({"200"})
+    public int descriptionChars;
+
+    private StubNewsApiServer server;
+    private ExecutorService executor;
+    private CloseableHttpClient httpClient;
+    private NewsServiceImpl newsService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = StubNewsApiServer.start(articles, descriptionChars).withLatency(latencyMillis);
+        executor = Executors.newFixedThreadPool(5);
+        AsyncConfig config = new AsyncConfig();
+        httpClient = config.newsHttpClient(config.newsConnectionManager(50, 10, 5), 5, 30);
+        NewsSourceClient sourceClient = new NewsSourceClient(
+                new FetchScheduler(executor, new HostConcurrencyLimiter(8), 5, 256),
+                config.restTemplate(httpClient), new NewsApiStreamingParser(new ObjectMapper()), 100);
+
+        NewsDeduplicator deduplicator = new NewsDeduplicator(true, 0.8);
+        NewsMerger merger = new NewsMerger(1000);
+        NewsMetrics metrics = new NewsMetrics(new SimpleMeterRegistry());
+        newsService = new NewsServiceImpl(catalog(), sourceClient, new AggregatedNewsCache(0, 0), deduplicator, merger,
+                new ArticleStore(deduplicator, merger, metrics, 48, false, new ArticleLog(false, "data/article-log", 64, 0.5)),
+                new SourceCircuitBreakers(true, 3, 30, 0.99, 2.0, 500, 5), new SourceHedging(false, 0.95, 0.1, 5, 20),
+                metrics, new NewsSearchIndex(24, 1.0), new NewsStreamHub(new ObjectMapper(), 16, 1000, 0, 1, "fixed"),
+                new ObjectMapper(), false, 5, 100, 100);
+        System.out.println("\nresponse: " + server.getBodyBytes() + " bytes");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        httpClient.close();
+        executor.shutdownNow();
+        server.close();
+    }
+
+    @Benchmark
+    public List<NewsItem> getAggregatedNews() throws ExecutionException, InterruptedException {
+        return newsService.getAggregatedNews();
+    }
+
+    // Каталог из sources источников заглушки; встроенные источники NewsAPI выключены
+    private NewsSourceCatalog catalog() {
+        Map<String, Object> properties = new HashMap<>();
+        for (String builtIn : List.of("russia", "bbc", "techcrunch")) {
+            properties.put("news.sources." + builtIn + ".enabled", "false");
+        }
+        for (int i = 0; i < sources; i++) {
+            properties.put("news.sources.stub" + i + ".url",
+                    server.url("/v2/everything?domains=stub-" + i + ".example.com&apiKey={apiKey}"));
+        }
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("stub-sources", properties));
+        return new NewsSourceCatalog(environment, "benchmark", "", 0, 60, 5);
+    }
+}
@@ -0,0 +1,113 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import com.edu.WebScrapeApplication.service.aggregation.NewsMerger;
+import com.edu.WebScrapeApplication.service.metrics.NewsMetrics;
+import com.edu.WebScrapeApplication.service.store.ArticleLog;
+import com.edu.WebScrapeApplication.service.store.ArticleStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Перезапуск {@link ArticleStore} с журналом на {@code articles} статьях из 10 источников.
+ * <p>
+ * Журнал и контрольная точка записываются один раз на запуск. {@code serving} - время от открытия журнала
+ * до готового снимка (хранилище отвечает на запросы), {@code replayed} - до полного доигрывания: индексы
+ * хранилища по URL и времени. Режим SingleShotTime: каждое измерение - новый экземпляр хранилища,
+ * как при перезапуске приложения (страницы сегментов уже в кэше ОС).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class ArticleLogRestoreBenchmark {
+
+    private static final int SOURCES = 10;
+
+    // Число статей в журнале
+    @Param({"1000000"})
+    public int articles;
+
+    private Path directory;
+    private ArticleStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("article-log");
+        ArticleLog log = new ArticleLog(true, directory.toString(), 64, 0.5);
+        log.open();
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        List<String> sourceIds = new ArrayList<>();
+        List<long[]> refs = new ArrayList<>();
+        List<int[]> visible = new ArrayList<>();
+        for (int source = 0; source < SOURCES; source++) {
+            int count = articles / SOURCES;
+            long[] sourceRefs = new long[count];
+            for (int i = 0; i < count; i++) {
+                // Статьи источника от новых к старым, как в снимке
+                long time = now - (long) i * TimeUnit.HOURS.toMillis(40) / count - random.nextInt(1000);
+                String url = "https://source" + source + ".com/news/" + i;
+                NewsItem item = new NewsItem("Headline " + i + " from source " + source + " about markets",
+                        "Description of article " + i + ", two sentences long as in NewsAPI. It mentions the topic.",
+                        url, new Date(time), "Source " + source);
+                sourceRefs[i] = log.appendPut("source" + source, NewsDeduplicator.normalizeUrl(url), time, item);
+            }
+            int[] all = new int[count];
+            Arrays.setAll(all, i -> i);
+            sourceIds.add("source" + source);
+            refs.add(sourceRefs);
+            visible.add(all);
+        }
+        log.checkpoint(sourceIds, refs, visible);
+        System.out.println("\n" + log.getStats().getSegments() + " segments, " + log.getStats().getBytes() + " bytes");
+    }
+
+    @TearDown(Level.Iteration)
+    public void awaitReplay() {
+        if (store != null) {
+            store.awaitRestored().join();
+            store = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public int serving() {
+        store = newStore();
+        store.restore();
+        return store.getSnapshot().size();
+    }
+
+    @Benchmark
+    public int replayed() {
+        store = newStore();
+        store.restore();
+        store.awaitRestored().join();
+        return store.getStats().getArticles();
+    }
+
+    private ArticleStore newStore() {
+        return new ArticleStore(new NewsDeduplicator(true, 0.8), new NewsMerger(1000),
+                new NewsMetrics(new SimpleMeterRegistry()), 48, false, new ArticleLog(true, directory.toString(), 64, 0.5));
+    }
+}
@@ -0,0 +1,77 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.config.ExecutorMode;
+import com.edu.WebScrapeApplication.service.fetch.FetchScheduler;
+import com.edu.WebScrapeApplication.service.fetch.HostConcurrencyLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение режимов пула потоков (fixed/virtual) при медленных источниках.
+ * <p>
+ * Каждый поток JMH имитирует одновременный запрос /api/news: fan-out на {@code sources}
+ * источников, каждый из которых отвечает за {@code latencyMillis}. Загрузки идут тем же путем, что и в сервисе, -
+ * через {@link FetchScheduler} с лимитом на хост; в режиме FIXED одновременно выполняется не больше 5 загрузок
+ * (размер пула), в режиме VIRTUAL - не больше {@code virtualMaxInFlight}. Throughput показывает
+ * число агрегаций в миллисекунду, SampleTime - распределение задержки одной агрегации.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Threads(16)
+@Fork(1)
+public class ExecutorModeBenchmark {
+
+    // Режим пула потоков
+    @Param({"FIXED", "VIRTUAL"})
+    public ExecutorMode mode;
+
+    // Число источников в одной агрегации
+    @Param({"3", "12"})
+    public int sources;
+
+    // Задержка ответа одного источника
+    @Param({"100"})
+    public int latencyMillis;
+
+    // news.fetch.max-in-flight для виртуальных потоков (для FIXED - размер пула)
+    @Param({"64"})
+    public int virtualMaxInFlight;
+
+    private ExecutorService executor;
+    private FetchScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = mode.createExecutor(5);  // Размер пула по умолчанию из AsyncConfig
+        scheduler = new FetchScheduler(executor, new HostConcurrencyLimiter(8),
+                mode == ExecutorMode.FIXED ? 5 : virtualMaxInFlight, 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int aggregate() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[sources];
+        for (int i = 0; i < sources; i++) {
+            String url = "https://source-" + i + ".example.com/v2/top-headlines";
+            futures[i] = scheduler.submit(null, url, this::slowFetch);
+        }
+        CompletableFuture.allOf(futures).join();
+        return sources;
+    }
+
+    // Имитация блокирующего HTTP-запроса к медленному источнику
+    private Void slowFetch(long queueNanos) throws InterruptedException {
+        Thread.sleep(latencyMillis);
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.service.fetch.FetchScheduler;
+import com.edu.WebScrapeApplication.service.fetch.HostConcurrencyLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы fan-out на {@code sources} источников без сети: загрузка мгновенно возвращает результат.
+ * <p>
+ * {@code direct} - только пул потоков и {@link CompletableFuture#allOf}, {@code scheduler} - путь
+ * агрегации через {@link FetchScheduler} (приоритетная очередь, лимит одновременных загрузок,
+ * лимит на хост). Разница - цена планирования на одну агрегацию; задержку сети добавляет
+ * {@code AggregationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutBenchmark {
+
+    // Число источников в одной агрегации
+    @Param({"3", "12", "48"})
+    public int sources;
+
+    private ExecutorService executor;
+    private FetchScheduler scheduler;
+    private String[] urls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(5);  // Размер пула по умолчанию из AsyncConfig
+        scheduler = new FetchScheduler(executor, new HostConcurrencyLimiter(8), 5, 256);
+        urls = new String[sources];
+        for (int i = 0; i < sources; i++) {
+            urls[i] = "https://source-" + i + ".example.com/v2/top-headlines";
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int direct() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[sources];
+        for (int i = 0; i < sources; i++) {
+            int source = i;
+            futures[i] = CompletableFuture.supplyAsync(() -> source, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+        return sources;
+    }
+
+    @Benchmark
+    public int scheduler() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[sources];
+        for (int i = 0; i < sources; i++) {
+            int source = i;
+            futures[i] = scheduler.submit(null, urls[i], queueNanos -> source);
+        }
+        CompletableFuture.allOf(futures).join();
+        return sources;
+    }
+}
@@ -0,0 +1,66 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.service.fetch.FetchResult;
+import com.edu.WebScrapeApplication.service.fetch.FetchScheduler;
+import com.edu.WebScrapeApplication.service.fetch.HostConcurrencyLimiter;
+import com.edu.WebScrapeApplication.service.fetch.NewsApiStreamingParser;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceClient;
+import com.edu.WebScrapeApplication.service.fetch.StubNewsApiServer;
+import com.edu.WebScrapeApplication.service.resilience.SourceHedging;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Хвост задержки загрузки одного источника с хеджированием и без него.
+ * <p>
+ * Заглушка NewsAPI отвечает за 2 мс, а каждый 25-й запрос - за 300 мс. Режим {@code SampleTime}
+ * выводит перцентили: без хеджирования p0.99 равен задержке медленного ответа, с хеджированием -
+ * задержке хеджа (p95, не меньше 20 мс) плюс быстрый ответ. Бюджет хеджей - 20% запросов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class HedgingBenchmark {
+
+    // Отправлять ли второй запрос после p95 задержки источника
+    @Param({"false", "true"})
+    public boolean hedge;
+
+    private ExecutorService executor;
+    private StubNewsApiServer server;
+    private NewsSourceClient client;
+    private SourceHedging hedging;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(8);
+        server = StubNewsApiServer.start(20).withLatency(request -> request % 25 == 0 ? 300 : 2);
+        client = new NewsSourceClient(new FetchScheduler(executor, new HostConcurrencyLimiter(8), 8, 100),
+                new RestTemplate(new HttpComponentsClientHttpRequestFactory()),
+                new NewsApiStreamingParser(new ObjectMapper()), 100);
+        hedging = new SourceHedging(hedge, 0.95, 0.2, 5, 20);
+        url = server.url("/v2/everything?domains=bbc.co.uk");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public FetchResult fetch() throws Exception {
+        return hedging.call("bbc", () -> client.fetchResultAsync(url), FetchResult::isFailed)
+                .get(5, TimeUnit.SECONDS);
+    }
+}
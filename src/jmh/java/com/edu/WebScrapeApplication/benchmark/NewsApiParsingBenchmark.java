@@ -0,0 +1,80 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.model.NewsApiResponse;
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.fetch.NewsApiStreamingParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение связывания ответа NewsAPI в {@link NewsApiResponse} и потокового разбора.
+ * <p>
+ * {@code binding} - прежний путь (getForObject в NewsApiResponse), {@code streaming} - разбор
+ * всех статей, {@code streamingFirstItem} - время до первой статьи. Выделение памяти
+ * на операцию видно с профилировщиком: {@code -Djmh.args="NewsApiParsingBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NewsApiParsingBenchmark {
+
+    // Число статей в ответе (страница top-headlines - 20, everything - до 100)
+    @Param({"20", "100", "1000"})
+    public int articles;
+
+    private byte[] payload;
+    private ObjectMapper bindingMapper;
+    private NewsApiStreamingParser streamingParser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payload = samplePayload(articles).getBytes(StandardCharsets.UTF_8);
+        // Как у ObjectMapper в RestTemplate: неизвестные поля игнорируются
+        bindingMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        streamingParser = new NewsApiStreamingParser(new ObjectMapper());
+    }
+
+    @Benchmark
+    public List<NewsItem> binding() throws IOException {
+        return bindingMapper.readValue(payload, NewsApiResponse.class).getArticles();
+    }
+
+    @Benchmark
+    public List<NewsItem> streaming() throws IOException {
+        return streamingParser.parse(new ByteArrayInputStream(payload), Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public void streamingFirstItem(Blackhole blackhole) throws IOException {
+        streamingParser.parse(new ByteArrayInputStream(payload), 1, blackhole::consume);
+    }
+
+    // Формирует ответ NewsAPI, похожий на настоящий: с полями author, urlToImage и длинным content
+    static String samplePayload(int count) {
+        StringBuilder json = new StringBuilder("{\"status\":\"ok\",\"totalResults\":").append(count).append(",\"articles\":[");
+        for (int i = 0; i < count; i++) {
+            json.append(i > 0 ? "," : "")
+                    .append("{\"source\":{\"id\":\"bbc-news\",\"name\":\"BBC News\"},")
+                    .append("\"author\":\"Correspondent ").append(i).append("\",")
+                    .append("\"title\":\"Headline number ").append(i).append(" about an important event\",")
+                    .append("\"description\":\"A short summary of the article number ").append(i).append(" for the feed\",")
+                    .append("\"url\":\"https://www.bbc.co.uk/news/article-").append(i).append("\",")
+                    .append("\"urlToImage\":\"https://ichef.bbci.co.uk/news/1024/image-").append(i).append(".jpg\",")
+                    .append("\"publishedAt\":\"2024-05-").append(10 + i % 20).append("T10:").append(10 + i % 50).append(":00Z\",")
+                    .append("\"content\":\"").append("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(16))
+                    .append("[+2048 chars]\"}");
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.store.CompactNewsItem;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Занимаемая статьями память для трех представлений:
+ * <ul>
+ *     <li>{@code legacy} - прежний NewsItem: три String, изменяемый Date и своя строка источника у каждой статьи;</li>
+ *     <li>{@code objects} - NewsItem с датой в миллисекундах и названием источника из словаря;</li>
+ *     <li>{@code compact} - {@link CompactNewsItem} (news.store.compact=true).</li>
+ * </ul>
+ * Для одной статьи выводится разбивка JOL по объектам, для {@code count} статей (по умолчанию 1 000 000) -
+ * прирост занятой кучи после сборки мусора. Половина статей на русском, половина на английском.
+ * <p>
+ * Запуск: {@code mvn -Pbenchmark -DskipTests test-compile exec:exec
+ * -Djmh.main=com.edu.WebScrapeApplication.benchmark.NewsItemFootprint -Djmh.args=1000000}
+ */
+public class NewsItemFootprint {
+
+    private static final String[] SOURCES = {"BBC News", "TechCrunch", "Lenta.ru", "РИА Новости", "Reuters"};
+
+    public static void main(String[] args) {
+        // Профиль benchmark дописывает ключи вывода результатов JMH (-rf ...) - они здесь не нужны
+        int count = args.length > 0 && !args[0].startsWith("-") ? Integer.parseInt(args[0]) : 1_000_000;
+
+        NewsItem sample = article(new Random(42), 1);
+        System.out.println(GraphLayout.parseInstance(legacyCopy(sample)).toFootprint());
+        System.out.println(GraphLayout.parseInstance(sample).toFootprint());
+        System.out.println(GraphLayout.parseInstance(CompactNewsItem.of(sample)).toFootprint());
+
+        System.out.printf("%-8s %12s %14s%n", "layout", "articles", "bytes/article");
+        measure("legacy", count, NewsItemFootprint::legacyCopy);
+        measure("objects", count, item -> item);
+        measure("compact", count, CompactNewsItem::of);
+    }
+
+    // Строит count статей в представлении layout и печатает прирост кучи на статью
+    private static void measure(String name, int count, Function<NewsItem, Object> layout) {
+        Random random = new Random(42);
+        long before = usedHeap();
+        List<Object> articles = new ArrayList<>(count);
+        long listOnly = usedHeap() - before;
+        for (int i = 0; i < count; i++) {
+            articles.add(layout.apply(article(random, i)));
+        }
+        long used = usedHeap() - before - listOnly;
+        System.out.printf("%-8s %12d %14d%n", name, articles.size(), used / count);
+    }
+
+    // Статья в том виде, в каком ее создает разбор ответа: новые строки на каждое поле
+    private static NewsItem article(Random random, int i) {
+        boolean russian = (i & 1) == 0;
+        String title = (russian ? "Правительство обсудило меры поддержки отрасли, выпуск " : "Startup raises funding to expand AI tooling, issue ")
+                + i + " " + Long.toHexString(random.nextLong());
+        String description = (russian
+                ? "Участники совещания рассмотрели предложения ведомств и договорились подготовить проект решения до конца месяца. "
+                : "The company said the new round will be used to hire engineers and open offices in Europe and Asia next year. ")
+                + Long.toHexString(random.nextLong());
+        String url = "https://" + (russian ? "lenta.ru/news/2024/05/20/" : "techcrunch.com/2024/05/20/") + "article-" + i;
+        Date date = new Date(1_716_000_000_000L + random.nextInt(86_400_000));
+        return new NewsItem(title, description, url, date, new String(SOURCES[i % SOURCES.length]));
+    }
+
+    private static Object legacyCopy(NewsItem item) {
+        return new LegacyNewsItem(item.getTitle(), item.getDescription(), item.getUrl(), item.getPublishedAt(),
+                new String(item.getSourceName()));
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Поля NewsItem до перехода на компактное хранение
+    @SuppressWarnings("unused")
+    private static final class LegacyNewsItem {
+        private final String title;
+        private final String description;
+        private final String url;
+        private final Date publishedAt;
+        private final String sourceName;
+
+        private LegacyNewsItem(String title, String description, String url, Date publishedAt, String sourceName) {
+            this.title = title;
+            this.description = description;
+            this.url = url;
+            this.publishedAt = publishedAt;
+            this.sourceName = sourceName;
+        }
+    }
+}
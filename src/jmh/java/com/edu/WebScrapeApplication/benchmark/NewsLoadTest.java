@@ -0,0 +1,343 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.WebScrapeApplication;
+import com.edu.WebScrapeApplication.service.fetch.StubNewsApiServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест {@code GET /api/news} без сети и квоты NewsAPI.
+ * <p>
+ * Запускает заглушку NewsAPI ({@link StubNewsApiServer}) и, если не задан {@code target}, приложение в том же
+ * процессе с источниками, направленными на заглушку. Затем отправляет запросы с постоянной частотой {@code rps}
+ * (открытая модель: запрос уходит по расписанию, не дожидаясь предыдущих) в течение {@code warmup} + {@code duration}
+ * секунд. Задержка считается от запланированного момента отправки, поэтому отставание клиента тоже попадает в замер.
+ * Раз в секунду снимается {@code /api/stats/fetch-queue}: занятость пула загрузок, очередь и отказы.
+ * Итог печатается и сохраняется в {@code result} (JSON).
+ * <p>
+ * Параметры - аргументы {@code key=value}, значения по умолчанию в {@link #DEFAULTS}; аргументы {@code news.*}
+ * и {@code server.*} передаются приложению (например, {@code news.cache.ttl.seconds=0 news.cache.stale.seconds=0}
+ * - агрегация на каждый запрос). Запуск: {@code mvn -Pbenchmark -DskipTests test-compile exec:exec
+ * -Djmh.main=com.edu.WebScrapeApplication.benchmark.NewsLoadTest -Djmh.args="rps=200 errors=0.05"}
+ */
+public class NewsLoadTest {
+
+    // Параметры теста и значения по умолчанию
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("rps", "50");              // Запросов в секунду
+        DEFAULTS.put("duration", "30");         // Длительность замера, с
+        DEFAULTS.put("warmup", "5");            // Прогрев без учета результатов, с
+        DEFAULTS.put("path", "/api/news");      // Путь запроса
+        DEFAULTS.put("timeout", "10");          // Таймаут запроса, с
+        DEFAULTS.put("target", "");             // URL уже запущенного приложения (пусто - запустить в процессе)
+        DEFAULTS.put("sources", "3");           // Источников на заглушке
+        DEFAULTS.put("articles", "20");         // Статей в ответе заглушки
+        DEFAULTS.put("description", "200");     // Длина описания статьи (размер ответа)
+        DEFAULTS.put("latency", "50");          // Медиана задержки заглушки, мс
+        DEFAULTS.put("latency-p99", "250");     // 99-й перцентиль задержки заглушки, мс
+        DEFAULTS.put("errors", "0");            // Доля ответов 500 от заглушки
+        DEFAULTS.put("stub-port", "0");         // Порт заглушки (0 - свободный)
+        DEFAULTS.put("result", "target/load-test-result.json");
+    }
+
+    // Встроенные источники приложения (выключаются, чтобы не обращаться к newsapi.org)
+    private static final List<String> BUILT_IN_SOURCES = List.of("russia", "bbc", "techcrunch");
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("-") || eq < 0) {
+                continue;  // Профиль benchmark дописывает ключи вывода результатов JMH (-rf ...)
+            }
+            String key = arg.substring(0, eq);
+            if (key.startsWith("news.") || key.startsWith("server.")) {
+                appProperties.put(key, arg.substring(eq + 1));
+            } else if (options.containsKey(key)) {
+                options.put(key, arg.substring(eq + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + key + ", expected one of " + DEFAULTS.keySet());
+            }
+        }
+
+        int sources = Integer.parseInt(options.get("sources"));
+        try (StubNewsApiServer stub = StubNewsApiServer.start(Integer.parseInt(options.get("stub-port")),
+                Integer.parseInt(options.get("articles")), Integer.parseInt(options.get("description")))) {
+            stub.withLogNormalLatency(Long.parseLong(options.get("latency")), Long.parseLong(options.get("latency-p99")))
+                    .withErrorRate(Double.parseDouble(options.get("errors")));
+
+            // Источники приложения направляются на заглушку
+            Map<String, String> properties = new LinkedHashMap<>();
+            properties.put("server.port", "0");
+            properties.put("news.api.key", "load-test");
+            BUILT_IN_SOURCES.forEach(id -> properties.put("news.sources." + id + ".enabled", "false"));
+            for (int i = 0; i < sources; i++) {
+                properties.put("news.sources.stub" + i + ".url",
+                        stub.url("/v2/top-headlines?sources=stub-" + i + "&apiKey={apiKey}"));
+            }
+            properties.putAll(appProperties);
+
+            String target = options.get("target");
+            ConfigurableApplicationContext app = null;
+            if (target.isEmpty()) {
+                app = SpringApplication.run(WebScrapeApplication.class, properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+                target = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+            } else {
+                System.out.println("Application at " + target + " should use the stub sources:");
+                properties.forEach((key, value) -> {
+                    if (key.startsWith("news.sources.")) {
+                        System.out.println("  " + key + "=" + value);
+                    }
+                });
+            }
+            try {
+                Map<String, Object> result = run(target, options);
+                Map<String, Object> stubStats = new LinkedHashMap<>();
+                stubStats.put("requests", stub.getRequests());
+                stubStats.put("errors", stub.getErrors());
+                stubStats.put("responseBytes", stub.getBodyBytes());
+                result.put("stub", stubStats);
+                Path file = Path.of(options.get("result"));
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                JSON.writeValue(file.toFile(), result);
+                System.out.printf("Stub NewsAPI: %d requests, %d injected errors%n", stub.getRequests(), stub.getErrors());
+                System.out.println("Result saved to " + file.toAbsolutePath());
+            } finally {
+                if (app != null) {
+                    app.close();
+                }
+            }
+        }
+    }
+
+    // Прогрев и замер с постоянной частотой; возвращает итог для JSON
+    private static Map<String, Object> run(String target, Map<String, String> options) throws Exception {
+        int rps = Integer.parseInt(options.get("rps"));
+        int warmupRequests = rps * Integer.parseInt(options.get("warmup"));
+        int measuredRequests = rps * Integer.parseInt(options.get("duration"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.get("timeout")));
+        URI uri = URI.create(target + options.get("path"));
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(clientExecutor)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        Recorder recorder = new Recorder(measuredRequests);
+        Saturation saturation = new Saturation(client, URI.create(target + "/api/stats/fetch-queue"));
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        LongAdder pending = new LongAdder();
+
+        System.out.printf("Load test: %d rps, %d s warmup + %s s against %s%n", rps, warmupRequests / rps,
+                options.get("duration"), uri);
+        long period = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long measureStart = start + warmupRequests * period;
+        try {
+            for (int i = 0; i < warmupRequests + measuredRequests; i++) {
+                long scheduled = start + i * period;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (i == warmupRequests) {
+                    saturation.sample();  // Начальные значения счетчиков
+                    sampler.scheduleAtFixedRate(saturation::sample, 1, 1, TimeUnit.SECONDS);
+                }
+                boolean measured = i >= warmupRequests;
+                pending.increment();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                    if (measured) {
+                        recorder.record(System.nanoTime() - scheduled,
+                                error != null ? error.getClass().getSimpleName() : String.valueOf(response.statusCode()));
+                    }
+                    pending.decrement();
+                });
+            }
+            // Ждем ответы на все отправленные запросы (не дольше таймаута)
+            long deadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+            while (pending.sum() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            sampler.shutdownNow();
+            saturation.sample();
+        } finally {
+            sampler.shutdownNow();
+            clientExecutor.shutdownNow();
+        }
+
+        double seconds = (recorder.lastCompletedAt() - measureStart) / 1e9;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("target", uri.toString());
+        result.put("rps", rps);
+        result.put("options", options);
+        result.put("requests", measuredRequests);
+        result.put("completed", recorder.size());
+        result.put("ok", recorder.ok());
+        result.put("statuses", recorder.statuses());
+        result.put("throughput", seconds > 0 ? recorder.ok() / seconds : 0);
+        result.put("latencyMillis", recorder.percentiles());
+        result.put("fetchPool", saturation.summary());
+
+        System.out.printf("Requests: %d sent, %d completed, %d ok %s%n",
+                measuredRequests, recorder.size(), recorder.ok(), recorder.statuses());
+        System.out.printf("Throughput: %.1f ok/s%n", (double) result.get("throughput"));
+        System.out.println("Latency, ms: " + recorder.percentiles());
+        System.out.println("Fetch pool: " + saturation.summary());
+        return result;
+    }
+
+    // Задержки и статусы ответов фазы замера
+    private static final class Recorder {
+        private final long[] latencies;
+        private final AtomicInteger size = new AtomicInteger();
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        private volatile long lastCompletedAt;
+
+        private Recorder(int capacity) {
+            this.latencies = new long[capacity];
+        }
+
+        private void record(long latencyNanos, String status) {
+            latencies[size.getAndIncrement()] = latencyNanos;
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            lastCompletedAt = System.nanoTime();
+        }
+
+        private int size() {
+            return size.get();
+        }
+
+        private long lastCompletedAt() {
+            return lastCompletedAt;
+        }
+
+        // Число ответов 2xx
+        private long ok() {
+            return statuses.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith("2"))
+                    .mapToLong(entry -> entry.getValue().sum())
+                    .sum();
+        }
+
+        private Map<String, Long> statuses() {
+            Map<String, Long> result = new TreeMap<>();
+            statuses.forEach((status, count) -> result.put(status, count.sum()));
+            return result;
+        }
+
+        // Перцентили задержки всех завершившихся запросов (с ошибками тоже), мс
+        private Map<String, Double> percentiles() {
+            long[] sorted = Arrays.copyOf(latencies, size.get());
+            Arrays.sort(sorted);
+            Map<String, Double> result = new LinkedHashMap<>();
+            if (sorted.length == 0) {
+                return result;
+            }
+            result.put("p50", millis(sorted, 0.50));
+            result.put("p90", millis(sorted, 0.90));
+            result.put("p99", millis(sorted, 0.99));
+            result.put("p999", millis(sorted, 0.999));
+            result.put("max", millis(sorted, 1.0));
+            return result;
+        }
+
+        private static double millis(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return Math.round(sorted[Math.max(0, index)] / 1e3) / 1e3;
+        }
+    }
+
+    // Насыщение пула загрузок по снимкам /api/stats/fetch-queue
+    private static final class Saturation {
+        private final HttpClient client;
+        private final HttpRequest request;
+        // Снимки счетчиков (первый - до замера)
+        private final List<JsonNode> samples = Collections.synchronizedList(new ArrayList<>());
+
+        private Saturation(HttpClient client, URI uri) {
+            this.client = client;
+            this.request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(1)).GET().build();
+        }
+
+        private void sample() {
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) {
+                    samples.add(JSON.readTree(response.body()));
+                }
+            } catch (IOException e) {
+                // Пропущенный снимок не прерывает тест: статистика станет грубее
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Пиковая занятость, доля снимков с полностью занятым пулом, пик очереди и отказы за время замера
+        private Map<String, Object> summary() {
+            List<JsonNode> snapshot;
+            synchronized (samples) {
+                snapshot = new ArrayList<>(samples);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            if (snapshot.size() < 2) {
+                result.put("available", false);
+                return result;
+            }
+            JsonNode first = snapshot.get(0);
+            JsonNode last = snapshot.get(snapshot.size() - 1);
+            int maxInFlight = last.path("maxInFlight").asInt();
+            int maxRunning = 0;
+            int maxQueued = 0;
+            int saturated = 0;
+            for (JsonNode sample : snapshot.subList(1, snapshot.size())) {
+                int running = sample.path("running").asInt();
+                maxRunning = Math.max(maxRunning, running);
+                maxQueued = Math.max(maxQueued, sample.path("queued").asInt());
+                if (running >= maxInFlight) {
+                    saturated++;
+                }
+            }
+            long started = last.path("started").asLong() - first.path("started").asLong();
+            result.put("maxInFlight", maxInFlight);
+            result.put("maxRunning", maxRunning);
+            result.put("saturatedShare", Math.round(100.0 * saturated / (snapshot.size() - 1)) / 100.0);
+            result.put("maxQueued", maxQueued);
+            result.put("started", started);
+            result.put("rejected", last.path("rejected").asLong() - first.path("rejected").asLong());
+            result.put("shed", last.path("shed").asLong() - first.path("shed").asLong());
+            result.put("avgQueueMillis", last.path("avgQueueMillis").asDouble());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.aggregation.NewsMerger;
+import com.edu.WebScrapeApplication.service.aggregation.NewsOrdering;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение объединения результатов источников: общий список с полной сортировкой
+ * против k-путевого слияния упорядоченных пакетов с отсечкой по лимиту.
+ * <p>
+ * {@code items} статей делятся поровну между {@code sources} источниками, около 1% статей без даты.
+ * При {@code ordered=true} каждый пакет уже упорядочен (как отдает NewsAPI), при false - перемешан.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NewsMergeBenchmark {
+
+    // Всего статей во всех источниках
+    @Param({"10000", "100000", "1000000"})
+    public int items;
+
+    // Число источников
+    @Param({"3", "20"})
+    public int sources;
+
+    // Упорядочены ли пакеты источников
+    @Param({"true", "false"})
+    public boolean ordered;
+
+    // Размер результата
+    @Param({"1000"})
+    public int limit;
+
+    private List<List<NewsItem>> batches;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        batches = new ArrayList<>(sources);
+        for (int source = 0; source < sources; source++) {
+            int size = items / sources;
+            List<NewsItem> batch = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Date date = random.nextInt(100) == 0 ? null : new Date(now - random.nextInt(7 * 24 * 3600) * 1000L);
+                batch.add(new NewsItem("Title " + i, "Description", "https://source-" + source + ".example.com/" + i,
+                        date, "Source " + source));
+            }
+            if (ordered) {
+                batch.sort(NewsOrdering.NEWEST_FIRST);
+            } else {
+                Collections.shuffle(batch, random);
+            }
+            batches.add(batch);
+        }
+    }
+
+    // Прежний подход: все статьи в один список и полная сортировка
+    @Benchmark
+    public List<NewsItem> collectAndSort() {
+        List<NewsItem> all = new ArrayList<>();
+        for (List<NewsItem> batch : batches) {
+            all.addAll(batch);
+        }
+        all.sort(NewsOrdering.NEWEST_FIRST);
+        return new ArrayList<>(all.subList(0, Math.min(limit, all.size())));
+    }
+
+    @Benchmark
+    public List<NewsItem> kWayMerge() {
+        return NewsMerger.merge(batches, limit);
+    }
+}
@@ -0,0 +1,88 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.aggregation.NewsSnapshot;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Стоимость тела ответа {@code GET /api/news} на запрос при {@code items} статьях в снимке.
+ * <p>
+ * {@code serialize} и {@code serializeGzip} - как до готовых снимков: Jackson пишет список в поток ответа
+ * (во втором случае через gzip-сжатие сервера, уровень по умолчанию). {@code snapshot} и {@code snapshotGzip} -
+ * копирование заранее закодированных байтов {@link NewsSnapshot}. Поток ответа заменен переиспользуемым
+ * буфером, поэтому измеряется только работа процессора над телом, без сети.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NewsResponseBenchmark {
+
+    // Число статей в снимке
+    @Param({"100", "1000"})
+    public int items;
+
+    private ObjectWriter writer;
+    private List<NewsItem> news;
+    private NewsSnapshot snapshot;
+    private ByteArrayOutputStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(new TypeReference<List<NewsItem>>() { });
+        news = new ArrayList<>(items);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < items; i++) {
+            news.add(new NewsItem("Headline number " + i + " about markets and elections",
+                    "Description of article " + i + ", two sentences long as in NewsAPI. It mentions the source and topic.",
+                    "https://example.com/news/" + i, new Date(now - i * 60_000L), "Source " + i % 7));
+        }
+        snapshot = NewsSnapshot.of(news, writer);
+        snapshot.gzip();  // Кодирование - один раз на снимок, вне измерения
+        out = new ByteArrayOutputStream(snapshot.json().length);
+        System.out.println("\njson: " + snapshot.json().length + " bytes, gzip: " + snapshot.gzip().length + " bytes");
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        out.reset();
+        writer.writeValue(out, news);
+        return out.size();
+    }
+
+    @Benchmark
+    public int serializeGzip() throws IOException {
+        out.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            writer.writeValue(gzip, news);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int snapshot() {
+        out.reset();
+        out.writeBytes(snapshot.json());
+        return out.size();
+    }
+
+    @Benchmark
+    public int snapshotGzip() {
+        out.reset();
+        out.writeBytes(snapshot.gzip());
+        return out.size();
+    }
+}
@@ -0,0 +1,116 @@
+package com.edu.WebScrapeApplication.benchmark;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.search.NewsSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время поискового запроса к {@link NewsSearchIndex} на {@code documents} статьях.
+ * <p>
+ * Словарь - 20 000 слов (половина русских, половина английских) с распределением Ципфа: частые слова
+ * встречаются в большой доле статей, как "Россия" или "election" в новостях. Заголовок - 8 слов, описание - 20.
+ * Запросы: {@code rare} - одно редкое слово, {@code common} - одно частое (обход длинного списка),
+ * {@code pair} - два частых слова (пересечение списков), {@code mixed} - частое и редкое.
+ * <p>
+ * Статьи публикуются в течение 48 часов. При {@code ordered=true} они поступают в индекс в порядке публикации
+ * (с разбросом в час), как при фоновом опросе; при false - в случайном порядке, и ранняя остановка
+ * обхода по свежести не срабатывает (худший случай).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class NewsSearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final String[] RUSSIAN_ROOTS = {"выбор", "банк", "ставк", "прав", "город", "рынк", "нефт", "суд"};
+    private static final String[] ENGLISH_ROOTS = {"market", "election", "court", "energy", "bank", "city", "trade", "law"};
+
+    // Число статей в индексе
+    @Param({"1000000"})
+    public int documents;
+
+    // Вид запроса
+    @Param({"rare", "common", "pair", "mixed"})
+    public String query;
+
+    // Поступают ли статьи в порядке публикации
+    @Param({"true", "false"})
+    public boolean ordered;
+
+    private NewsSearchIndex index;
+    private String[] words;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = i % 2 == 0 ? RUSSIAN_ROOTS[i / 2 % RUSSIAN_ROOTS.length] + suffix(i, 'а')
+                    : ENGLISH_ROOTS[i / 2 % ENGLISH_ROOTS.length] + suffix(i, 'a');
+        }
+        Random random = new Random(42);
+        double[] cumulative = zipf(VOCABULARY);
+        long now = System.currentTimeMillis();
+        long window = TimeUnit.HOURS.toMillis(48);
+        index = new NewsSearchIndex(24, 1.0);
+        for (int doc = 0; doc < documents; doc++) {
+            String title = sentence(random, cumulative, 8);
+            String description = sentence(random, cumulative, 20);
+            String url = "https://example.com/" + doc;
+            long age = ordered
+                    ? Math.max(0, window - window * doc / documents - random.nextInt(3_600_000))
+                    : (long) (random.nextDouble() * window);
+            index.put(url, new NewsItem(title, description, url, new Date(now - age), "Source"));
+        }
+        text = switch (query) {
+            case "rare" -> words[VOCABULARY - 7];
+            case "common" -> words[0];
+            case "pair" -> words[0] + " " + words[1];
+            default -> words[2] + " " + words[VOCABULARY / 10];
+        };
+        System.out.println("\n" + index.getStats().getTerms() + " terms; hits: " + index.search(text, 100_000).size());
+    }
+
+    @Benchmark
+    public Object search() {
+        return index.search(text, 20);
+    }
+
+    // Буквенный суффикс, чтобы слова не совпадали после отсечения окончаний
+    private static String suffix(int i, char base) {
+        StringBuilder suffix = new StringBuilder("z");
+        for (int n = i / 16; n > 0; n /= 26) {
+            suffix.append((char) (base + n % 26));
+        }
+        return suffix.append('x').toString();
+    }
+
+    private static double[] zipf(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private String sentence(Random random, double[] cumulative, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int word = java.util.Arrays.binarySearch(cumulative, random.nextDouble());
+            sentence.append(words[word >= 0 ? word : Math.min(-word - 1, VOCABULARY - 1)]).append(' ');
+        }
+        return sentence.toString();
+    }
+}
@@ -1,29 +1,82 @@
 package com.edu.WebScrapeApplication.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 // Объявление класса конфигурации Spring
 @Configuration  // Помечает класс как источник определений бинов Spring
 @EnableAsync    // Включает поддержку асинхронного выполнения методов
 public class AsyncConfig {
 
+    // Пул HTTP-соединений к источникам новостей (переиспользование keep-alive соединений по маршрутам)
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager newsConnectionManager(
+            @Value("${news.http.max-total:50}") int maxTotal,  // Всего соединений в пуле
+            @Value("${news.http.max-per-route:10}") int maxPerRoute,  // Соединений на один хост
+            @Value("${news.api.timeout.seconds:5}") int timeoutSeconds) {
+        Timeout timeout = Timeout.ofSeconds(timeoutSeconds);
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout)  // Установка TCP/TLS-соединения
+                        .setSocketTimeout(timeout)   // Ожидание данных из сокета
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))  // Проверка долго простаивавших соединений
+                        .setTimeToLive(TimeValue.ofMinutes(5))  // Периодически пересоздаем соединения (смена DNS)
+                        .build())
+                .build();
+    }
+
+    // HTTP-клиент поверх пула соединений
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient newsHttpClient(
+            PoolingHttpClientConnectionManager newsConnectionManager,
+            @Value("${news.api.timeout.seconds:5}") int timeoutSeconds,
+            @Value("${news.http.idle-evict.seconds:30}") int idleEvictSeconds) {
+        Timeout timeout = Timeout.ofSeconds(timeoutSeconds);
+        return HttpClients.custom()
+                .setConnectionManager(newsConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout)  // Ожидание свободного соединения из пула
+                        .setResponseTimeout(timeout)           // Ожидание ответа сервера
+                        .build())
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)  // Учитываем заголовок Keep-Alive
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))  // Закрываем простаивающие соединения в фоне
+                // Сжатие ответов включено по умолчанию: клиент отправляет Accept-Encoding: gzip, deflate
+                // и прозрачно распаковывает тело ответа
+                .build();
+    }
+
     // Определение бина RestTemplate
     @Bean       // Помечает метод как создающий бин, которым Spring будет управлять
-    public RestTemplate restTemplate() {
-        return new RestTemplate();  // Создает и возвращает новый экземпляр RestTemplate
-        // (HTTP-клиент для взаимодействия с RESTful сервисами)
+    public RestTemplate restTemplate(CloseableHttpClient newsHttpClient) {
+        // RestTemplate работает поверх пула соединений Apache HttpClient вместо HttpURLConnection
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(newsHttpClient));
     }
 
     // Определение бина ExecutorService
     @Bean
-    public ExecutorService newsExecutorService() {
-        return Executors.newFixedThreadPool(5);  // Создает пул потоков фиксированного размера (5 потоков)
-        // для асинхронного выполнения задач
+    public ExecutorService newsExecutorService(
+            @Value("${news.executor.mode:fixed}") String mode,  // fixed - пул платформенных потоков, virtual - виртуальные потоки
+            @Value("${news.executor.pool-size:5}") int poolSize) {  // Размер фиксированного пула
+        return ExecutorMode.fromProperty(mode).createExecutor(poolSize);
+        // В режиме virtual каждая загрузка источника получает свой виртуальный поток,
+        // а число одновременных запросов к хосту ограничивает HostConcurrencyLimiter
     }
-}
\ No newline at end of file
+}
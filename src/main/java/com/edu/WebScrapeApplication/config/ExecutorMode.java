@@ -0,0 +1,49 @@
+package com.edu.WebScrapeApplication.config;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Режим пула потоков, в котором выполняются запросы к источникам новостей
+public enum ExecutorMode {
+
+    // Фиксированный пул платформенных потоков
+    FIXED,
+
+    // Отдельный виртуальный поток на каждую задачу
+    VIRTUAL;
+
+    // Загрузок одновременно в пуле виртуальных потоков по умолчанию: поток не ограничивает,
+    // реальный предел - news.fetch.max-concurrency-per-host и пул HTTP-соединений
+    static final int VIRTUAL_MAX_IN_FLIGHT = 1024;
+
+    /**
+     * Определяет режим по значению из конфигурации (регистр не важен).
+     * @param value значение свойства news.executor.mode
+     * @return режим пула потоков
+     */
+    public static ExecutorMode fromProperty(String value) {
+        return ExecutorMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Создает пул потоков для данного режима.
+     * @param poolSize размер фиксированного пула (для VIRTUAL не используется)
+     * @return новый пул потоков
+     */
+    public ExecutorService createExecutor(int poolSize) {
+        if (this == FIXED) {
+            return Executors.newFixedThreadPool(poolSize);
+        }
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Число загрузок, одновременно передаваемых в пул, если news.fetch.max-in-flight не задан (0).
+     * @param poolSize размер фиксированного пула
+     * @return размер пула для FIXED, {@value #VIRTUAL_MAX_IN_FLIGHT} для VIRTUAL
+     */
+    public int defaultMaxInFlight(int poolSize) {
+        return this == FIXED ? poolSize : VIRTUAL_MAX_IN_FLIGHT;
+    }
+}
@@ -1,13 +1,26 @@
 package com.edu.WebScrapeApplication.controllers;
 
+import com.edu.WebScrapeApplication.model.NewsFilter;
 import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.model.NewsPage;
 import com.edu.WebScrapeApplication.service.NewsService;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import com.edu.WebScrapeApplication.service.aggregation.NewsSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 // Определение REST-контроллера для работы с новостями
 @RestController  // Помечает класс как контроллер, где методы возвращают данные напрямую (не представления)
@@ -16,19 +29,176 @@ public class NewsController {
 
     // Внедрение зависимости сервиса для работы с новостями
     private final NewsService newsService;
+    // Сериализация статей для выдачи по мере ответа источников
+    private final ObjectMapper objectMapper;
 
     // Конструктор с внедрением зависимости (Dependency Injection)
-    public NewsController(NewsService newsService) {
+    public NewsController(NewsService newsService, ObjectMapper objectMapper) {
         this.newsService = newsService;  // Присваивание внедренного сервиса полю класса
+        this.objectMapper = objectMapper;
     }
 
     // Обработчик GET-запросов по пути "/api/news"
+    // (необязательные фильтры: "?source=bbc,techcrunch&category=technology&from=...&to=...")
     @GetMapping  // Эквивалентно @RequestMapping(method = RequestMethod.GET)
-    public List<NewsItem> getAggregatedNews() throws ExecutionException, InterruptedException {
-        // Вызов сервиса для получения агрегированных новостей
-        return newsService.getAggregatedNews();
-        // Метод может выбрасывать исключения:
-        // - ExecutionException: если возникла ошибка при выполнении асинхронной задачи
-        // - InterruptedException: если выполнение было прервано
+    public CompletableFuture<ResponseEntity<?>> getAggregatedNews(
+            @RequestParam(required = false) List<String> source,  // Идентификаторы источников
+            @RequestParam(required = false) String category,  // Категория источника
+            @RequestParam(required = false) String from,  // Начало интервала (ISO-8601)
+            @RequestParam(required = false) String to,  // Конец интервала, не включительно (ISO-8601)
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        NewsFilter filter = NewsFilter.of(source, category, from, to);
+        // Вызов сервиса для получения агрегированных новостей.
+        // Spring MVC обрабатывает CompletableFuture асинхронно: поток сервлета освобождается,
+        // а ответ отправляется, когда future завершится (ошибка future превращается в ответ 500).
+        // Без фильтров отдается готовый снимок целиком, с ETag его версии: если клиент прислал ту же версию
+        // в If-None-Match, Spring отвечает 304 Not Modified без сериализации списка
+        if (filter.isEmpty()) {
+            boolean gzip = acceptsGzip(acceptEncoding);
+            return newsService.getSnapshotAsync().thenApply(snapshot -> encoded(snapshot, gzip));
+        }
+        return newsService.getAggregatedNewsAsync(filter).thenApply(ResponseEntity::ok);
+    }
+
+    // Обработчик GET-запросов "/api/news?limit=20&cursor=..." - постраничная выдача (с теми же фильтрами)
+    @GetMapping(params = "limit")
+    public CompletableFuture<ResponseEntity<NewsPage>> getNewsPage(
+            @RequestParam int limit,  // Размер страницы
+            @RequestParam(required = false) String cursor,  // nextCursor предыдущей страницы
+            @RequestParam(required = false) List<String> source,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        NewsFilter filter = NewsFilter.of(source, category, from, to);
+        // Страница вырезается из готового снимка, поэтому сериализуется только limit статей
+        CompletableFuture<NewsPage> page = filter.isEmpty() ? newsService.getNewsPageAsync(cursor, limit)
+                : newsService.getNewsPageAsync(filter, cursor, limit);
+        return page.thenApply(result -> result.getEtag() != null
+                ? revalidated(result.getEtag()).body(result) : ResponseEntity.ok(result));
+    }
+
+    // Обработчик GET-запросов "/api/news?quorum=2" - ответ, как только ответили quorum источников (с теми же фильтрами)
+    @GetMapping(params = {"quorum", "!limit"})
+    public CompletableFuture<List<NewsItem>> getQuorumNews(
+            @RequestParam int quorum,  // Сколько источников должно ответить
+            @RequestParam(required = false) List<String> source,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        // Остальные источники догружаются в фоне и попадают в кэш для следующих запросов
+        return newsService.getQuorumNewsAsync(NewsFilter.of(source, category, from, to), quorum);
+    }
+
+    // Обработчик GET-запросов "/api/news?quorum=2&limit=20": постраничной выдачи по кворуму нет, и параметр,
+    // переданный клиентом, не отбрасывается молча - ответ 400 (маппинг с двумя параметрами точнее, чем params = "limit")
+    @GetMapping(params = {"quorum", "limit"})
+    public CompletableFuture<NewsPage> rejectQuorumPage() {
+        throw new IllegalArgumentException("quorum cannot be combined with limit");
+    }
+
+    // Обработчик GET-запросов "/api/news/progressive" - статьи по мере ответа источников (NDJSON, статья на строку)
+    @GetMapping(path = "/progressive", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter getProgressiveNews(
+            @RequestParam(required = false) List<String> source,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        CompletableFuture<Void> done;
+        try {
+            done = newsService.streamAggregatedNews(NewsFilter.of(source, category, from, to),
+                    items -> send(emitter, items));
+        } catch (IllegalArgumentException e) {
+            // Ответ application/x-ndjson не может содержать JSON с ошибкой - только статус и причина
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        // Поток сервлета освобождается сразу; окна отправляются из потоков загрузки источников
+        done.whenComplete((ignored, error) -> {
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    // Обработчик GET-запросов "/api/news/search?q=...&limit=20" - поиск по заголовку и описанию
+    @GetMapping("/search")
+    public CompletableFuture<List<NewsItem>> search(
+            @RequestParam String q,  // Текст запроса
+            @RequestParam(defaultValue = "20") int limit) {  // Максимум результатов
+        // Статьи со всеми словами запроса: сначала релевантные и свежие
+        return newsService.searchAsync(q, limit);
+    }
+
+    // Ответ 200 с ETag; клиент перепроверяет его при каждом запросе (no-cache), получая 304, пока снимок тот же
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
+    }
+
+    // Готовое тело снимка: байты копируются в ответ без сериализации и сжатия на запрос
+    private static ResponseEntity<byte[]> encoded(NewsSnapshot snapshot, boolean gzip) {
+        ResponseEntity.BodyBuilder response = revalidated(gzip ? snapshot.gzipEtag() : snapshot.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);  // Кэши хранят сжатый и несжатый варианты раздельно
+        return gzip ? response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip())
+                : response.body(snapshot.json());
+    }
+
+    // Принимает ли клиент gzip: "gzip" или "x-gzip" в Accept-Encoding без q=0, а если они не указаны - "*" без q=0.
+    // Явно указанная кодировка важнее "*" (RFC 9110, 12.5.3): "gzip;q=0, *" означает отказ от gzip
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;      // Вес явно указанных gzip/x-gzip (null - не указаны)
+        boolean wildcard = false; // Разрешает ли "*"
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String coding = parts[0].trim();
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                gzip = Boolean.TRUE.equals(gzip) || accepted(parts);
+            } else if (coding.equals("*")) {
+                wildcard = accepted(parts);
+            }
+        }
+        return gzip != null ? gzip : wildcard;
+    }
+
+    // Есть ли у кодировки ненулевой вес (без параметра q вес равен 1)
+    private static boolean accepted(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(param.substring(2)) > 0;
+                } catch (NumberFormatException e) {
+                    return false;  // Некорректный вес - кодировка не выбирается
+                }
+            }
+        }
+        return true;
+    }
+
+    // Отправляет окно одной записью: статьи в порядке выдачи, по одной JSON-строке
+    private void send(ResponseBodyEmitter emitter, List<NewsItem> items) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(512 * items.size());
+        try {
+            for (NewsItem item : items) {
+                lines.write(objectMapper.writeValueAsBytes(item));
+                lines.write('\n');
+            }
+            emitter.send(lines.toByteArray(), MediaType.APPLICATION_NDJSON);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // Клиент отключился - выдача прекращается
+        }
+    }
+
+    // Некорректный курсор, размер страницы или фильтр - ответ 400 вместо 500
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleBadRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
     }
 }
@@ -0,0 +1,48 @@
+package com.edu.WebScrapeApplication.controllers;
+
+import com.edu.WebScrapeApplication.model.NewsFilter;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceCatalog;
+import com.edu.WebScrapeApplication.service.stream.NewsStreamHub;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+// REST-контроллер потока новых статей (Server-Sent Events) рядом с NewsController
+@RestController
+@RequestMapping("/api/news")  // Базовый URL общий с NewsController
+public class NewsStreamController {
+
+    // Общая рассылка новых статей
+    private final NewsStreamHub streamHub;
+    // Каталог источников для проверки фильтра
+    private final NewsSourceCatalog sourceCatalog;
+
+    // Конструктор с внедрением зависимостей
+    public NewsStreamController(NewsStreamHub streamHub, NewsSourceCatalog sourceCatalog) {
+        this.streamHub = streamHub;
+        this.sourceCatalog = sourceCatalog;
+    }
+
+    // Обработчик GET-запросов "/api/news/stream?source=bbc&category=technology" - новые статьи по мере загрузки
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(required = false) List<String> source,  // Идентификаторы источников
+            @RequestParam(required = false) String category) {  // Категория источника
+        NewsFilter filter = NewsFilter.of(source, category, null, null);
+        for (String id : filter.getSources()) {
+            if (!sourceCatalog.getAllSources().containsKey(id)) {
+                // Ответ text/event-stream не может содержать JSON с ошибкой - только статус и причина
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown news source: " + id);
+            }
+        }
+        // Поток сервлета освобождается сразу; события отправляет пул NewsStreamHub
+        return streamHub.subscribe(filter);
+    }
+}
@@ -0,0 +1,48 @@
+package com.edu.WebScrapeApplication.controllers;
+
+import com.edu.WebScrapeApplication.service.fetch.NewsSource;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceCatalog;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// REST-контроллер каталога источников новостей
+@RestController
+@RequestMapping("/api/sources")  // Базовый URL для всех эндпоинтов каталога
+public class SourceController {
+
+    // Каталог источников
+    private final NewsSourceCatalog sourceCatalog;
+
+    // Конструктор с внедрением зависимостей
+    public SourceController(NewsSourceCatalog sourceCatalog) {
+        this.sourceCatalog = sourceCatalog;
+    }
+
+    // Все источники с настройками (включая выключенные) в порядке убывания веса; ключ API не выводится
+    @GetMapping
+    public Collection<NewsSource> getSources() {
+        return sourceCatalog.getAllSources().values();
+    }
+
+    // Перечитывает настройки источников без перезапуска приложения
+    @PostMapping("/reload")
+    public Map<String, Object> reload() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("changed", sourceCatalog.reload());
+        result.put("enabled", sourceCatalog.getSources().size());
+        result.put("total", sourceCatalog.getAllSources().size());
+        return result;
+    }
+
+    // Некорректные настройки или нечитаемый файл - ответ 400, прежний список источников остается в силе
+    @ExceptionHandler({IllegalArgumentException.class, UncheckedIOException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleBadConfig(RuntimeException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
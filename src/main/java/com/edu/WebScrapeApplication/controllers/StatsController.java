@@ -0,0 +1,131 @@
+package com.edu.WebScrapeApplication.controllers;
+
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import com.edu.WebScrapeApplication.service.cache.AggregatedNewsCache;
+import com.edu.WebScrapeApplication.service.fetch.FetchScheduler;
+import com.edu.WebScrapeApplication.service.ingest.NewsIngestionScheduler;
+import com.edu.WebScrapeApplication.service.resilience.CircuitBreaker;
+import com.edu.WebScrapeApplication.service.resilience.SourceCircuitBreakers;
+import com.edu.WebScrapeApplication.service.resilience.SourceHedging;
+import com.edu.WebScrapeApplication.service.search.NewsSearchIndex;
+import com.edu.WebScrapeApplication.service.store.ArticleStore;
+import com.edu.WebScrapeApplication.service.stream.NewsStreamHub;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// REST-контроллер со служебной статистикой работы агрегатора
+@RestController
+@RequestMapping("/api/stats")  // Базовый URL для всех эндпоинтов статистики
+public class StatsController {
+
+    // Кэш агрегированных новостей
+    private final AggregatedNewsCache newsCache;
+    // Пул HTTP-соединений к источникам
+    private final PoolingHttpClientConnectionManager connectionManager;
+    // Удаление дубликатов между источниками
+    private final NewsDeduplicator newsDeduplicator;
+    // Фоновый опрос источников
+    private final NewsIngestionScheduler ingestionScheduler;
+    // Хранилище статей фонового опроса
+    private final ArticleStore articleStore;
+    // Предохранители источников
+    private final SourceCircuitBreakers circuitBreakers;
+    // Хеджирование запросов к источникам
+    private final SourceHedging sourceHedging;
+    // Очередь загрузок
+    private final FetchScheduler fetchScheduler;
+    // Поисковый индекс
+    private final NewsSearchIndex searchIndex;
+    // Поток новых статей
+    private final NewsStreamHub streamHub;
+
+    // Конструктор с внедрением зависимостей
+    public StatsController(AggregatedNewsCache newsCache, PoolingHttpClientConnectionManager connectionManager,
+                           NewsDeduplicator newsDeduplicator, NewsIngestionScheduler ingestionScheduler,
+                           ArticleStore articleStore, SourceCircuitBreakers circuitBreakers,
+                           SourceHedging sourceHedging, FetchScheduler fetchScheduler,
+                           NewsSearchIndex searchIndex, NewsStreamHub streamHub) {
+        this.newsCache = newsCache;
+        this.connectionManager = connectionManager;
+        this.newsDeduplicator = newsDeduplicator;
+        this.ingestionScheduler = ingestionScheduler;
+        this.articleStore = articleStore;
+        this.circuitBreakers = circuitBreakers;
+        this.sourceHedging = sourceHedging;
+        this.fetchScheduler = fetchScheduler;
+        this.searchIndex = searchIndex;
+        this.streamHub = streamHub;
+    }
+
+    // Счетчики попаданий, промахов и обновлений кэша
+    @GetMapping("/cache")
+    public AggregatedNewsCache.CacheStats getCacheStats() {
+        return newsCache.getStats();
+    }
+
+    // Состояние пула HTTP-соединений: leased (занято), pending (ждут соединения), available (свободно), max.
+    // Растущее pending при leased == max означает исчерпание пула
+    @GetMapping("/http-pool")
+    public Map<String, PoolStats> getHttpPoolStats() {
+        Map<String, PoolStats> stats = new LinkedHashMap<>();
+        stats.put("total", connectionManager.getTotalStats());
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            stats.put(route.getTargetHost().toURI(), connectionManager.getStats(route));
+        }
+        return stats;
+    }
+
+    // Найденные дубликаты: по URL, по заголовку и по источникам, приславшим лишние копии
+    @GetMapping("/dedup")
+    public NewsDeduplicator.DedupStats getDedupStats() {
+        return newsDeduplicator.getStats();
+    }
+
+    // Фоновый опрос: состояние хранилища и опросы по источникам
+    @GetMapping("/ingestion")
+    public Map<String, Object> getIngestionStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", ingestionScheduler.isEnabled());
+        stats.put("store", articleStore.getStats());
+        stats.put("log", articleStore.getLogStats());
+        stats.put("sources", ingestionScheduler.getSourceStats());
+        return stats;
+    }
+
+    // Предохранители по источникам: состояние, переходы, задержки и текущий адаптивный таймаут
+    @GetMapping("/breakers")
+    public Map<String, CircuitBreaker.BreakerStats> getBreakerStats() {
+        return circuitBreakers.getStats();
+    }
+
+    // Хеджирование по источникам: отправленные вторые запросы, их победы и отказы по бюджету
+    @GetMapping("/hedging")
+    public Map<String, SourceHedging.HedgeStats> getHedgingStats() {
+        return sourceHedging.getStats();
+    }
+
+    // Очередь загрузок: выполняются, ждут, отклонены и вытеснены при перегрузке, ожидание в очереди
+    @GetMapping("/fetch-queue")
+    public FetchScheduler.SchedulerStats getFetchQueueStats() {
+        return fetchScheduler.getStats();
+    }
+
+    // Поисковый индекс: статьи, термы, удаленные документы и время запросов
+    @GetMapping("/search")
+    public NewsSearchIndex.SearchStats getSearchStats() {
+        return searchIndex.getStats();
+    }
+
+    // Подписчики потока /api/news/stream, разосланные статьи и переполнения очередей медленных клиентов
+    @GetMapping("/stream")
+    public NewsStreamHub.StreamStats getStreamStats() {
+        return streamHub.getStats();
+    }
+}
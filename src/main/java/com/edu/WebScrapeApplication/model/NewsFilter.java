@@ -0,0 +1,106 @@
+package com.edu.WebScrapeApplication.model;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Класс, представляющий фильтр выдачи: источники, категория источника и интервал времени публикации
+public final class NewsFilter {
+
+    // Фильтр без условий
+    public static final NewsFilter NONE = new NewsFilter(Set.of(), null, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    // Идентификаторы источников (пусто - все источники)
+    private final Set<String> sources;
+    // Категория источника (null - любая)
+    private final String category;
+    // Начало интервала включительно, мс с начала эпохи (Long.MIN_VALUE - без ограничения)
+    private final long from;
+    // Конец интервала не включительно, мс с начала эпохи (Long.MAX_VALUE - без ограничения)
+    private final long to;
+
+    private NewsFilter(Set<String> sources, String category, long from, long to) {
+        this.sources = sources;
+        this.category = category;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Собирает фильтр из параметров запроса; пустые значения не ограничивают выдачу.
+     * @param sources идентификаторы источников (null - все)
+     * @param category категория источника, без учета регистра (null - любая)
+     * @param from начало интервала в формате ISO-8601, например 2024-05-01T00:00:00Z (null - без ограничения)
+     * @param to конец интервала не включительно, в том же формате (null - без ограничения)
+     * @return фильтр ({@link #NONE}, если условий нет)
+     * @throws IllegalArgumentException время не разбирается или from не раньше to
+     */
+    public static NewsFilter of(Collection<String> sources, String category, String from, String to) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (sources != null) {
+            for (String source : sources) {
+                if (source != null && !source.isBlank()) {
+                    ids.add(source.trim());
+                }
+            }
+        }
+        String normalizedCategory = category != null && !category.isBlank()
+                ? category.trim().toLowerCase(Locale.ROOT) : null;
+        long fromMillis = parseInstant("from", from, Long.MIN_VALUE);
+        long toMillis = parseInstant("to", to, Long.MAX_VALUE);
+        if (fromMillis >= toMillis) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (ids.isEmpty() && normalizedCategory == null && fromMillis == Long.MIN_VALUE && toMillis == Long.MAX_VALUE) {
+            return NONE;
+        }
+        return new NewsFilter(Set.copyOf(ids), normalizedCategory, fromMillis, toMillis);
+    }
+
+    // Нет ни одного условия
+    public boolean isEmpty() {
+        return sources.isEmpty() && category == null && !hasTimeRange();
+    }
+
+    // Задан интервал времени (статьи без даты в него не попадают)
+    public boolean hasTimeRange() {
+        return from != Long.MIN_VALUE || to != Long.MAX_VALUE;
+    }
+
+    // Проходит ли источник с данными идентификатором и категорией
+    public boolean matchesSource(String sourceId, String sourceCategory) {
+        return (sources.isEmpty() || sources.contains(sourceId))
+                && (category == null || category.equalsIgnoreCase(sourceCategory));
+    }
+
+    // Геттер для идентификаторов источников
+    public Set<String> getSources() { return sources; }
+
+    // Геттер для категории
+    public String getCategory() { return category; }
+
+    // Геттер для начала интервала (мс)
+    public long getFrom() { return from; }
+
+    // Геттер для конца интервала (мс)
+    public long getTo() { return to; }
+
+    private static long parseInstant(String name, String value, long absent) {
+        if (value == null || value.isBlank()) {
+            return absent;
+        }
+        try {
+            return Instant.parse(value.trim()).toEpochMilli();
+        } catch (DateTimeParseException | ArithmeticException e) {
+            throw new IllegalArgumentException(name + " must be an ISO-8601 instant, e.g. 2024-05-01T00:00:00Z");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NewsFilter{sources=" + sources + ", category=" + category + ", from=" + from + ", to=" + to + "}";
+    }
+}
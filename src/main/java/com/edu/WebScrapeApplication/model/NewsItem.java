@@ -1,9 +1,14 @@
 package com.edu.WebScrapeApplication.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.Date;
 
 // Класс, представляющий одну новостную статью/запись
 public class NewsItem {
+    // Значение publishedAt, когда дата публикации не указана
+    public static final long NO_DATE = Long.MIN_VALUE;
+
     // Заголовок новости
     private String title;
 
@@ -13,24 +18,31 @@ public class NewsItem {
     // URL-адрес полной новости
     private String url;
 
-    // Дата и время публикации новости
-    private Date publishedAt;
+    // Дата и время публикации в миллисекундах с начала эпохи (NO_DATE - не указаны).
+    // Примитив вместо изменяемого Date: на статью на один объект меньше, сравнение дат без разыменования
+    private long publishedAt = NO_DATE;
 
-    // Название источника/издателя новости
+    // Название источника/издателя новости (общий экземпляр из SourceNames)
     private String sourceName;
 
     public NewsItem(String title, String description, String url, Date publishedAt, String sourceName) {
         this.title = title;
         this.description = description;
         this.url = url;
-        this.publishedAt = publishedAt;
-        this.sourceName = sourceName;
+        setPublishedAt(publishedAt);
+        setSourceName(sourceName);
     }
 
     public NewsItem() {
 
     }
 
+    // Конструктор для компактных представлений статьи, хранящих текстовые поля по-своему
+    protected NewsItem(long publishedAt, String sourceName) {
+        this.publishedAt = publishedAt;
+        this.sourceName = SourceNames.intern(sourceName);
+    }
+
     // Геттер и сеттер для заголовка
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
@@ -43,11 +55,20 @@ public class NewsItem {
     public String getUrl() { return url; }
     public void setUrl(String url) { this.url = url; }
 
-    // Геттер и сеттер для даты публикации
-    public Date getPublishedAt() { return publishedAt; }
-    public void setPublishedAt(Date publishedAt) { this.publishedAt = publishedAt; }
+    // Геттер и сеттер для даты публикации; геттер возвращает копию, изменение которой не меняет статью
+    public Date getPublishedAt() { return publishedAt == NO_DATE ? null : new Date(publishedAt); }
+    public void setPublishedAt(Date publishedAt) { this.publishedAt = publishedAt == null ? NO_DATE : publishedAt.getTime(); }
+
+    // Дата публикации в миллисекундах без создания Date (NO_DATE - не указана)
+    @JsonIgnore
+    public long getPublishedAtMillis() { return publishedAt; }
+    @JsonIgnore
+    public void setPublishedAtMillis(long publishedAt) { this.publishedAt = publishedAt; }
+
+    // Указана ли дата публикации
+    public boolean hasPublishedAt() { return publishedAt != NO_DATE; }
 
-    // Геттер и сеттер для названия источника
+    // Геттер и сеттер для названия источника; одинаковые названия хранятся одним экземпляром
     public String getSourceName() { return sourceName; }
-    public void setSourceName(String sourceName) { this.sourceName = sourceName; }
+    public void setSourceName(String sourceName) { this.sourceName = SourceNames.intern(sourceName); }
 }
@@ -0,0 +1,40 @@
+package com.edu.WebScrapeApplication.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+// Класс, представляющий одну страницу агрегированных новостей
+public class NewsPage {
+    // Новости страницы (новые сначала)
+    private final List<NewsItem> items;
+
+    // Курсор следующей страницы (null - это последняя страница)
+    private final String nextCursor;
+
+    // ETag снимка, из которого вырезана страница (null - страница собрана не из снимка)
+    private final String etag;
+
+    public NewsPage(List<NewsItem> items, String nextCursor) {
+        this(items, nextCursor, null);
+    }
+
+    public NewsPage(List<NewsItem> items, String nextCursor, String etag) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.etag = etag;
+    }
+
+    // Геттер для новостей страницы
+    public List<NewsItem> getItems() { return items; }
+
+    // Геттер для курсора следующей страницы
+    public String getNextCursor() { return nextCursor; }
+
+    // Есть ли следующая страница
+    public boolean isHasMore() { return nextCursor != null; }
+
+    // Геттер для ETag (не сериализуется - передается заголовком ответа)
+    @JsonIgnore
+    public String getEtag() { return etag; }
+}
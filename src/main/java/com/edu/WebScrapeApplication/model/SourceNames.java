@@ -0,0 +1,48 @@
+package com.edu.WebScrapeApplication.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Словарь названий источников.
+ * <p>
+ * Каждая статья NewsAPI содержит название издателя, а разбор ответа создает для него новую строку:
+ * в хранилище из миллиона статей это миллион копий нескольких десятков названий.
+ * Словарь отдает один общий экземпляр на каждое название.
+ */
+public final class SourceNames {
+
+    // Предел размера словаря: при ошибочных данных (уникальное название у каждой статьи) словарь не растет бесконечно
+    static final int MAX_SIZE = 10_000;
+
+    // Общие экземпляры названий
+    private static final Map<String, String> NAMES = new ConcurrentHashMap<>();
+
+    private SourceNames() {
+    }
+
+    /**
+     * Возвращает общий экземпляр названия.
+     * @param name название источника
+     * @return равная строка из словаря; сама строка, если словарь заполнен; null для null
+     */
+    public static String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+        String shared = NAMES.get(name);
+        if (shared != null) {
+            return shared;
+        }
+        if (NAMES.size() >= MAX_SIZE) {
+            return name;
+        }
+        shared = NAMES.putIfAbsent(name, name);
+        return shared != null ? shared : name;
+    }
+
+    // Число названий в словаре
+    public static int size() {
+        return NAMES.size();
+    }
+}
@@ -1,9 +1,14 @@
 package com.edu.WebScrapeApplication.service;
 
+import com.edu.WebScrapeApplication.model.NewsFilter;
 import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.model.NewsPage;
+import com.edu.WebScrapeApplication.service.aggregation.NewsSnapshot;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 // Интерфейс сервиса для работы с новостями
 public interface NewsService {
@@ -14,4 +19,74 @@ public interface NewsService {
      * @throws InterruptedException если выполнение было прервано
      */
     List<NewsItem> getAggregatedNews() throws ExecutionException, InterruptedException;
+
+    /**
+     * Асинхронно получает агрегированный список новостей, не блокируя вызывающий поток
+     * @return future со списком новостных статей; источники, не успевшие к общему дедлайну, пропускаются
+     */
+    CompletableFuture<List<NewsItem>> getAggregatedNewsAsync();
+
+    /**
+     * Асинхронно получает тот же снимок, что и {@link #getAggregatedNewsAsync()}, вместе с его версией для ETag
+     * @return future со снимком; версия считается один раз на снимок
+     */
+    CompletableFuture<NewsSnapshot> getSnapshotAsync();
+
+    /**
+     * Асинхронно получает новости, прошедшие фильтр. Источники, не подходящие по идентификатору
+     * или категории, не запрашиваются, а лимит news.aggregation.max-items применяется при слиянии
+     * @param filter фильтр по источнику, категории и интервалу времени
+     * @return future со списком новостных статей (новые сначала)
+     * @throws IllegalArgumentException если в фильтре указан неизвестный источник
+     */
+    CompletableFuture<List<NewsItem>> getAggregatedNewsAsync(NewsFilter filter);
+
+    /**
+     * Асинхронно получает страницу агрегированных новостей из готового снимка
+     * @param cursor курсор из предыдущей страницы (null - первая страница)
+     * @param limit размер страницы
+     * @return future со страницей новостей, курсором следующей страницы и ETag снимка
+     * @throws IllegalArgumentException если курсор поврежден или размер страницы вне допустимого диапазона
+     */
+    CompletableFuture<NewsPage> getNewsPageAsync(String cursor, int limit);
+
+    /**
+     * Асинхронно получает страницу новостей, прошедших фильтр; размер страницы ограничивает слияние
+     * @param filter фильтр по источнику, категории и интервалу времени
+     * @param cursor курсор из предыдущей страницы (null - первая страница)
+     * @param limit размер страницы
+     * @return future со страницей новостей и курсором следующей страницы
+     * @throws IllegalArgumentException если курсор поврежден, размер страницы вне допустимого диапазона
+     *                                  или в фильтре указан неизвестный источник
+     */
+    CompletableFuture<NewsPage> getNewsPageAsync(NewsFilter filter, String cursor, int limit);
+
+    /**
+     * Асинхронно получает новости, как только ответил кворум источников, не дожидаясь остальных.
+     * В ответ входят только ответившие источники; загрузка остальных продолжается в фоне и обновляет кэш
+     * @param filter фильтр по источнику, категории и интервалу времени
+     * @param quorum сколько источников должно ответить (больше, чем подходит под фильтр, - ждем все)
+     * @return future со списком новостных статей (новые сначала)
+     * @throws IllegalArgumentException если quorum меньше 1 или в фильтре указан неизвестный источник
+     */
+    CompletableFuture<List<NewsItem>> getQuorumNewsAsync(NewsFilter filter, int quorum);
+
+    /**
+     * Отдает новости по мере ответа источников: пакеты, пришедшие в одно окно news.progressive.window-millis,
+     * сливаются и передаются получателю вместе. Порядок (новые сначала) соблюдается только внутри окна
+     * @param filter фильтр по источнику, категории и интервалу времени
+     * @param window получатель окон; вызывается последовательно, исключение прекращает выдачу
+     * @return future, завершающийся после последнего окна
+     * @throws IllegalArgumentException если в фильтре указан неизвестный источник
+     */
+    CompletableFuture<Void> streamAggregatedNews(NewsFilter filter, Consumer<List<NewsItem>> window);
+
+    /**
+     * Асинхронно ищет статьи по заголовку и описанию
+     * @param query текст запроса (русский или английский)
+     * @param limit максимум результатов
+     * @return future со статьями, содержащими все слова запроса, по убыванию релевантности с учетом свежести
+     * @throws IllegalArgumentException если запрос пустой или limit вне допустимого диапазона
+     */
+    CompletableFuture<List<NewsItem>> searchAsync(String query, int limit);
 }
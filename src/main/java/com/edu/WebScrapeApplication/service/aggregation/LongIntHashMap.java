@@ -0,0 +1,67 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import java.util.Arrays;
+
+/**
+ * Хэш-таблица long -> int с открытой адресацией на примитивных массивах.
+ * <p>
+ * Емкость задается при создании по числу ключей и не растет: индекс дедупликации
+ * занимает около 12 байт на статью без объектов-оберток и узлов.
+ */
+final class LongIntHashMap {
+
+    // Значение пустой ячейки; хранимые значения неотрицательны
+    static final int ABSENT = -1;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+
+    LongIntHashMap(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedKeys) * 2 - 1) << 1;  // Заполнение не больше 50%
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, ABSENT);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Сохраняет значение, если ключа еще нет.
+     * @return ранее сохраненное значение или {@link #ABSENT}, если значение добавлено
+     */
+    int putIfAbsent(long key, int value) {
+        int slot = slot(key);
+        while (values[slot] != ABSENT) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        return ABSENT;
+    }
+
+    // Значение по ключу или ABSENT
+    int get(long key) {
+        int slot = slot(key);
+        while (values[slot] != ABSENT) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    private int slot(long key) {
+        return (int) (mix(key) >>> 32) & mask;
+    }
+
+    // Перемешивание битов (финализатор SplitMix64)
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
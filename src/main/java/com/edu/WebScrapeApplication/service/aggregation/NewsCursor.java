@@ -0,0 +1,92 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция в агрегированном списке: дата публикации и URL последней отданной статьи.
+ * <p>
+ * Клиент получает курсор в виде непрозрачной строки (base64url) и передает его обратно без изменений.
+ * Курсор не ссылается на индекс в списке, поэтому остается корректным после обновления снимка:
+ * следующая страница начинается с первой статьи, которая в порядке {@link NewsOrdering#NEWEST_FIRST}
+ * идет после запомненной позиции. Статьи с одинаковыми датой и URL считаются одной статьей.
+ */
+public final class NewsCursor {
+
+    // Дата публикации в миллисекундах (null - статья без даты)
+    private final Long publishedAt;
+    // URL статьи - ключ для упорядочивания статей с одинаковой датой
+    private final String url;
+
+    private NewsCursor(Long publishedAt, String url) {
+        this.publishedAt = publishedAt;
+        this.url = url;
+    }
+
+    // Курсор, указывающий на статью
+    public static NewsCursor after(NewsItem item) {
+        return new NewsCursor(item.hasPublishedAt() ? item.getPublishedAtMillis() : null, item.getUrl());
+    }
+
+    /**
+     * Разбирает строку курсора.
+     * @param value курсор, полученный от {@link #encode()}
+     * @return позиция в списке
+     * @throws IllegalArgumentException курсор поврежден
+     */
+    public static NewsCursor decode(String value) {
+        String text;
+        try {
+            text = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid(value);
+        }
+        // Формат: d<millis> или n, затем '|', затем u<url> или n
+        int separator = text.indexOf('|');
+        if (separator < 1 || separator == text.length() - 1) {
+            throw invalid(value);
+        }
+        String date = text.substring(0, separator);
+        String link = text.substring(separator + 1);
+
+        Long publishedAt = null;
+        if (date.charAt(0) == 'd') {
+            try {
+                publishedAt = Long.valueOf(date.substring(1));
+            } catch (NumberFormatException e) {
+                throw invalid(value);
+            }
+        } else if (!date.equals("n")) {
+            throw invalid(value);
+        }
+
+        String url = null;
+        if (link.charAt(0) == 'u') {
+            url = link.substring(1);
+        } else if (!link.equals("n")) {
+            throw invalid(value);
+        }
+        return new NewsCursor(publishedAt, url);
+    }
+
+    // Кодирует курсор в непрозрачную строку
+    public String encode() {
+        String text = (publishedAt != null ? "d" + publishedAt : "n") + "|" + (url != null ? "u" + url : "n");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Сравнивает позицию курсора со статьей в порядке {@link NewsOrdering#NEWEST_FIRST}.
+     * @return отрицательное число, если статья идет после курсора; 0 - статья на позиции курсора
+     */
+    int compareTo(NewsItem item) {
+        int result = NewsOrdering.compareDates(publishedAt, item.hasPublishedAt() ? item.getPublishedAtMillis() : null);
+        return result != 0 ? result : NewsOrdering.compareNullsLast(url, item.getUrl());
+    }
+
+    private static IllegalArgumentException invalid(String value) {
+        return new IllegalArgumentException("Invalid cursor: " + value);
+    }
+}
@@ -0,0 +1,338 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Удаление дубликатов статей, пришедших из разных запросов к NewsAPI.
+ * <p>
+ * Дубликаты ищутся двумя способами:
+ * <ul>
+ *   <li>по нормализованному URL (схема, www, фрагмент, utm-метки и завершающий слэш не учитываются) -
+ *       64-битный хэш в таблице с открытой адресацией;</li>
+ *   <li>по почти одинаковым заголовкам - MinHash по 4-символьным шинглам, кандидаты отбираются
+ *       полосами LSH и подтверждаются точным сходством Жаккара.</li>
+ * </ul>
+ * Из группы дубликатов остается самая полная копия, при равной полноте - самая ранняя.
+ * Время работы линейно по числу статей: на статью приходится не больше HASHES / ROWS проверок кандидатов.
+ * Память на время прохода - примитивные массивы размером с вход (индексы, группы и шинглы заголовков).
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsDeduplicator {
+
+    // Параметры запроса, не влияющие на содержимое страницы
+    private static final Set<String> TRACKING_PARAMS = Set.of("fbclid", "gclid", "yclid", "ref", "cmpid");
+
+    // Включено ли удаление дубликатов
+    private final boolean enabled;
+    // Порог сходства Жаккара, начиная с которого заголовки считаются одинаковыми
+    private final double titleSimilarity;
+
+    // Счетчики за все время работы
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder articles = new LongAdder();
+    private final LongAdder urlDuplicates = new LongAdder();
+    private final LongAdder titleDuplicates = new LongAdder();
+    private final Map<String, LongAdder> duplicatesBySource = new ConcurrentHashMap<>();
+
+    // Конструктор с параметрами из application.properties
+    public NewsDeduplicator(
+            @Value("${news.dedup.enabled:true}") boolean enabled,
+            @Value("${news.dedup.title-similarity:0.8}") double titleSimilarity) {
+        if (titleSimilarity <= 0 || titleSimilarity > 1) {
+            throw new IllegalArgumentException("news.dedup.title-similarity must be in (0, 1]");
+        }
+        this.enabled = enabled;
+        this.titleSimilarity = titleSimilarity;
+    }
+
+    /**
+     * Удаляет дубликаты между пакетами источников.
+     * @param batches статьи по источникам: имя источника -> статьи (не изменяются)
+     * @return пакеты без дубликатов в том же порядке; порядок статей внутри пакета сохраняется
+     */
+    public List<List<NewsItem>> deduplicate(Map<String, List<NewsItem>> batches) {
+        if (!enabled) {
+            return new ArrayList<>(batches.values());
+        }
+
+        // Все статьи в один массив с номером пакета
+        List<String> sources = new ArrayList<>(batches.keySet());
+        List<List<NewsItem>> inputs = new ArrayList<>(batches.values());
+        int total = 0;
+        for (List<NewsItem> batch : inputs) {
+            total += batch != null ? batch.size() : 0;
+        }
+        NewsItem[] items = new NewsItem[total];
+        int[] batchOf = new int[total];
+        int n = 0;
+        for (int b = 0; b < inputs.size(); b++) {
+            if (inputs.get(b) != null) {
+                for (NewsItem item : inputs.get(b)) {
+                    if (item != null) {
+                        items[n] = item;
+                        batchOf[n++] = b;
+                    }
+                }
+            }
+        }
+
+        // Группы дубликатов (система непересекающихся множеств)
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        int byUrl = groupByUrl(items, n, parent);
+        int byTitle = groupByTitle(items, n, parent);
+
+        // Лучшая копия в каждой группе
+        int[] best = new int[n];
+        Arrays.fill(best, -1);
+        for (int i = 0; i < n; i++) {
+            int root = find(parent, i);
+            if (best[root] < 0 || isBetter(items[i], items[best[root]])) {
+                best[root] = i;
+            }
+        }
+
+        // Пакеты без проигравших копий
+        int[] removed = new int[inputs.size()];
+        boolean[] keep = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            keep[i] = best[find(parent, i)] == i;
+            if (!keep[i]) {
+                removed[batchOf[i]]++;
+            }
+        }
+        List<List<NewsItem>> result = new ArrayList<>(inputs.size());
+        int position = 0;
+        for (int b = 0; b < inputs.size(); b++) {
+            List<NewsItem> batch = inputs.get(b) != null ? inputs.get(b) : List.of();
+            int size = 0;
+            while (position + size < n && batchOf[position + size] == b) {
+                size++;
+            }
+            if (removed[b] == 0 && size == batch.size()) {
+                result.add(batch);  // Пакет без дубликатов и null-элементов - отдаем как есть
+            } else {
+                List<NewsItem> kept = new ArrayList<>(size - removed[b]);
+                for (int i = position; i < position + size; i++) {
+                    if (keep[i]) {
+                        kept.add(items[i]);
+                    }
+                }
+                result.add(kept);
+            }
+            position += size;
+        }
+
+        // Статистика
+        runs.increment();
+        articles.add(n);
+        urlDuplicates.add(byUrl);
+        titleDuplicates.add(byTitle);
+        for (int b = 0; b < removed.length; b++) {
+            if (removed[b] > 0) {
+                duplicatesBySource.computeIfAbsent(sources.get(b), key -> new LongAdder()).add(removed[b]);
+            }
+        }
+        return result;
+    }
+
+    // Объединяет статьи с одинаковым нормализованным URL; возвращает число объединений
+    private static int groupByUrl(NewsItem[] items, int n, int[] parent) {
+        LongIntHashMap index = new LongIntHashMap(n);
+        int merged = 0;
+        for (int i = 0; i < n; i++) {
+            String url = normalizeUrl(items[i].getUrl());
+            if (url != null) {
+                int first = index.putIfAbsent(hash64(url), i);
+                if (first != LongIntHashMap.ABSENT && union(parent, first, i)) {
+                    merged++;
+                }
+            }
+        }
+        return merged;
+    }
+
+    // Объединяет статьи с почти одинаковыми заголовками; возвращает число объединений
+    private int groupByTitle(NewsItem[] items, int n, int[] parent) {
+        int bands = TitleShingles.HASHES / TitleShingles.ROWS;
+        LongIntHashMap buckets = new LongIntHashMap(n * bands);
+        // Шинглы уже просмотренных заголовков для проверки кандидатов (освобождаются после прохода)
+        long[][] shingleSets = new long[n][];
+        int merged = 0;
+        for (int i = 0; i < n; i++) {
+            int root = find(parent, i);
+            if (root != i && Objects.equals(items[i].getTitle(), items[root].getTitle())) {
+                continue;  // Копия по URL с тем же заголовком - группу уже представляет первая копия
+            }
+            String title = TitleShingles.normalize(items[i].getTitle());
+            if (title == null) {
+                continue;
+            }
+            long[] shingles = TitleShingles.shingles(title);
+            shingleSets[i] = shingles;
+            long[] signature = TitleShingles.signature(shingles);
+            boolean matched = false;
+            for (int band = 0; band < bands; band++) {
+                long key = TitleShingles.bandKey(signature, band);
+                int candidate = buckets.putIfAbsent(key, i);
+                if (matched || candidate == LongIntHashMap.ABSENT || find(parent, candidate) == find(parent, i)) {
+                    continue;
+                }
+                // Кандидат из LSH подтверждается точным сходством
+                if (TitleShingles.jaccard(shingles, shingleSets[candidate]) >= titleSimilarity) {
+                    matched = union(parent, candidate, i);
+                    if (matched) {
+                        merged++;
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+
+    // Полнота статьи: число заполненных полей
+    public static int completeness(NewsItem item) {
+        int score = 0;
+        score += isBlank(item.getTitle()) ? 0 : 1;
+        score += isBlank(item.getDescription()) ? 0 : 1;
+        score += isBlank(item.getUrl()) ? 0 : 1;
+        score += isBlank(item.getSourceName()) ? 0 : 1;
+        score += item.hasPublishedAt() ? 1 : 0;
+        return score;
+    }
+
+    // Лучше ли кандидат текущей копии: полнее, а при равной полноте - раньше опубликован
+    private static boolean isBetter(NewsItem candidate, NewsItem current) {
+        int difference = completeness(candidate) - completeness(current);
+        if (difference != 0) {
+            return difference > 0;
+        }
+        return candidate.hasPublishedAt() && current.hasPublishedAt()
+                && candidate.getPublishedAtMillis() < current.getPublishedAtMillis();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Нормализует URL статьи для сравнения: без схемы, www, фрагмента, меток отслеживания
+     * и завершающего слэша; хост в нижнем регистре.
+     * @return нормализованный URL или null, если URL пустой
+     */
+    public static String normalizeUrl(String url) {
+        if (isBlank(url)) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            String host = uri.getHost();
+            if (host == null) {
+                return url.trim();
+            }
+            host = host.toLowerCase(Locale.ROOT);
+            if (host.startsWith("www.")) {
+                host = host.substring(4);
+            }
+            StringBuilder normalized = new StringBuilder(url.length()).append(host);
+            if (uri.getPort() != -1 && uri.getPort() != 80 && uri.getPort() != 443) {
+                normalized.append(':').append(uri.getPort());
+            }
+            String path = uri.getRawPath();
+            if (path != null) {
+                normalized.append(path.endsWith("/") ? path.substring(0, path.length() - 1) : path);
+            }
+            String query = uri.getRawQuery();
+            if (query != null) {
+                char separator = '?';
+                for (String parameter : query.split("&")) {
+                    String name = parameter.split("=", 2)[0].toLowerCase(Locale.ROOT);
+                    if (!name.isEmpty() && !name.startsWith("utm_") && !TRACKING_PARAMS.contains(name)) {
+                        normalized.append(separator).append(parameter);
+                        separator = '&';
+                    }
+                }
+            }
+            return normalized.toString();
+        } catch (IllegalArgumentException e) {
+            return url.trim();  // Некорректный URL сравниваем как есть
+        }
+    }
+
+    // 64-битный хэш строки (FNV-1a с финальным перемешиванием)
+    public static long hash64(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return LongIntHashMap.mix(hash);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];  // Сжатие пути
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Объединяет группы; false - статьи уже в одной группе
+    private static boolean union(int[] parent, int left, int right) {
+        int leftRoot = find(parent, left);
+        int rightRoot = find(parent, right);
+        if (leftRoot == rightRoot) {
+            return false;
+        }
+        parent[Math.max(leftRoot, rightRoot)] = Math.min(leftRoot, rightRoot);
+        return true;
+    }
+
+    // Возвращает текущие значения счетчиков
+    public DedupStats getStats() {
+        Map<String, Long> bySource = new TreeMap<>();
+        duplicatesBySource.forEach((source, count) -> bySource.put(source, count.sum()));
+        return new DedupStats(runs.sum(), articles.sum(), urlDuplicates.sum(), titleDuplicates.sum(), bySource);
+    }
+
+    // Статистика дедупликации, отдаваемая через /api/stats/dedup
+    public static final class DedupStats {
+        private final long runs;
+        private final long articles;
+        private final long urlDuplicates;
+        private final long titleDuplicates;
+        private final Map<String, Long> duplicatesBySource;
+
+        public DedupStats(long runs, long articles, long urlDuplicates, long titleDuplicates,
+                          Map<String, Long> duplicatesBySource) {
+            this.runs = runs;
+            this.articles = articles;
+            this.urlDuplicates = urlDuplicates;
+            this.titleDuplicates = titleDuplicates;
+            this.duplicatesBySource = duplicatesBySource;
+        }
+
+        // Выполненные проходы дедупликации
+        public long getRuns() { return runs; }
+
+        // Статьи, прошедшие через дедупликацию
+        public long getArticles() { return articles; }
+
+        // Дубликаты, найденные по URL
+        public long getUrlDuplicates() { return urlDuplicates; }
+
+        // Дубликаты, найденные по почти одинаковому заголовку
+        public long getTitleDuplicates() { return titleDuplicates; }
+
+        // Удаленные копии по источникам
+        public Map<String, Long> getDuplicatesBySource() { return duplicatesBySource; }
+    }
+}
@@ -0,0 +1,111 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Объединение статей источников k-путевым слиянием.
+ * <p>
+ * Каждый пакет упорядочивается отдельно ({@link NewsOrdering#sortedBatch}): уже упорядоченный
+ * только проверяется, из неупорядоченного отбираются первые {@code limit} статей. Затем куча из k курсоров
+ * (по одному на источник) выдает статьи в общем порядке, пока не набрано {@code limit} штук.
+ * Стоимость - O(n) на проверку пакетов и O(limit * log k) на слияние вместо O(n log n)
+ * на сортировку общего списка.
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsMerger {
+
+    // Максимум статей в агрегированном результате (0 - без ограничения)
+    private final int maxItems;
+
+    // Конструктор с параметром из application.properties
+    public NewsMerger(@Value("${news.aggregation.max-items:1000}") int maxItems) {
+        if (maxItems < 0) {
+            throw new IllegalArgumentException("news.aggregation.max-items must not be negative");
+        }
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Объединяет пакеты с лимитом из конфигурации.
+     * @param batches статьи по источникам (не изменяются)
+     * @return первые статьи в порядке {@link NewsOrdering#NEWEST_FIRST}
+     */
+    public List<NewsItem> merge(List<List<NewsItem>> batches) {
+        return merge(batches, maxItems);
+    }
+
+    /**
+     * Объединяет пакеты и останавливается, как только набрано limit статей.
+     * @param batches статьи по источникам (не изменяются)
+     * @param limit максимум статей в результате (0 - без ограничения)
+     * @return первые статьи в порядке {@link NewsOrdering#NEWEST_FIRST}
+     */
+    public static List<NewsItem> merge(List<List<NewsItem>> batches, int limit) {
+        List<List<NewsItem>> sorted = new ArrayList<>(batches.size());
+        for (List<NewsItem> batch : batches) {
+            if (batch != null && !batch.isEmpty()) {
+                sorted.add(NewsOrdering.sortedBatch(batch, limit));
+            }
+        }
+        return mergeSorted(sorted, limit);
+    }
+
+    /**
+     * Объединяет уже упорядоченные пакеты без проверки порядка: стоимость O(limit * log k)
+     * не зависит от размера пакетов (например, срезов хранилища по интервалу времени).
+     * @param batches пакеты в порядке {@link NewsOrdering#NEWEST_FIRST} без null-элементов (не изменяются)
+     * @param limit максимум статей в результате (0 - без ограничения)
+     * @return первые статьи в порядке {@link NewsOrdering#NEWEST_FIRST}
+     */
+    public static List<NewsItem> mergeSorted(List<List<NewsItem>> batches, int limit) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, batches.size()),
+                (left, right) -> NewsOrdering.NEWEST_FIRST.compare(left.head(), right.head()));
+        long total = 0;
+        for (List<NewsItem> batch : batches) {
+            if (!batch.isEmpty()) {
+                heap.add(new Cursor(batch));
+                total += batch.size();
+            }
+        }
+
+        int size = (int) (limit > 0 ? Math.min(limit, total) : total);
+        List<NewsItem> result = new ArrayList<>(size);
+        while (result.size() < size) {
+            Cursor cursor = heap.poll();
+            result.add(cursor.head());
+            if (cursor.advance()) {
+                heap.add(cursor);  // Возвращаем источник в кучу со следующей статьей
+            }
+        }
+        return result;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    // Позиция чтения в упорядоченном пакете одного источника
+    private static final class Cursor {
+        private final List<NewsItem> items;
+        private int position;
+
+        Cursor(List<NewsItem> items) {
+            this.items = items;
+        }
+
+        NewsItem head() {
+            return items.get(position);
+        }
+
+        // Сдвигается к следующей статье; false - пакет исчерпан
+        boolean advance() {
+            return ++position < items.size();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Порядок выдачи новостей: сначала новые.
+ * <p>
+ * Статьи без даты публикации идут в конце, равные даты упорядочиваются по URL,
+ * поэтому результат не зависит от порядка ответов источников.
+ */
+public final class NewsOrdering {
+
+    // Новые сначала, без даты - в конце, при равенстве - по URL и заголовку
+    public static final Comparator<NewsItem> NEWEST_FIRST = NewsOrdering::compareNewestFirst;
+
+    private NewsOrdering() {
+    }
+
+    /**
+     * Возвращает статьи источника в порядке {@link #NEWEST_FIRST} без null-элементов.
+     * Источники обычно уже отдают статьи по убыванию даты, поэтому сначала выполняется
+     * проверка за O(n), и только неупорядоченный пакет копируется и сортируется.
+     * @param batch статьи одного источника (не изменяется)
+     * @return упорядоченный список (может быть тем же объектом)
+     */
+    public static List<NewsItem> sortedBatch(List<NewsItem> batch) {
+        return sortedBatch(batch, 0);
+    }
+
+    /**
+     * Возвращает первые limit статей источника в порядке {@link #NEWEST_FIRST} без null-элементов.
+     * Из неупорядоченного пакета больше limit статей отбираются ограниченной кучей за O(n log limit),
+     * остальные статьи не сортируются.
+     * @param batch статьи одного источника (не изменяется)
+     * @param limit сколько первых статей нужно (0 - все)
+     * @return упорядоченный список (может быть тем же объектом и содержать больше limit статей)
+     */
+    public static List<NewsItem> sortedBatch(List<NewsItem> batch, int limit) {
+        if (isSorted(batch)) {
+            return batch;
+        }
+        if (limit > 0 && batch.size() > limit) {
+            return topOf(batch, limit);
+        }
+        List<NewsItem> sorted = new ArrayList<>(batch.size());
+        for (NewsItem item : batch) {
+            if (item != null) {
+                sorted.add(item);
+            }
+        }
+        sorted.sort(NEWEST_FIRST);
+        return sorted;
+    }
+
+    // Отбирает limit первых статей: в вершине кучи - худшая из отобранных
+    private static List<NewsItem> topOf(List<NewsItem> batch, int limit) {
+        PriorityQueue<NewsItem> heap = new PriorityQueue<>(limit + 1, NEWEST_FIRST.reversed());
+        for (NewsItem item : batch) {
+            if (item == null) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(item);
+            } else if (NEWEST_FIRST.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<NewsItem> top = new ArrayList<>(heap);
+        top.sort(NEWEST_FIRST);
+        return top;
+    }
+
+    // Сравнение без промежуточных объектов: вызывается O(n) раз на каждую агрегацию
+    private static int compareNewestFirst(NewsItem left, NewsItem right) {
+        long leftDate = left.getPublishedAtMillis();
+        long rightDate = right.getPublishedAtMillis();
+        int result = leftDate != NewsItem.NO_DATE && rightDate != NewsItem.NO_DATE
+                ? Long.compare(rightDate, leftDate)
+                : Boolean.compare(leftDate == NewsItem.NO_DATE, rightDate == NewsItem.NO_DATE);  // Без даты - в конец
+        if (result == 0) {
+            result = compareNullsLast(left.getUrl(), right.getUrl());
+        }
+        if (result == 0) {
+            result = compareNullsLast(left.getTitle(), right.getTitle());
+        }
+        return result;
+    }
+
+    // Более поздняя дата (в миллисекундах) раньше; null после любой даты
+    static int compareDates(Long left, Long right) {
+        if (left == null || right == null) {
+            return left == right ? 0 : left == null ? 1 : -1;
+        }
+        return Long.compare(right, left);
+    }
+
+    static int compareNullsLast(String left, String right) {
+        if (left == null || right == null) {
+            return left == right ? 0 : left == null ? 1 : -1;
+        }
+        return left.compareTo(right);
+    }
+
+    // Проверяет, что пакет без null-элементов и уже упорядочен
+    static boolean isSorted(List<NewsItem> batch) {
+        NewsItem previous = null;
+        for (NewsItem item : batch) {
+            if (item == null || previous != null && NEWEST_FIRST.compare(previous, item) > 0) {
+                return false;
+            }
+            previous = item;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,116 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsFilter;
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.model.NewsPage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Постраничная выдача из готового снимка, упорядоченного по {@link NewsOrdering#NEWEST_FIRST}.
+ * <p>
+ * Начало страницы ищется двоичным поиском по курсору, поэтому стоимость страницы -
+ * O(log n + limit), а не O(n): снимок не копируется и не сортируется заново.
+ * <p>
+ * Выдача с фильтром строится из упорядоченных пакетов источников, уже отобранных по источнику и категории:
+ * интервал времени и курсор превращаются в границы среза каждого пакета (двоичный поиск),
+ * а лимит применяется при k-путевом слиянии срезов - O(k log n + limit log k).
+ */
+public final class NewsPaginator {
+
+    private NewsPaginator() {
+    }
+
+    /**
+     * Возвращает страницу, начинающуюся сразу после курсора.
+     * @param snapshot упорядоченный список с произвольным доступом (снимок кэша)
+     * @param after позиция последней статьи предыдущей страницы (null - первая страница)
+     * @param limit размер страницы
+     * @return страница и курсор следующей страницы
+     */
+    public static NewsPage page(List<NewsItem> snapshot, NewsCursor after, int limit) {
+        int from = after != null ? firstAfter(snapshot, after) : 0;
+        int to = Math.min(snapshot.size(), from + limit);
+        List<NewsItem> items = new ArrayList<>(snapshot.subList(from, to));
+        String nextCursor = to < snapshot.size() && to > from ? NewsCursor.after(snapshot.get(to - 1)).encode() : null;
+        return new NewsPage(items, nextCursor);
+    }
+
+    /**
+     * Возвращает страницу статей, прошедших фильтр по времени, из нескольких упорядоченных пакетов.
+     * @param batches пакеты источников в порядке {@link NewsOrdering#NEWEST_FIRST} без null-элементов
+     * @param filter фильтр (используется только интервал времени: пакеты уже отобраны по источнику)
+     * @param after позиция последней статьи предыдущей страницы (null - первая страница)
+     * @param limit размер страницы
+     * @return страница и курсор следующей страницы
+     */
+    public static NewsPage page(List<List<NewsItem>> batches, NewsFilter filter, NewsCursor after, int limit) {
+        // Одна лишняя статья показывает, есть ли следующая страница
+        List<NewsItem> items = select(batches, filter, after, limit + 1);
+        if (items.size() <= limit) {
+            return new NewsPage(items, null);
+        }
+        List<NewsItem> page = new ArrayList<>(items.subList(0, limit));
+        return new NewsPage(page, NewsCursor.after(page.get(limit - 1)).encode());
+    }
+
+    /**
+     * Выбирает первые статьи, прошедшие фильтр по времени, из нескольких упорядоченных пакетов.
+     * @param batches пакеты источников в порядке {@link NewsOrdering#NEWEST_FIRST} без null-элементов
+     * @param filter фильтр (используется только интервал времени)
+     * @param after курсор (null - с начала)
+     * @param limit максимум статей (0 - без ограничения)
+     * @return статьи в порядке {@link NewsOrdering#NEWEST_FIRST}
+     */
+    public static List<NewsItem> select(List<List<NewsItem>> batches, NewsFilter filter, NewsCursor after, int limit) {
+        List<List<NewsItem>> slices = new ArrayList<>(batches.size());
+        for (List<NewsItem> batch : batches) {
+            int from = 0;
+            int to = batch.size();
+            if (filter.hasTimeRange()) {
+                // Статьи не позже конца интервала (to не включительно) и не раньше его начала; без даты - не входят
+                from = firstOlderThan(batch, filter.getTo());
+                to = firstOlderThan(batch, filter.getFrom());
+            }
+            if (after != null) {
+                from = Math.max(from, firstAfter(batch, after));
+            }
+            if (from < to) {
+                slices.add(batch.subList(from, to));
+            }
+        }
+        return NewsMerger.mergeSorted(slices, limit);
+    }
+
+    // Индекс первой статьи без даты или опубликованной раньше bound (в порядке NEWEST_FIRST это суффикс списка)
+    private static int firstOlderThan(List<NewsItem> batch, long bound) {
+        int low = 0;
+        int high = batch.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            NewsItem item = batch.get(middle);
+            if (item.hasPublishedAt() && item.getPublishedAtMillis() >= bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Индекс первой статьи, идущей строго после курсора
+    private static int firstAfter(List<NewsItem> snapshot, NewsCursor cursor) {
+        int low = 0;
+        int high = snapshot.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cursor.compareTo(snapshot.get(middle)) >= 0) {
+                low = middle + 1;  // Статья на позиции курсора или раньше
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
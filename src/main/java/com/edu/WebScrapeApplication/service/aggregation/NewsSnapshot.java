@@ -0,0 +1,159 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Неизменяемый снимок агрегированных новостей, его версия для ETag и готовое тело ответа.
+ * <p>
+ * Версия - SHA-256 (первые 128 бит) полей всех статей в порядке выдачи: одинаковое содержимое дает одинаковую
+ * версию и после пересборки снимка, поэтому ответ 304 возможен, пока статьи не изменились, а разное содержимое
+ * совпадает по версии лишь с криптографически малой вероятностью. Расчет - один проход по снимку без сериализации.
+ * <p>
+ * JSON и его gzip-вариант кодируются один раз на снимок - при первом обращении, - после чего каждый запрос
+ * только копирует байты в ответ. Одновременные первые обращения ждут одно кодирование.
+ */
+public final class NewsSnapshot {
+
+    // Статьи снимка (не изменяются)
+    private final List<NewsItem> items;
+    // Версия содержимого (шестнадцатеричная строка)
+    private final String version;
+    // Сериализатор тела (настройки ObjectMapper приложения)
+    private final ObjectWriter writer;
+    // Закодированное тело (null - еще не запрашивалось)
+    private volatile Encoded encoded;
+
+    private NewsSnapshot(List<NewsItem> items, String version, ObjectWriter writer) {
+        this.items = items;
+        this.version = version;
+        this.writer = writer;
+    }
+
+    /**
+     * Снимок с версией, рассчитанной по статьям.
+     * @param items статьи (не изменяются после создания снимка)
+     * @param writer сериализатор, дающий тот же JSON, что и ответ контроллера
+     */
+    public static NewsSnapshot of(List<NewsItem> items, ObjectWriter writer) {
+        return new NewsSnapshot(items, version(items), writer);
+    }
+
+    public List<NewsItem> items() { return items; }
+
+    public String version() { return version; }
+
+    // Значение заголовка ETag (сильный валидатор: один снимок сериализуется побайтно одинаково)
+    public String etag() {
+        return "\"" + version + "\"";
+    }
+
+    // ETag gzip-варианта: другое представление - другой сильный валидатор
+    public String gzipEtag() {
+        return "\"" + version + "-gzip\"";
+    }
+
+    // JSON-массив статей (общий для всех запросов массив - не изменять)
+    public byte[] json() {
+        return encoded().json;
+    }
+
+    // Тот же JSON, сжатый gzip (общий для всех запросов массив - не изменять)
+    public byte[] gzip() {
+        return encoded().gzip;
+    }
+
+    // Кодирует тело при первом обращении; снимок неизменяем, поэтому результат не устаревает
+    private Encoded encoded() {
+        Encoded result = encoded;
+        if (result == null) {
+            synchronized (this) {
+                result = encoded;
+                if (result == null) {
+                    result = encode();
+                    encoded = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Encoded encode() {
+        try {
+            byte[] json = writer.writeValueAsBytes(items);
+            // Сжатие выполняется один раз на снимок, поэтому уровень максимальный
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzip.write(json);
+            }
+            return new Encoded(json, compressed.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // Ошибка сериализации; ByteArrayOutputStream сам не бросает IOException
+        }
+    }
+
+    // Дайджест полей, попадающих в JSON ответа, и порядка статей
+    static String version(List<NewsItem> items) {
+        MessageDigest digest = sha256();
+        ByteBuffer number = ByteBuffer.allocate(Long.BYTES);
+        update(digest, number, items.size());
+        for (NewsItem item : items) {
+            update(digest, number, item.getUrl());
+            update(digest, number, item.getTitle());
+            update(digest, number, item.getDescription());
+            update(digest, number, item.getSourceName());
+            update(digest, number, item.getPublishedAtMillis());
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    // Строка с длиной перед ней, чтобы границы полей не сдвигались; null (-1) и пустая строка (0) различаются
+    private static void update(MessageDigest digest, ByteBuffer number, String value) {
+        if (value == null) {
+            update(digest, number, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        update(digest, number, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void update(MessageDigest digest, ByteBuffer number, long value) {
+        digest.update(number.clear().putLong(value).array());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);  // Обязателен в любой реализации Java
+        }
+    }
+
+    // Тело ответа в двух кодировках
+    private static final class Encoded {
+        private final byte[] json;
+        private final byte[] gzip;
+
+        private Encoded(byte[] json, byte[] gzip) {
+            this.json = json;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsFilter;
+import com.edu.WebScrapeApplication.model.NewsItem;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Выдача статей окнами по мере ответа источников.
+ * <p>
+ * Пакеты, пришедшие за {@code windowMillis} от первого пакета окна, сливаются и передаются получателю
+ * одним списком: внутри окна статьи упорядочены (новые сначала), между окнами порядок не гарантируется.
+ * Статья, уже отданная в одном из окон, повторно не отдается (по нормализованному URL).
+ * Получатель вызывается последовательно - не больше одного окна одновременно.
+ */
+public final class NewsWindowEmitter {
+
+    // Фильтр (используется интервал времени)
+    private final NewsFilter filter;
+    // Длительность окна в миллисекундах (0 - каждый пакет сразу)
+    private final long windowMillis;
+    // Получатель окон; исключение получателя (клиент отключился) прекращает выдачу
+    private final Consumer<List<NewsItem>> sink;
+    // Пакеты текущего окна (добавляются без блокировки из потоков загрузки)
+    private final ConcurrentLinkedQueue<List<NewsItem>> pending = new ConcurrentLinkedQueue<>();
+    // Запланирован ли сброс текущего окна
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // Завершается после последнего окна
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    // Хэши отданных URL (под монитором this)
+    private final Set<Long> sent = new HashSet<>();
+    // Сколько статей еще можно отдать (под монитором this)
+    private int remaining;
+
+    /**
+     * @param filter фильтр выдачи (источники уже отобраны, здесь применяется интервал времени)
+     * @param limit максимум статей во всех окнах (0 - без ограничения)
+     * @param windowMillis длительность окна
+     * @param sink получатель окон
+     */
+    public NewsWindowEmitter(NewsFilter filter, int limit, long windowMillis, Consumer<List<NewsItem>> sink) {
+        this.filter = filter;
+        this.remaining = limit > 0 ? limit : Integer.MAX_VALUE;
+        this.windowMillis = windowMillis;
+        this.sink = sink;
+    }
+
+    /**
+     * Добавляет пакет источника; окно сбрасывается через windowMillis после своего первого пакета.
+     * @param batch статьи в порядке {@link NewsOrdering#NEWEST_FIRST} без null-элементов
+     */
+    public void offer(List<NewsItem> batch) {
+        if (batch == null || batch.isEmpty() || completion.isDone()) {
+            return;
+        }
+        pending.add(batch);
+        if (windowMillis <= 0) {
+            flush();
+        } else if (scheduled.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(this::flush,
+                    CompletableFuture.delayedExecutor(windowMillis, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    // Отдает оставшиеся пакеты, не дожидаясь окна, и завершает выдачу
+    public synchronized void finish() {
+        if (!completion.isDone()) {
+            emitPending();
+            completion.complete(null);
+        }
+    }
+
+    // Прекращает выдачу с ошибкой; уже отданные окна остаются у получателя
+    public synchronized void fail(Throwable error) {
+        pending.clear();
+        completion.completeExceptionally(error);
+    }
+
+    // Future, завершающийся после последнего окна (с ошибкой, если выдача прервана)
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    // Сбрасывает окно по таймеру
+    private void flush() {
+        // Флаг снимается до разбора очереди: пакет, пришедший во время сброса, запланирует следующее окно
+        scheduled.set(false);
+        synchronized (this) {
+            if (!completion.isDone()) {
+                emitPending();
+            }
+        }
+    }
+
+    // Сливает накопленные пакеты и передает новые статьи получателю (под монитором this)
+    private void emitPending() {
+        List<List<NewsItem>> batches = new ArrayList<>();
+        for (List<NewsItem> batch = pending.poll(); batch != null; batch = pending.poll()) {
+            batches.add(batch);
+        }
+        if (batches.isEmpty() || remaining == 0) {
+            return;
+        }
+        List<NewsItem> window = new ArrayList<>();
+        for (NewsItem item : NewsPaginator.select(batches, filter, null, 0)) {
+            String key = NewsDeduplicator.normalizeUrl(item.getUrl());
+            if (key == null || sent.add(NewsDeduplicator.hash64(key))) {
+                window.add(item);
+                if (window.size() == remaining) {
+                    break;
+                }
+            }
+        }
+        if (window.isEmpty()) {
+            return;
+        }
+        remaining -= window.size();
+        try {
+            sink.accept(window);
+        } catch (RuntimeException e) {
+            pending.clear();
+            completion.completeExceptionally(e);
+        }
+    }
+}
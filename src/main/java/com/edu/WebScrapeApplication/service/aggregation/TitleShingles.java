@@ -0,0 +1,139 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import java.util.Arrays;
+
+/**
+ * Шинглы заголовка и MinHash-сигнатура для поиска почти одинаковых заголовков.
+ * <p>
+ * Шингл - 4 подряд идущих символа нормализованного заголовка, упакованные в long без потерь
+ * (4 x 16 бит), поэтому точное сходство Жаккара не искажается коллизиями хэшей.
+ * Подходит для русского и английского текста: учитываются любые буквы и цифры Unicode.
+ */
+final class TitleShingles {
+
+    // Длина шингла в символах
+    static final int SHINGLE = 4;
+    // Число хэш-функций MinHash
+    static final int HASHES = 16;
+    // Строк сигнатуры в одной полосе LSH (полос - HASHES / ROWS)
+    static final int ROWS = 2;
+
+    // Заголовки короче (после нормализации) не сравниваются: у коротких заголовков слишком много совпадений
+    static final int MIN_LENGTH = 20;
+
+    // Разделитель издателя в заголовках NewsAPI: "Заголовок - BBC News"
+    private static final String PUBLISHER_SEPARATOR = " - ";
+    // Максимальная длина суффикса с названием издателя
+    private static final int MAX_PUBLISHER_LENGTH = 40;
+
+    // Соли хэш-функций MinHash
+    private static final long[] SALTS = new long[HASHES];
+
+    static {
+        for (int i = 0; i < HASHES; i++) {
+            SALTS[i] = LongIntHashMap.mix(i + 1);
+        }
+    }
+
+    private TitleShingles() {
+    }
+
+    /**
+     * Приводит заголовок к виду для сравнения: без суффикса издателя, в нижнем регистре,
+     * знаки препинания и пробелы заменены одним пробелом.
+     * @return нормализованный заголовок или null, если он короче {@link #MIN_LENGTH}
+     */
+    static String normalize(String title) {
+        if (title == null) {
+            return null;
+        }
+        int suffix = title.lastIndexOf(PUBLISHER_SEPARATOR);
+        if (suffix >= MIN_LENGTH && title.length() - suffix - PUBLISHER_SEPARATOR.length() <= MAX_PUBLISHER_LENGTH) {
+            title = title.substring(0, suffix);
+        }
+        StringBuilder normalized = new StringBuilder(title.length());
+        boolean space = true;  // Не начинаем с пробела
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.length() >= MIN_LENGTH ? normalized.toString() : null;
+    }
+
+    // Отсортированные уникальные шинглы нормализованного заголовка
+    static long[] shingles(String normalized) {
+        int count = normalized.length() - SHINGLE + 1;
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            long shingle = 0;
+            for (int j = 0; j < SHINGLE; j++) {
+                shingle = (shingle << 16) | normalized.charAt(i + j);
+            }
+            result[i] = shingle;
+        }
+        Arrays.sort(result);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[unique++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, unique);
+    }
+
+    // MinHash-сигнатура: минимум каждой из HASHES хэш-функций по всем шинглам.
+    // Шингл перемешивается один раз, i-я функция - биекция (xor с солью и умножение на нечетное число)
+    static long[] signature(long[] shingles) {
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            long base = LongIntHashMap.mix(shingle);
+            for (int i = 0; i < HASHES; i++) {
+                long hash = (base ^ SALTS[i]) * 0x9E3779B97F4A7C15L;
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // Ключ полосы LSH: заголовки с одинаковым ключом хотя бы одной полосы - кандидаты в дубликаты
+    static long bandKey(long[] signature, int band) {
+        long key = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            key = LongIntHashMap.mix(key ^ signature[i]);
+        }
+        return key;
+    }
+
+    // Точное сходство Жаккара двух отсортированных множеств шинглов
+    static double jaccard(long[] left, long[] right) {
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = left.length + right.length - common;
+        return union == 0 ? 0 : (double) common / union;
+    }
+}
@@ -0,0 +1,209 @@
+package com.edu.WebScrapeApplication.service.cache;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Кэш агрегированного списка новостей со стратегией stale-while-revalidate.
+ * <p>
+ * Пока снимок свежий (моложе TTL), он отдается без обращения к источникам.
+ * После истечения TTL снимок еще {@code staleSeconds} секунд отдается как есть,
+ * а в фоне запускается одно обновление. Одновременные промахи разделяют
+ * одну загрузку (single-flight), поэтому всплеск запросов не множит запросы к NewsAPI.
+ * Загрузка асинхронная: ни промах, ни фоновое обновление не занимают отдельный поток.
+ */
+@Component  // Помечает класс как компонент Spring
+public class AggregatedNewsCache {
+
+    // Время жизни свежего снимка в миллисекундах
+    private final long ttlMillis;
+    // Сколько миллисекунд после TTL можно отдавать устаревший снимок
+    private final long staleMillis;
+    // Источник текущего времени (подменяется в тестах)
+    private final LongSupplier clock;
+
+    // Последний успешно загруженный снимок
+    private volatile Snapshot snapshot;
+    // Загрузка, выполняющаяся в данный момент (single-flight)
+    private final AtomicReference<CompletableFuture<List<NewsItem>>> inFlight = new AtomicReference<>();
+
+    // Счетчики обращений к кэшу
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+
+    // Конструктор для Spring: параметры берутся из application.properties
+    @Autowired
+    public AggregatedNewsCache(
+            @Value("${news.cache.ttl.seconds:60}") long ttlSeconds,
+            @Value("${news.cache.stale.seconds:240}") long staleSeconds) {
+        this(TimeUnit.SECONDS.toMillis(ttlSeconds), TimeUnit.SECONDS.toMillis(staleSeconds), System::currentTimeMillis);
+    }
+
+    // Конструктор с явным источником времени (используется в тестах)
+    AggregatedNewsCache(long ttlMillis, long staleMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.staleMillis = staleMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Возвращает снимок из кэша или загружает его через {@code loader}.
+     * @param loader функция полной агрегации новостей (не блокирует вызывающий поток)
+     * @return future со списком новостей (неизменяемым)
+     */
+    public CompletableFuture<List<NewsItem>> getAsync(Supplier<CompletableFuture<List<NewsItem>>> loader) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            long age = clock.getAsLong() - current.loadedAt;
+            if (age < ttlMillis) {
+                // Свежий снимок - отдаем без обращения к источникам
+                hits.increment();
+                return CompletableFuture.completedFuture(current.items);
+            }
+            if (age < ttlMillis + staleMillis) {
+                // Устаревший снимок - отдаем сразу и обновляем в фоне
+                staleHits.increment();
+                load(loader, current, refreshes);
+                return CompletableFuture.completedFuture(current.items);
+            }
+        }
+
+        // Снимка нет или он слишком старый - ждем загрузку (общую для всех одновременных промахов)
+        misses.increment();
+        return load(loader, current, null);
+    }
+
+    // Запускает загрузку, если она еще не выполняется, иначе возвращает текущую
+    private CompletableFuture<List<NewsItem>> load(Supplier<CompletableFuture<List<NewsItem>>> loader,
+                                                   Snapshot observed, LongAdder counter) {
+        while (true) {
+            CompletableFuture<List<NewsItem>> existing = inFlight.get();
+            if (existing != null) {
+                return existing;  // Присоединяемся к уже идущей загрузке
+            }
+            Snapshot latest = snapshot;
+            if (latest != null && latest != observed) {
+                // Пока мы решали, другая загрузка уже опубликовала новый снимок
+                return CompletableFuture.completedFuture(latest.items);
+            }
+            CompletableFuture<List<NewsItem>> created = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, created)) {
+                loads.increment();
+                if (counter != null) {
+                    counter.increment();
+                }
+                startLoad(loader, created);
+                return created;
+            }
+        }
+    }
+
+    // Запускает загрузку и публикует новый снимок по ее завершении
+    private void startLoad(Supplier<CompletableFuture<List<NewsItem>>> loader, CompletableFuture<List<NewsItem>> target) {
+        CompletableFuture<List<NewsItem>> loading;
+        try {
+            loading = loader.get();
+        } catch (Throwable e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((items, error) -> {
+            List<NewsItem> published = null;
+            try {
+                if (error == null) {
+                    published = Collections.unmodifiableList(new ArrayList<>(items));
+                    snapshot = new Snapshot(published, clock.getAsLong());
+                }
+            } catch (RuntimeException e) {
+                error = e;
+            } finally {
+                // Загрузка снимается до пробуждения ожидающих: их следующий запрос не должен
+                // присоединиться к уже завершенной загрузке вместо новой
+                inFlight.compareAndSet(target, null);
+            }
+            if (error != null) {
+                loadFailures.increment();
+                target.completeExceptionally(error);
+            } else {
+                target.complete(published);
+            }
+        });
+    }
+
+    // Сбрасывает снимок, следующий запрос загрузит данные заново
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    // Возвращает текущие значения счетчиков
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), staleHits.sum(), misses.sum(), refreshes.sum(),
+                loads.sum(), loadFailures.sum());
+    }
+
+    // Снимок агрегированных новостей с моментом загрузки
+    private static final class Snapshot {
+        private final List<NewsItem> items;
+        private final long loadedAt;
+
+        private Snapshot(List<NewsItem> items, long loadedAt) {
+            this.items = items;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    // Статистика кэша, отдаваемая через /api/stats/cache
+    public static final class CacheStats {
+        private final long hits;
+        private final long staleHits;
+        private final long misses;
+        private final long refreshes;
+        private final long loads;
+        private final long loadFailures;
+
+        public CacheStats(long hits, long staleHits, long misses, long refreshes, long loads, long loadFailures) {
+            this.hits = hits;
+            this.staleHits = staleHits;
+            this.misses = misses;
+            this.refreshes = refreshes;
+            this.loads = loads;
+            this.loadFailures = loadFailures;
+        }
+
+        // Запросы, обслуженные свежим снимком
+        public long getHits() { return hits; }
+
+        // Запросы, обслуженные устаревшим снимком во время фонового обновления
+        public long getStaleHits() { return staleHits; }
+
+        // Запросы, которым пришлось ждать загрузку
+        public long getMisses() { return misses; }
+
+        // Запущенные фоновые обновления
+        public long getRefreshes() { return refreshes; }
+
+        // Фактические обращения к источникам (fan-out)
+        public long getLoads() { return loads; }
+
+        // Загрузки, завершившиеся ошибкой
+        public long getLoadFailures() { return loadFailures; }
+
+        // Сколько обращений к источникам сэкономил кэш
+        public long getUpstreamCallsSaved() { return Math.max(0, hits + staleHits + misses - loads); }
+    }
+}
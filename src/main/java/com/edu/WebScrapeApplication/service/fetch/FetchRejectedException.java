@@ -0,0 +1,11 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import java.util.concurrent.RejectedExecutionException;
+
+// Загрузка не выполнялась: очередь FetchScheduler переполнена или задачу вытеснила более важная
+public class FetchRejectedException extends RejectedExecutionException {
+
+    public FetchRejectedException(String message) {
+        super(message);
+    }
+}
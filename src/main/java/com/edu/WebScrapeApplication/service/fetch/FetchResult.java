@@ -0,0 +1,74 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+
+import java.util.List;
+
+// Результат загрузки источника: статьи и объем прочитанного ответа
+public final class FetchResult {
+
+    // Разобранные статьи
+    private final List<NewsItem> items;
+    // Прочитано байт тела ответа (после распаковки gzip)
+    private final long bytes;
+    // Время до получения заголовков ответа (нс)
+    private final long fetchNanos;
+    // Время чтения и разбора тела ответа (нс)
+    private final long parseNanos;
+    // Ожидание в очереди FetchScheduler до начала загрузки (нс)
+    private final long queueNanos;
+    // Ошибка запроса или разбора (null - ответ получен)
+    private final Exception error;
+    // Источник ответил 304 Not Modified: статьи взяты из предыдущего ответа без чтения и разбора тела
+    private final boolean notModified;
+
+    public FetchResult(List<NewsItem> items, long bytes) {
+        this(items, bytes, 0, 0, 0, null, false);
+    }
+
+    public FetchResult(List<NewsItem> items, long bytes, long fetchNanos, long parseNanos) {
+        this(items, bytes, fetchNanos, parseNanos, 0, null, false);
+    }
+
+    private FetchResult(List<NewsItem> items, long bytes, long fetchNanos, long parseNanos, long queueNanos,
+                        Exception error, boolean notModified) {
+        this.items = items;
+        this.bytes = bytes;
+        this.fetchNanos = fetchNanos;
+        this.parseNanos = parseNanos;
+        this.queueNanos = queueNanos;
+        this.error = error;
+        this.notModified = notModified;
+    }
+
+    // Неудачная загрузка: статей нет, ошибка сохраняется для статистики и предохранителя
+    public static FetchResult failed(Exception error) {
+        return new FetchResult(List.of(), 0, 0, 0, 0, error, false);
+    }
+
+    // Ответ 304 Not Modified: статьи предыдущего ответа, тело не передавалось
+    public static FetchResult notModified(List<NewsItem> items, long fetchNanos) {
+        return new FetchResult(items, 0, fetchNanos, 0, 0, null, true);
+    }
+
+    // Тот же результат с учетом ожидания в очереди
+    public FetchResult withQueueNanos(long queueNanos) {
+        return new FetchResult(items, bytes, fetchNanos, parseNanos, queueNanos, error, notModified);
+    }
+
+    public List<NewsItem> getItems() { return items; }
+
+    public long getBytes() { return bytes; }
+
+    public long getFetchNanos() { return fetchNanos; }
+
+    public long getParseNanos() { return parseNanos; }
+
+    public long getQueueNanos() { return queueNanos; }
+
+    public Exception getError() { return error; }
+
+    public boolean isFailed() { return error != null; }
+
+    public boolean isNotModified() { return notModified; }
+}
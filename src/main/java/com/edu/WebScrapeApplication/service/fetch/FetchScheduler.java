@@ -0,0 +1,382 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import com.edu.WebScrapeApplication.config.ExecutorMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограниченная очередь загрузок с приоритетами перед пулом потоков.
+ * <p>
+ * В пул одновременно передается не больше {@code news.fetch.max-in-flight} задач, поэтому собственная
+ * неограниченная очередь пула не растет. Остальные задачи ждут здесь, в очереди емкостью
+ * {@code news.fetch.queue.capacity}, упорядоченной по приоритету: вес источника, умноженный на его
+ * несвежесть (сколько интервалов опроса прошло с последнего успешного ответа, не больше {@link #MAX_STALENESS}).
+ * Задача запускается, только когда свободны разрешения хоста и источника, поэтому ожидание лимитов
+ * не занимает потоки пула.
+ * <p>
+ * При переполнении вытесняется задача с наименьшим приоритетом, а если новая не важнее ее - отклоняется новая;
+ * future такой задачи завершается {@link FetchRejectedException}. Задача, отмененная вызывающим
+ * (например, по таймауту запроса), сразу удаляется из очереди.
+ */
+@Component  // Помечает класс как компонент Spring
+public class FetchScheduler {
+
+    // Предельная несвежесть источника в интервалах опроса
+    static final double MAX_STALENESS = 4.0;
+
+    // Порядок очереди: больший приоритет первым, при равном - раньше поставленная
+    private static final Comparator<Task<?>> ORDER = Comparator.<Task<?>>comparingDouble(task -> -task.priority)
+            .thenComparingLong(task -> task.sequence);
+
+    // Пул потоков загрузки
+    private final ExecutorService executorService;
+    // Лимит одновременных запросов к хосту
+    private final HostConcurrencyLimiter hostLimiter;
+    // Максимум задач, переданных в пул
+    private final int maxInFlight;
+    // Емкость очереди ожидания
+    private final int queueCapacity;
+    // Источник времени для несвежести (мс)
+    private final LongSupplier clock;
+
+    // Ожидающие задачи (под монитором this)
+    private final TreeSet<Task<?>> queue = new TreeSet<>(ORDER);
+    // Время последнего успешного ответа по источникам (мс)
+    private final Map<String, Long> lastSuccessAt = new ConcurrentHashMap<>();
+
+    // Счетчики (под монитором this)
+    private int running;
+    private long sequence;
+    private long submitted;
+    private long started;
+    private long rejected;
+    private long shed;
+    private long cancelled;
+    private int maxQueued;
+    private long queueNanosTotal;
+    private long queueNanosMax;
+
+    // Конструктор с параметрами из application.properties; max-in-flight = 0 - по режиму пула
+    // (размер пула для fixed, большой предел для virtual)
+    @Autowired
+    public FetchScheduler(
+            ExecutorService newsExecutorService,
+            HostConcurrencyLimiter hostLimiter,
+            @Value("${news.executor.mode:fixed}") String executorMode,
+            @Value("${news.executor.pool-size:5}") int poolSize,
+            @Value("${news.fetch.max-in-flight:0}") int maxInFlight,
+            @Value("${news.fetch.queue.capacity:256}") int queueCapacity) {
+        this(newsExecutorService, hostLimiter,
+                maxInFlight > 0 ? maxInFlight : ExecutorMode.fromProperty(executorMode).defaultMaxInFlight(poolSize),
+                queueCapacity, System::currentTimeMillis);
+    }
+
+    // Конструктор с явным лимитом одновременных загрузок
+    public FetchScheduler(ExecutorService executorService, HostConcurrencyLimiter hostLimiter, int maxInFlight,
+                          int queueCapacity) {
+        this(executorService, hostLimiter, maxInFlight, queueCapacity, System::currentTimeMillis);
+    }
+
+    // Конструктор для тестов: управляемые часы
+    FetchScheduler(ExecutorService executorService, HostConcurrencyLimiter hostLimiter, int maxInFlight,
+                   int queueCapacity, LongSupplier clock) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("news.fetch.max-in-flight must be positive");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("news.fetch.queue.capacity must not be negative");
+        }
+        this.executorService = executorService;
+        this.hostLimiter = hostLimiter;
+        this.maxInFlight = maxInFlight;
+        this.queueCapacity = queueCapacity;
+        this.clock = clock;
+    }
+
+    // Загрузка, получающая время ожидания в очереди
+    @FunctionalInterface
+    public interface FetchTask<T> {
+        T run(long queueNanos) throws Exception;
+    }
+
+    /**
+     * Ставит загрузку в очередь. Ошибка или отмена возвращенного future удаляет ожидающую задачу
+     * из очереди или прерывает выполняющуюся.
+     * @param source источник (null - без лимита источника, приоритет 1)
+     * @param url адрес запроса (определяет хост)
+     * @param action загрузка
+     * @return future результата; {@link FetchRejectedException}, если задача отклонена или вытеснена
+     */
+    public <T> CompletableFuture<T> submit(NewsSource source, String url, FetchTask<T> action) {
+        Task<T> task = new Task<>(source, HostConcurrencyLimiter.hostOf(url), action, priority(source));
+        task.result.whenComplete((value, error) -> {
+            if (error != null) {
+                cancel(task);
+            }
+        });
+
+        Task<?> victim = null;
+        boolean accepted = true;
+        boolean startNow = false;
+        synchronized (this) {
+            submitted++;
+            task.sequence = sequence++;
+            if (tryReserve(task)) {
+                startNow = true;
+            } else if (queue.size() < queueCapacity) {
+                enqueue(task);
+            } else if (!queue.isEmpty() && ORDER.compare(task, queue.last()) < 0) {
+                victim = queue.pollLast();  // Вытесняем наименее важную задачу
+                shed++;
+                enqueue(task);
+            } else {
+                rejected++;
+                accepted = false;
+            }
+        }
+        if (victim != null) {
+            victim.result.completeExceptionally(new FetchRejectedException("Fetch shed by a higher-priority request"));
+        }
+        if (!accepted) {
+            task.result.completeExceptionally(new FetchRejectedException("Fetch queue is full"));
+        } else if (startNow) {
+            start(task);
+        }
+        return task.result;
+    }
+
+    // Отмечает успешный ответ источника: его следующие загрузки получают меньший приоритет
+    public void recordSuccess(String sourceId) {
+        lastSuccessAt.put(sourceId, clock.getAsLong());
+    }
+
+    // Приоритет: вес источника с поправкой на несвежесть его данных
+    double priority(NewsSource source) {
+        if (source == null) {
+            return 1.0;
+        }
+        Long last = lastSuccessAt.get(source.getId());
+        double staleness = last == null ? MAX_STALENESS
+                : Math.min(MAX_STALENESS, (clock.getAsLong() - last) / (source.getIntervalSeconds() * 1000.0));
+        return source.getWeight() * (1 + staleness);
+    }
+
+    // Занимает место в пуле и разрешения хоста и источника (под монитором this)
+    private boolean tryReserve(Task<?> task) {
+        if (running >= maxInFlight || !hostLimiter.tryAcquire(task.host)) {
+            return false;
+        }
+        if (task.source != null && !task.source.tryAcquire()) {
+            hostLimiter.release(task.host);
+            return false;
+        }
+        running++;
+        task.reserved = true;
+        return true;
+    }
+
+    private void enqueue(Task<?> task) {
+        queue.add(task);
+        maxQueued = Math.max(maxQueued, queue.size());
+    }
+
+    // Передает задачу в пул; ожидание в очереди фиксируется в момент передачи
+    private <T> void start(Task<T> task) {
+        long queueNanos = System.nanoTime() - task.enqueuedAt;
+        synchronized (this) {
+            started++;
+            queueNanosTotal += queueNanos;
+            queueNanosMax = Math.max(queueNanosMax, queueNanos);
+        }
+        try {
+            task.future = executorService.submit(() -> {
+                if (!task.claimed.compareAndSet(false, true)) {
+                    return;  // Задача отменена до запуска, разрешения уже возвращены
+                }
+                T value = null;
+                Throwable error = null;
+                try {
+                    if (!task.result.isDone()) {
+                        value = task.action.run(queueNanos);
+                    }
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    // Разрешения возвращаются до того, как результат увидит вызывающий
+                    task.ran = true;
+                    finished(task);
+                }
+                if (error != null) {
+                    task.result.completeExceptionally(error);
+                } else {
+                    task.result.complete(value);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            task.result.completeExceptionally(e);  // Пул остановлен
+            if (task.claimed.compareAndSet(false, true)) {
+                finished(task);
+            }
+        }
+    }
+
+    // Возвращает разрешения завершенной задачи и запускает ожидающие задачи, для которых они освободились
+    private void finished(Task<?> task) {
+        List<Task<?>> ready = new ArrayList<>();
+        synchronized (this) {
+            running--;
+            hostLimiter.release(task.host);
+            if (task.source != null) {
+                task.source.release();
+            }
+            for (Iterator<Task<?>> it = queue.iterator(); it.hasNext() && running < maxInFlight; ) {
+                Task<?> next = it.next();
+                if (tryReserve(next)) {
+                    it.remove();
+                    ready.add(next);
+                }
+            }
+        }
+        ready.forEach(this::start);
+    }
+
+    // Отмена вызывающим: ожидающая задача удаляется, выполняющаяся прерывается
+    private void cancel(Task<?> task) {
+        synchronized (this) {
+            if (queue.remove(task)) {
+                cancelled++;
+                return;
+            }
+        }
+        if (!task.reserved) {
+            return;  // Задача отклонена или вытеснена
+        }
+        if (task.claimed.compareAndSet(false, true)) {
+            finished(task);  // Еще не начала выполняться
+        } else if (!task.ran && task.future != null) {
+            task.future.cancel(true);  // Прерываем загрузку, результат которой уже не нужен
+        }
+    }
+
+    // Состояние очереди, отдаваемое через /api/stats/fetch-queue
+    public synchronized SchedulerStats getStats() {
+        return new SchedulerStats(this);
+    }
+
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    // Задача загрузки в очереди
+    private static final class Task<T> {
+        private final NewsSource source;
+        private final String host;
+        private final FetchTask<T> action;
+        private final double priority;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        // Кто первым занял задачу: поток пула (выполнение) или отмена (возврат разрешений)
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private long sequence;
+        // Разрешения получены (под монитором планировщика)
+        private volatile boolean reserved;
+        private volatile Future<?> future;
+        // Загрузка завершилась (прерывать поток больше нельзя - он уже мог перейти к другой задаче)
+        private volatile boolean ran;
+
+        private Task(NewsSource source, String host, FetchTask<T> action, double priority) {
+            this.source = source;
+            this.host = host;
+            this.action = action;
+            this.priority = priority;
+        }
+    }
+
+    // Статистика очереди загрузок
+    public static final class SchedulerStats {
+        private final int maxInFlight;
+        private final int queueCapacity;
+        private final int running;
+        private final int queued;
+        private final int maxQueued;
+        private final long submitted;
+        private final long started;
+        private final long rejected;
+        private final long shed;
+        private final long cancelled;
+        private final double avgQueueMillis;
+        private final double maxQueueMillis;
+
+        private SchedulerStats(FetchScheduler scheduler) {
+            this.maxInFlight = scheduler.maxInFlight;
+            this.queueCapacity = scheduler.queueCapacity;
+            this.running = scheduler.running;
+            this.queued = scheduler.queue.size();
+            this.maxQueued = scheduler.maxQueued;
+            this.submitted = scheduler.submitted;
+            this.started = scheduler.started;
+            this.rejected = scheduler.rejected;
+            this.shed = scheduler.shed;
+            this.cancelled = scheduler.cancelled;
+            this.avgQueueMillis = scheduler.started == 0 ? 0
+                    : scheduler.queueNanosTotal / (double) scheduler.started / TimeUnit.MILLISECONDS.toNanos(1);
+            this.maxQueueMillis = scheduler.queueNanosMax / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        // Максимум задач в пуле
+        public int getMaxInFlight() { return maxInFlight; }
+
+        // Емкость очереди
+        public int getQueueCapacity() { return queueCapacity; }
+
+        // Задач выполняется
+        public int getRunning() { return running; }
+
+        // Задач ждет в очереди
+        public int getQueued() { return queued; }
+
+        // Наибольшая длина очереди
+        public int getMaxQueued() { return maxQueued; }
+
+        // Поставлено задач
+        public long getSubmitted() { return submitted; }
+
+        // Передано в пул
+        public long getStarted() { return started; }
+
+        // Отклонено при переполненной очереди
+        public long getRejected() { return rejected; }
+
+        // Вытеснено более важными задачами
+        public long getShed() { return shed; }
+
+        // Удалено из очереди после отмены вызывающим
+        public long getCancelled() { return cancelled; }
+
+        // Среднее ожидание в очереди (мс)
+        public double getAvgQueueMillis() { return avgQueueMillis; }
+
+        // Наибольшее ожидание в очереди (мс)
+        public double getMaxQueueMillis() { return maxQueueMillis; }
+    }
+}
@@ -0,0 +1,74 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Ограничивает число одновременных запросов к одному хосту.
+ * <p>
+ * В режиме виртуальных потоков пул больше не ограничивает параллелизм,
+ * поэтому лимит на хост защищает источники (и квоту NewsAPI) от всплесков.
+ * Разрешения занимаются без ожидания: задача, не получившая разрешение, ждет в очереди {@link FetchScheduler}.
+ */
+@Component  // Помечает класс как компонент Spring
+public class HostConcurrencyLimiter {
+
+    // Максимум одновременных запросов к одному хосту
+    private final int maxPerHost;
+    // Семафоры по имени хоста
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    // Конструктор с параметром из application.properties
+    public HostConcurrencyLimiter(@Value("${news.fetch.max-concurrency-per-host:8}") int maxPerHost) {
+        if (maxPerHost <= 0) {
+            throw new IllegalArgumentException("news.fetch.max-concurrency-per-host must be positive");
+        }
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * Занимает разрешение для хоста без ожидания (используется очередью {@link FetchScheduler}).
+     * @param host имя хоста (см. {@link #hostOf})
+     * @return true - разрешение получено и должно быть возвращено через {@link #release}
+     */
+    public boolean tryAcquire(String host) {
+        return semaphoreFor(host).tryAcquire();
+    }
+
+    // Возвращает разрешение, полученное через tryAcquire
+    public void release(String host) {
+        semaphoreFor(host).release();
+    }
+
+    // Возвращает число свободных разрешений по хостам (для диагностики)
+    public Map<String, Integer> getAvailablePermits() {
+        Map<String, Integer> result = new TreeMap<>();
+        permits.forEach((host, semaphore) -> result.put(host, semaphore.availablePermits()));
+        return result;
+    }
+
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    private Semaphore semaphoreFor(String host) {
+        return permits.computeIfAbsent(host, key -> new Semaphore(maxPerHost));
+    }
+
+    // Извлекает имя хоста из URL; для некорректного URL используется строка целиком
+    public static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
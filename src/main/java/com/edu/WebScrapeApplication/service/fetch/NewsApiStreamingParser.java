@@ -0,0 +1,212 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый разбор ответа NewsAPI на уровне токенов Jackson.
+ * <p>
+ * В отличие от связывания в {@code NewsApiResponse}, статьи создаются по одной по мере чтения,
+ * неиспользуемые поля (content, urlToImage, author и т.д.) пропускаются без создания объектов,
+ * а чтение прекращается, как только набран лимит статей.
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsApiStreamingParser {
+
+    // Фабрика потоковых парсеров (берется из ObjectMapper приложения)
+    private final JsonFactory jsonFactory;
+
+    public NewsApiStreamingParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Разбирает ответ и собирает статьи в список.
+     * @param body тело ответа NewsAPI
+     * @param maxArticles максимум статей (остальные не разбираются)
+     * @return список статей
+     * @throws IOException ошибка чтения, некорректный JSON или ответ со статусом "error"
+     */
+    public List<NewsItem> parse(InputStream body, int maxArticles) throws IOException {
+        List<NewsItem> articles = new ArrayList<>(Math.min(maxArticles, 100));
+        parse(body, maxArticles, articles::add);
+        return articles;
+    }
+
+    /**
+     * Разбирает ответ и передает статьи потребителю по одной, сразу после разбора каждой.
+     * @param body тело ответа NewsAPI
+     * @param maxArticles максимум статей (остальные не разбираются)
+     * @param consumer получатель статей
+     * @return число переданных статей
+     * @throws IOException ошибка чтения, некорректный JSON или ответ со статусом "error"
+     */
+    public int parse(InputStream body, int maxArticles, Consumer<NewsItem> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("NewsAPI response is not a JSON object");
+            }
+
+            String status = null;
+            String message = null;
+            int count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "status" -> status = parser.getValueAsString();
+                    case "message" -> message = parser.getValueAsString();
+                    case "articles" -> {
+                        if (value != JsonToken.START_ARRAY) {
+                            parser.skipChildren();
+                            break;
+                        }
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            if (count >= maxArticles) {
+                                return count;  // Лимит набран - остаток ответа не разбираем
+                            }
+                            consumer.accept(readArticle(parser));
+                            count++;
+                        }
+                    }
+                    default -> parser.skipChildren();  // totalResults и прочие поля не нужны
+                }
+            }
+
+            if ("error".equals(status)) {
+                throw new IOException("NewsAPI returned error: " + message);
+            }
+            return count;
+        }
+    }
+
+    // Читает одну статью; парсер стоит на START_OBJECT статьи
+    private NewsItem readArticle(JsonParser parser) throws IOException {
+        NewsItem item = new NewsItem();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "title" -> item.setTitle(parser.getValueAsString());
+                case "description" -> item.setDescription(parser.getValueAsString());
+                case "url" -> item.setUrl(parser.getValueAsString());
+                case "publishedAt" -> item.setPublishedAtMillis(parseMillis(parser.getValueAsString()));
+                case "source" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        item.setSourceName(readSourceName(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();  // author, urlToImage, content не используются
+            }
+        }
+        return item;
+    }
+
+    // Читает имя источника из объекта {"id": ..., "name": ...}
+    private String readSourceName(JsonParser parser) throws IOException {
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("name".equals(field)) {
+                name = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return name;
+    }
+
+    // Разбирает дату в формате ISO-8601 (например, 2023-05-20T10:00:00Z); некорректная дата дает null
+    static Date parseDate(String text) {
+        long millis = parseMillis(text);
+        return millis != NewsItem.NO_DATE ? new Date(millis) : null;
+    }
+
+    // То же в миллисекундах с начала эпохи; некорректная дата дает NewsItem.NO_DATE
+    static long parseMillis(String text) {
+        if (text == null || text.isEmpty()) {
+            return NewsItem.NO_DATE;
+        }
+        // Быстрый путь для формата NewsAPI: DateTimeFormatter создает много временных объектов на каждую дату
+        long millis = parseUtcMillis(text);
+        if (millis != Long.MIN_VALUE) {
+            return millis;
+        }
+        try {
+            return OffsetDateTime.parse(text, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return NewsItem.NO_DATE;
+        }
+    }
+
+    // Разбирает yyyy-MM-ddTHH:mm:ss[.SSS...]Z без промежуточных объектов; Long.MIN_VALUE - формат не подошел
+    private static long parseUtcMillis(String text) {
+        int length = text.length();
+        if (length < 20 || text.charAt(length - 1) != 'Z' || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || text.charAt(10) != 'T' || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+
+        // Дробная часть секунды: учитываем только миллисекунды
+        int millis = 0;
+        if (length > 20) {
+            if (text.charAt(19) != '.') {
+                return Long.MIN_VALUE;
+            }
+            for (int i = 20, scale = 100; i < length - 1; i++, scale /= 10) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    return Long.MIN_VALUE;
+                }
+                millis += (c - '0') * scale;
+            }
+        }
+        if (day > YearMonth.of(year, month).lengthOfMonth()) {
+            return Long.MIN_VALUE;
+        }
+        long epochDay = LocalDate.of(year, month, day).toEpochDay();
+        return ((epochDay * 24 + hour) * 60 + minute) * 60_000L + second * 1000L + millis;
+    }
+
+    // Читает count десятичных цифр начиная с from; -1, если встретился другой символ
+    private static int digits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,129 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Источник новостей из {@link NewsSourceCatalog}: настройки и лимит одновременных запросов.
+ * <p>
+ * URL задается шаблоном с подстановкой {@code {apiKey}}, поэтому ключ не попадает в настройки источника
+ * и в {@code GET /api/sources}. Объект неизменяем; при перезагрузке каталога источник с прежними
+ * настройками сохраняется вместе со своим семафором.
+ */
+public final class NewsSource {
+
+    // Подстановка ключа NewsAPI в шаблоне URL
+    static final String API_KEY_PLACEHOLDER = "{apiKey}";
+    // Категория источника, если она не задана
+    public static final String DEFAULT_CATEGORY = "general";
+
+    // Идентификатор источника (ключ в news.sources.<id>.*)
+    private final String id;
+    // Шаблон URL запроса
+    private final String urlTemplate;
+    // URL запроса с подставленным ключом
+    private final String url;
+    // Интервал фонового опроса в секундах
+    private final long intervalSeconds;
+    // Верхняя граница таймаута запроса в миллисекундах
+    private final long timeoutMillis;
+    // Максимум одновременных запросов к источнику (0 - без ограничения, действует только лимит на хост)
+    private final int maxConcurrency;
+    // Вес источника: источники с большим весом запрашиваются первыми
+    private final double weight;
+    // Включен ли источник
+    private final boolean enabled;
+    // Категория источника (фильтр category в GET /api/news), в нижнем регистре
+    private final String category;
+    // Разрешения на одновременные запросы (null - без ограничения)
+    private final Semaphore permits;
+
+    NewsSource(String id, String urlTemplate, String apiKey, long intervalSeconds, long timeoutMillis,
+               int maxConcurrency, double weight, boolean enabled) {
+        this(id, urlTemplate, apiKey, intervalSeconds, timeoutMillis, maxConcurrency, weight, enabled, DEFAULT_CATEGORY);
+    }
+
+    NewsSource(String id, String urlTemplate, String apiKey, long intervalSeconds, long timeoutMillis,
+               int maxConcurrency, double weight, boolean enabled, String category) {
+        if (urlTemplate == null || urlTemplate.isBlank()) {
+            throw new IllegalArgumentException("news.sources." + id + ".url is required");
+        }
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("news.sources." + id + ".interval-seconds must be positive");
+        }
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("news.sources." + id + ".timeout-millis must be positive");
+        }
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException("news.sources." + id + ".max-concurrency must not be negative");
+        }
+        if (!(weight > 0)) {
+            throw new IllegalArgumentException("news.sources." + id + ".weight must be positive");
+        }
+        if (category == null || category.isBlank()) {
+            throw new IllegalArgumentException("news.sources." + id + ".category must not be blank");
+        }
+        this.id = id;
+        this.urlTemplate = urlTemplate;
+        this.url = urlTemplate.replace(API_KEY_PLACEHOLDER, apiKey);
+        this.intervalSeconds = intervalSeconds;
+        this.timeoutMillis = timeoutMillis;
+        this.maxConcurrency = maxConcurrency;
+        this.weight = weight;
+        this.enabled = enabled;
+        this.category = category.trim().toLowerCase(Locale.ROOT);
+        this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+    }
+
+    // Занимает разрешение источника без ожидания (очередь FetchScheduler не блокирует потоки пула)
+    boolean tryAcquire() {
+        return permits == null || permits.tryAcquire();
+    }
+
+    // Возвращает разрешение, полученное через tryAcquire
+    void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    // Совпадают ли настройки (семафор и подставленный ключ не сравниваются)
+    boolean sameSettings(NewsSource other) {
+        return other != null && id.equals(other.id) && urlTemplate.equals(other.urlTemplate)
+                && intervalSeconds == other.intervalSeconds && timeoutMillis == other.timeoutMillis
+                && maxConcurrency == other.maxConcurrency && Double.compare(weight, other.weight) == 0
+                && enabled == other.enabled && category.equals(other.category);
+    }
+
+    public String getId() { return id; }
+
+    public String getUrlTemplate() { return urlTemplate; }
+
+    // Содержит ключ API - не сериализуется
+    @JsonIgnore
+    public String getUrl() { return url; }
+
+    public long getIntervalSeconds() { return intervalSeconds; }
+
+    public long getTimeoutMillis() { return timeoutMillis; }
+
+    public int getMaxConcurrency() { return maxConcurrency; }
+
+    public double getWeight() { return weight; }
+
+    public boolean isEnabled() { return enabled; }
+
+    public String getCategory() { return category; }
+
+    // Свободных разрешений (-1 - без ограничения)
+    public int getAvailablePermits() {
+        return permits != null ? permits.availablePermits() : -1;
+    }
+
+    @Override
+    public String toString() {
+        return "NewsSource{" + id + ", " + urlTemplate + (enabled ? "" : ", disabled") + "}";
+    }
+}
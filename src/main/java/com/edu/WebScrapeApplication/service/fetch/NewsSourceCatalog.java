@@ -0,0 +1,326 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Реестр источников новостей: идентификатор источника -> {@link NewsSource}.
+ * <p>
+ * Источники описываются настройками {@code news.sources.<id>.*}: {@code url} (шаблон с {@code {apiKey}}),
+ * {@code interval-seconds}, {@code timeout-millis}, {@code max-concurrency}, {@code weight}, {@code enabled},
+ * {@code category} (по ней фильтруется выдача, по умолчанию {@code general}).
+ * Встроенные источники ({@code russia}, {@code bbc}, {@code techcrunch}) присутствуют всегда, их можно
+ * перенастроить или выключить теми же ключами. Поверх настроек приложения читается необязательный файл
+ * {@code news.source-catalog.file}; при его изменении (или по {@code POST /api/sources/reload})
+ * каталог перезагружается без перезапуска, а подписчики получают новый список включенных источников.
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsSourceCatalog {
+
+    // Журнал log4j2 (настройки в log4j2.xml)
+    private static final Logger log = LogManager.getLogger(NewsSourceCatalog.class);
+
+    // Префикс настроек источников
+    static final String PREFIX = "news.sources";
+
+    // Встроенные источники: идентификатор -> шаблон URL
+    private static final Map<String, String> BUILT_IN = new LinkedHashMap<>();
+
+    static {
+        // Российские новости
+        BUILT_IN.put("russia", "https://newsapi.org/v2/top-headlines?country=ru&apiKey={apiKey}");
+        // BBC News
+        BUILT_IN.put("bbc", "https://newsapi.org/v2/everything?domains=bbc.co.uk&apiKey={apiKey}");
+        // TechCrunch
+        BUILT_IN.put("techcrunch", "https://newsapi.org/v2/top-headlines?sources=techcrunch&apiKey={apiKey}");
+    }
+
+    // Категории встроенных источников
+    private static final Map<String, String> BUILT_IN_CATEGORIES = Map.of(
+            "russia", "general", "bbc", "general", "techcrunch", "technology");
+
+    // Настройки приложения (null - только встроенные источники и файл)
+    private final Environment environment;
+    // Ключ NewsAPI для подстановки в шаблоны URL
+    private final String apiKey;
+    // Файл с настройками источников, перечитываемый при изменении (пусто - не используется)
+    private final String file;
+    // Период проверки файла в секундах (0 - только ручная перезагрузка)
+    private final long reloadSeconds;
+    // Значения по умолчанию для источников без собственных настроек
+    private final long defaultIntervalSeconds;
+    private final long defaultTimeoutMillis;
+
+    // Все источники (включая выключенные) в порядке убывания веса
+    private volatile Map<String, NewsSource> allSources = Map.of();
+    // Включенные источники в порядке убывания веса
+    private volatile Map<String, NewsSource> sources = Map.of();
+    // Подписчики на изменение списка источников
+    private final List<Consumer<Map<String, NewsSource>>> listeners = new CopyOnWriteArrayList<>();
+    // Время изменения файла при последней загрузке
+    private volatile long fileModifiedAt;
+    // Число перезагрузок, изменивших список источников
+    private volatile long reloads;
+    // Поток проверки файла (создается при старте, если файл задан)
+    private ScheduledExecutorService watcher;
+
+    // Конструктор с параметрами из application.properties
+    @Autowired
+    public NewsSourceCatalog(
+            Environment environment,
+            @Value("${news.api.key}") String apiKey,
+            @Value("${news.source-catalog.file:}") String file,
+            @Value("${news.source-catalog.reload.seconds:30}") long reloadSeconds,
+            @Value("${news.ingestion.interval.seconds:60}") long defaultIntervalSeconds,
+            @Value("${news.api.timeout.seconds:5}") int defaultTimeoutSeconds) {
+        this.environment = environment;
+        this.apiKey = apiKey;
+        this.file = file;
+        this.reloadSeconds = reloadSeconds;
+        this.defaultIntervalSeconds = defaultIntervalSeconds;
+        this.defaultTimeoutMillis = TimeUnit.SECONDS.toMillis(defaultTimeoutSeconds);
+        reload();  // Ошибка в настройках при старте останавливает приложение
+    }
+
+    // Только встроенные источники с настройками по умолчанию (интервал 60 с, таймаут 5 с)
+    public NewsSourceCatalog(String apiKey) {
+        this(null, apiKey, "", 0, 60, 5);
+    }
+
+    // Запускает проверку файла источников
+    @PostConstruct
+    public void start() {
+        if (file.isEmpty() || reloadSeconds <= 0) {
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "news-source-catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfModified, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Перечитывает настройки источников. Источники с прежними настройками переиспользуются,
+     * при изменении списка подписчики получают новые включенные источники.
+     * @return true, если список источников или их настройки изменились
+     * @throws IllegalArgumentException некорректные настройки (текущий список остается в силе)
+     * @throws UncheckedIOException файл источников не читается
+     */
+    public synchronized boolean reload() {
+        long modifiedAt = file.isEmpty() ? 0 : lastModified(Path.of(file));
+        Map<String, NewsSource> loaded = load();
+        fileModifiedAt = modifiedAt;
+        if (sameSources(allSources, loaded)) {
+            return false;
+        }
+        Map<String, NewsSource> enabled = new LinkedHashMap<>();
+        loaded.forEach((id, source) -> {
+            if (source.isEnabled()) {
+                enabled.put(id, source);
+            }
+        });
+        allSources = Collections.unmodifiableMap(loaded);
+        sources = Collections.unmodifiableMap(enabled);
+        reloads++;
+        log.info("News sources loaded: {} enabled of {}", enabled.size(), loaded.size());
+        for (Consumer<Map<String, NewsSource>> listener : listeners) {
+            listener.accept(sources);
+        }
+        return true;
+    }
+
+    // Подписывает на изменение списка включенных источников (вызывается в потоке перезагрузки)
+    public void addListener(Consumer<Map<String, NewsSource>> listener) {
+        listeners.add(listener);
+    }
+
+    // Включенные источники: идентификатор -> источник, в порядке убывания веса
+    public Map<String, NewsSource> getSources() {
+        return sources;
+    }
+
+    // Все источники, включая выключенные
+    public Map<String, NewsSource> getAllSources() {
+        return allSources;
+    }
+
+    // Включенный источник по идентификатору или null
+    public NewsSource getSource(String sourceId) {
+        return sources.get(sourceId);
+    }
+
+    public long getReloads() {
+        return reloads;
+    }
+
+    // Перезагружает каталог, если файл источников изменился; ошибка оставляет прежний список
+    private void reloadIfModified() {
+        try {
+            if (lastModified(Path.of(file)) != fileModifiedAt) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.warn("News sources were not reloaded from {}: {}", file, e.getMessage());
+        }
+    }
+
+    // Собирает источники: встроенные, затем настройки приложения, затем файл (поздние перекрывают ранние)
+    private Map<String, NewsSource> load() {
+        Map<String, SourceProperties> merged = new LinkedHashMap<>();
+        BUILT_IN.forEach((id, url) -> merged.put(id, SourceProperties.of(url, BUILT_IN_CATEGORIES.get(id))));
+        if (environment != null) {
+            bind(Binder.get(environment), merged);
+        }
+        if (!file.isEmpty()) {
+            bind(new Binder(new MapConfigurationPropertySource(readFile(Path.of(file)))), merged);
+        }
+
+        List<NewsSource> loaded = new ArrayList<>();
+        merged.forEach((id, properties) -> {
+            NewsSource source = new NewsSource(id, properties.getUrl(), apiKey,
+                    Optional.ofNullable(properties.getIntervalSeconds()).orElse(defaultIntervalSeconds),
+                    Optional.ofNullable(properties.getTimeoutMillis()).orElse(defaultTimeoutMillis),
+                    Optional.ofNullable(properties.getMaxConcurrency()).orElse(0),
+                    Optional.ofNullable(properties.getWeight()).orElse(1.0),
+                    Optional.ofNullable(properties.getEnabled()).orElse(true),
+                    Optional.ofNullable(properties.getCategory()).orElse(NewsSource.DEFAULT_CATEGORY));
+            NewsSource previous = allSources.get(id);
+            // Неизменный источник сохраняет семафор с уже выданными разрешениями
+            loaded.add(source.sameSettings(previous) ? previous : source);
+        });
+        // Сортировка устойчива: при равном весе сохраняется порядок объявления
+        loaded.sort(Comparator.comparingDouble(NewsSource::getWeight).reversed());
+        Map<String, NewsSource> result = new LinkedHashMap<>();
+        loaded.forEach(source -> result.put(source.getId(), source));
+        return result;
+    }
+
+    // Накладывает news.sources.<id>.* из источника настроек на уже собранные значения
+    private static void bind(Binder binder, Map<String, SourceProperties> merged) {
+        try {
+            binder.bind(PREFIX, Bindable.mapOf(String.class, SourceProperties.class))
+                    .ifBound(bound -> bound.forEach((id, properties) ->
+                            merged.computeIfAbsent(id, key -> new SourceProperties()).override(properties)));
+        } catch (BindException e) {
+            // Например, нечисловой weight: сообщение указывает на ключ настройки
+            throw new IllegalArgumentException("Invalid news source settings: " + e.getMessage(), e);
+        }
+    }
+
+    private static Properties readFile(Path path) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read news sources from " + path, e);
+        }
+        return properties;
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read news sources from " + path, e);
+        }
+    }
+
+    // Совпадают ли списки источников вместе с порядком и настройками
+    private static boolean sameSources(Map<String, NewsSource> current, Map<String, NewsSource> loaded) {
+        if (!new ArrayList<>(current.keySet()).equals(new ArrayList<>(loaded.keySet()))) {
+            return false;
+        }
+        return loaded.values().stream().allMatch(source -> source == current.get(source.getId()));
+    }
+
+    /**
+     * Настройки одного источника в том виде, в каком они записаны в news.sources.<id>.*;
+     * null означает "не задано" (берется значение из предыдущего слоя или по умолчанию).
+     */
+    public static class SourceProperties {
+        private String url;
+        private Long intervalSeconds;
+        private Long timeoutMillis;
+        private Integer maxConcurrency;
+        private Double weight;
+        private Boolean enabled;
+        private String category;
+
+        static SourceProperties of(String url, String category) {
+            SourceProperties properties = new SourceProperties();
+            properties.setUrl(url);
+            properties.setCategory(category);
+            return properties;
+        }
+
+        // Перекрывает значения заданными в other
+        void override(SourceProperties other) {
+            url = other.url != null ? other.url : url;
+            intervalSeconds = other.intervalSeconds != null ? other.intervalSeconds : intervalSeconds;
+            timeoutMillis = other.timeoutMillis != null ? other.timeoutMillis : timeoutMillis;
+            maxConcurrency = other.maxConcurrency != null ? other.maxConcurrency : maxConcurrency;
+            weight = other.weight != null ? other.weight : weight;
+            enabled = other.enabled != null ? other.enabled : enabled;
+            category = other.category != null ? other.category : category;
+        }
+
+        public String getUrl() { return url; }
+
+        public void setUrl(String url) { this.url = url; }
+
+        public Long getIntervalSeconds() { return intervalSeconds; }
+
+        public void setIntervalSeconds(Long intervalSeconds) { this.intervalSeconds = intervalSeconds; }
+
+        public Long getTimeoutMillis() { return timeoutMillis; }
+
+        public void setTimeoutMillis(Long timeoutMillis) { this.timeoutMillis = timeoutMillis; }
+
+        public Integer getMaxConcurrency() { return maxConcurrency; }
+
+        public void setMaxConcurrency(Integer maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+
+        public Double getWeight() { return weight; }
+
+        public void setWeight(Double weight) { this.weight = weight; }
+
+        public Boolean getEnabled() { return enabled; }
+
+        public void setEnabled(Boolean enabled) { this.enabled = enabled; }
+
+        public String getCategory() { return category; }
+
+        public void setCategory(String category) { this.category = category; }
+    }
+}
@@ -0,0 +1,201 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Загрузка статей одного источника: HTTP-запрос через очередь {@link FetchScheduler}
+ * (пул потоков, лимиты хоста и источника, приоритеты) и потоковый разбор ответа.
+ * Используется и агрегацией по запросу, и фоновым опросом.
+ * <p>
+ * Запросы источников из каталога условные: если прошлый ответ на тот же URL содержал ETag или Last-Modified,
+ * они отправляются в If-None-Match / If-Modified-Since, и на 304 Not Modified тело не читается и не разбирается -
+ * возвращаются статьи прошлого ответа.
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsSourceClient {
+
+    // Журнал log4j2 (настройки в log4j2.xml)
+    private static final Logger log = LogManager.getLogger(NewsSourceClient.class);
+
+    // Очередь загрузок перед пулом потоков
+    private final FetchScheduler fetchScheduler;
+    // Клиент для HTTP-запросов
+    private final RestTemplate restTemplate;
+    // Потоковый разбор ответов NewsAPI
+    private final NewsApiStreamingParser newsParser;
+    // Максимум статей, разбираемых из ответа одного источника
+    private final int maxArticlesPerSource;
+    // Отправлять ли условные запросы
+    private final boolean conditionalEnabled;
+    // Валидаторы и статьи последнего ответа по идентификатору источника
+    private final Map<String, Validators> validators = new ConcurrentHashMap<>();
+
+    // Конструктор с dependency injection
+    @Autowired
+    public NewsSourceClient(
+            FetchScheduler fetchScheduler,
+            RestTemplate restTemplate,
+            NewsApiStreamingParser newsParser,
+            @Value("${news.fetch.max-articles-per-source:100}") int maxArticlesPerSource,
+            @Value("${news.fetch.conditional.enabled:true}") boolean conditionalEnabled) {
+        this.fetchScheduler = fetchScheduler;
+        this.restTemplate = restTemplate;
+        this.newsParser = newsParser;
+        this.maxArticlesPerSource = maxArticlesPerSource;
+        this.conditionalEnabled = conditionalEnabled;
+    }
+
+    // Конструктор с условными запросами по умолчанию
+    public NewsSourceClient(FetchScheduler fetchScheduler, RestTemplate restTemplate, NewsApiStreamingParser newsParser,
+                            int maxArticlesPerSource) {
+        this(fetchScheduler, restTemplate, newsParser, maxArticlesPerSource, true);
+    }
+
+    /**
+     * Ставит загрузку источника в очередь пула потоков.
+     * Если future отменен или завершен с ошибкой (например, по таймауту), ожидающая задача удаляется
+     * из очереди, а выполняющаяся прерывается.
+     * @param apiUrl URL запроса к NewsAPI
+     * @return future со статьями, числом прочитанных байт и временем ожидания в очереди
+     */
+    public CompletableFuture<FetchResult> fetchResultAsync(String apiUrl) {
+        return fetchScheduler.submit(null, apiUrl, queueNanos -> fetchResult(null, apiUrl).withQueueNanos(queueNanos));
+    }
+
+    /**
+     * То же, что {@link #fetchResultAsync(String)}, но с лимитом одновременных запросов источника
+     * и приоритетом по его весу и свежести. Запрос условный, если известны валидаторы прошлого ответа на этот URL.
+     * @param source источник из {@link NewsSourceCatalog}
+     * @param apiUrl URL запроса (URL источника, возможно с дополнительными параметрами)
+     * @return future со статьями и числом прочитанных байт
+     */
+    public CompletableFuture<FetchResult> fetchResultAsync(NewsSource source, String apiUrl) {
+        return fetchScheduler.submit(source, apiUrl, queueNanos -> {
+            FetchResult result = fetchResult(source.getId(), apiUrl).withQueueNanos(queueNanos);
+            if (!result.isFailed()) {
+                fetchScheduler.recordSuccess(source.getId());
+            }
+            return result;
+        });
+    }
+
+    // Получает новости источника в текущем потоке; sourceId != null - условный запрос по валидаторам источника
+    private FetchResult fetchResult(String sourceId, String apiUrl) {
+        long start = System.nanoTime();
+        // Валидаторы относятся к ответу на конкретный URL (инкрементальный опрос меняет параметр from=)
+        Validators previous = sourceId != null && conditionalEnabled ? validators.get(sourceId) : null;
+        Validators known = previous != null && previous.url.equals(apiUrl) ? previous : null;
+        try {
+            // Выполняем HTTP-запрос и разбираем ответ потоково, не строя весь NewsApiResponse в памяти.
+            // Разбор идет по мере чтения тела, поэтому его время включает и передачу тела по сети
+            FetchResult result = restTemplate.execute(apiUrl, HttpMethod.GET,
+                    request -> {
+                        HttpHeaders headers = request.getHeaders();
+                        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+                        if (known != null) {
+                            if (known.etag != null) {
+                                headers.set(HttpHeaders.IF_NONE_MATCH, known.etag);
+                            }
+                            if (known.lastModified != null) {
+                                headers.set(HttpHeaders.IF_MODIFIED_SINCE, known.lastModified);  // Строка сервера как есть
+                            }
+                        }
+                    },
+                    response -> {
+                        long received = System.nanoTime();
+                        if (known != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                            return FetchResult.notModified(known.items, received - start);
+                        }
+                        CountingInputStream body = new CountingInputStream(response.getBody());
+                        List<NewsItem> articles = newsParser.parse(body, maxArticlesPerSource);
+                        if (sourceId != null && conditionalEnabled) {
+                            remember(sourceId, apiUrl, response.getHeaders(), articles);
+                        }
+                        return new FetchResult(articles, body.getCount(), received - start, System.nanoTime() - received);
+                    });
+            // Безопасное извлечение результата (защита от NPE)
+            return Optional.ofNullable(result)
+                    .orElseGet(() -> FetchResult.failed(new IllegalStateException("Empty response from " + apiUrl)));
+        } catch (Exception e) {
+            // Логируем ошибки запросов
+            log.warn("Error fetching news from {}: {}", apiUrl, e.getMessage());
+            return FetchResult.failed(e);  // Возвращаем пустой результат при ошибке
+        }
+    }
+
+    // Запоминает валидаторы ответа; без них условный запрос невозможен и статьи не хранятся
+    private void remember(String sourceId, String apiUrl, HttpHeaders headers, List<NewsItem> articles) {
+        String etag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        if (etag == null && lastModified == null) {
+            validators.remove(sourceId);
+        } else {
+            validators.put(sourceId, new Validators(apiUrl, etag, lastModified, articles));
+        }
+    }
+
+    // Валидаторы ответа и его статьи (отдаются вместо тела на 304)
+    private static final class Validators {
+        private final String url;
+        private final String etag;
+        private final String lastModified;
+        private final List<NewsItem> items;
+
+        private Validators(String url, String etag, String lastModified, List<NewsItem> items) {
+            this.url = url;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.items = items;
+        }
+    }
+
+    // Поток, считающий прочитанные байты
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -1,99 +1,394 @@
 package com.edu.WebScrapeApplication.service.impl;
 
-import com.edu.WebScrapeApplication.model.NewsApiResponse;
+import com.edu.WebScrapeApplication.model.NewsFilter;
 import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.model.NewsPage;
 import com.edu.WebScrapeApplication.service.NewsService;
+import com.edu.WebScrapeApplication.service.aggregation.NewsCursor;
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import com.edu.WebScrapeApplication.service.aggregation.NewsMerger;
+import com.edu.WebScrapeApplication.service.aggregation.NewsOrdering;
+import com.edu.WebScrapeApplication.service.aggregation.NewsPaginator;
+import com.edu.WebScrapeApplication.service.aggregation.NewsSnapshot;
+import com.edu.WebScrapeApplication.service.aggregation.NewsWindowEmitter;
+import com.edu.WebScrapeApplication.service.cache.AggregatedNewsCache;
+import com.edu.WebScrapeApplication.service.fetch.FetchResult;
+import com.edu.WebScrapeApplication.service.fetch.NewsSource;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceCatalog;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceClient;
+import com.edu.WebScrapeApplication.service.metrics.NewsMetrics;
+import com.edu.WebScrapeApplication.service.resilience.SourceCircuitBreakers;
+import com.edu.WebScrapeApplication.service.resilience.SourceHedging;
+import com.edu.WebScrapeApplication.service.search.NewsSearchIndex;
+import com.edu.WebScrapeApplication.service.store.ArticleStore;
+import com.edu.WebScrapeApplication.service.stream.NewsStreamHub;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Service  // Помечает класс как сервисный компонент Spring
 public class NewsServiceImpl implements NewsService {
 
-    // Пул потоков для параллельного выполнения запросов
-    private final ExecutorService executorService;
-    // Клиент для HTTP-запросов
-    private final RestTemplate restTemplate;
-    // API ключ для NewsAPI (инжектится из конфигурации)
-    private final String apiKey;
+    // Журнал log4j2 (настройки в log4j2.xml)
+    private static final Logger log = LogManager.getLogger(NewsServiceImpl.class);
+
+    // Источники новостей
+    private final NewsSourceCatalog sourceCatalog;
+    // Загрузка статей источника
+    private final NewsSourceClient sourceClient;
+    // Кэш агрегированного результата (stale-while-revalidate)
+    private final AggregatedNewsCache newsCache;
+    // Удаление дубликатов между источниками
+    private final NewsDeduplicator newsDeduplicator;
+    // Слияние упорядоченных пакетов источников
+    private final NewsMerger newsMerger;
+    // Хранилище, наполняемое фоновым опросом
+    private final ArticleStore articleStore;
+    // Предохранители и адаптивные таймауты источников
+    private final SourceCircuitBreakers circuitBreakers;
+    // Хеджирование медленных запросов к источникам
+    private final SourceHedging sourceHedging;
+    // Метрики запросов к источникам и слияния
+    private final NewsMetrics newsMetrics;
+    // Поисковый индекс по заголовкам и описаниям
+    private final NewsSearchIndex searchIndex;
+    // Рассылка новых статей подписчикам потока
+    private final NewsStreamHub streamHub;
+    // Сериализатор снимка в готовое тело ответа
+    private final ObjectWriter snapshotWriter;
+    // Включен ли фоновый опрос (тогда запросы только читают хранилище)
+    private final boolean ingestionEnabled;
     // Таймаут запросов в секундах (по умолчанию 5)
     private final int requestTimeoutSeconds;
+    // Максимальный размер страницы
+    private final int maxPageSize;
+    // Окно упорядочивания при выдаче по мере ответа источников (мс)
+    private final long progressiveWindowMillis;
+    // Последний успешный ответ каждого источника: отдается, пока источник отключен или не отвечает
+    private final Map<String, List<NewsItem>> lastGoodBatches = new ConcurrentHashMap<>();
+    // Последний отданный снимок с версией и телом: снимок не изменяется, поэтому и версия, и JSON
+    // считаются один раз на снимок (на каждое обновление кэша или хранилища), а не на запрос
+    private volatile NewsSnapshot lastSnapshot;
 
     // Конструктор с dependency injection
     public NewsServiceImpl(
-            ExecutorService executorService,
-            RestTemplate restTemplate,
-            @Value("${news.api.key}") String apiKey,  // Значение из application.properties
-            @Value("${news.api.timeout.seconds:5}") int requestTimeoutSeconds) {  // Со значением по умолчанию
-        this.executorService = executorService;
-        this.restTemplate = restTemplate;
-        this.apiKey = apiKey;
+            NewsSourceCatalog sourceCatalog,
+            NewsSourceClient sourceClient,
+            AggregatedNewsCache newsCache,
+            NewsDeduplicator newsDeduplicator,
+            NewsMerger newsMerger,
+            ArticleStore articleStore,
+            SourceCircuitBreakers circuitBreakers,
+            SourceHedging sourceHedging,
+            NewsMetrics newsMetrics,
+            NewsSearchIndex searchIndex,
+            NewsStreamHub streamHub,
+            ObjectMapper objectMapper,
+            @Value("${news.ingestion.enabled:false}") boolean ingestionEnabled,
+            @Value("${news.api.timeout.seconds:5}") int requestTimeoutSeconds,  // Со значением по умолчанию
+            @Value("${news.api.page.max-limit:100}") int maxPageSize,
+            @Value("${news.progressive.window-millis:100}") long progressiveWindowMillis) {
+        this.sourceCatalog = sourceCatalog;
+        this.sourceClient = sourceClient;
+        this.newsCache = newsCache;
+        this.newsDeduplicator = newsDeduplicator;
+        this.newsMerger = newsMerger;
+        this.articleStore = articleStore;
+        this.circuitBreakers = circuitBreakers;
+        this.sourceHedging = sourceHedging;
+        this.newsMetrics = newsMetrics;
+        this.searchIndex = searchIndex;
+        this.streamHub = streamHub;
+        this.snapshotWriter = objectMapper.writerFor(new TypeReference<List<NewsItem>>() { });
+        this.lastSnapshot = NewsSnapshot.of(List.of(), snapshotWriter);
+        this.ingestionEnabled = ingestionEnabled;
         this.requestTimeoutSeconds = requestTimeoutSeconds;
+        this.maxPageSize = maxPageSize;
+        this.progressiveWindowMillis = progressiveWindowMillis;
+        // Последний ответ убранного из каталога источника больше не подставляется
+        sourceCatalog.addListener(sources -> lastGoodBatches.keySet().retainAll(sources.keySet()));
+        if (ingestionEnabled) {
+            // Индекс повторяет содержимое хранилища: статьи добавляются по мере опроса и уходят при вытеснении
+            articleStore.addListener(searchIndex::put, searchIndex::remove);
+        }
     }
 
     @Override
     public List<NewsItem> getAggregatedNews() throws ExecutionException, InterruptedException {
-        // Получаем список URL источников новостей
-        List<String> sources = getNewsSources();
-        // Коллекция для хранения Future-объектов асинхронных задач
-        List<Future<List<NewsItem>>> futures = new ArrayList<>();
-
-        // Запускаем задачи параллельно для каждого источника
-        for (String source : sources) {
-            // Создаем задачу для получения новостей из источника
-            Callable<List<NewsItem>> task = () -> fetchNewsFromSource(source);
-            // Отправляем задачу в пул потоков и сохраняем Future
-            futures.add(executorService.submit(task));
+        // Синхронный вариант - ожидаем асинхронную агрегацию
+        return getAggregatedNewsAsync().get();
+    }
+
+    @Override
+    public CompletableFuture<List<NewsItem>> getAggregatedNewsAsync() {
+        if (ingestionEnabled) {
+            // Источники опрашиваются в фоне - запрос только читает готовый снимок хранилища
+            return articleStore.awaitSnapshot();
         }
+        // Отдаем снимок из кэша, при промахе выполняем полную агрегацию
+        return newsCache.getAsync(this::loadAggregatedNews);
+    }
 
-        // Собираем результаты с таймаутом
-        List<NewsItem> allNews = new ArrayList<>();
-        for (Future<List<NewsItem>> future : futures) {
-            try {
-                // Получаем результат с ограничением по времени
-                allNews.addAll(future.get(requestTimeoutSeconds, TimeUnit.SECONDS));
-            } catch (TimeoutException e) {
-                future.cancel(true);  // Прерываем зависшие запросы
-                System.err.println("Request timed out");  // Логируем таймаут
+    @Override
+    public CompletableFuture<NewsSnapshot> getSnapshotAsync() {
+        return getAggregatedNewsAsync().thenApply(this::snapshotOf);
+    }
+
+    @Override
+    public CompletableFuture<List<NewsItem>> getAggregatedNewsAsync(NewsFilter filter) {
+        if (filter.isEmpty()) {
+            return getAggregatedNewsAsync();
+        }
+        // Лимит применяется при слиянии срезов: дальше первых max-items статей слияние не идет
+        return filteredBatchesAsync(filter)
+                .thenApply(batches -> NewsPaginator.select(batches, filter, null, newsMerger.getMaxItems()));
+    }
+
+    @Override
+    public CompletableFuture<NewsPage> getNewsPageAsync(String cursor, int limit) {
+        return getNewsPageAsync(NewsFilter.NONE, cursor, limit);
+    }
+
+    @Override
+    public CompletableFuture<NewsPage> getNewsPageAsync(NewsFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        // Курсор разбираем до обращения к кэшу: поврежденный курсор не должен запускать агрегацию
+        NewsCursor after = cursor != null && !cursor.isEmpty() ? NewsCursor.decode(cursor) : null;
+        if (filter.isEmpty()) {
+            // Страница вырезается из снимка кэша без копирования и сортировки всего списка;
+            // ответ на тот же URL меняется только вместе со снимком, поэтому ETag страницы - версия снимка
+            return getSnapshotAsync().thenApply(snapshot -> {
+                NewsPage page = NewsPaginator.page(snapshot.items(), after, limit);
+                return new NewsPage(page.getItems(), page.getNextCursor(), snapshot.etag());
+            });
+        }
+        return filteredBatchesAsync(filter).thenApply(batches -> NewsPaginator.page(batches, filter, after, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<NewsItem>> getQuorumNewsAsync(NewsFilter filter, int quorum) {
+        if (quorum < 1) {
+            throw new IllegalArgumentException("quorum must be at least 1");
+        }
+        // Ответы источников собираются по мере поступления; кворум завершает future, не дожидаясь остальных.
+        // Загрузка продолжается в фоне и обновляет кэш и последние успешные ответы для следующих запросов
+        long start = System.nanoTime();
+        Map<String, List<NewsItem>> answered = new ConcurrentHashMap<>();
+        AtomicInteger answers = new AtomicInteger();
+        CompletableFuture<List<NewsItem>> result = new CompletableFuture<>();
+        filteredBatchesAsync(filter, (id, items) -> {
+            answered.put(id, items);
+            if (answers.incrementAndGet() == quorum) {
+                // Дубликаты убираются только среди ответивших источников
+                List<List<NewsItem>> sorted = new ArrayList<>(quorum);
+                newsDeduplicator.deduplicate(new LinkedHashMap<>(answered))
+                        .forEach(batch -> sorted.add(NewsOrdering.sortedBatch(batch)));
+                if (result.complete(NewsPaginator.select(sorted, filter, null, newsMerger.getMaxItems()))) {
+                    newsMetrics.recordPartialResponse("quorum", true, System.nanoTime() - start);
+                }
             }
+        }).whenComplete((batches, error) -> {
+            // Кворум не набран (источников меньше, часть упала) или ответ уже был готов (кэш, хранилище)
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else if (!result.isDone()
+                    && result.complete(NewsPaginator.select(batches, filter, null, newsMerger.getMaxItems()))) {
+                newsMetrics.recordPartialResponse("quorum", false, System.nanoTime() - start);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Void> streamAggregatedNews(NewsFilter filter, Consumer<List<NewsItem>> window) {
+        long start = System.nanoTime();
+        AtomicBoolean aggregated = new AtomicBoolean();
+        AtomicBoolean first = new AtomicBoolean(true);
+        NewsWindowEmitter emitter = new NewsWindowEmitter(filter, newsMerger.getMaxItems(), progressiveWindowMillis,
+                items -> {
+                    if (first.compareAndSet(true, false)) {
+                        newsMetrics.recordPartialResponse("progressive", !aggregated.get(), System.nanoTime() - start);
+                    }
+                    window.accept(items);
+                });
+        filteredBatchesAsync(filter, (id, items) -> emitter.offer(NewsOrdering.sortedBatch(items)))
+                .whenComplete((batches, error) -> {
+                    if (error != null) {
+                        emitter.fail(error);
+                        return;
+                    }
+                    // Итог агрегации добавляет то, чего еще не было в окнах: последние успешные ответы
+                    // опоздавших источников или готовый снимок, если источники не запрашивались
+                    aggregated.set(true);
+                    batches.forEach(emitter::offer);
+                    emitter.finish();
+                });
+        return emitter.completion();
+    }
+
+    @Override
+    public CompletableFuture<List<NewsItem>> searchAsync(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q must not be blank");
         }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        // Ждем снимок, как и обычный запрос: при агрегации по запросу индекс обновляется вместе с кэшем,
+        // при фоновом опросе запросы во время старта ждут первый круг
+        return getAggregatedNewsAsync().thenApply(ignored -> searchIndex.search(query, limit));
+    }
+
+    // Снимок с версией: тот же список, что и в прошлый раз, не пересчитывается
+    private NewsSnapshot snapshotOf(List<NewsItem> items) {
+        NewsSnapshot last = lastSnapshot;
+        if (last.items() != items) {
+            last = NewsSnapshot.of(items, snapshotWriter);
+            lastSnapshot = last;
+        }
+        return last;
+    }
+
+    // Упорядоченные пакеты источников, подходящих под фильтр; остальные источники не запрашиваются и не читаются
+    private CompletableFuture<List<List<NewsItem>>> filteredBatchesAsync(NewsFilter filter) {
+        return filteredBatchesAsync(filter, (id, items) -> { });
+    }
+
+    // То же, но onSource получает статьи каждого запрошенного источника сразу по его успешному ответу.
+    // Если источники не запрашиваются (снимок кэша или хранилища, присоединение к идущей загрузке),
+    // onSource не вызывается и статьи приходят только в итоговых пакетах
+    private CompletableFuture<List<List<NewsItem>>> filteredBatchesAsync(NewsFilter filter,
+                                                                          BiConsumer<String, List<NewsItem>> onSource) {
+        Map<String, NewsSource> enabled = sourceCatalog.getSources();
+        for (String id : filter.getSources()) {
+            if (!enabled.containsKey(id)) {
+                throw new IllegalArgumentException("Unknown news source: " + id);
+            }
+        }
+        Map<String, NewsSource> selected = new LinkedHashMap<>();
+        enabled.forEach((id, source) -> {
+            if (filter.matchesSource(id, source.getCategory())) {
+                selected.put(id, source);
+            }
+        });
+        if (selected.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        if (ingestionEnabled) {
+            // Статьи источников в хранилище уже упорядочены по времени - интервал ищется двоичным поиском
+            return articleStore.awaitSnapshot().thenApply(ignored -> {
+                Map<String, List<NewsItem>> bySource = articleStore.getSourceSnapshots();
+                List<List<NewsItem>> batches = new ArrayList<>(selected.size());
+                selected.keySet().forEach(id -> batches.add(bySource.getOrDefault(id, List.of())));
+                return batches;
+            });
+        }
+        if (selected.size() == enabled.size()) {
+            // Подходят все источники (нет фильтра или только по времени): снимок кэша - один упорядоченный пакет
+            return newsCache.getAsync(() -> loadAggregatedNews(onSource)).thenApply(List::of);
+        }
+        // Запрашиваем только подходящие источники; результат не кэшируется и не попадает в поисковый индекс
+        return fetchBatches(selected, onSource).thenApply(batches -> {
+            List<List<NewsItem>> sorted = new ArrayList<>(batches.size());
+            newsDeduplicator.deduplicate(batches).forEach(batch -> sorted.add(NewsOrdering.sortedBatch(batch)));
+            return sorted;
+        });
+    }
+
+    // Выполняет полную агрегацию: параллельный запрос ко всем источникам, удаление дубликатов и слияние
+    CompletableFuture<List<NewsItem>> loadAggregatedNews() {
+        return loadAggregatedNews((id, items) -> { });
+    }
+
+    // Полная агрегация с уведомлением об ответе каждого источника
+    private CompletableFuture<List<NewsItem>> loadAggregatedNews(BiConsumer<String, List<NewsItem>> onSource) {
+        return fetchBatches(sourceCatalog.getSources(), onSource).thenApply(this::mergeBatches);
+    }
+
+    // Запрашивает источники параллельно и собирает их статьи к общему дедлайну;
+    // onSource получает статьи источника сразу по успешному ответу
+    private CompletableFuture<Map<String, List<NewsItem>>> fetchBatches(Map<String, NewsSource> sources,
+                                                                        BiConsumer<String, List<NewsItem>> onSource) {
+        // Запускаем задачи параллельно для каждого источника; источники с разомкнутым предохранителем
+        // сразу завершаются ошибкой, а у остальных свой адаптивный таймаут. Внутри таймаута медленный
+        // запрос может быть продублирован (хеджирование), предохранитель видит исход обоих запросов как один.
+        // Источники перебираются по убыванию веса: в занятом пуле первыми выполняются важные
+        Map<String, CompletableFuture<FetchResult>> futures = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        sources.forEach((id, source) -> {
+            CompletableFuture<FetchResult> future = circuitBreakers.call(id, source.getTimeoutMillis(),
+                    () -> sourceHedging.call(id, () -> sourceClient.fetchResultAsync(source, source.getUrl()),
+                            FetchResult::isFailed),
+                    FetchResult::isFailed);
+            future.whenComplete((result, error) -> {
+                newsMetrics.recordSource(id, result, error, System.nanoTime() - start);
+                if (result != null && !result.isFailed()) {
+                    streamHub.publish(source, result.getItems());  // Подписчики получают статьи, не дожидаясь остальных источников
+                    onSource.accept(id, result.getItems());
+                }
+            });
+            futures.put(id, future);
+        });
 
-        // Фильтрация и сортировка результатов:
-        return allNews.stream()
-                .filter(Objects::nonNull)  // Удаляем null-значения
-                .sorted(Comparator.comparing(NewsItem::getPublishedAt).reversed())  // Сортируем по дате (новые сначала)
-                .collect(Collectors.toList());  // Преобразуем в список
+        // Один общий дедлайн на весь запрос: ждем все источники, но не дольше requestTimeoutSeconds
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .completeOnTimeout(null, requestTimeoutSeconds, TimeUnit.SECONDS)
+                .handle((ignored, error) -> collectCompleted(futures));
+    }
+
+    // Собирает результаты источников, успевших к дедлайну, и отменяет опоздавшие.
+    // Вместо отключенного, упавшего или опоздавшего источника используется его последний успешный ответ
+    private Map<String, List<NewsItem>> collectCompleted(Map<String, CompletableFuture<FetchResult>> futures) {
+        Map<String, List<NewsItem>> batches = new LinkedHashMap<>();
+        futures.forEach((source, future) -> {
+            if (!future.isDone()) {
+                future.cancel(true);  // Прерываем зависшие запросы
+                log.warn("Request to {} timed out", source);  // Логируем таймаут
+            }
+            FetchResult result = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+            if (result != null && !result.isFailed()) {
+                batches.put(source, result.getItems());
+                lastGoodBatches.put(source, result.getItems());
+            } else {
+                List<NewsItem> lastGood = lastGoodBatches.get(source);
+                if (lastGood != null) {
+                    batches.put(source, lastGood);
+                }
+            }
+        });
+        return batches;
+    }
+
+    // Удаляет дубликаты и объединяет пакеты всех источников
+    private List<NewsItem> mergeBatches(Map<String, List<NewsItem>> batches) {
+        long start = System.nanoTime();
+        // Одна и та же статья приходит из разных запросов - оставляем одну копию
+        List<List<NewsItem>> unique = newsDeduplicator.deduplicate(batches);
+        // K-путевое слияние пакетов (новые сначала, без даты - в конце) с отсечкой по news.aggregation.max-items
+        List<NewsItem> merged = newsMerger.merge(unique);
+        newsMetrics.recordMerge("request", System.nanoTime() - start);
+        if (!ingestionEnabled) {
+            searchIndex.sync(merged);  // Индекс по последнему результату агрегации
+        }
+        return merged;
     }
 
     // Возвращает список URL API для различных источников новостей
     List<String> getNewsSources() {
-        return Arrays.asList(
-                // Российские новости
-                String.format("https://newsapi.org/v2/top-headlines?country=ru&apiKey=%s", apiKey),
-                // BBC News
-                String.format("https://newsapi.org/v2/everything?domains=bbc.co.uk&apiKey=%s", apiKey),
-                // TechCrunch
-                String.format("https://newsapi.org/v2/top-headlines?sources=techcrunch&apiKey=%s", apiKey)
-        );
-    }
-
-    // Получает новости из конкретного источника
-    List<NewsItem> fetchNewsFromSource(String apiUrl) {
-        try {
-            // Выполняем HTTP-запрос и десериализуем ответ
-            NewsApiResponse response = restTemplate.getForObject(apiUrl, NewsApiResponse.class);
-            // Безопасное извлечение списка новостей (защита от NPE)
-            return Optional.ofNullable(response)
-                    .map(NewsApiResponse::getArticles)
-                    .orElse(Collections.emptyList());
-        } catch (Exception e) {
-            // Логируем ошибки запросов
-            System.err.printf("Error fetching news from %s: %s%n", apiUrl, e.getMessage());
-            return Collections.emptyList();  // Возвращаем пустой список при ошибке
-        }
+        return sourceCatalog.getSources().values().stream().map(NewsSource::getUrl).toList();
     }
-}
\ No newline at end of file
+}
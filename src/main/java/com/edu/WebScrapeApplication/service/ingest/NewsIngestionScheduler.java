@@ -0,0 +1,476 @@
+package com.edu.WebScrapeApplication.service.ingest;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.fetch.FetchResult;
+import com.edu.WebScrapeApplication.service.fetch.NewsSource;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceCatalog;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceClient;
+import com.edu.WebScrapeApplication.service.metrics.NewsMetrics;
+import com.edu.WebScrapeApplication.service.resilience.CircuitOpenException;
+import com.edu.WebScrapeApplication.service.resilience.SourceCircuitBreakers;
+import com.edu.WebScrapeApplication.service.store.ArticleStore;
+import com.edu.WebScrapeApplication.service.stream.NewsStreamHub;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновый опрос источников по расписанию.
+ * <p>
+ * Каждый включенный источник каталога опрашивается со своим интервалом ({@code news.sources.<id>.interval-seconds},
+ * по умолчанию {@code news.ingestion.interval.seconds}), результаты добавляются в {@link ArticleStore}.
+ * Первый круг запускается сразу при старте, поэтому к первому запросу данные уже загружены.
+ * Планировщик только запускает опросы: сами запросы выполняются в общем пуле загрузки источников.
+ * При перезагрузке каталога новые источники опрашиваются сразу, у измененных пересоздается расписание,
+ * а статьи убранных или выключенных источников удаляются из хранилища.
+ * <p>
+ * Опрос инкрементальный: для каждого источника запоминается самая поздняя дата публикации
+ * (high-water mark), и эндпоинт {@code /v2/everything} запрашивается с параметром {@code from=},
+ * поэтому повторно скачиваются только новые статьи. {@code /v2/top-headlines} параметр {@code from}
+ * не поддерживает и загружается целиком; в обоих случаях хранилище сливает ответ с уже известными статьями по URL.
+ * <p>
+ * Дельта читается страницами ({@code page=}, {@code pageSize=}) до первой неполной страницы, но не больше
+ * {@code news.ingestion.max-pages} страниц за опрос. Если дельта не дочитана (например, после простоя источника),
+ * метка не сдвигается, а следующий опрос продолжает со следующей страницы: новые статьи только сдвигают
+ * страницы вниз, поэтому статьи между меткой и последней прочитанной страницей не теряются.
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsIngestionScheduler {
+
+    // Журнал log4j2 (настройки в log4j2.xml)
+    private static final Logger log = LogManager.getLogger(NewsIngestionScheduler.class);
+
+    // Период вытеснения устаревших статей
+    private static final long EVICTION_PERIOD_SECONDS = 60;
+    // Метка не установлена: источник еще не вернул ни одной статьи с датой
+    private static final long NO_MARK = Long.MIN_VALUE;
+    // Наибольший pageSize, который принимает NewsAPI
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Источники новостей
+    private final NewsSourceCatalog sourceCatalog;
+    // Загрузка статей источника
+    private final NewsSourceClient sourceClient;
+    // Хранилище статей
+    private final ArticleStore articleStore;
+    // Включен ли фоновый опрос
+    private final boolean enabled;
+    // Предохранители и адаптивные таймауты источников
+    private final SourceCircuitBreakers circuitBreakers;
+    // Метрики запросов к источникам
+    private final NewsMetrics newsMetrics;
+    // Рассылка новых статей подписчикам потока
+    private final NewsStreamHub streamHub;
+    // Размер страницы инкрементального опроса (не больше лимита разбора ответа источника)
+    private final int pageSize;
+    // Максимум страниц дельты за один опрос
+    private final int maxPages;
+
+    // Состояние опроса по источникам
+    private final Map<String, SourceState> states = new ConcurrentHashMap<>();
+    // Поток планировщика (создается при старте)
+    private ScheduledExecutorService scheduler;
+
+    // Конструктор с dependency injection
+    public NewsIngestionScheduler(
+            NewsSourceCatalog sourceCatalog,
+            NewsSourceClient sourceClient,
+            ArticleStore articleStore,
+            SourceCircuitBreakers circuitBreakers,
+            NewsMetrics newsMetrics,
+            NewsStreamHub streamHub,
+            @Value("${news.ingestion.enabled:false}") boolean enabled,
+            @Value("${news.fetch.max-articles-per-source:100}") int maxArticlesPerSource,
+            @Value("${news.ingestion.max-pages:5}") int maxPages) {
+        if (maxArticlesPerSource <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("Ingestion page size and page limit must be positive");
+        }
+        this.sourceCatalog = sourceCatalog;
+        this.sourceClient = sourceClient;
+        this.articleStore = articleStore;
+        this.circuitBreakers = circuitBreakers;
+        this.newsMetrics = newsMetrics;
+        this.streamHub = streamHub;
+        this.enabled = enabled;
+        this.pageSize = Math.min(maxArticlesPerSource, MAX_PAGE_SIZE);
+        this.maxPages = maxPages;
+        sourceCatalog.getSources().forEach((id, source) -> states.put(id, new SourceState(source)));
+    }
+
+    // Запускает первый круг опроса и расписание
+    @PostConstruct
+    public synchronized void start() {
+        sourceCatalog.addListener(this::onSourcesChanged);
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "news-ingestion");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Первый круг: хранилище считается заполненным, когда ответили (или не успели) все источники
+        List<CompletableFuture<Integer>> firstRound = new ArrayList<>();
+        for (String id : states.keySet()) {
+            firstRound.add(poll(id));
+        }
+        CompletableFuture.allOf(firstRound.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, error) -> articleStore.markWarm());
+
+        states.forEach((id, state) -> schedule(id, state, state.source.getIntervalSeconds()));
+        scheduler.scheduleWithFixedDelay(articleStore::evictExpired,
+                EVICTION_PERIOD_SECONDS, EVICTION_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Останавливает расписание
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Приводит состояния и расписание к новому списку источников каталога
+    private synchronized void onSourcesChanged(Map<String, NewsSource> sources) {
+        for (Iterator<Map.Entry<String, SourceState>> it = states.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, SourceState> entry = it.next();
+            if (!sources.containsKey(entry.getKey())) {
+                cancel(entry.getValue());
+                it.remove();
+                int removed = articleStore.removeSource(entry.getKey());
+                log.info("Source {} removed from ingestion, {} articles dropped", entry.getKey(), removed);
+            }
+        }
+        sources.forEach((id, source) -> {
+            SourceState state = states.get(id);
+            if (state != null && state.url.equals(source.getUrl())) {
+                // Тот же запрос: метка и статистика сохраняются, при смене интервала пересоздается расписание
+                long interval = state.source.getIntervalSeconds();
+                state.source = source;
+                if (interval != source.getIntervalSeconds() && scheduler != null) {
+                    cancel(state);
+                    schedule(id, state, source.getIntervalSeconds());
+                }
+                return;
+            }
+            // Новый источник или другой URL: прежняя метка к нему не относится, опрашиваем сразу
+            if (state != null) {
+                cancel(state);
+            }
+            SourceState fresh = new SourceState(source);
+            states.put(id, fresh);
+            if (scheduler != null) {
+                schedule(id, fresh, 0);
+            }
+        });
+    }
+
+    // Ставит периодический опрос источника в расписание
+    private void schedule(String sourceId, SourceState state, long initialDelaySeconds) {
+        long interval = state.source.getIntervalSeconds();
+        state.task = scheduler.scheduleWithFixedDelay(() -> poll(sourceId), initialDelaySeconds, interval, TimeUnit.SECONDS);
+    }
+
+    private static void cancel(SourceState state) {
+        if (state.task != null) {
+            state.task.cancel(false);
+        }
+    }
+
+    /**
+     * Опрашивает источник и добавляет статьи в хранилище.
+     * Если предыдущий опрос источника еще выполняется или предохранитель источника разомкнут,
+     * новый не запускается; в хранилище при этом остаются последние полученные статьи источника.
+     * @param sourceId идентификатор источника
+     * @return future с числом новых статей (0 при ошибке, таймауте, пропуске или для убранного источника)
+     */
+    CompletableFuture<Integer> poll(String sourceId) {
+        SourceState state = states.get(sourceId);
+        if (state == null || !state.inFlight.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(0);
+        }
+        // Инкрементальный запрос возможен, когда известны метка и размер полной страницы для оценки экономии
+        long mark = state.highWaterMark;
+        boolean incremental = state.supportsFrom && mark != NO_MARK && state.fullPageBytes > 0;
+        NewsSource source = state.source;
+        CompletableFuture<Delta> response = incremental
+                ? fetchDelta(sourceId, source, state, mark, state.nextPage, new Delta())
+                : fetch(sourceId, source, state.url).thenApply(result -> new Delta().add(result, 1));
+        return response
+                .thenApply(delta -> {
+                    if (delta.notModified && delta.pages == 1) {
+                        // 304: статьи источника в хранилище не изменились - ни разбора, ни пересборки снимка
+                        state.notModified.incrementAndGet();
+                        return 0;
+                    }
+                    recordResponse(state, delta, incremental);
+                    int added = articleStore.put(sourceId, delta.items);
+                    streamHub.publish(source, delta.items);
+                    return added;
+                })
+                .handle((added, error) -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof CircuitOpenException || cause instanceof RejectedExecutionException) {
+                        // Источник отключен или очередь загрузок переполнена - опрос не выполнялся,
+                        // в хранилище остаются прежние статьи источника
+                        state.skipped.incrementAndGet();
+                        added = 0;
+                    } else {
+                        state.polls.incrementAndGet();
+                        state.lastPollAt = System.currentTimeMillis();
+                        if (error != null) {
+                            state.failures.incrementAndGet();
+                            log.warn("Ingestion of {} failed: {}", sourceId, cause.toString());
+                            added = 0;
+                        }
+                        state.lastAdded = added;
+                    }
+                    state.inFlight.set(false);
+                    return added;
+                });
+    }
+
+    // Загружает страницы дельты после метки, пока страница не придет неполной или не кончится лимит страниц опроса
+    private CompletableFuture<Delta> fetchDelta(String sourceId, NewsSource source, SourceState state, long mark,
+                                                int page, Delta delta) {
+        String url = withFrom(withPage(state.url, page, pageSize), mark);
+        return fetch(sourceId, source, url).thenCompose(result -> {
+            delta.add(result, page + 1);
+            if (result.getItems().size() < pageSize) {
+                delta.nextPage = 1;  // Дельта дочитана
+            } else if (!result.isNotModified() && delta.pages < maxPages) {
+                return fetchDelta(sourceId, source, state, mark, page + 1, delta);
+            }
+            return CompletableFuture.completedFuture(delta);
+        });
+    }
+
+    // Один запрос к источнику через предохранитель; адаптивный таймаут (не больше таймаута источника)
+    // прерывает задачу загрузки, ошибка загрузки завершает future исключением
+    private CompletableFuture<FetchResult> fetch(String sourceId, NewsSource source, String url) {
+        long start = System.nanoTime();
+        return circuitBreakers.call(sourceId, source.getTimeoutMillis(),
+                        () -> sourceClient.fetchResultAsync(source, url), FetchResult::isFailed)
+                .whenComplete((result, error) -> newsMetrics.recordSource(sourceId, result, error, System.nanoTime() - start))
+                .thenApply(result -> {
+                    if (result.isFailed()) {
+                        throw new CompletionException(result.getError());
+                    }
+                    return result;
+                });
+    }
+
+    // Учитывает объем ответа, экономию относительно полной страницы и сдвигает метку источника.
+    // Пока дельта не дочитана, метка стоит на месте, а самая поздняя дата копится до конца дельты
+    private void recordResponse(SourceState state, Delta delta, boolean incremental) {
+        int articles = delta.items.size();
+        state.bytesDownloaded.addAndGet(delta.bytes);
+        state.articlesDownloaded.addAndGet(articles);
+        if (incremental) {
+            state.incrementalPolls.incrementAndGet();
+            state.bytesSaved.addAndGet(Math.max(0, state.fullPageBytes - delta.bytes));
+            state.articlesSaved.addAndGet(Math.max(0, state.fullPageArticles - articles));
+        } else if (articles > 0) {
+            state.fullPageBytes = delta.bytes;
+            state.fullPageArticles = articles;
+        }
+        long newest = Math.max(state.pendingMark, highWaterMark(delta.items, System.currentTimeMillis()));
+        if (incremental && delta.nextPage > 1) {
+            state.pendingMark = newest;
+            state.nextPage = delta.nextPage;
+        } else {
+            state.highWaterMark = Math.max(state.highWaterMark, newest);
+            state.pendingMark = NO_MARK;
+            state.nextPage = 1;
+        }
+    }
+
+    // Самая поздняя дата публикации в ответе, не позже текущего времени (дата "из будущего" остановила бы опрос)
+    static long highWaterMark(List<NewsItem> items, long now) {
+        long mark = NO_MARK;
+        for (NewsItem item : items) {
+            if (item.hasPublishedAt()) {
+                mark = Math.max(mark, Math.min(item.getPublishedAtMillis(), now));
+            }
+        }
+        return mark;
+    }
+
+    // Добавляет к URL параметр from= с точностью до секунды. NewsAPI включает границу,
+    // поэтому статья с датой метки придет повторно и будет отброшена хранилищем по URL
+    static String withFrom(String url, long mark) {
+        String from = DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochSecond(Math.floorDiv(mark, 1000)));
+        return url + (url.contains("?") ? "&" : "?") + "from=" + from;
+    }
+
+    // Добавляет к URL параметры страницы
+    static String withPage(String url, int page, int pageSize) {
+        return url + (url.contains("?") ? "&" : "?") + "pageSize=" + pageSize + "&page=" + page;
+    }
+
+    // Поддерживает ли эндпоинт параметр from (только /v2/everything)
+    static boolean supportsFrom(String url) {
+        return url.contains("/v2/everything");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Статистика опроса по источникам (в порядке каталога), отдаваемая через /api/stats/ingestion
+    public Map<String, SourceStats> getSourceStats() {
+        Map<String, SourceStats> result = new LinkedHashMap<>();
+        for (String id : sourceCatalog.getSources().keySet()) {
+            SourceState state = states.get(id);
+            if (state != null) {
+                result.put(id, new SourceStats(state, state.highWaterMark == NO_MARK
+                        ? null : Instant.ofEpochMilli(state.highWaterMark).toString()));
+            }
+        }
+        return result;
+    }
+
+    // Состояние опроса одного источника
+    private static final class SourceState {
+        private final String url;
+        private final boolean supportsFrom;
+        // Текущие настройки источника (интервал, таймаут, лимит) - обновляются при перезагрузке каталога
+        private volatile NewsSource source;
+        // Периодический опрос в расписании
+        private volatile ScheduledFuture<?> task;
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+        private final AtomicLong polls = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong incrementalPolls = new AtomicLong();
+        private final AtomicLong bytesDownloaded = new AtomicLong();
+        private final AtomicLong articlesDownloaded = new AtomicLong();
+        private final AtomicLong bytesSaved = new AtomicLong();
+        private final AtomicLong articlesSaved = new AtomicLong();
+        private final AtomicLong notModified = new AtomicLong();
+        private volatile long lastPollAt;
+        private volatile int lastAdded;
+        // Самая поздняя дата публикации среди полученных статей
+        private volatile long highWaterMark = NO_MARK;
+        // Страница, с которой продолжится недочитанная дельта (1 - дельта дочитана)
+        private volatile int nextPage = 1;
+        // Самая поздняя дата публикации в недочитанной дельте; станет меткой, когда дельта будет дочитана
+        private volatile long pendingMark = NO_MARK;
+        // Размер последнего полного (не инкрементального) ответа
+        private volatile long fullPageBytes;
+        private volatile int fullPageArticles;
+
+        private SourceState(NewsSource source) {
+            this.url = source.getUrl();
+            this.supportsFrom = supportsFrom(url);
+            this.source = source;
+        }
+    }
+
+    // Статьи и объем ответов одного опроса (одна или несколько страниц)
+    private static final class Delta {
+        private final List<NewsItem> items = new ArrayList<>();
+        private long bytes;
+        private int pages;
+        // Последняя страница пришла с ответом 304 Not Modified
+        private boolean notModified;
+        // Страница, с которой продолжить дельту следующим опросом
+        private int nextPage;
+
+        private Delta add(FetchResult result, int nextPage) {
+            items.addAll(result.getItems());
+            bytes += result.getBytes();
+            pages++;
+            notModified = result.isNotModified();
+            this.nextPage = nextPage;
+            return this;
+        }
+    }
+
+    // Статистика опроса одного источника
+    public static final class SourceStats {
+        private final long intervalSeconds;
+        private final long polls;
+        private final long failures;
+        private final long skipped;
+        private final long lastPollAt;
+        private final int lastAdded;
+        private final String highWaterMark;
+        private final long incrementalPolls;
+        private final long bytesDownloaded;
+        private final long articlesDownloaded;
+        private final long bytesSaved;
+        private final long articlesSaved;
+        private final long notModified;
+
+        private SourceStats(SourceState state, String highWaterMark) {
+            this.intervalSeconds = state.source.getIntervalSeconds();
+            this.polls = state.polls.get();
+            this.failures = state.failures.get();
+            this.skipped = state.skipped.get();
+            this.lastPollAt = state.lastPollAt;
+            this.lastAdded = state.lastAdded;
+            this.highWaterMark = highWaterMark;
+            this.incrementalPolls = state.incrementalPolls.get();
+            this.bytesDownloaded = state.bytesDownloaded.get();
+            this.articlesDownloaded = state.articlesDownloaded.get();
+            this.bytesSaved = state.bytesSaved.get();
+            this.articlesSaved = state.articlesSaved.get();
+            this.notModified = state.notModified.get();
+        }
+
+        // Интервал опроса в секундах
+        public long getIntervalSeconds() { return intervalSeconds; }
+
+        // Выполнено опросов
+        public long getPolls() { return polls; }
+
+        // Опросов, завершившихся ошибкой или таймаутом
+        public long getFailures() { return failures; }
+
+        // Опросов, пропущенных из-за разомкнутого предохранителя
+        public long getSkipped() { return skipped; }
+
+        // Время последнего опроса (мс с начала эпохи)
+        public long getLastPollAt() { return lastPollAt; }
+
+        // Новых статей за последний опрос
+        public int getLastAdded() { return lastAdded; }
+
+        // Самая поздняя дата публикации (ISO-8601) или null, если статей с датой еще не было
+        public String getHighWaterMark() { return highWaterMark; }
+
+        // Опросов с параметром from=
+        public long getIncrementalPolls() { return incrementalPolls; }
+
+        // Скачано байт тела ответов
+        public long getBytesDownloaded() { return bytesDownloaded; }
+
+        // Скачано статей
+        public long getArticlesDownloaded() { return articlesDownloaded; }
+
+        // Байт сэкономлено инкрементальными опросами относительно полной страницы
+        public long getBytesSaved() { return bytesSaved; }
+
+        // Статей не скачано повторно благодаря инкрементальным опросам
+        public long getArticlesSaved() { return articlesSaved; }
+
+        // Опросов с ответом 304 Not Modified (тело не передавалось)
+        public long getNotModified() { return notModified; }
+    }
+}
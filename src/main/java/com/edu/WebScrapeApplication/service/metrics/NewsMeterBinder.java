@@ -0,0 +1,131 @@
+package com.edu.WebScrapeApplication.service.metrics;
+
+import com.edu.WebScrapeApplication.service.fetch.FetchScheduler;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceCatalog;
+import com.edu.WebScrapeApplication.service.resilience.CircuitBreaker;
+import com.edu.WebScrapeApplication.service.resilience.SourceCircuitBreakers;
+import com.edu.WebScrapeApplication.service.resilience.SourceHedging;
+import com.edu.WebScrapeApplication.service.search.NewsSearchIndex;
+import com.edu.WebScrapeApplication.service.stream.NewsStreamHub;
+import com.edu.WebScrapeApplication.service.store.ArticleStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Метрики состояния, которые читаются при каждом сборе: пул загрузки источников,
+ * предохранители, хеджирование, хранилище статей и поисковый индекс. Spring Boot регистрирует MeterBinder автоматически.
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsMeterBinder implements MeterBinder {
+
+    // Переходы предохранителя, публикуемые счетчиками
+    private static final CircuitBreaker.State[][] TRANSITIONS = {
+            {CircuitBreaker.State.CLOSED, CircuitBreaker.State.OPEN},
+            {CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN},
+            {CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED},
+            {CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.OPEN}};
+
+    private final NewsSourceCatalog sourceCatalog;
+    private final SourceCircuitBreakers circuitBreakers;
+    private final SourceHedging sourceHedging;
+    private final ArticleStore articleStore;
+    private final ExecutorService newsExecutorService;
+    private final FetchScheduler fetchScheduler;
+    private final NewsSearchIndex searchIndex;
+    private final NewsStreamHub streamHub;
+
+    // Конструктор с dependency injection
+    public NewsMeterBinder(NewsSourceCatalog sourceCatalog, SourceCircuitBreakers circuitBreakers,
+                           SourceHedging sourceHedging, ArticleStore articleStore,
+                           ExecutorService newsExecutorService, FetchScheduler fetchScheduler,
+                           NewsSearchIndex searchIndex, NewsStreamHub streamHub) {
+        this.sourceCatalog = sourceCatalog;
+        this.circuitBreakers = circuitBreakers;
+        this.sourceHedging = sourceHedging;
+        this.articleStore = articleStore;
+        this.newsExecutorService = newsExecutorService;
+        this.fetchScheduler = fetchScheduler;
+        this.searchIndex = searchIndex;
+        this.streamHub = streamHub;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // executor.active, executor.queued, executor.pool.size и др. с тегом name=news
+        // (для пула фиксированного размера; виртуальные потоки не имеют очереди и пула)
+        new ExecutorServiceMetrics(newsExecutorService, "news", Tags.empty()).bindTo(registry);
+
+        sourceCatalog.getSources().keySet().forEach(sourceId -> bindSource(registry, sourceId));
+        // Источники, добавленные перезагрузкой каталога (повторная регистрация метра ничего не меняет)
+        sourceCatalog.addListener(sources -> sources.keySet().forEach(sourceId -> bindSource(registry, sourceId)));
+
+        Gauge.builder("news.fetch.queue.size", fetchScheduler, FetchScheduler::getQueued)
+                .description("Fetches waiting in the bounded priority queue")
+                .register(registry);
+        Gauge.builder("news.fetch.running", fetchScheduler, FetchScheduler::getRunning)
+                .register(registry);
+        FunctionCounter.builder("news.fetch.rejected", fetchScheduler, s -> s.getStats().getRejected())
+                .register(registry);
+        FunctionCounter.builder("news.fetch.shed", fetchScheduler, s -> s.getStats().getShed())
+                .register(registry);
+
+        Gauge.builder("news.store.articles", articleStore, store -> store.getStats().getArticles())
+                .description("Articles held by the ingestion store")
+                .register(registry);
+        Gauge.builder("news.store.snapshot.size", articleStore, store -> store.getSnapshot().size())
+                .register(registry);
+
+        Gauge.builder("news.search.documents", searchIndex, index -> index.getStats().getDocuments())
+                .description("Articles in the full-text search index")
+                .register(registry);
+        FunctionCounter.builder("news.search.queries", searchIndex, index -> index.getStats().getQueries())
+                .register(registry);
+
+        Gauge.builder("news.stream.subscribers", streamHub, NewsStreamHub::getSubscribers)
+                .description("Open /api/news/stream connections")
+                .register(registry);
+        FunctionCounter.builder("news.stream.items", streamHub, hub -> hub.getStats().getItems())
+                .description("New articles pushed to the stream")
+                .register(registry);
+        FunctionCounter.builder("news.stream.resyncs", streamHub, hub -> hub.getStats().getResyncs())
+                .description("Slow subscribers whose queue overflowed")
+                .register(registry);
+    }
+
+    // Метрики предохранителя и хеджирования одного источника
+    private void bindSource(MeterRegistry registry, String sourceId) {
+        CircuitBreaker breaker = circuitBreakers.forSource(sourceId);
+        Gauge.builder("news.breaker.state", breaker, b -> b.getState().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("source", sourceId)
+                .register(registry);
+        for (CircuitBreaker.State[] transition : TRANSITIONS) {
+            FunctionCounter.builder("news.breaker.transitions", breaker,
+                            b -> b.getTransitionCount(transition[0], transition[1]))
+                    .tags("source", sourceId, "from", transition[0].name(), "to", transition[1].name())
+                    .register(registry);
+        }
+        Gauge.builder("news.breaker.timeout", circuitBreakers, b -> b.timeoutMillis(sourceId))
+                .description("Adaptive request timeout")
+                .tag("source", sourceId)
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("news.hedge.sent", sourceHedging, h -> h.statsOf(sourceId).getHedged())
+                .tag("source", sourceId)
+                .register(registry);
+        FunctionCounter.builder("news.hedge.wins", sourceHedging, h -> h.statsOf(sourceId).getHedgeWins())
+                .tag("source", sourceId)
+                .register(registry);
+        FunctionCounter.builder("news.hedge.budget.denied", sourceHedging,
+                        h -> h.statsOf(sourceId).getBudgetDenied())
+                .tag("source", sourceId)
+                .register(registry);
+    }
+}
@@ -0,0 +1,114 @@
+package com.edu.WebScrapeApplication.service.metrics;
+
+import com.edu.WebScrapeApplication.service.fetch.FetchResult;
+import com.edu.WebScrapeApplication.service.resilience.CircuitOpenException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Метрики пути агрегации: запросы к источникам и слияние результатов.
+ * <p>
+ * Все метры источников имеют тег {@code source} (идентификатор из {@code NewsSourceCatalog}),
+ * таймеры публикуют гистограммы для расчета перцентилей в Prometheus.
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsMetrics {
+
+    // Реестр метрик (Prometheus в приложении, SimpleMeterRegistry в тестах)
+    private final MeterRegistry registry;
+
+    public NewsMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Учитывает исход запроса к источнику.
+     * @param sourceId идентификатор источника
+     * @param result ответ источника (null, если future завершился ошибкой)
+     * @param error ошибка future: таймаут, отмена по дедлайну, разомкнутый предохранитель, отказ очереди
+     * @param totalNanos время от постановки запроса до его завершения, включая ожидание в очереди
+     */
+    public void recordSource(String sourceId, FetchResult result, Throwable error, long totalNanos) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CircuitOpenException) {
+            counter("news.source.rejected", sourceId).increment();  // Запрос не выполнялся
+            return;
+        }
+        if (cause instanceof RejectedExecutionException) {
+            counter("news.source.shed", sourceId).increment();  // Отклонен или вытеснен очередью загрузок
+            return;
+        }
+        timer("news.source.total", sourceId).record(totalNanos, TimeUnit.NANOSECONDS);
+        if (cause instanceof TimeoutException || cause instanceof CancellationException) {
+            counter("news.source.timeouts", sourceId).increment();
+        } else if (cause != null || result == null || result.isFailed()) {
+            counter("news.source.errors", sourceId).increment();
+        } else {
+            timer("news.source.queue", sourceId).record(result.getQueueNanos(), TimeUnit.NANOSECONDS);
+            timer("news.source.fetch", sourceId).record(result.getFetchNanos(), TimeUnit.NANOSECONDS);
+            if (result.isNotModified()) {
+                counter("news.source.not-modified", sourceId).increment();  // 304: тело не передавалось и не разбиралось
+                return;
+            }
+            timer("news.source.deserialize", sourceId).record(result.getParseNanos(), TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("news.source.articles")
+                    .description("Articles per source response")
+                    .tag("source", sourceId)
+                    .register(registry)
+                    .record(result.getItems().size());
+            if (result.getItems().isEmpty()) {
+                counter("news.source.empty", sourceId).increment();
+            }
+        }
+    }
+
+    /**
+     * Учитывает время удаления дубликатов и слияния пакетов источников.
+     * @param path где выполнялось слияние: request (агрегация по запросу) или store (снимок хранилища)
+     * @param nanos длительность
+     */
+    public void recordMerge(String path, long nanos) {
+        Timer.builder("news.aggregation.merge")
+                .description("Deduplication and k-way merge of source batches")
+                .tag("path", path)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Учитывает время до первого ответа в режимах частичной выдачи.
+     * @param mode quorum (кворум источников) или progressive (первое окно выдачи по мере ответа)
+     * @param early ответ отдан до завершения агрегации (false - кворум не набран или ответ был готов)
+     * @param nanos время от начала запроса
+     */
+    public void recordPartialResponse(String mode, boolean early, long nanos) {
+        Timer.builder("news.response.partial")
+                .description("Time to the first partial response")
+                .tag("mode", mode)
+                .tag("early", Boolean.toString(early))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String name, String sourceId) {
+        return Timer.builder(name)
+                .tag("source", sourceId)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter counter(String name, String sourceId) {
+        return registry.counter(name, "source", sourceId);
+    }
+}
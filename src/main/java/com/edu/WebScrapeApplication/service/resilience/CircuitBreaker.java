@@ -0,0 +1,222 @@
+package com.edu.WebScrapeApplication.service.resilience;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Предохранитель одного источника: CLOSED - запросы идут, OPEN - запросы отклоняются,
+ * HALF_OPEN - после паузы пропускается один пробный запрос.
+ * <p>
+ * Размыкается после {@code failureThreshold} ошибок подряд. Пробный запрос замыкает предохранитель
+ * при успехе и снова размыкает на {@code openMillis} при ошибке.
+ * <p>
+ * Каждое размыкание начинает новое поколение. Исход запроса, разрешенного в прошлом поколении
+ * (например, успех, пришедший уже после размыкания), учитывается в счетчиках, но состояние не меняет.
+ */
+public class CircuitBreaker {
+
+    // Состояние предохранителя
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // Ошибок подряд до размыкания
+    private final int failureThreshold;
+    // Пауза до пробного запроса
+    private final long openMillis;
+    // Источник времени (мс)
+    private final LongSupplier clock;
+    // Задержки успешных запросов
+    private final LatencyWindow latencies;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    // Поколение: увеличивается при каждом размыкании
+    private long generation;
+    // Пробный запрос в состоянии HALF_OPEN уже выполняется
+    private boolean probeInFlight;
+
+    // Счетчики
+    private long successes;
+    private long failures;
+    private long rejected;
+    private long lastTransitionAt;
+    // Переходы вида "CLOSED->OPEN" и их число
+    private final Map<String, Long> transitions = new TreeMap<>();
+
+    public CircuitBreaker(int failureThreshold, long openMillis, int latencyWindow, LongSupplier clock) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Circuit breaker failure threshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+        this.latencies = new LatencyWindow(latencyWindow);
+    }
+
+    /**
+     * Решает, можно ли выполнить запрос. Разомкнутый предохранитель по истечении паузы
+     * переходит в HALF_OPEN и пропускает ровно один пробный запрос.
+     * @return true - запрос разрешен, и его исход нужно сообщить через onSuccess/onFailure
+     */
+    public synchronized boolean tryAcquire() {
+        return acquire() >= 0;
+    }
+
+    /**
+     * То же, что {@link #tryAcquire()}, но возвращает поколение, в котором разрешен запрос.
+     * Его нужно передать вместе с исходом запроса, чтобы опоздавший исход не изменил состояние.
+     * @return поколение или -1, если запрос отклонен
+     */
+    public synchronized long acquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMillis) {
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.CLOSED) {
+            return generation;
+        }
+        if (state == State.HALF_OPEN && !probeInFlight) {
+            probeInFlight = true;
+            return generation;
+        }
+        rejected++;
+        return -1;
+    }
+
+    // Успешный запрос текущего поколения
+    public synchronized void onSuccess(long latencyMillis) {
+        onSuccess(latencyMillis, generation);
+    }
+
+    // Успешный запрос: сбрасывает счетчик ошибок и замыкает предохранитель после пробы
+    public synchronized void onSuccess(long latencyMillis, long acquiredGeneration) {
+        latencies.record(latencyMillis);
+        successes++;
+        if (acquiredGeneration != generation) {
+            return;  // Запрос начат до размыкания: его успех не говорит, что источник восстановился
+        }
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    // Ошибка или таймаут запроса текущего поколения
+    public synchronized void onFailure() {
+        onFailure(generation);
+    }
+
+    // Ошибка или таймаут: неудачная проба или порог ошибок подряд размыкают предохранитель
+    public synchronized void onFailure(long acquiredGeneration) {
+        failures++;
+        if (acquiredGeneration != generation) {
+            return;  // Предохранитель уже разомкнут из-за этих ошибок
+        }
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = clock.getAsLong();
+            generation++;
+            transition(State.OPEN);
+        }
+    }
+
+    // Запрос текущего поколения не выполнялся по причине, не связанной с источником
+    public synchronized void onIgnored() {
+        onIgnored(generation);
+    }
+
+    // Запрос не выполнялся или отменен по причине, не связанной с источником (отклонен очередью загрузки,
+    // отменен по общему дедлайну): исход не учитывается, но место пробного запроса освобождается
+    public synchronized void onIgnored(long acquiredGeneration) {
+        if (acquiredGeneration == generation) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // Число переходов from -> to
+    public synchronized long getTransitionCount(State from, State to) {
+        return transitions.getOrDefault(from + "->" + to, 0L);
+    }
+
+    public LatencyWindow getLatencies() {
+        return latencies;
+    }
+
+    // Снимок состояния для статистики
+    public synchronized BreakerStats getStats(long timeoutMillis) {
+        return new BreakerStats(state, consecutiveFailures, successes, failures, rejected,
+                new TreeMap<>(transitions), lastTransitionAt, latencies.percentile(0.5), latencies.percentile(0.95),
+                timeoutMillis);
+    }
+
+    private void transition(State target) {
+        transitions.merge(state + "->" + target, 1L, Long::sum);
+        state = target;
+        lastTransitionAt = clock.getAsLong();
+    }
+
+    // Статистика предохранителя источника
+    public static final class BreakerStats {
+        private final State state;
+        private final int consecutiveFailures;
+        private final long successes;
+        private final long failures;
+        private final long rejected;
+        private final Map<String, Long> transitions;
+        private final long lastTransitionAt;
+        private final long p50Millis;
+        private final long p95Millis;
+        private final long timeoutMillis;
+
+        public BreakerStats(State state, int consecutiveFailures, long successes, long failures, long rejected,
+                            Map<String, Long> transitions, long lastTransitionAt, long p50Millis, long p95Millis,
+                            long timeoutMillis) {
+            this.state = state;
+            this.consecutiveFailures = consecutiveFailures;
+            this.successes = successes;
+            this.failures = failures;
+            this.rejected = rejected;
+            this.transitions = transitions;
+            this.lastTransitionAt = lastTransitionAt;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        // Текущее состояние
+        public State getState() { return state; }
+
+        // Ошибок подряд
+        public int getConsecutiveFailures() { return consecutiveFailures; }
+
+        // Успешных запросов
+        public long getSuccesses() { return successes; }
+
+        // Запросов с ошибкой или таймаутом
+        public long getFailures() { return failures; }
+
+        // Запросов, отклоненных без обращения к источнику
+        public long getRejected() { return rejected; }
+
+        // Число переходов между состояниями ("CLOSED->OPEN" и т.д.)
+        public Map<String, Long> getTransitions() { return transitions; }
+
+        // Время последнего перехода (мс с начала эпохи, 0 - переходов не было)
+        public long getLastTransitionAt() { return lastTransitionAt; }
+
+        // Медиана задержки по окну (-1 - замеров нет)
+        public long getP50Millis() { return p50Millis; }
+
+        // 95-й перцентиль задержки по окну (-1 - замеров нет)
+        public long getP95Millis() { return p95Millis; }
+
+        // Текущий адаптивный таймаут запроса
+        public long getTimeoutMillis() { return timeoutMillis; }
+    }
+}
@@ -0,0 +1,9 @@
+package com.edu.WebScrapeApplication.service.resilience;
+
+// Запрос к источнику не выполнялся: предохранитель источника разомкнут
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String sourceId) {
+        super("Circuit breaker is open for source " + sourceId);
+    }
+}
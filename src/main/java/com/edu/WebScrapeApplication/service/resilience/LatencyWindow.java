@@ -0,0 +1,53 @@
+package com.edu.WebScrapeApplication.service.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Скользящее окно последних задержек источника для расчета перцентилей.
+ * <p>
+ * Окно небольшое (сотня замеров), поэтому перцентиль считается сортировкой копии - это дешевле,
+ * чем поддерживать гистограмму, и точнее для редких запросов.
+ */
+public final class LatencyWindow {
+
+    // Кольцевой буфер замеров в миллисекундах
+    private final long[] samples;
+    // Позиция следующей записи
+    private int next;
+    // Число заполненных ячеек
+    private int size;
+
+    public LatencyWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Latency window capacity must be positive");
+        }
+        this.samples = new long[capacity];
+    }
+
+    // Добавляет замер, вытесняя самый старый при заполненном окне
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    // Число замеров в окне
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Перцентиль задержки по замерам окна (метод ближайшего ранга).
+     * @param percentile доля от 0 до 1, например 0.95
+     * @return задержка в миллисекундах или -1, если замеров нет
+     */
+    public synchronized long percentile(double percentile) {
+        if (size == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * size) - 1;
+        return sorted[Math.max(0, Math.min(rank, size - 1))];
+    }
+}
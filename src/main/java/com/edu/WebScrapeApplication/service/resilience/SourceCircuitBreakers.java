@@ -0,0 +1,195 @@
+package com.edu.WebScrapeApplication.service.resilience;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Предохранители и адаптивные таймауты по источникам.
+ * <p>
+ * Таймаут запроса к источнику - перцентиль его недавних задержек, умноженный на запас,
+ * в пределах от {@code news.breaker.timeout.min-millis} до {@code news.api.timeout.seconds}
+ * (или до собственного таймаута источника из {@code news.sources.<id>.timeout-millis}).
+ * Пока замеров мало, используется верхняя граница. Таймаут записывается в окно задержек со своим значением,
+ * поэтому при росте задержки источника таймаут растет вместе с ней; пробный запрос после размыкания
+ * выполняется с верхней границей. Запрос к источнику с разомкнутым
+ * предохранителем не выполняется и сразу завершается {@link CircuitOpenException}.
+ */
+@Component  // Помечает класс как компонент Spring
+public class SourceCircuitBreakers {
+
+    // Замеров до перехода на адаптивный таймаут
+    static final int MIN_SAMPLES = 10;
+    // Размер окна задержек
+    private static final int LATENCY_WINDOW = 100;
+
+    // Включены ли предохранители (выключенные только применяют таймаут news.api.timeout.seconds)
+    private final boolean enabled;
+    // Ошибок подряд до размыкания
+    private final int failureThreshold;
+    // Пауза до пробного запроса (мс)
+    private final long openMillis;
+    // Перцентиль задержек для таймаута
+    private final double percentile;
+    // Запас к перцентилю
+    private final double multiplier;
+    // Границы таймаута (мс)
+    private final long minTimeoutMillis;
+    private final long maxTimeoutMillis;
+    // Источник времени для пауз предохранителя
+    private final LongSupplier clock;
+
+    // Предохранители по идентификатору источника
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    // Верхняя граница таймаута по источникам, переданная последним вызовом call
+    private final Map<String, Long> timeoutLimits = new ConcurrentHashMap<>();
+
+    // Конструктор с параметрами из application.properties
+    @Autowired
+    public SourceCircuitBreakers(
+            @Value("${news.breaker.enabled:true}") boolean enabled,
+            @Value("${news.breaker.failure-threshold:3}") int failureThreshold,
+            @Value("${news.breaker.open.seconds:30}") long openSeconds,
+            @Value("${news.breaker.timeout.percentile:0.99}") double percentile,
+            @Value("${news.breaker.timeout.multiplier:2.0}") double multiplier,
+            @Value("${news.breaker.timeout.min-millis:500}") long minTimeoutMillis,
+            @Value("${news.api.timeout.seconds:5}") int maxTimeoutSeconds) {
+        this(enabled, failureThreshold, TimeUnit.SECONDS.toMillis(openSeconds), percentile, multiplier,
+                minTimeoutMillis, TimeUnit.SECONDS.toMillis(maxTimeoutSeconds), System::currentTimeMillis);
+    }
+
+    // Конструктор для тестов: время в миллисекундах и управляемые часы
+    SourceCircuitBreakers(boolean enabled, int failureThreshold, long openMillis, double percentile,
+                          double multiplier, long minTimeoutMillis, long maxTimeoutMillis, LongSupplier clock) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("news.breaker.timeout.percentile must be in (0, 1]");
+        }
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.percentile = percentile;
+        this.multiplier = multiplier;
+        this.minTimeoutMillis = Math.min(minTimeoutMillis, maxTimeoutMillis);
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Выполняет запрос к источнику через его предохранитель с адаптивным таймаутом.
+     * Таймаут завершает возвращаемый future с ошибкой, что прерывает задачу загрузки.
+     * @param sourceId идентификатор источника
+     * @param request запуск запроса
+     * @param failed признак неудачного результата (например, ошибка, проглоченная клиентом)
+     * @return future запроса или future, завершенный {@link CircuitOpenException}, если источник отключен
+     */
+    public <T> CompletableFuture<T> call(String sourceId, Supplier<CompletableFuture<T>> request, Predicate<T> failed) {
+        return call(sourceId, maxTimeoutMillis, request, failed);
+    }
+
+    /**
+     * То же, что {@link #call(String, Supplier, Predicate)}, но с собственной верхней границей таймаута источника.
+     * @param sourceId идентификатор источника
+     * @param timeoutLimitMillis верхняя граница таймаута (не больше {@code news.api.timeout.seconds})
+     * @param request запуск запроса
+     * @param failed признак неудачного результата
+     * @return future запроса или future, завершенный {@link CircuitOpenException}, если источник отключен
+     */
+    public <T> CompletableFuture<T> call(String sourceId, long timeoutLimitMillis,
+                                         Supplier<CompletableFuture<T>> request, Predicate<T> failed) {
+        timeoutLimits.put(sourceId, Math.min(timeoutLimitMillis, maxTimeoutMillis));
+        if (!enabled) {
+            return request.get().orTimeout(timeoutMillis(sourceId), TimeUnit.MILLISECONDS);
+        }
+        CircuitBreaker breaker = forSource(sourceId);
+        long generation = breaker.acquire();
+        if (generation < 0) {
+            return CompletableFuture.failedFuture(new CircuitOpenException(sourceId));
+        }
+        // Пробный запрос выполняется с верхней границей таймаута: если задержка источника выросла,
+        // адаптивный таймаут по старым замерам обрывал бы и пробу, и источник не восстановился бы
+        long timeout = breaker.getState() == CircuitBreaker.State.HALF_OPEN
+                ? timeoutLimits.getOrDefault(sourceId, maxTimeoutMillis) : timeoutMillis(sourceId);
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            breaker.onFailure(generation);
+            return CompletableFuture.failedFuture(e);
+        }
+        // Исход фиксируется в предохранителе до того, как результат увидит вызывающий,
+        // а отмена результата вызывающим доходит до задачи загрузки
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.orTimeout(timeout, TimeUnit.MILLISECONDS)
+                .whenComplete((value, error) -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof RejectedExecutionException) {
+                        breaker.onIgnored(generation);  // Запрос отклонен нашей очередью, источник тут ни при чем
+                    } else if (cause instanceof CancellationException || result.isCancelled()) {
+                        breaker.onIgnored(generation);  // Запрос отменен вызывающим (общий дедлайн агрегации)
+                    } else if (cause instanceof TimeoutException) {
+                        // Таймаут попадает в окно задержек со значением таймаута: иначе окно видит только
+                        // быстрые ответы, и таймаут не растет вслед за задержкой источника
+                        breaker.getLatencies().record(timeout);
+                        breaker.onFailure(generation);
+                    } else if (error != null || failed.test(value)) {
+                        breaker.onFailure(generation);
+                    } else {
+                        breaker.onSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), generation);
+                    }
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // Предохранитель источника (создается при первом обращении)
+    public CircuitBreaker forSource(String sourceId) {
+        return breakers.computeIfAbsent(sourceId,
+                id -> new CircuitBreaker(failureThreshold, openMillis, LATENCY_WINDOW, clock));
+    }
+
+    // Текущий таймаут запроса к источнику в миллисекундах
+    public long timeoutMillis(String sourceId) {
+        LatencyWindow latencies = forSource(sourceId).getLatencies();
+        long limit = timeoutLimits.getOrDefault(sourceId, maxTimeoutMillis);
+        if (!enabled || latencies.size() < MIN_SAMPLES) {
+            return limit;
+        }
+        long adaptive = Math.round(latencies.percentile(percentile) * multiplier);
+        return Math.max(Math.min(minTimeoutMillis, limit), Math.min(adaptive, limit));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Состояние предохранителей по источникам, отдаваемое через /api/stats/breakers
+    public Map<String, CircuitBreaker.BreakerStats> getStats() {
+        Map<String, CircuitBreaker.BreakerStats> result = new LinkedHashMap<>();
+        new TreeMap<>(breakers).forEach((id, breaker) -> result.put(id, breaker.getStats(timeoutMillis(id))));
+        return result;
+    }
+}
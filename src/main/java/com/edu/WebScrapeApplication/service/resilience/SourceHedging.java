@@ -0,0 +1,245 @@
+package com.edu.WebScrapeApplication.service.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Хеджирование запросов к источникам: если источник не ответил за свой p95,
+ * отправляется второй такой же запрос и берется первый успешный ответ, а проигравший отменяется.
+ * <p>
+ * Число дополнительных запросов ограничено бюджетом источника: каждый запрос пополняет его
+ * на {@code news.hedge.budget.ratio} жетона (не больше {@code news.hedge.budget.burst}), хедж тратит один жетон.
+ * Так при ratio 0.1 хеджи добавляют не больше ~10% запросов к квоте NewsAPI, даже если источник медленный целиком.
+ */
+@Component  // Помечает класс как компонент Spring
+public class SourceHedging {
+
+    // Замеров до включения хеджирования
+    static final int MIN_SAMPLES = 10;
+    // Размер окна задержек
+    private static final int LATENCY_WINDOW = 100;
+
+    // Включено ли хеджирование
+    private final boolean enabled;
+    // Перцентиль задержек, после которого отправляется второй запрос
+    private final double percentile;
+    // Пополнение бюджета на каждый запрос (доля хеджей от числа запросов)
+    private final double budgetRatio;
+    // Максимум накопленных жетонов
+    private final double budgetBurst;
+    // Минимальная задержка перед хеджем (мс)
+    private final long minDelayMillis;
+
+    // Состояние по идентификатору источника
+    private final Map<String, SourceState> sources = new ConcurrentHashMap<>();
+
+    // Конструктор с параметрами из application.properties
+    public SourceHedging(
+            @Value("${news.hedge.enabled:false}") boolean enabled,
+            @Value("${news.hedge.percentile:0.95}") double percentile,
+            @Value("${news.hedge.budget.ratio:0.1}") double budgetRatio,
+            @Value("${news.hedge.budget.burst:5}") double budgetBurst,
+            @Value("${news.hedge.min-delay-millis:20}") long minDelayMillis) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("news.hedge.percentile must be in (0, 1]");
+        }
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.budgetRatio = budgetRatio;
+        this.budgetBurst = budgetBurst;
+        this.minDelayMillis = minDelayMillis;
+    }
+
+    /**
+     * Выполняет запрос с хеджированием.
+     * Отмена или ошибка возвращаемого future (например, по таймауту предохранителя) отменяет оба запроса.
+     * @param sourceId идентификатор источника
+     * @param request запуск одного запроса (вызывается один или два раза)
+     * @param failed признак неудачного результата: после неудачи ждем второй запрос, если он отправлен
+     * @return future первого успешного ответа или, если оба неудачны, последнего ответа
+     */
+    public <T> CompletableFuture<T> call(String sourceId, Supplier<CompletableFuture<T>> request, Predicate<T> failed) {
+        if (!enabled) {
+            return request.get();
+        }
+        SourceState state = stateOf(sourceId);
+        state.requests.increment();
+        state.deposit(budgetRatio, budgetBurst);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicBoolean settled = new AtomicBoolean();
+        attempt(state, request, failed, result, attempts, pending, settled, false);
+
+        long delay = hedgeDelayMillis(sourceId);
+        if (delay >= 0) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+                if (result.isDone()) {
+                    return;  // Первый запрос успел
+                }
+                if (!state.tryWithdraw()) {
+                    state.budgetDenied.increment();
+                    return;
+                }
+                state.hedged.increment();
+                pending.incrementAndGet();
+                attempt(state, request, failed, result, attempts, pending, settled, true);
+            });
+        }
+        // Победитель определен (или запрос отменен) - отменяем оставшиеся запросы
+        result.whenComplete((value, error) -> attempts.forEach(attempt -> attempt.cancel(true)));
+        return result;
+    }
+
+    // Запускает одну попытку и передает ее исход в общий результат
+    private <T> void attempt(SourceState state, Supplier<CompletableFuture<T>> request, Predicate<T> failed,
+                             CompletableFuture<T> result, List<CompletableFuture<T>> attempts,
+                             AtomicInteger pending, AtomicBoolean settled, boolean hedge) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        attempts.add(future);
+        if (result.isDone()) {
+            future.cancel(true);  // Результат завершился, пока попытка запускалась
+        }
+        future.whenComplete((value, error) -> {
+            if (error == null && !failed.test(value)) {
+                state.latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                // Победитель учитывается до публикации результата, чтобы статистика не отставала от ответа
+                if (settled.compareAndSet(false, true)) {
+                    if (hedge) {
+                        state.hedgeWins.increment();
+                    }
+                    result.complete(value);
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                // Неудачны все отправленные попытки - отдаем исход последней
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            }
+        });
+    }
+
+    // Задержка перед хеджем: перцентиль задержек источника, -1 - замеров пока мало
+    public long hedgeDelayMillis(String sourceId) {
+        LatencyWindow latencies = stateOf(sourceId).latencies;
+        if (latencies.size() < MIN_SAMPLES) {
+            return -1;
+        }
+        return Math.max(minDelayMillis, latencies.percentile(percentile));
+    }
+
+    // Окно задержек успешных запросов источника
+    LatencyWindow latencies(String sourceId) {
+        return stateOf(sourceId).latencies;
+    }
+
+    private SourceState stateOf(String sourceId) {
+        return sources.computeIfAbsent(sourceId, id -> new SourceState());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Статистика хеджирования по источникам, отдаваемая через /api/stats/hedging
+    public Map<String, HedgeStats> getStats() {
+        Map<String, HedgeStats> result = new LinkedHashMap<>();
+        new TreeMap<>(sources).forEach((id, state) -> result.put(id, statsOf(id)));
+        return result;
+    }
+
+    // Статистика хеджирования одного источника
+    public HedgeStats statsOf(String sourceId) {
+        SourceState state = stateOf(sourceId);
+        return new HedgeStats(state.requests.sum(), state.hedged.sum(), state.hedgeWins.sum(),
+                state.budgetDenied.sum(), hedgeDelayMillis(sourceId), state.tokens());
+    }
+
+    // Состояние хеджирования одного источника
+    private static final class SourceState {
+        private final LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder hedged = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+        private final LongAdder budgetDenied = new LongAdder();
+        // Накопленные жетоны бюджета
+        private double tokens;
+
+        private synchronized void deposit(double amount, double max) {
+            tokens = Math.min(max, tokens + amount);
+        }
+
+        private synchronized boolean tryWithdraw() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        private synchronized double tokens() {
+            return tokens;
+        }
+    }
+
+    // Статистика хеджирования источника
+    public static final class HedgeStats {
+        private final long requests;
+        private final long hedged;
+        private final long hedgeWins;
+        private final long budgetDenied;
+        private final long delayMillis;
+        private final double budgetTokens;
+
+        public HedgeStats(long requests, long hedged, long hedgeWins, long budgetDenied, long delayMillis,
+                          double budgetTokens) {
+            this.requests = requests;
+            this.hedged = hedged;
+            this.hedgeWins = hedgeWins;
+            this.budgetDenied = budgetDenied;
+            this.delayMillis = delayMillis;
+            this.budgetTokens = budgetTokens;
+        }
+
+        // Запросов к источнику
+        public long getRequests() { return requests; }
+
+        // Отправлено вторых запросов
+        public long getHedged() { return hedged; }
+
+        // Второй запрос ответил первым
+        public long getHedgeWins() { return hedgeWins; }
+
+        // Хеджей, не отправленных из-за исчерпанного бюджета
+        public long getBudgetDenied() { return budgetDenied; }
+
+        // Текущая задержка перед хеджем (-1 - замеров пока мало)
+        public long getDelayMillis() { return delayMillis; }
+
+        // Доступные жетоны бюджета
+        public double getBudgetTokens() { return budgetTokens; }
+    }
+}
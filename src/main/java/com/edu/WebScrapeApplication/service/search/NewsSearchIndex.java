@@ -0,0 +1,576 @@
+package com.edu.WebScrapeApplication.service.search;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Инвертированный индекс по заголовкам и описаниям статей для {@code GET /api/news/search}.
+ * <p>
+ * Статья получает номер документа при добавлении; для каждого терма хранится список номеров документов
+ * по возрастанию ({@code int[]}) и вес вхождений ({@code byte[]}: вхождение в заголовок весит
+ * {@link #TITLE_WEIGHT}, в описание - 1). Новые статьи дописываются в конец списков, поэтому индекс
+ * обновляется по мере поступления статей без перестроения. Удаленные документы помечаются и пропускаются
+ * при поиске; когда удаленных становится больше, чем живых, списки сжимаются с перенумерацией.
+ * <p>
+ * Поиск требует всех термов запроса: обходится самый короткий список, остальные продвигаются
+ * галопирующим поиском. Оценка - BM25, умноженная на {@code 1 + recencyWeight * 2^(-возраст / halfLife)}.
+ * Списки обходятся от новых документов к старым; для каждого блока из {@code 2^BLOCK_SHIFT} номеров
+ * хранится наибольшее время публикации среди документов этого и предыдущих блоков, поэтому обход
+ * останавливается, как только даже наибольшая возможная BM25 с такой свежестью не попадает в лучшие limit.
+ * Статьи поступают примерно в порядке публикации, и запрос по частому слову просматривает лишь свежую часть списка.
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsSearchIndex {
+
+    // Параметры BM25
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    // Вес вхождения терма в заголовок относительно описания
+    static final int TITLE_WEIGHT = 3;
+    // Учитывается не больше термов запроса
+    static final int MAX_QUERY_TERMS = 16;
+    // Удаленные документы не сжимаются, пока их меньше
+    static final int MIN_COMPACTION = 1024;
+    // Размер блока документов для границы свежести: 2^BLOCK_SHIFT номеров
+    static final int BLOCK_SHIFT = 10;
+
+    // Таблица затухания: ступеней на период полураспада и число периодов (дальше вклад свежести - ноль)
+    private static final int DECAY_STEPS = 64;
+    private static final int DECAY_PERIODS = 16;
+
+    // Вес свежести в оценке
+    private final double recencyWeight;
+    // Ступеней таблицы затухания на миллисекунду возраста
+    private final double decayStepsPerMilli;
+    // 2^(-i / DECAY_STEPS)
+    private final float[] decay = new float[DECAY_STEPS * DECAY_PERIODS];
+    // Источник текущего времени (подменяется в тестах)
+    private final LongSupplier clock;
+
+    // Поиск читает индекс параллельно, изменения - под блокировкой записи
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Документы по номеру: статья (null - удалена), время для свежести, взвешенное число термов
+    private NewsItem[] items = new NewsItem[1024];
+    private long[] times = new long[1024];
+    private int[] lengths = new int[1024];
+    // Наибольшее время среди документов блока и всех предыдущих блоков
+    private long[] blockMaxTimes = new long[16];
+    // Выдано номеров, живых и удаленных документов
+    private int size;
+    private int live;
+    private int deleted;
+    // Сумма длин живых документов (для средней длины в BM25)
+    private long totalLength;
+    // Номер документа по нормализованному URL статьи
+    private final Map<String, Integer> docByKey = new HashMap<>();
+    // Списки документов по термам
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    // Счетчики
+    private long compactions;
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final AtomicLong maxQueryNanos = new AtomicLong();
+
+    // Конструктор для Spring: параметры берутся из application.properties
+    @Autowired
+    public NewsSearchIndex(@Value("${news.search.recency.half-life.hours:24}") double halfLifeHours,
+                           @Value("${news.search.recency.weight:1.0}") double recencyWeight) {
+        this(halfLifeHours, recencyWeight, System::currentTimeMillis);
+    }
+
+    // Конструктор с явным источником времени (используется в тестах)
+    NewsSearchIndex(double halfLifeHours, double recencyWeight, LongSupplier clock) {
+        if (halfLifeHours <= 0 || recencyWeight < 0) {
+            throw new IllegalArgumentException("news.search.recency.half-life.hours must be positive "
+                    + "and news.search.recency.weight must not be negative");
+        }
+        this.recencyWeight = recencyWeight;
+        this.decayStepsPerMilli = DECAY_STEPS / (halfLifeHours * TimeUnit.HOURS.toMillis(1));
+        this.clock = clock;
+        for (int i = 0; i < decay.length; i++) {
+            decay[i] = (float) Math.pow(0.5, (double) i / DECAY_STEPS);
+        }
+    }
+
+    /**
+     * Добавляет статью или заменяет статью с тем же ключом.
+     * @param key нормализованный URL статьи
+     * @param item статья
+     */
+    public void put(String key, NewsItem item) {
+        Document document = new Document(item, clock.getAsLong());  // Разбор текста - вне блокировки
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByKey.get(key);
+            if (existing != null) {
+                delete(existing);
+            }
+            docByKey.put(key, append(document));
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет статью.
+     * @param key нормализованный URL статьи
+     */
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docByKey.remove(key);
+            if (doc != null) {
+                delete(doc);
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Приводит индекс к списку статей: отсутствующие в списке удаляются, новые и замененные добавляются.
+     * Используется агрегацией по запросу, где весь набор статей - последний результат агрегации.
+     * @param snapshot текущий список статей
+     */
+    public void sync(List<NewsItem> snapshot) {
+        Map<String, NewsItem> current = new HashMap<>();
+        for (NewsItem item : snapshot) {
+            String key = NewsDeduplicator.normalizeUrl(item.getUrl());
+            if (key != null) {
+                current.putIfAbsent(key, item);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            for (Iterator<Map.Entry<String, Integer>> it = docByKey.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Integer> entry = it.next();
+                if (current.get(entry.getKey()) != items[entry.getValue()]) {
+                    delete(entry.getValue());
+                    it.remove();
+                }
+            }
+            long now = clock.getAsLong();
+            current.forEach((key, item) -> docByKey.computeIfAbsent(key, k -> append(new Document(item, now))));
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет статьи, содержащие все термы запроса.
+     * @param query текст запроса
+     * @param limit максимум результатов
+     * @return статьи по убыванию оценки; пустой список, если в запросе нет термов или совпадений
+     */
+    public List<NewsItem> search(String query, int limit) {
+        long start = System.nanoTime();
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(NewsTokenizer.tokenize(query)));
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        List<NewsItem> result = terms.isEmpty() || limit < 1 ? List.of() : find(terms, limit);
+        long elapsed = System.nanoTime() - start;
+        queries.increment();
+        queryNanos.add(elapsed);
+        maxQueryNanos.accumulateAndGet(elapsed, Math::max);
+        return result;
+    }
+
+    private List<NewsItem> find(List<String> terms, int limit) {
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return List.of();  // Терм не встречается ни в одной статье
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            double averageLength = live > 0 ? (double) totalLength / live : 1;
+            // Знаменатель BM25: tf + normBase + normScale * длина документа
+            double normBase = K1 * (1 - B);
+            double normScale = K1 * B / averageLength;
+            double[] idf = new double[lists.length];
+            double bound = 0;  // Наибольшая возможная BM25 документа
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = Math.log(1 + (live - lists[i].size + 0.5) / (lists[i].size + 0.5));
+                bound += idf[i] * bm25(lists[i].maxFreq, normBase);
+            }
+            long now = clock.getAsLong();
+            TopDocs top = new TopDocs(limit);
+            int[] cursors = new int[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                cursors[i] = lists[i].size - 1;
+            }
+            Postings shortest = lists[0];
+            int block = -1;
+
+            candidates:
+            for (int j = shortest.size - 1; j >= 0; j--) {
+                int doc = shortest.docs[j];
+                if (doc >> BLOCK_SHIFT != block) {
+                    block = doc >> BLOCK_SHIFT;
+                    // Документы этого и предыдущих блоков не свежее blockMaxTimes[block]
+                    if (top.isFull() && bound * (1 + recencyWeight * decay(now - blockMaxTimes[block])) <= top.minScore()) {
+                        break;
+                    }
+                }
+                if (items[doc] == null) {
+                    continue;
+                }
+                double norm = normBase + normScale * lengths[doc];
+                double score = idf[0] * bm25(shortest.freqs[j], norm);
+                for (int i = 1; i < lists.length; i++) {
+                    Postings list = lists[i];
+                    int cursor = list.retreat(cursors[i], doc);
+                    cursors[i] = cursor;
+                    if (cursor < 0) {
+                        break candidates;  // В этом списке больше нет документов - совпадений не будет
+                    }
+                    if (list.docs[cursor] != doc) {
+                        continue candidates;
+                    }
+                    score += idf[i] * bm25(list.freqs[cursor], norm);
+                }
+                top.offer(doc, score * (1 + recencyWeight * decay(now - times[doc])));
+            }
+
+            int[] docs = top.sorted();
+            List<NewsItem> result = new ArrayList<>(docs.length);
+            for (int doc : docs) {
+                result.add(items[doc]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double bm25(byte freq, double norm) {
+        int tf = freq & 0xFF;
+        return tf * (K1 + 1) / (tf + norm);
+    }
+
+    private static double bm25(int tf, double norm) {
+        return tf * (K1 + 1) / (tf + norm);
+    }
+
+    // 2^(-age / halfLife) по таблице: без Math.pow на каждый документ
+    private double decay(long ageMillis) {
+        if (ageMillis <= 0) {
+            return 1;
+        }
+        double step = ageMillis * decayStepsPerMilli;
+        return step < decay.length ? decay[(int) step] : 0;
+    }
+
+    // Дописывает документ; вызывается под блокировкой записи
+    private int append(Document document) {
+        if (size == items.length) {
+            int capacity = size + (size >> 1);
+            items = Arrays.copyOf(items, capacity);
+            times = Arrays.copyOf(times, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int doc = size++;
+        items[doc] = document.item;
+        times[doc] = document.time;
+        lengths[doc] = document.length;
+        updateBlockMaxTime(doc);
+        live++;
+        totalLength += document.length;
+        for (int i = 0; i < document.terms.length; i++) {
+            postings.computeIfAbsent(document.terms[i], term -> new Postings()).add(doc, document.weights[i]);
+        }
+        return doc;
+    }
+
+    // Учитывает время документа в границе свежести его блока
+    private void updateBlockMaxTime(int doc) {
+        int block = doc >> BLOCK_SHIFT;
+        if (block == blockMaxTimes.length) {
+            blockMaxTimes = Arrays.copyOf(blockMaxTimes, block * 2);
+        }
+        if ((doc & ((1 << BLOCK_SHIFT) - 1)) == 0) {
+            blockMaxTimes[block] = block > 0 ? blockMaxTimes[block - 1] : Long.MIN_VALUE;
+        }
+        blockMaxTimes[block] = Math.max(blockMaxTimes[block], times[doc]);
+    }
+
+    // Помечает документ удаленным; списки термов чистятся при сжатии
+    private void delete(int doc) {
+        items[doc] = null;
+        live--;
+        deleted++;
+        totalLength -= lengths[doc];
+    }
+
+    // Сжимает списки, когда удаленных документов больше, чем живых
+    private void compactIfSparse() {
+        if (deleted < MIN_COMPACTION || deleted <= live) {
+            return;
+        }
+        int[] remap = new int[size];
+        int next = 0;
+        for (int doc = 0; doc < size; doc++) {
+            if (items[doc] == null) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = next;
+            items[next] = items[doc];
+            times[next] = times[doc];
+            lengths[next] = lengths[doc];
+            updateBlockMaxTime(next);
+            next++;
+        }
+        Arrays.fill(items, next, size, null);
+        postings.values().removeIf(list -> list.remap(remap) == 0);
+        docByKey.replaceAll((key, doc) -> remap[doc]);
+        size = next;
+        deleted = 0;
+        compactions++;
+    }
+
+    // Возвращает текущие значения счетчиков
+    public SearchStats getStats() {
+        lock.readLock().lock();
+        try {
+            long count = queries.sum();
+            return new SearchStats(live, postings.size(), deleted, compactions, count,
+                    count == 0 ? 0 : queryNanos.sum() / count / 1e6, maxQueryNanos.get() / 1e6);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Термы статьи с весами вхождений: разбираются до блокировки записи
+    private static final class Document {
+        private final NewsItem item;
+        private final long time;
+        private final String[] terms;
+        private final byte[] weights;
+        private final int length;
+
+        private Document(NewsItem item, long now) {
+            this.item = item;
+            this.time = item.hasPublishedAt() ? item.getPublishedAtMillis() : now;
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (String term : NewsTokenizer.tokenize(item.getTitle())) {
+                counts.merge(term, TITLE_WEIGHT, Integer::sum);
+            }
+            for (String term : NewsTokenizer.tokenize(item.getDescription())) {
+                counts.merge(term, 1, Integer::sum);
+            }
+            terms = new String[counts.size()];
+            weights = new byte[counts.size()];
+            int i = 0;
+            int total = 0;
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                terms[i] = entry.getKey();
+                weights[i++] = (byte) Math.min(entry.getValue(), 255);
+                total += entry.getValue();
+            }
+            length = total;
+        }
+    }
+
+    // Список документов терма: номера по возрастанию и веса вхождений
+    static final class Postings {
+        private int[] docs = new int[2];
+        private byte[] freqs = new byte[2];
+        private int size;
+        // Наибольший вес вхождения (после удалений - оценка сверху)
+        private int maxFreq;
+
+        void add(int doc, byte freq) {
+            maxFreq = Math.max(maxFreq, freq & 0xFF);
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size++] = freq;
+        }
+
+        // Последняя позиция не позже from с номером документа не больше target (-1 - такой нет)
+        int retreat(int from, int target) {
+            if (from < 0 || docs[from] <= target) {
+                return from;
+            }
+            int step = 1;
+            int high = from;
+            while (high - step >= 0 && docs[high - step] > target) {
+                high -= step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(docs, Math.max(0, high - step), high, target);
+            return found >= 0 ? found : -found - 2;
+        }
+
+        // Перенумеровывает документы, выбрасывая удаленные; возвращает новый размер
+        int remap(int[] remap) {
+            int next = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[next] = doc;
+                    freqs[next++] = freqs[i];
+                }
+            }
+            size = next;
+            if (docs.length > 2 * size + 2) {
+                docs = Arrays.copyOf(docs, Math.max(2, size));
+                freqs = Arrays.copyOf(freqs, Math.max(2, size));
+            }
+            return size;
+        }
+    }
+
+    // Лучшие limit документов: куча с минимальной оценкой в корне на примитивных массивах
+    private static final class TopDocs {
+        private final int[] docs;
+        private final double[] scores;
+        private int size;
+
+        private TopDocs(int limit) {
+            docs = new int[limit];
+            scores = new double[limit];
+        }
+
+        boolean isFull() {
+            return size == docs.length;
+        }
+
+        // Наименьшая оценка среди отобранных
+        double minScore() {
+            return scores[0];
+        }
+
+        void offer(int doc, double score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (less(scores[0], docs[0], score, doc)) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // Документы по убыванию оценки
+        int[] sorted() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = docs[0];
+                docs[0] = docs[size - 1];
+                scores[0] = scores[size - 1];
+                size--;
+                siftDown(0);
+            }
+            return result;
+        }
+
+        // При равной оценке выше более поздний документ
+        private static boolean less(double leftScore, int leftDoc, double rightScore, int rightDoc) {
+            return leftScore < rightScore || leftScore == rightScore && leftDoc < rightDoc;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(scores[i], docs[i], scores[parent], docs[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left + 1 < size && less(scores[left + 1], docs[left + 1], scores[left], docs[left])
+                        ? left + 1 : left;
+                if (!less(scores[smallest], docs[smallest], scores[i], docs[i])) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    // Статистика индекса, отдаваемая через /api/stats/search
+    public static final class SearchStats {
+        private final int documents;
+        private final int terms;
+        private final int deleted;
+        private final long compactions;
+        private final long queries;
+        private final double avgQueryMillis;
+        private final double maxQueryMillis;
+
+        public SearchStats(int documents, int terms, int deleted, long compactions, long queries,
+                           double avgQueryMillis, double maxQueryMillis) {
+            this.documents = documents;
+            this.terms = terms;
+            this.deleted = deleted;
+            this.compactions = compactions;
+            this.queries = queries;
+            this.avgQueryMillis = avgQueryMillis;
+            this.maxQueryMillis = maxQueryMillis;
+        }
+
+        // Статей в индексе
+        public int getDocuments() { return documents; }
+
+        // Различных термов
+        public int getTerms() { return terms; }
+
+        // Удаленных документов, ожидающих сжатия списков
+        public int getDeleted() { return deleted; }
+
+        // Выполнено сжатий
+        public long getCompactions() { return compactions; }
+
+        // Выполнено запросов
+        public long getQueries() { return queries; }
+
+        // Среднее время запроса (мс)
+        public double getAvgQueryMillis() { return avgQueryMillis; }
+
+        // Максимальное время запроса (мс)
+        public double getMaxQueryMillis() { return maxQueryMillis; }
+    }
+}
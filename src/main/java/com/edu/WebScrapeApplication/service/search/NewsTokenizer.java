@@ -0,0 +1,136 @@
+package com.edu.WebScrapeApplication.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Разбиение текста статьи и поискового запроса на термы.
+ * <p>
+ * Терм - последовательность букв и цифр Unicode в нижнем регистре ("ё" приводится к "е"),
+ * без стоп-слов и с отсечением окончаний: кириллические слова - по списку падежных окончаний
+ * существительных и прилагательных, латинские - по правилам английского (-s, -ing, -ed, -ly, конечное -e).
+ * Это грубая нормализация, а не морфология: "выборы", "выборов", "выборах" дают один терм "выбор",
+ * но чередования в основе ("друг" - "друзья") не учитываются.
+ */
+public final class NewsTokenizer {
+
+    // Слова короче не индексируются
+    static final int MIN_TOKEN = 2;
+    // Слова длиннее обрезаются (ссылки, хэши)
+    static final int MAX_TOKEN = 40;
+    // Основа не короче: окончание не отсекается, если от слова останется меньше
+    private static final int MIN_STEM = 3;
+
+    // Окончания русских слов, от длинных к коротким
+    private static final String[] RUSSIAN_ENDINGS = {
+            "иями",
+            "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ией", "иях",
+            "ах", "ях", "ов", "ев", "ей", "ой", "ий", "ый", "ая", "яя", "ое", "ее", "ые", "ие", "ую", "юю",
+            "ом", "ем", "ам", "ям", "ью", "ия", "ья", "ии", "ию",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"
+    };
+
+    // Служебные слова, которые встречаются почти в каждой статье
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "на", "с", "со", "по", "к", "ко", "о", "об", "от", "до", "из", "за", "для", "не", "но",
+            "что", "как", "это", "а", "же", "ли", "бы", "то", "его", "ее", "их", "он", "она", "они", "мы", "вы",
+            "при", "под", "над", "без", "так", "уже", "или", "был", "была", "были", "будет", "также", "после",
+            "the", "a", "an", "and", "or", "of", "to", "in", "on", "for", "with", "at", "by", "from", "is", "are",
+            "was", "were", "be", "been", "it", "its", "as", "that", "this", "but", "not", "has", "have", "had",
+            "will", "after", "over", "into", "about", "new"
+    );
+
+    private NewsTokenizer() {
+    }
+
+    /**
+     * Разбивает текст на термы в порядке появления (с повторами).
+     * @param text текст; null дает пустой список
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder(MAX_TOKEN);
+        for (int i = 0, length = text.length(); i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TOKEN) {
+                    token.append(c == 'ё' || c == 'Ё' ? 'е' : Character.toLowerCase(c));
+                }
+            } else if (token.length() > 0) {
+                add(tokens, token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private static void add(List<String> tokens, String word) {
+        if (word.length() < MIN_TOKEN || STOP_WORDS.contains(word)) {
+            return;
+        }
+        tokens.add(stem(word));
+    }
+
+    // Отсекает окончание; слова с цифрами и смешанные слова не меняются
+    static String stem(String word) {
+        char first = word.charAt(0);
+        if (first >= 'а' && first <= 'я') {
+            return stemRussian(word);
+        }
+        if (first >= 'a' && first <= 'z') {
+            return stemEnglish(word);
+        }
+        return word;
+    }
+
+    private static String stemRussian(String word) {
+        for (String ending : RUSSIAN_ENDINGS) {
+            if (word.length() - ending.length() >= MIN_STEM && word.endsWith(ending)) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+
+    private static String stemEnglish(String word) {
+        String stem = stripEnglishSuffix(word);
+        // "raise", "raised", "raising" -> "rais"
+        return stem.length() > MIN_STEM + 1 && stem.endsWith("e") ? stem.substring(0, stem.length() - 1) : stem;
+    }
+
+    private static String stripEnglishSuffix(String word) {
+        int length = word.length();
+        if (length > 4 && word.endsWith("ies")) {
+            return word.substring(0, length - 3) + "y";
+        }
+        if (length > 5 && word.endsWith("ing")) {
+            return undouble(word.substring(0, length - 3));
+        }
+        if (length > 4 && word.endsWith("ed")) {
+            return undouble(word.substring(0, length - 2));
+        }
+        if (length > 4 && word.endsWith("ly")) {
+            return word.substring(0, length - 2);
+        }
+        if (length > 4 && (word.endsWith("ches") || word.endsWith("shes") || word.endsWith("sses") || word.endsWith("xes"))) {
+            return word.substring(0, length - 2);
+        }
+        if (length > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+
+    // "stopped" -> "stopp" -> "stop"
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length > MIN_STEM && stem.charAt(length - 1) == stem.charAt(length - 2) && "lsz".indexOf(stem.charAt(length - 1)) < 0) {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,770 @@
+package com.edu.WebScrapeApplication.service.store;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал статей на диске, из которого {@link ArticleStore} восстанавливается при перезапуске.
+ * <p>
+ * Журнал - последовательность сегментов фиксированного размера, отображенных в память; записи только
+ * дописываются в конец последнего сегмента. Запись - длина, CRC32 и тело: статья источника или удаление
+ * источника. Рядом с сегментом лежит индекс смещений (16 байт на запись: время, позиция, тип), по которому
+ * при открытии находится конец журнала без чтения самих записей; проверяются CRC только записи после
+ * последней проиндексированной (недописанный хвост после сбоя отбрасывается).
+ * <p>
+ * Контрольная точка фиксирует состояние хранилища: ссылки на живые записи по источникам и какие из них
+ * остались после удаления дубликатов. По ней хранилище отдает снимок сразу после старта, без разбора
+ * записей и повторного удаления дубликатов. Статьи из журнала - представления {@link LoggedNewsItem}
+ * поверх отображенного сегмента: строки декодируются при обращении и в куче не копируются.
+ * <p>
+ * Хранилище сообщает, какие записи перестали быть живыми (статья вытеснена, заменена или удалена вместе
+ * с источником). Сегмент без живых записей удаляется после следующей контрольной точки - так работает
+ * окно хранения; сегмент, где живых записей меньше {@code news.store.log.compact-ratio}, уплотняется:
+ * хранилище переписывает его живые записи в конец журнала. Методы вызываются под блокировкой хранилища.
+ */
+@Component  // Помечает класс как компонент Spring
+public class ArticleLog {
+
+    // Журнал log4j2 (настройки в log4j2.xml)
+    private static final Logger log = LogManager.getLogger(ArticleLog.class);
+
+    // Ссылка на запись, не попавшую в журнал
+    public static final long NO_REF = -1;
+
+    // Типы записей (0 в индексе - пустая ячейка)
+    static final int PUT = 1;
+    static final int REMOVE_SOURCE = 2;
+
+    // Заголовок записи: длина остатка, CRC32 типа и тела, тип
+    private static final int HEADER = 9;
+    // Начало тела статьи: время для окна хранения и дата публикации
+    private static final int PUT_FIXED = 16;
+    // Элемент индекса: время, позиция, тип
+    private static final int INDEX_ENTRY = 16;
+    // Средний размер записи для емкости индекса (сегмент закрывается, если индекс заполнен раньше)
+    private static final int AVERAGE_RECORD = 64;
+
+    private static final int CHECKPOINT_MAGIC = 0x4E4C4F47;  // "NLOG"
+    private static final int CHECKPOINT_FORMAT = 1;
+    private static final String CHECKPOINT = "checkpoint";
+
+    // Включен ли журнал
+    private final boolean enabled;
+    // Каталог сегментов
+    private final Path directory;
+    // Размер нового сегмента в байтах
+    private final int segmentBytes;
+    // Доля живых записей, ниже которой сегмент уплотняется
+    private final double compactRatio;
+
+    // Сегменты по номеру; последний - текущий для дозаписи
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private Segment head;
+    // Конец журнала на момент последней контрольной точки (NO_REF - точки еще нет)
+    private long checkpointHead = NO_REF;
+
+    // Счетчики
+    private long appended;
+    private long oversized;
+    private long checkpoints;
+    private long lastCheckpointAt;
+    private long deletedSegments;
+    private long compactedRecords;
+    private long restoredArticles;
+    private long servingMillis;
+    private long replayMillis;
+
+    // Конструктор для Spring: параметры берутся из application.properties
+    @Autowired
+    public ArticleLog(@Value("${news.store.log.enabled:false}") boolean enabled,
+                      @Value("${news.store.log.dir:data/article-log}") String directory,
+                      @Value("${news.store.log.segment-mb:64}") int segmentMb,
+                      @Value("${news.store.log.compact-ratio:0.5}") double compactRatio) {
+        this(enabled, Path.of(directory), segmentMb * 1024 * 1024, compactRatio);
+    }
+
+    // Конструктор с размером сегмента в байтах (используется в тестах)
+    ArticleLog(boolean enabled, Path directory, int segmentBytes, double compactRatio) {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("news.store.log.segment-mb must be positive");
+        }
+        if (compactRatio < 0 || compactRatio >= 1) {
+            throw new IllegalArgumentException("news.store.log.compact-ratio must be in [0, 1)");
+        }
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.compactRatio = compactRatio;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Открывает сегменты каталога (создает первый, если их нет) и читает контрольную точку.
+     * Живыми считаются записи, на которые ссылается контрольная точка.
+     * @return контрольная точка или null, если ее нет или она повреждена (тогда журнал доигрывается целиком)
+     */
+    public synchronized Checkpoint open() {
+        try {
+            Files.createDirectories(directory);
+            List<Integer> ids = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(path -> path.getFileName().toString())
+                        .filter(name -> name.matches("\\d{10}\\.log"))
+                        .forEach(name -> ids.add(Integer.parseInt(name.substring(0, 10))));
+            }
+            ids.sort(null);
+            for (int id : ids) {
+                segments.put(id, Segment.open(directory, id, segmentBytes));
+            }
+            if (segments.isEmpty()) {
+                segments.put(0, Segment.open(directory, 0, segmentBytes));
+            }
+            head = segments.lastEntry().getValue();
+            head.recoverTail();
+            Checkpoint checkpoint = readCheckpoint();
+            if (checkpoint != null) {
+                checkpointHead = checkpoint.head;
+                for (long[] refs : checkpoint.refs) {
+                    for (long ref : refs) {
+                        segments.get(segmentId(ref)).live++;
+                    }
+                }
+            }
+            log.info("Article log {}: {} segments, {} records, checkpoint {}", directory, segments.size(),
+                    getStats().getRecords(), checkpoint != null ? "found" : "absent");
+            return checkpoint;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open article log " + directory, e);
+        }
+    }
+
+    /**
+     * Дописывает статью; запись считается живой, пока хранилище не вызовет {@link #release(long)}.
+     * @param sourceId идентификатор источника
+     * @param key нормализованный URL
+     * @param time время для окна хранения (дата публикации или загрузки)
+     * @param item статья
+     * @return ссылка на запись или {@link #NO_REF}, если статья не помещается в сегмент
+     */
+    public synchronized long appendPut(String sourceId, String key, long time, NewsItem item) {
+        byte[][] fields = {utf8(sourceId), utf8(key), utf8(item.getSourceName()),
+                utf8(item.getTitle()), utf8(item.getDescription()), utf8(item.getUrl())};
+        int bodySize = PUT_FIXED;
+        for (byte[] field : fields) {
+            bodySize += fieldSize(field);
+        }
+        int position = reserve(bodySize);
+        if (position < 0) {
+            oversized++;
+            return NO_REF;
+        }
+        ByteBuffer data = head.data;
+        data.putLong(position + HEADER, time);
+        data.putLong(position + HEADER + 8, item.getPublishedAtMillis());
+        int offset = position + HEADER + PUT_FIXED;
+        for (byte[] field : fields) {
+            offset = putField(data, offset, field);
+        }
+        head.commit(position, bodySize, PUT, time);
+        head.live++;
+        appended++;
+        return ref(head.id, position);
+    }
+
+    /**
+     * Дописывает удаление источника: при доигрывании журнала статьи источника из предыдущих записей удаляются.
+     * @param sourceId идентификатор источника
+     */
+    public synchronized void appendRemoveSource(String sourceId) {
+        byte[] id = utf8(sourceId);
+        int position = reserve(fieldSize(id));
+        if (position >= 0) {
+            putField(head.data, position + HEADER, id);
+            head.commit(position, fieldSize(id), REMOVE_SOURCE, 0);
+            appended++;
+        }
+    }
+
+    // Запись больше не нужна хранилищу (статья вытеснена, заменена или удалена)
+    public synchronized void release(long ref) {
+        if (ref != NO_REF) {
+            Segment segment = segments.get(segmentId(ref));
+            if (segment != null) {
+                segment.live--;
+            }
+        }
+    }
+
+    // Запись снова живая (при доигрывании журнала хранилищем)
+    synchronized void retain(long ref) {
+        segments.get(segmentId(ref)).live++;
+    }
+
+    // Статья записи - представление поверх сегмента без копирования строк
+    public synchronized NewsItem item(long ref) {
+        ByteBuffer data = segments.get(segmentId(ref)).data;
+        int fields = position(ref) + HEADER + PUT_FIXED;
+        fields = skipField(data, skipField(data, fields));  // Идентификатор источника и ключ
+        int sourceNameEnd = skipField(data, fields);
+        return new LoggedNewsItem(data, sourceNameEnd, data.getLong(position(ref) + HEADER + 8),
+                readField(data, fields, 0));
+    }
+
+    // Время записи для окна хранения
+    public synchronized long time(long ref) {
+        return segments.get(segmentId(ref)).data.getLong(position(ref) + HEADER);
+    }
+
+    // Нормализованный URL записи
+    public synchronized String key(long ref) {
+        return readField(segments.get(segmentId(ref)).data, position(ref) + HEADER + PUT_FIXED, 1);
+    }
+
+    /**
+     * Передает записи после ссылки from в порядке записи.
+     * @param from конец журнала из контрольной точки или {@link #NO_REF} - с начала журнала
+     * @param visitor получатель записей
+     * @return число переданных записей
+     */
+    public synchronized int replay(long from, Visitor visitor) {
+        int replayed = 0;
+        for (Segment segment : segments.values()) {
+            if (from != NO_REF && segment.id < segmentId(from)) {
+                continue;
+            }
+            int start = from != NO_REF && segment.id == segmentId(from) ? position(from) : 0;
+            for (int entry = 0; entry < segment.entries; entry++) {
+                int position = segment.index.getInt(entry * INDEX_ENTRY + 8);
+                if (position < start) {
+                    continue;
+                }
+                boolean put = segment.index.getInt(entry * INDEX_ENTRY + 12) == PUT;
+                String sourceId = readField(segment.data, position + HEADER + (put ? PUT_FIXED : 0), 0);
+                if (put) {
+                    visitor.put(ref(segment.id, position), sourceId);
+                } else {
+                    visitor.removeSource(sourceId);
+                }
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    // Номера сегментов, которые пора уплотнить (кроме текущего): живые записи есть, но их меньше порога
+    public synchronized List<Integer> compactionCandidates() {
+        List<Integer> candidates = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment != head && segment.live > 0 && segment.live < segment.records * compactRatio) {
+                candidates.add(segment.id);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Записывает контрольную точку: сначала сбрасывает сегменты на диск, затем атомарно заменяет файл.
+     * После нее удаляются сегменты без живых записей.
+     * @param sourceIds источники в порядке снимка
+     * @param refs живые записи каждого источника
+     * @param visible для каждого источника - номера записей из refs, оставшихся после удаления дубликатов,
+     *                в порядке снимка источника
+     */
+    public synchronized void checkpoint(List<String> sourceIds, List<long[]> refs, List<int[]> visible) {
+        try {
+            for (Segment segment : segments.values()) {
+                segment.force();
+            }
+            long end = ref(head.id, head.end);
+            int size = 4 + 4 + 8 + 4;
+            List<byte[]> ids = new ArrayList<>(sourceIds.size());
+            for (int i = 0; i < sourceIds.size(); i++) {
+                ids.add(utf8(sourceIds.get(i)));
+                size += 2 + ids.get(i).length + 4 + refs.get(i).length * 8 + 4 + visible.get(i).length * 4;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size + 8);
+            buffer.putInt(CHECKPOINT_MAGIC).putInt(CHECKPOINT_FORMAT).putLong(end).putInt(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                buffer.putShort((short) ids.get(i).length).put(ids.get(i));
+                buffer.putInt(refs.get(i).length);
+                buffer.asLongBuffer().put(refs.get(i));
+                buffer.position(buffer.position() + refs.get(i).length * 8);
+                buffer.putInt(visible.get(i).length);
+                buffer.asIntBuffer().put(visible.get(i));
+                buffer.position(buffer.position() + visible.get(i).length * 4);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.putLong(crc.getValue()).flip();
+
+            Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(CHECKPOINT),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpointHead = end;
+            checkpoints++;
+            lastCheckpointAt = System.currentTimeMillis();
+        } catch (IOException e) {
+            // Прежняя контрольная точка остается действительной: сегменты после нее не удаляются
+            log.warn("Article log checkpoint failed: {}", e.toString());
+            return;
+        }
+        deleteDeadSegments();
+    }
+
+    // Сбрасывает сегменты на диск (при остановке приложения)
+    public synchronized void flush() {
+        for (Segment segment : segments.values()) {
+            segment.force();
+        }
+    }
+
+    // Учитывает записи, переписанные при уплотнении
+    synchronized void recordCompaction(int records) {
+        compactedRecords += records;
+    }
+
+    // Отмечает время восстановления хранилища: до готового снимка и до полного доигрывания журнала
+    synchronized void recordRestore(int articles, long servingMillis, long replayMillis) {
+        this.restoredArticles = articles;
+        this.servingMillis = servingMillis;
+        this.replayMillis = replayMillis;
+    }
+
+    // Возвращает текущие значения счетчиков
+    public synchronized LogStats getStats() {
+        long bytes = 0;
+        long records = 0;
+        long live = 0;
+        for (Segment segment : segments.values()) {
+            bytes += segment.end;
+            records += segment.records;
+            live += segment.live;
+        }
+        return new LogStats(enabled, segments.size(), bytes, records, live, appended, oversized, checkpoints,
+                lastCheckpointAt, deletedSegments, compactedRecords, restoredArticles, servingMillis, replayMillis);
+    }
+
+    // Удаляет сегменты без живых записей, целиком лежащие до контрольной точки
+    private void deleteDeadSegments() {
+        int checkpointSegment = segmentId(checkpointHead);
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment != head && segment.id < checkpointSegment && segment.live <= 0) {
+                try {
+                    // Отображение остается действительным, пока на него ссылаются статьи в памяти
+                    Files.deleteIfExists(segment.path);
+                    Files.deleteIfExists(segment.indexPath);
+                    segments.remove(segment.id);
+                    deletedSegments++;
+                } catch (IOException e) {
+                    log.warn("Cannot delete article log segment {}: {}", segment.path, e.toString());
+                }
+            }
+        }
+    }
+
+    // Позиция новой записи в текущем сегменте; при нехватке места начинает следующий (-1 - не помещается)
+    private int reserve(int bodySize) {
+        int size = HEADER + bodySize;
+        if (!head.fits(size)) {
+            if (head.end == 0) {
+                return -1;
+            }
+            head.force();
+            try {
+                head = Segment.open(directory, head.id + 1, segmentBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create article log segment", e);
+            }
+            segments.put(head.id, head);
+            if (!head.fits(size)) {
+                return -1;
+            }
+        }
+        return head.end;
+    }
+
+    // Читает контрольную точку; null, если ее нет, она повреждена или ссылается на отсутствующие записи
+    private Checkpoint readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.limit() - 8);
+            if (buffer.getLong(buffer.limit() - 8) != crc.getValue()
+                    || buffer.getInt() != CHECKPOINT_MAGIC || buffer.getInt() != CHECKPOINT_FORMAT) {
+                throw new IllegalStateException("bad checksum or format");
+            }
+            long end = buffer.getLong();
+            int sources = buffer.getInt();
+            List<String> ids = new ArrayList<>(sources);
+            List<long[]> refs = new ArrayList<>(sources);
+            List<int[]> visible = new ArrayList<>(sources);
+            for (int i = 0; i < sources; i++) {
+                byte[] id = new byte[buffer.getShort()];
+                buffer.get(id);
+                ids.add(new String(id, StandardCharsets.UTF_8));
+                long[] sourceRefs = new long[buffer.getInt()];
+                buffer.asLongBuffer().get(sourceRefs);
+                buffer.position(buffer.position() + sourceRefs.length * 8);
+                for (long ref : sourceRefs) {
+                    Segment segment = segments.get(segmentId(ref));
+                    if (segment == null || position(ref) >= segment.end) {
+                        throw new IllegalStateException("reference to a missing record");
+                    }
+                }
+                int[] sourceVisible = new int[buffer.getInt()];
+                buffer.asIntBuffer().get(sourceVisible);
+                buffer.position(buffer.position() + sourceVisible.length * 4);
+                refs.add(sourceRefs);
+                visible.add(sourceVisible);
+            }
+            Segment endSegment = segments.get(segmentId(end));
+            if (endSegment == null || position(end) > endSegment.end) {
+                throw new IllegalStateException("checkpoint is ahead of the log");
+            }
+            return new Checkpoint(end, ids, refs, visible);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring article log checkpoint {}: {}", path, e.toString());
+            return null;
+        }
+    }
+
+    static long ref(int segmentId, int position) {
+        return (long) segmentId << 32 | position;
+    }
+
+    // Номер сегмента записи
+    static int segmentId(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static int position(long ref) {
+        return (int) ref;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    // Байт на поле: длина (varint от length + 1, 0 - null) и содержимое, как в CompactNewsItem
+    private static int fieldSize(byte[] value) {
+        int length = value != null ? value.length + 1 : 0;
+        int header = 1;
+        while ((length >>>= 7) != 0) {
+            header++;
+        }
+        return header + (value != null ? value.length : 0);
+    }
+
+    private static int putField(ByteBuffer data, int position, byte[] value) {
+        int length = value != null ? value.length + 1 : 0;
+        while ((length & ~0x7F) != 0) {
+            data.put(position++, (byte) ((length & 0x7F) | 0x80));
+            length >>>= 7;
+        }
+        data.put(position++, (byte) length);
+        if (value != null) {
+            data.put(position, value);
+            position += value.length;
+        }
+        return position;
+    }
+
+    // Позиция поля, следующего за полем в position
+    static int skipField(ByteBuffer data, int position) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get(position++);
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return position + Math.max(length - 1, 0);
+    }
+
+    // Декодирует поле с номером index, начиная с поля в position
+    static String readField(ByteBuffer data, int position, int index) {
+        for (int i = 0; i < index; i++) {
+            position = skipField(data, position);
+        }
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get(position++);
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        data.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Получатель записей при доигрывании журнала
+    public interface Visitor {
+        // Статья: ссылка на запись и источник (остальное читается по ссылке при необходимости)
+        void put(long ref, String sourceId);
+
+        // Удаление источника
+        void removeSource(String sourceId);
+    }
+
+    // Контрольная точка: конец журнала на момент записи и живые записи по источникам
+    public static final class Checkpoint {
+        private final long head;
+        private final List<String> sourceIds;
+        private final List<long[]> refs;
+        private final List<int[]> visible;
+
+        Checkpoint(long head, List<String> sourceIds, List<long[]> refs, List<int[]> visible) {
+            this.head = head;
+            this.sourceIds = sourceIds;
+            this.refs = refs;
+            this.visible = visible;
+        }
+
+        // Записи после этой ссылки в контрольную точку не вошли
+        public long head() { return head; }
+
+        public List<String> sourceIds() { return sourceIds; }
+
+        public List<long[]> refs() { return refs; }
+
+        public List<int[]> visible() { return visible; }
+    }
+
+    // Сегмент: данные и индекс смещений, отображенные в память
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private final Path indexPath;
+        private final MappedByteBuffer data;
+        private final MappedByteBuffer index;
+        // Конец записанных данных и число элементов индекса
+        private int end;
+        private int entries;
+        // Статей в сегменте и сколько из них живые
+        private int records;
+        private int live;
+        // Есть ли изменения, не сброшенные на диск
+        private boolean dirty;
+
+        private Segment(int id, Path path, Path indexPath, MappedByteBuffer data, MappedByteBuffer index) {
+            this.id = id;
+            this.path = path;
+            this.indexPath = indexPath;
+            this.data = data;
+            this.index = index;
+        }
+
+        // Открывает или создает сегмент и находит его конец по индексу
+        static Segment open(Path directory, int id, int segmentBytes) throws IOException {
+            String name = String.format("%010d", id);
+            Path path = directory.resolve(name + ".log");
+            Path indexPath = directory.resolve(name + ".idx");
+            MappedByteBuffer data = map(path, segmentBytes);
+            MappedByteBuffer index = map(indexPath, data.capacity() / AVERAGE_RECORD * INDEX_ENTRY);
+            Segment segment = new Segment(id, path, indexPath, data, index);
+            while (segment.entries < index.capacity() / INDEX_ENTRY
+                    && index.getInt(segment.entries * INDEX_ENTRY + 12) != 0) {
+                if (index.getInt(segment.entries * INDEX_ENTRY + 12) == PUT) {
+                    segment.records++;
+                }
+                segment.entries++;
+            }
+            if (segment.entries > 0) {
+                int last = index.getInt((segment.entries - 1) * INDEX_ENTRY + 8);
+                segment.end = last + 4 + data.getInt(last);
+            }
+            return segment;
+        }
+
+        // Существующий файл отображается целиком, новый создается нужного размера
+        private static MappedByteBuffer map(Path path, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long length = channel.size() > 0 ? channel.size() : size;
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            }
+        }
+
+        // Индексирует целые записи после последней проиндексированной и затирает недописанный хвост
+        void recoverTail() {
+            while (end + HEADER <= data.capacity() && entries < index.capacity() / INDEX_ENTRY) {
+                int size = data.getInt(end);
+                if (size < HEADER - 4 || end + 4L + size > data.capacity()
+                        || checksum(end, size) != data.getInt(end + 4)) {
+                    break;
+                }
+                int type = data.get(end + 8);
+                long time = type == PUT ? data.getLong(end + HEADER) : 0;
+                writeEntry(end, type, time);
+                if (type == PUT) {
+                    records++;
+                }
+                end += 4 + size;
+            }
+            if (end + 4 <= data.capacity() && data.getInt(end) != 0) {
+                byte[] zeros = new byte[Math.min(64 * 1024, data.capacity() - end)];
+                for (int position = end; position < data.capacity(); position += zeros.length) {
+                    data.put(position, zeros, 0, Math.min(zeros.length, data.capacity() - position));
+                }
+                dirty = true;
+            }
+        }
+
+        boolean fits(int size) {
+            return end + size + 4 <= data.capacity() && entries < index.capacity() / INDEX_ENTRY;
+        }
+
+        // Завершает запись в position: длина и CRC пишутся последними, затем элемент индекса
+        void commit(int position, int bodySize, int type, long time) {
+            int size = HEADER - 4 + bodySize;
+            data.put(position + 8, (byte) type);
+            data.putInt(position + 4, checksum(position, size));
+            data.putInt(position, size);
+            writeEntry(position, type, time);
+            if (type == PUT) {
+                records++;
+            }
+            end = position + 4 + size;
+            dirty = true;
+        }
+
+        private void writeEntry(int position, int type, long time) {
+            int offset = entries * INDEX_ENTRY;
+            index.putLong(offset, time);
+            index.putInt(offset + 8, position);
+            index.putInt(offset + 12, type);
+            entries++;
+        }
+
+        // CRC32 типа и тела записи
+        private int checksum(int position, int size) {
+            CRC32 crc = new CRC32();
+            crc.update(data.slice(position + 8, size - 4));
+            return (int) crc.getValue();
+        }
+
+        void force() {
+            if (dirty) {
+                data.force();
+                index.force();
+                dirty = false;
+            }
+        }
+    }
+
+    // Статистика журнала, отдаваемая через /api/stats/ingestion
+    public static final class LogStats {
+        private final boolean enabled;
+        private final int segments;
+        private final long bytes;
+        private final long records;
+        private final long liveRecords;
+        private final long appended;
+        private final long oversized;
+        private final long checkpoints;
+        private final long lastCheckpointAt;
+        private final long deletedSegments;
+        private final long compactedRecords;
+        private final long restoredArticles;
+        private final long servingMillis;
+        private final long replayMillis;
+
+        public LogStats(boolean enabled, int segments, long bytes, long records, long liveRecords, long appended,
+                        long oversized, long checkpoints, long lastCheckpointAt, long deletedSegments,
+                        long compactedRecords, long restoredArticles, long servingMillis, long replayMillis) {
+            this.enabled = enabled;
+            this.segments = segments;
+            this.bytes = bytes;
+            this.records = records;
+            this.liveRecords = liveRecords;
+            this.appended = appended;
+            this.oversized = oversized;
+            this.checkpoints = checkpoints;
+            this.lastCheckpointAt = lastCheckpointAt;
+            this.deletedSegments = deletedSegments;
+            this.compactedRecords = compactedRecords;
+            this.restoredArticles = restoredArticles;
+            this.servingMillis = servingMillis;
+            this.replayMillis = replayMillis;
+        }
+
+        // Включен ли журнал
+        public boolean isEnabled() { return enabled; }
+
+        // Сегментов на диске
+        public int getSegments() { return segments; }
+
+        // Байт записей во всех сегментах
+        public long getBytes() { return bytes; }
+
+        // Статей во всех сегментах
+        public long getRecords() { return records; }
+
+        // Из них живых (остальные будут удалены вместе с сегментом или при уплотнении)
+        public long getLiveRecords() { return liveRecords; }
+
+        // Записей дописано с момента старта
+        public long getAppended() { return appended; }
+
+        // Статей, не поместившихся в сегмент (в журнал не попали)
+        public long getOversized() { return oversized; }
+
+        // Записано контрольных точек
+        public long getCheckpoints() { return checkpoints; }
+
+        // Время последней контрольной точки (мс с начала эпохи)
+        public long getLastCheckpointAt() { return lastCheckpointAt; }
+
+        // Удалено сегментов без живых записей
+        public long getDeletedSegments() { return deletedSegments; }
+
+        // Записей переписано при уплотнении
+        public long getCompactedRecords() { return compactedRecords; }
+
+        // Статей восстановлено при старте
+        public long getRestoredArticles() { return restoredArticles; }
+
+        // От старта до готового снимка из контрольной точки (мс)
+        public long getServingMillis() { return servingMillis; }
+
+        // От старта до полного доигрывания журнала (мс)
+        public long getReplayMillis() { return replayMillis; }
+    }
+}
@@ -0,0 +1,758 @@
+package com.edu.WebScrapeApplication.service.store;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import com.edu.WebScrapeApplication.service.aggregation.NewsMerger;
+import com.edu.WebScrapeApplication.service.aggregation.NewsOrdering;
+import com.edu.WebScrapeApplication.service.metrics.NewsMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Хранилище статей в памяти, которое наполняет фоновый опрос источников.
+ * <p>
+ * Статьи хранятся по нормализованному URL (повторная загрузка той же статьи ее не дублирует)
+ * и в порядке времени публикации (для вытеснения статей старше окна хранения).
+ * После каждого изменения пересобирается готовый снимок - список после удаления дубликатов
+ * и слияния, - поэтому чтение {@link #getSnapshot()} не требует ни блокировок, ни вычислений.
+ * Индексы меняются под блокировкой хранилища, а пересборка идет вне ее: под блокировкой статьи только
+ * раскладываются по источникам. Изменения, пришедшие во время пересборки, не ждут ее и не запускают свою -
+ * их подхватывает следующий проход той же пересборки, поэтому опросы источников не выстраиваются
+ * в очередь за многосекундным удалением дубликатов на большом хранилище.
+ * Вместе со снимком сохраняются упорядоченные по времени статьи каждого источника без отсечки
+ * {@code news.aggregation.max-items} ({@link #getSourceSnapshots()}): по ним фильтры по источнику
+ * и интервалу времени отвечают двоичным поиском, не просматривая остальные статьи.
+ * При {@code news.store.compact=true} статьи хранятся как {@link CompactNewsItem}: для хранилища
+ * из миллионов статей это около трети памяти на статью ценой декодирования строк при пересборке снимка.
+ * <p>
+ * При {@code news.store.log.enabled=true} каждое изменение дописывается в {@link ArticleLog}. При старте
+ * снимок восстанавливается из контрольной точки журнала без повторного удаления дубликатов и сразу
+ * отдается запросам; индексы хранилища и записи после контрольной точки доигрываются в фоне, изменения
+ * ждут окончания доигрывания. Раз в минуту, вместе с вытеснением, журнал уплотняется и записывается
+ * новая контрольная точка, после чего сегменты без живых записей удаляются.
+ */
+@Component  // Помечает класс как компонент Spring
+public class ArticleStore {
+
+    // Журнал log4j2 (настройки в log4j2.xml)
+    private static final Logger log = LogManager.getLogger(ArticleStore.class);
+
+    // Удаление дубликатов между источниками при сборке снимка
+    private final NewsDeduplicator newsDeduplicator;
+    // Слияние пакетов источников при сборке снимка
+    private final NewsMerger newsMerger;
+    // Метрики (время пересборки снимка)
+    private final NewsMetrics newsMetrics;
+    // Окно хранения в миллисекундах
+    private final long retentionMillis;
+    // Хранить статьи в компактном виде
+    private final boolean compact;
+    // Источник текущего времени (подменяется в тестах)
+    private final LongSupplier clock;
+    // Журнал на диске (null - хранилище только в памяти)
+    private final ArticleLog articleLog;
+
+    // Статьи по нормализованному URL
+    private final Map<String, StoredArticle> byUrl = new HashMap<>();
+    // Статьи по времени (старые сначала)
+    private final TreeSet<StoredArticle> byTime = new TreeSet<>(
+            Comparator.comparingLong(StoredArticle::time).thenComparing(StoredArticle::key));
+
+    // Готовый снимок для чтения и его версия (растет при каждом изменении)
+    private volatile List<NewsItem> snapshot = List.of();
+    // Статьи каждого источника после удаления дубликатов в порядке NEWEST_FIRST
+    private volatile Map<String, List<NewsItem>> sourceSnapshots = Map.of();
+    private volatile long version;
+    private volatile long updatedAt;
+    // Завершается, когда первый круг опроса заполнил хранилище
+    private final CompletableFuture<Void> warm = new CompletableFuture<>();
+    // Подписчики на добавление (ключ, статья) и удаление (ключ) статей (неизменяемые списки, заменяются при подписке)
+    private List<BiConsumer<String, NewsItem>> putListeners = List.of();
+    private List<Consumer<String>> removeListeners = List.of();
+    // События для подписчиков в порядке изменений; доставляются вне блокировки хранилища
+    private final Queue<Runnable> events = new ArrayDeque<>();
+    // Одновременно события доставляет один поток, чтобы подписчик видел их в порядке изменений
+    private final Object eventDelivery = new Object();
+    // Снимок устарел / пересборка уже выполняется
+    private boolean rebuildPending;
+    private boolean rebuildRunning;
+    // Завершается, когда состояние восстановлено из журнала (сразу, если журнал выключен)
+    private final CompletableFuture<Void> restored = new CompletableFuture<>();
+    // Есть ли изменения после последней контрольной точки журнала
+    private boolean logDirty;
+
+    // Счетчики изменений
+    private long added;
+    private long replaced;
+    private long evicted;
+
+    // Конструктор для Spring: параметры берутся из application.properties
+    @Autowired
+    public ArticleStore(NewsDeduplicator newsDeduplicator, NewsMerger newsMerger, NewsMetrics newsMetrics,
+                        @Value("${news.store.retention.hours:48}") long retentionHours,
+                        @Value("${news.store.compact:false}") boolean compact,
+                        ArticleLog articleLog) {
+        this(newsDeduplicator, newsMerger, newsMetrics, TimeUnit.HOURS.toMillis(retentionHours), compact,
+                System::currentTimeMillis, articleLog.isEnabled() ? articleLog : null);
+    }
+
+    // Конструктор с явным источником времени (используется в тестах)
+    ArticleStore(NewsDeduplicator newsDeduplicator, NewsMerger newsMerger, NewsMetrics newsMetrics,
+                 long retentionMillis, LongSupplier clock) {
+        this(newsDeduplicator, newsMerger, newsMetrics, retentionMillis, false, clock);
+    }
+
+    ArticleStore(NewsDeduplicator newsDeduplicator, NewsMerger newsMerger, NewsMetrics newsMetrics,
+                 long retentionMillis, boolean compact, LongSupplier clock) {
+        this(newsDeduplicator, newsMerger, newsMetrics, retentionMillis, compact, clock, null);
+    }
+
+    // Конструктор с журналом (используется в тестах); до изменений нужно вызвать restore()
+    ArticleStore(NewsDeduplicator newsDeduplicator, NewsMerger newsMerger, NewsMetrics newsMetrics,
+                 long retentionMillis, boolean compact, LongSupplier clock, ArticleLog articleLog) {
+        this.newsDeduplicator = newsDeduplicator;
+        this.newsMerger = newsMerger;
+        this.newsMetrics = newsMetrics;
+        this.retentionMillis = retentionMillis;
+        this.compact = compact;
+        this.clock = clock;
+        this.articleLog = articleLog;
+        if (articleLog == null) {
+            restored.complete(null);
+        }
+    }
+
+    /**
+     * Добавляет статьи источника. Уже известная статья (тот же нормализованный URL) заменяется,
+     * только если новая копия полнее.
+     * @param sourceId идентификатор источника
+     * @param items загруженные статьи
+     * @return число новых статей
+     */
+    public int put(String sourceId, List<NewsItem> items) {
+        awaitRestored();
+        int newArticles = putItems(sourceId, items);
+        refreshSnapshot();
+        return newArticles;
+    }
+
+    private synchronized int putItems(String sourceId, List<NewsItem> items) {
+        long now = clock.getAsLong();
+        long cutoff = now - retentionMillis;
+        int newArticles = 0;
+        boolean changed = false;
+        for (NewsItem item : items) {
+            String key = item != null ? NewsDeduplicator.normalizeUrl(item.getUrl()) : null;
+            if (key == null) {
+                continue;  // Статью без URL нельзя отличить от других копий
+            }
+            StoredArticle article = new StoredArticle(compact ? CompactNewsItem.of(item) : item, sourceId, key,
+                    item.hasPublishedAt() ? item.getPublishedAtMillis() : now);
+            if (article.time() < cutoff) {
+                continue;  // Статья уже вне окна хранения
+            }
+            StoredArticle existing = byUrl.get(key);
+            if (existing == null) {
+                newArticles++;
+                added++;
+            } else if (NewsDeduplicator.completeness(item) > NewsDeduplicator.completeness(existing.item())) {
+                byTime.remove(existing);
+                release(existing);
+                replaced++;
+            } else {
+                continue;
+            }
+            if (articleLog != null) {
+                article.ref = articleLog.appendPut(sourceId, key, article.time(), article.item());
+            }
+            byUrl.put(key, article);
+            byTime.add(article);
+            notifyPut(key, article.item());
+            changed = true;
+        }
+        if (changed) {
+            rebuildPending = true;
+        }
+        return newArticles;
+    }
+
+    /**
+     * Удаляет статьи старше окна хранения (статьи без даты - по времени загрузки).
+     * @return число удаленных статей
+     */
+    public int evictExpired() {
+        int removed = 0;
+        synchronized (this) {
+            long cutoff = clock.getAsLong() - retentionMillis;
+            while (!byTime.isEmpty() && byTime.first().time() < cutoff) {
+                StoredArticle article = byTime.pollFirst();
+                byUrl.remove(article.key());
+                release(article);
+                notifyRemove(article.key());
+                removed++;
+            }
+            if (removed > 0) {
+                evicted += removed;
+                rebuildPending = true;
+            }
+        }
+        refreshSnapshot();
+        // Контрольная точка пишется после пересборки: видимые статьи берутся из нового снимка
+        synchronized (this) {
+            maintainLog();
+        }
+        deliverEvents();
+        return removed;
+    }
+
+    /**
+     * Удаляет статьи источника, убранного из каталога или выключенного.
+     * @param sourceId идентификатор источника
+     * @return число удаленных статей
+     */
+    public int removeSource(String sourceId) {
+        awaitRestored();
+        int removed;
+        synchronized (this) {
+            removed = removeArticles(sourceId);
+            if (removed > 0) {
+                if (articleLog != null) {
+                    // При доигрывании журнала записи источника до этой отметки не восстанавливаются
+                    articleLog.appendRemoveSource(sourceId);
+                }
+                rebuildPending = true;
+            }
+        }
+        refreshSnapshot();
+        return removed;
+    }
+
+    // Удаляет статьи источника без пересборки снимка
+    private int removeArticles(String sourceId) {
+        int removed = 0;
+        for (Iterator<StoredArticle> it = byTime.iterator(); it.hasNext(); ) {
+            StoredArticle article = it.next();
+            if (article.sourceId().equals(sourceId)) {
+                it.remove();
+                byUrl.remove(article.key());
+                release(article);
+                notifyRemove(article.key());
+                removed++;
+            }
+        }
+        evicted += removed;
+        return removed;
+    }
+
+    /**
+     * Подписывает на изменения хранилища (например, поисковый индекс). Уже сохраненные статьи
+     * передаются подписчику сразу. Подписчики вызываются вне блокировки хранилища, по одному событию
+     * в порядке изменений; медленный подписчик не задерживает опрос и чтение хранилища.
+     * @param onPut новая статья или более полная копия известной: нормализованный URL и статья
+     * @param onRemove статья вытеснена или удалена вместе с источником: нормализованный URL
+     */
+    public void addListener(BiConsumer<String, NewsItem> onPut, Consumer<String> onRemove) {
+        // Пока журнал доигрывается, подписка откладывается: старт приложения не ждет доигрывания,
+        // а подписчик получает восстановленные статьи после его окончания
+        restored.whenComplete((ignored, error) -> {
+            register(onPut, onRemove);
+            deliverEvents();
+        });
+    }
+
+    private synchronized void register(BiConsumer<String, NewsItem> onPut, Consumer<String> onRemove) {
+        putListeners = append(putListeners, onPut);
+        removeListeners = append(removeListeners, onRemove);
+        // Уже сохраненные статьи - одним событием только для нового подписчика, после ранее накопленных событий
+        List<String> keys = new ArrayList<>(byUrl.size());
+        List<NewsItem> items = new ArrayList<>(byUrl.size());
+        byUrl.forEach((key, article) -> {
+            keys.add(key);
+            items.add(article.item());
+        });
+        events.add(() -> {
+            for (int i = 0; i < keys.size(); i++) {
+                onPut.accept(keys.get(i), items.get(i));
+            }
+        });
+    }
+
+    private static <T> List<T> append(List<T> list, T element) {
+        List<T> result = new ArrayList<>(list);
+        result.add(element);
+        return List.copyOf(result);
+    }
+
+    // Ставит в очередь событие добавления для текущих подписчиков (под блокировкой)
+    private void notifyPut(String key, NewsItem item) {
+        List<BiConsumer<String, NewsItem>> listeners = putListeners;
+        if (!listeners.isEmpty()) {
+            events.add(() -> listeners.forEach(listener -> listener.accept(key, item)));
+        }
+    }
+
+    // Ставит в очередь событие удаления для текущих подписчиков (под блокировкой)
+    private void notifyRemove(String key) {
+        List<Consumer<String>> listeners = removeListeners;
+        if (!listeners.isEmpty()) {
+            events.add(() -> listeners.forEach(listener -> listener.accept(key)));
+        }
+    }
+
+    // Доставляет накопленные события подписчикам вне блокировки хранилища
+    private void deliverEvents() {
+        synchronized (eventDelivery) {
+            for (Runnable event = nextEvent(); event != null; event = nextEvent()) {
+                event.run();
+            }
+        }
+    }
+
+    private synchronized Runnable nextEvent() {
+        return events.poll();
+    }
+
+    /**
+     * Пересобирает снимок, если он устарел, и доставляет события подписчикам. Если пересборка уже идет
+     * в другом потоке, сразу возвращается: тот поток повторит пересборку с новыми изменениями.
+     */
+    private void refreshSnapshot() {
+        deliverEvents();
+        while (true) {
+            Map<String, List<NewsItem>> batches;
+            synchronized (this) {
+                if (!rebuildPending || rebuildRunning) {
+                    return;
+                }
+                rebuildPending = false;
+                rebuildRunning = true;
+                batches = groupBySource();
+            }
+            try {
+                rebuildSnapshot(batches);
+            } finally {
+                synchronized (this) {
+                    rebuildRunning = false;
+                }
+            }
+        }
+    }
+
+    // Статьи по источникам в порядке от новых к старым (под блокировкой)
+    private Map<String, List<NewsItem>> groupBySource() {
+        Map<String, List<NewsItem>> batches = new LinkedHashMap<>();
+        for (StoredArticle article : byTime.descendingSet()) {
+            batches.computeIfAbsent(article.sourceId(), id -> new ArrayList<>()).add(article.item());
+        }
+        return batches;
+    }
+
+    // Пересобирает снимок вне блокировки: удаление дубликатов -> упорядочивание -> k-путевое слияние
+    private void rebuildSnapshot(Map<String, List<NewsItem>> batches) {
+        long start = System.nanoTime();
+        List<List<NewsItem>> unique = newsDeduplicator.deduplicate(batches);
+        Map<String, List<NewsItem>> bySource = new LinkedHashMap<>();
+        List<List<NewsItem>> sorted = new ArrayList<>(unique.size());
+        int index = 0;
+        for (String sourceId : batches.keySet()) {
+            // Статьи без даты упорядочены по времени загрузки, поэтому порядок NEWEST_FIRST проверяется заново
+            List<NewsItem> batch = Collections.unmodifiableList(NewsOrdering.sortedBatch(unique.get(index++)));
+            bySource.put(sourceId, batch);
+            sorted.add(batch);
+        }
+        List<NewsItem> merged = Collections.unmodifiableList(NewsMerger.mergeSorted(sorted, newsMerger.getMaxItems()));
+        newsMetrics.recordMerge("store", System.nanoTime() - start);
+        synchronized (this) {
+            sourceSnapshots = Collections.unmodifiableMap(bySource);
+            snapshot = merged;
+            updatedAt = clock.getAsLong();
+            version++;
+            logDirty = true;
+        }
+    }
+
+    /**
+     * Восстанавливает хранилище из журнала. Снимок из контрольной точки публикуется сразу, и хранилище
+     * считается заполненным; индексы по URL и времени, подписчики и записи после контрольной точки
+     * доигрываются в фоновом потоке, изменения хранилища ждут его окончания.
+     */
+    @PostConstruct
+    public synchronized void restore() {
+        if (articleLog == null || restored.isDone()) {
+            return;
+        }
+        long start = System.nanoTime();
+        ArticleLog.Checkpoint checkpoint;
+        try {
+            checkpoint = articleLog.open();
+        } catch (RuntimeException e) {
+            log.error("Article log is not available, the store starts empty", e);
+            restored.completeExceptionally(e);
+            return;
+        }
+        List<NewsItem[]> items = new ArrayList<>();
+        if (checkpoint != null) {
+            long cutoff = clock.getAsLong() - retentionMillis;
+            Map<String, List<NewsItem>> bySource = new LinkedHashMap<>();
+            List<List<NewsItem>> sorted = new ArrayList<>();
+            for (int i = 0; i < checkpoint.sourceIds().size(); i++) {
+                long[] refs = checkpoint.refs().get(i);
+                NewsItem[] sourceItems = new NewsItem[refs.length];
+                for (int j = 0; j < refs.length; j++) {
+                    sourceItems[j] = articleLog.item(refs[j]);
+                }
+                items.add(sourceItems);
+                // Статьи уже упорядочены и без дубликатов; вышедшие из окна хранения за время простоя не показываются
+                List<NewsItem> batch = new ArrayList<>(checkpoint.visible().get(i).length);
+                for (int index : checkpoint.visible().get(i)) {
+                    if (articleLog.time(refs[index]) >= cutoff) {
+                        batch.add(sourceItems[index]);
+                    }
+                }
+                bySource.put(checkpoint.sourceIds().get(i), Collections.unmodifiableList(batch));
+                sorted.add(batch);
+            }
+            sourceSnapshots = Collections.unmodifiableMap(bySource);
+            snapshot = Collections.unmodifiableList(NewsMerger.mergeSorted(sorted, newsMerger.getMaxItems()));
+            updatedAt = clock.getAsLong();
+            version++;
+            if (!snapshot.isEmpty()) {
+                markWarm();
+            }
+        }
+        long servingMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Thread replay = new Thread(() -> replayLog(checkpoint, items, start, servingMillis), "article-log-replay");
+        replay.setDaemon(true);
+        replay.start();
+    }
+
+    // Доигрывает журнал: статьи контрольной точки в индексы, затем записи после нее
+    private void replayLog(ArticleLog.Checkpoint checkpoint, List<NewsItem[]> items, long start, long servingMillis) {
+        try {
+            replayIndexes(checkpoint, items);
+            refreshSnapshot();
+            int articles = getStats().getArticles();
+            if (articles > 0) {
+                markWarm();
+            }
+            long replayMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            articleLog.recordRestore(articles, servingMillis, replayMillis);
+            log.info("Article store restored: {} articles, serving after {} ms, replayed in {} ms",
+                    articles, servingMillis, replayMillis);
+            restored.complete(null);
+        } catch (RuntimeException e) {
+            log.error("Article log replay failed, the store keeps {} restored articles", getStats().getArticles(), e);
+            restored.completeExceptionally(e);
+        }
+    }
+
+    // Восстанавливает индексы по URL и времени из контрольной точки и записей после нее
+    private synchronized void replayIndexes(ArticleLog.Checkpoint checkpoint, List<NewsItem[]> items) {
+        long cutoff = clock.getAsLong() - retentionMillis;
+        boolean changed = false;
+        if (checkpoint != null) {
+            for (int i = 0; i < items.size(); i++) {
+                String sourceId = checkpoint.sourceIds().get(i);
+                long[] refs = checkpoint.refs().get(i);
+                for (int j = 0; j < refs.length; j++) {
+                    long time = articleLog.time(refs[j]);
+                    if (time < cutoff) {
+                        articleLog.release(refs[j]);
+                        changed = true;
+                        continue;
+                    }
+                    StoredArticle article = new StoredArticle(items.get(i)[j], sourceId, articleLog.key(refs[j]), time);
+                    article.ref = refs[j];
+                    index(article);
+                }
+            }
+        }
+        // Записи после контрольной точки: каждая уже была принята хранилищем, поэтому более поздняя
+        // запись того же URL заменяет раннюю без сравнения полноты
+        long from = checkpoint != null ? checkpoint.head() : ArticleLog.NO_REF;
+        boolean[] tail = new boolean[1];
+        articleLog.replay(from, new ArticleLog.Visitor() {
+            @Override
+            public void put(long ref, String sourceId) {
+                long time = articleLog.time(ref);
+                if (time < cutoff) {
+                    return;
+                }
+                String key = articleLog.key(ref);
+                StoredArticle existing = byUrl.get(key);
+                if (existing != null) {
+                    byTime.remove(existing);
+                    release(existing);
+                }
+                StoredArticle article = new StoredArticle(articleLog.item(ref), sourceId, key, time);
+                article.ref = ref;
+                articleLog.retain(ref);
+                index(article);
+                tail[0] = true;
+            }
+
+            @Override
+            public void removeSource(String sourceId) {
+                removeArticles(sourceId);
+                tail[0] = true;
+            }
+        });
+        if (tail[0] || changed) {
+            rebuildPending = true;
+        }
+    }
+
+    // Добавляет восстановленную статью в индексы и передает подписчикам
+    private void index(StoredArticle article) {
+        byUrl.put(article.key(), article);
+        byTime.add(article);
+        notifyPut(article.key(), article.item());
+    }
+
+    /**
+     * Ждет окончания доигрывания журнала (сразу, если журнал выключен).
+     * @return future восстановления: с ошибкой, если журнал не прочитан
+     */
+    public CompletableFuture<Void> awaitRestored() {
+        // Ошибка восстановления не останавливает хранилище: оно продолжает работу с тем, что успело прочитать
+        restored.handle((ignored, error) -> null).join();
+        return restored;
+    }
+
+    // Уплотняет журнал и записывает контрольную точку, если хранилище изменилось (под блокировкой)
+    private void maintainLog() {
+        if (articleLog == null || !restored.isDone() || restored.isCompletedExceptionally()) {
+            return;  // Контрольная точка до окончания доигрывания потеряла бы невосстановленные статьи
+        }
+        // Пересборка вне блокировки держит ссылки на статьи старых сегментов - уплотнение ждет ее окончания
+        Set<Integer> candidates = rebuildRunning ? Set.of() : new HashSet<>(articleLog.compactionCandidates());
+        if (!candidates.isEmpty()) {
+            compact(candidates);
+        }
+        if (logDirty) {
+            checkpoint();
+        }
+    }
+
+    // Переписывает живые записи разреженных сегментов в конец журнала
+    private void compact(Set<Integer> segments) {
+        Map<NewsItem, NewsItem> moved = new IdentityHashMap<>();
+        int count = 0;
+        for (StoredArticle article : byTime) {
+            if (article.ref == ArticleLog.NO_REF || !segments.contains(ArticleLog.segmentId(article.ref))) {
+                continue;
+            }
+            long ref = articleLog.appendPut(article.sourceId(), article.key(), article.time(), article.item());
+            articleLog.release(article.ref);
+            article.ref = ref;
+            count++;
+            if (article.item() instanceof LoggedNewsItem && ref != ArticleLog.NO_REF) {
+                // Статья читается из нового места, чтобы старый сегмент можно было освободить
+                NewsItem item = articleLog.item(ref);
+                moved.put(article.item(), item);
+                article.item = item;
+                notifyPut(article.key(), item);
+            }
+        }
+        if (!moved.isEmpty()) {
+            // Содержимое снимка не меняется - только ссылки на статьи
+            Map<String, List<NewsItem>> bySource = new LinkedHashMap<>();
+            sourceSnapshots.forEach((sourceId, batch) -> bySource.put(sourceId, Collections.unmodifiableList(
+                    batch.stream().map(item -> moved.getOrDefault(item, item)).toList())));
+            sourceSnapshots = Collections.unmodifiableMap(bySource);
+            snapshot = snapshot.stream().map(item -> moved.getOrDefault(item, item)).toList();
+        }
+        articleLog.recordCompaction(count);
+        logDirty = true;
+    }
+
+    // Записывает контрольную точку: живые записи источников и номера статей их снимков
+    private void checkpoint() {
+        Map<String, List<StoredArticle>> bySource = new LinkedHashMap<>();
+        for (StoredArticle article : byTime.descendingSet()) {
+            if (article.ref != ArticleLog.NO_REF) {
+                bySource.computeIfAbsent(article.sourceId(), id -> new ArrayList<>()).add(article);
+            }
+        }
+        List<String> sourceIds = new ArrayList<>(bySource.keySet());
+        List<long[]> refs = new ArrayList<>(sourceIds.size());
+        List<int[]> visible = new ArrayList<>(sourceIds.size());
+        for (String sourceId : sourceIds) {
+            List<StoredArticle> articles = bySource.get(sourceId);
+            long[] sourceRefs = new long[articles.size()];
+            Map<NewsItem, Integer> positions = new IdentityHashMap<>(articles.size());
+            for (int i = 0; i < sourceRefs.length; i++) {
+                sourceRefs[i] = articles.get(i).ref;
+                positions.put(articles.get(i).item(), i);
+            }
+            List<NewsItem> shown = sourceSnapshots.getOrDefault(sourceId, List.of());
+            int[] sourceVisible = new int[shown.size()];
+            int count = 0;
+            for (NewsItem item : shown) {
+                Integer position = positions.get(item);
+                if (position != null) {
+                    sourceVisible[count++] = position;
+                }
+            }
+            refs.add(sourceRefs);
+            visible.add(Arrays.copyOf(sourceVisible, count));
+        }
+        articleLog.checkpoint(sourceIds, refs, visible);
+        logDirty = false;
+    }
+
+    // Сохраняет контрольную точку при остановке приложения
+    @PreDestroy
+    public void close() {
+        if (articleLog != null) {
+            synchronized (this) {
+                maintainLog();
+                articleLog.flush();
+            }
+            deliverEvents();
+        }
+    }
+
+    // Запись статьи в журнале больше не нужна
+    private void release(StoredArticle article) {
+        if (articleLog != null) {
+            articleLog.release(article.ref);
+        }
+    }
+
+    // Отмечает, что первый круг опроса завершен: ожидающие запросы получают снимок
+    public void markWarm() {
+        warm.complete(null);
+    }
+
+    // Текущий снимок: статьи после удаления дубликатов в порядке NEWEST_FIRST
+    public List<NewsItem> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Статьи каждого источника после удаления дубликатов, без отсечки news.aggregation.max-items.
+     * @return идентификатор источника -> статьи в порядке NEWEST_FIRST (неизменяемые)
+     */
+    public Map<String, List<NewsItem>> getSourceSnapshots() {
+        return sourceSnapshots;
+    }
+
+    /**
+     * Снимок, как только хранилище заполнено первым кругом опроса.
+     * Запросы, пришедшие во время старта, ждут этот круг, а не запускают свой опрос источников.
+     */
+    public CompletableFuture<List<NewsItem>> awaitSnapshot() {
+        if (warm.isDone()) {
+            return CompletableFuture.completedFuture(snapshot);
+        }
+        return warm.thenApply(ignored -> snapshot);
+    }
+
+    // Номер версии снимка
+    public long getVersion() {
+        return version;
+    }
+
+    // Возвращает текущие значения счетчиков
+    public synchronized StoreStats getStats() {
+        return new StoreStats(byUrl.size(), snapshot.size(), version, updatedAt, warm.isDone(),
+                added, replaced, evicted, TimeUnit.MILLISECONDS.toHours(retentionMillis));
+    }
+
+    // Статистика журнала на диске (null, если журнал выключен)
+    public ArticleLog.LogStats getLogStats() {
+        return articleLog != null ? articleLog.getStats() : null;
+    }
+
+    // Статья в хранилище: источник, ключ (нормализованный URL) и время для упорядочивания
+    private static final class StoredArticle {
+        // Статья (заменяется представлением из нового места журнала при уплотнении)
+        private NewsItem item;
+        private final String sourceId;
+        private final String key;
+        private final long time;
+        // Запись в журнале (NO_REF - журнал выключен или статья в него не попала)
+        private long ref = ArticleLog.NO_REF;
+
+        private StoredArticle(NewsItem item, String sourceId, String key, long time) {
+            this.item = item;
+            this.sourceId = sourceId;
+            this.key = key;
+            this.time = time;
+        }
+
+        NewsItem item() { return item; }
+
+        String sourceId() { return sourceId; }
+
+        String key() { return key; }
+
+        long time() { return time; }
+    }
+
+    // Статистика хранилища, отдаваемая через /api/stats/ingestion
+    public static final class StoreStats {
+        private final int articles;
+        private final int snapshotSize;
+        private final long version;
+        private final long updatedAt;
+        private final boolean warm;
+        private final long added;
+        private final long replaced;
+        private final long evicted;
+        private final long retentionHours;
+
+        public StoreStats(int articles, int snapshotSize, long version, long updatedAt, boolean warm,
+                          long added, long replaced, long evicted, long retentionHours) {
+            this.articles = articles;
+            this.snapshotSize = snapshotSize;
+            this.version = version;
+            this.updatedAt = updatedAt;
+            this.warm = warm;
+            this.added = added;
+            this.replaced = replaced;
+            this.evicted = evicted;
+            this.retentionHours = retentionHours;
+        }
+
+        // Статей в хранилище
+        public int getArticles() { return articles; }
+
+        // Статей в снимке (после удаления дубликатов и отсечки news.aggregation.max-items)
+        public int getSnapshotSize() { return snapshotSize; }
+
+        // Версия снимка
+        public long getVersion() { return version; }
+
+        // Время последнего изменения (мс с начала эпохи)
+        public long getUpdatedAt() { return updatedAt; }
+
+        // Завершен ли первый круг опроса
+        public boolean isWarm() { return warm; }
+
+        // Добавлено новых статей
+        public long getAdded() { return added; }
+
+        // Заменено более полными копиями
+        public long getReplaced() { return replaced; }
+
+        // Вытеснено по окну хранения
+        public long getEvicted() { return evicted; }
+
+        // Окно хранения в часах
+        public long getRetentionHours() { return retentionHours; }
+    }
+}
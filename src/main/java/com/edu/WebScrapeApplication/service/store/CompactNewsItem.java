@@ -0,0 +1,123 @@
+package com.edu.WebScrapeApplication.service.store;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Неизменяемая статья в компактном виде для долгого хранения в {@link ArticleStore}.
+ * <p>
+ * Заголовок, описание и URL лежат подряд в одном массиве байт UTF-8 (перед каждым полем - длина
+ * в формате varint, 0 означает null) вместо трех объектов String со своими массивами;
+ * дата - примитив, название источника - общий экземпляр из словаря.
+ * Строки декодируются при каждом обращении, поэтому представление подходит для хранения,
+ * а не для полей, которые читаются в горячем цикле.
+ */
+public final class CompactNewsItem extends NewsItem {
+
+    // Заголовок, описание и URL в UTF-8 с длинами
+    private final byte[] text;
+
+    private CompactNewsItem(byte[] text, long publishedAt, String sourceName) {
+        super(publishedAt, sourceName);
+        this.text = text;
+    }
+
+    /**
+     * Упаковывает статью.
+     * @param item исходная статья
+     * @return компактная копия (сама статья, если она уже компактная)
+     */
+    public static CompactNewsItem of(NewsItem item) {
+        if (item instanceof CompactNewsItem compact) {
+            return compact;
+        }
+        byte[] title = encode(item.getTitle());
+        byte[] description = encode(item.getDescription());
+        byte[] url = encode(item.getUrl());
+        byte[] text = new byte[size(title) + size(description) + size(url)];
+        int position = put(text, 0, title);
+        position = put(text, position, description);
+        put(text, position, url);
+        return new CompactNewsItem(text, item.getPublishedAtMillis(), item.getSourceName());
+    }
+
+    @Override
+    public String getTitle() { return field(0); }
+
+    @Override
+    public String getDescription() { return field(1); }
+
+    @Override
+    public String getUrl() { return field(2); }
+
+    @Override
+    public void setTitle(String title) { throw readOnly(); }
+
+    @Override
+    public void setDescription(String description) { throw readOnly(); }
+
+    @Override
+    public void setUrl(String url) { throw readOnly(); }
+
+    @Override
+    public void setPublishedAt(Date publishedAt) { throw readOnly(); }
+
+    @Override
+    public void setPublishedAtMillis(long publishedAt) { throw readOnly(); }
+
+    @Override
+    public void setSourceName(String sourceName) { throw readOnly(); }
+
+    // Декодирует поле с номером index, пропуская предыдущие
+    private String field(int index) {
+        int position = 0;
+        for (int i = 0; ; i++) {
+            int length = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = text[position++];
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (i == index) {
+                return length == 0 ? null : new String(text, position, length - 1, StandardCharsets.UTF_8);
+            }
+            position += Math.max(length - 1, 0);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    // Байт на поле: длина (varint от length + 1) и содержимое
+    private static int size(byte[] value) {
+        int length = value != null ? value.length + 1 : 0;
+        int header = 1;
+        while ((length >>>= 7) != 0) {
+            header++;
+        }
+        return header + (value != null ? value.length : 0);
+    }
+
+    private static int put(byte[] target, int position, byte[] value) {
+        int length = value != null ? value.length + 1 : 0;
+        while ((length & ~0x7F) != 0) {
+            target[position++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        target[position++] = (byte) length;
+        if (value != null) {
+            System.arraycopy(value, 0, target, position, value.length);
+            position += value.length;
+        }
+        return position;
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Stored article is read-only");
+    }
+}
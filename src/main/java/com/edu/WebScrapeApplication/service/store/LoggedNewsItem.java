@@ -0,0 +1,58 @@
+package com.edu.WebScrapeApplication.service.store;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+/**
+ * Статья, восстановленная из {@link ArticleLog}: представление записи в отображенном сегменте.
+ * <p>
+ * Заголовок, описание и URL не копируются в кучу, а декодируются из сегмента при каждом обращении
+ * (формат полей тот же, что у {@link CompactNewsItem}); дата и название источника хранятся в объекте.
+ * Поэтому восстановление миллиона статей - это миллион небольших объектов без разбора строк.
+ */
+final class LoggedNewsItem extends NewsItem {
+
+    // Сегмент журнала (общий для всех статей сегмента, читается только абсолютными методами)
+    private final ByteBuffer data;
+    // Позиция поля заголовка; за ним - описание и URL
+    private final int fields;
+
+    LoggedNewsItem(ByteBuffer data, int fields, long publishedAt, String sourceName) {
+        super(publishedAt, sourceName);
+        this.data = data;
+        this.fields = fields;
+    }
+
+    @Override
+    public String getTitle() { return ArticleLog.readField(data, fields, 0); }
+
+    @Override
+    public String getDescription() { return ArticleLog.readField(data, fields, 1); }
+
+    @Override
+    public String getUrl() { return ArticleLog.readField(data, fields, 2); }
+
+    @Override
+    public void setTitle(String title) { throw readOnly(); }
+
+    @Override
+    public void setDescription(String description) { throw readOnly(); }
+
+    @Override
+    public void setUrl(String url) { throw readOnly(); }
+
+    @Override
+    public void setPublishedAt(Date publishedAt) { throw readOnly(); }
+
+    @Override
+    public void setPublishedAtMillis(long publishedAt) { throw readOnly(); }
+
+    @Override
+    public void setSourceName(String sourceName) { throw readOnly(); }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Stored article is read-only");
+    }
+}
@@ -0,0 +1,403 @@
+package com.edu.WebScrapeApplication.service.stream;
+
+import com.edu.WebScrapeApplication.config.ExecutorMode;
+import com.edu.WebScrapeApplication.model.NewsFilter;
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import com.edu.WebScrapeApplication.service.aggregation.NewsOrdering;
+import com.edu.WebScrapeApplication.service.fetch.NewsSource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Общая рассылка новых статей подписчикам {@code GET /api/news/stream} (Server-Sent Events).
+ * <p>
+ * Каждая завершившаяся загрузка источника (фоновый опрос или агрегация по запросу) передается в {@link #publish}:
+ * статьи, уже прошедшие через поток, отсекаются по хэшу нормализованного URL, новые сериализуются в JSON
+ * один раз и раздаются всем подписчикам. Работа на загрузку - O(новых статей), а не O(клиентов x статей),
+ * как при опросе {@code GET /api/news}.
+ * <p>
+ * У каждого подписчика своя ограниченная очередь, которую разбирает общий пул отправителей, поэтому медленный
+ * клиент не задерживает ни загрузку источников, ни других подписчиков. Переполненная очередь очищается
+ * и заменяется событием {@code resync}: клиент пропустил часть статей и должен заново запросить {@code GET /api/news}.
+ */
+@Component  // Помечает класс как компонент Spring
+public class NewsStreamHub {
+
+    // Журнал log4j2 (настройки в log4j2.xml)
+    private static final Logger log = LogManager.getLogger(NewsStreamHub.class);
+
+    // Событие с новыми статьями
+    static final String NEWS = "news";
+    // Событие "часть статей пропущена, запросите список заново"
+    static final String RESYNC = "resync";
+
+    // Служебные события: общие для всех подписчиков
+    private static final StreamEvent RESYNC_EVENT = new StreamEvent(0, RESYNC, "{}");
+    private static final StreamEvent HEARTBEAT = new StreamEvent(0, null, null);
+
+    // Сериализация статей (настроенный Spring ObjectMapper)
+    private final ObjectMapper objectMapper;
+    // Размер очереди подписчика
+    private final int bufferSize;
+    // Сколько последних URL помнить для отсечения уже разосланных статей
+    private final int seenCapacity;
+    // Период служебного комментария, по которому обнаруживаются закрытые соединения (0 - не отправлять)
+    private final long heartbeatSeconds;
+    // Пул отправителей: запись в соединение медленного клиента занимает поток пула, а не загрузки
+    private final ExecutorService senders;
+
+    // Подписчики
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Хэши нормализованных URL разосланных статей (LRU: повторно приходящие статьи не вытесняются)
+    private final LinkedHashMap<Long, Boolean> seen;
+    // Номер последнего события (id в SSE)
+    private final AtomicLong sequence = new AtomicLong();
+    // Поток служебных комментариев (создается при старте)
+    private ScheduledExecutorService heartbeat;
+
+    // Счетчики
+    private final LongAdder subscribed = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder deliveries = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    // Конструктор для Spring: параметры берутся из application.properties
+    @Autowired
+    public NewsStreamHub(
+            ObjectMapper objectMapper,
+            @Value("${news.stream.buffer:256}") int bufferSize,
+            @Value("${news.stream.seen-capacity:10000}") int seenCapacity,
+            @Value("${news.stream.heartbeat.seconds:15}") long heartbeatSeconds,
+            @Value("${news.stream.sender-threads:2}") int senderThreads,
+            @Value("${news.executor.mode:fixed}") String executorMode) {  // virtual - поток на отправку
+        this(objectMapper, bufferSize, seenCapacity, heartbeatSeconds,
+                ExecutorMode.fromProperty(executorMode).createExecutor(senderThreads));
+    }
+
+    // Конструктор с явным пулом отправителей (используется в тестах)
+    NewsStreamHub(ObjectMapper objectMapper, int bufferSize, int seenCapacity, long heartbeatSeconds,
+                  ExecutorService senders) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("news.stream.buffer must be positive");
+        }
+        if (seenCapacity < 1) {
+            throw new IllegalArgumentException("news.stream.seen-capacity must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.seenCapacity = seenCapacity;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.senders = senders;
+        this.seen = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > NewsStreamHub.this.seenCapacity;
+            }
+        };
+    }
+
+    // Запускает служебные комментарии
+    @PostConstruct
+    public void start() {
+        if (heartbeatSeconds <= 0) {
+            return;
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "news-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(() -> subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)),
+                heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    // Закрывает соединения подписчиков и останавливает отправителей
+    @PreDestroy
+    public void stop() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> unsubscribe(subscriber, true));
+        senders.shutdownNow();
+    }
+
+    /**
+     * Подписывает клиента SSE на новые статьи.
+     * @param filter фильтр по источнику и категории (интервал времени не используется)
+     * @return поток событий {@code news} (JSON-массив новых статей, новые сначала) и {@code resync}
+     */
+    public SseEmitter subscribe(NewsFilter filter) {
+        SseEmitter emitter = new SseEmitter(0L);  // Без таймаута: соединение закрывает клиент или остановка приложения
+        Subscriber subscriber = subscribe(filter, new Sink() {
+            @Override
+            public void send(StreamEvent event) throws IOException {
+                if (event == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                } else {
+                    emitter.send(SseEmitter.event().id(Long.toString(event.id())).name(event.type())
+                            .data(event.data(), MediaType.APPLICATION_JSON));
+                }
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber, false));
+        emitter.onTimeout(() -> unsubscribe(subscriber, false));
+        emitter.onError(error -> unsubscribe(subscriber, false));
+        return emitter;
+    }
+
+    // Подписывает получателя событий (SSE-соединение или тестовый получатель)
+    Subscriber subscribe(NewsFilter filter, Sink sink) {
+        Subscriber subscriber = new Subscriber(filter, sink);
+        subscribers.add(subscriber);
+        subscribed.increment();
+        return subscriber;
+    }
+
+    /**
+     * Рассылает статьи завершившейся загрузки источника, которых еще не было в потоке.
+     * Не блокируется на медленных клиентах: события только ставятся в очереди подписчиков.
+     * @param source источник (по нему проверяется фильтр подписчика)
+     * @param loaded статьи из ответа источника
+     */
+    public void publish(NewsSource source, List<NewsItem> loaded) {
+        long[] hashes = new long[loaded.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            NewsItem item = loaded.get(i);
+            String key = item != null ? NewsDeduplicator.normalizeUrl(item.getUrl()) : null;
+            hashes[i] = key != null ? NewsDeduplicator.hash64(key) : 0;
+        }
+        List<NewsItem> fresh = new ArrayList<>();
+        synchronized (seen) {
+            // Статьи запоминаются и без подписчиков: новый подписчик получает только статьи после подписки
+            for (int i = 0; i < hashes.length; i++) {
+                if (hashes[i] != 0 && seen.put(hashes[i], Boolean.TRUE) == null) {
+                    fresh.add(loaded.get(i));
+                }
+            }
+        }
+        if (fresh.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+
+        fresh.sort(NewsOrdering.NEWEST_FIRST);
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(fresh);  // Один раз на всех подписчиков
+        } catch (JsonProcessingException e) {
+            log.warn("News from {} were not streamed: {}", source.getId(), e.getMessage());
+            return;
+        }
+        StreamEvent event = new StreamEvent(sequence.incrementAndGet(), NEWS, data);
+        events.increment();
+        items.add(fresh.size());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matchesSource(source.getId(), source.getCategory())) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    // Отписывает получателя; closeSink - закрыть соединение со стороны сервера
+    private void unsubscribe(Subscriber subscriber, boolean closeSink) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        disconnected.increment();
+        subscriber.close();
+        if (closeSink) {
+            try {
+                subscriber.sink.close();
+            } catch (RuntimeException e) {
+                log.debug("Stream subscriber was already closed: {}", e.toString());
+            }
+        }
+    }
+
+    // Подписчиков сейчас
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    // Возвращает текущие значения счетчиков
+    public StreamStats getStats() {
+        int seenSize;
+        synchronized (seen) {
+            seenSize = seen.size();
+        }
+        return new StreamStats(subscribers.size(), subscribed.sum(), disconnected.sum(), events.sum(),
+                items.sum(), deliveries.sum(), resyncs.sum(), seenSize);
+    }
+
+    // Событие потока: номер, тип и данные (JSON)
+    static final class StreamEvent {
+        private final long id;
+        private final String type;
+        private final String data;
+
+        StreamEvent(long id, String type, String data) {
+            this.id = id;
+            this.type = type;
+            this.data = data;
+        }
+
+        long id() { return id; }
+
+        String type() { return type; }
+
+        String data() { return data; }
+    }
+
+    // Получатель событий одного подписчика
+    interface Sink {
+
+        // Отправляет событие (может блокироваться на медленном клиенте)
+        void send(StreamEvent event) throws IOException;
+
+        // Закрывает соединение со стороны сервера
+        default void close() {
+        }
+    }
+
+    // Подписчик: фильтр, получатель и ограниченная очередь событий
+    final class Subscriber {
+        private final NewsFilter filter;
+        private final Sink sink;
+        private final ArrayDeque<StreamEvent> queue = new ArrayDeque<>();
+        // Задача отправки уже запущена в пуле (не больше одной на подписчика - события не переупорядочиваются)
+        private boolean draining;
+        private boolean closed;
+
+        private Subscriber(NewsFilter filter, Sink sink) {
+            this.filter = filter;
+            this.sink = sink;
+        }
+
+        // Ставит событие в очередь без ожидания; при переполнении очередь заменяется событием resync
+        void offer(StreamEvent event) {
+            synchronized (this) {
+                if (closed || event == HEARTBEAT && !queue.isEmpty()) {
+                    return;  // Очередь не пуста - соединение и так проверяется отправкой
+                }
+                if (queue.size() >= bufferSize) {
+                    queue.clear();
+                    queue.add(RESYNC_EVENT);
+                    resyncs.increment();
+                }
+                queue.add(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            schedule();
+        }
+
+        // Отправляет события из очереди; после bufferSize событий уступает поток пула другим подписчикам
+        private void drain() {
+            for (int sent = 0; sent < bufferSize; sent++) {
+                StreamEvent event;
+                synchronized (this) {
+                    event = closed ? null : queue.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    sink.send(event);
+                    deliveries.increment();
+                } catch (IOException | RuntimeException e) {
+                    // Клиент закрыл соединение
+                    log.debug("Stream subscriber disconnected: {}", e.toString());
+                    unsubscribe(this, true);
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                unsubscribe(this, false);  // Приложение останавливается
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            queue.clear();
+        }
+    }
+
+    // Статистика потока, отдаваемая через /api/stats/stream
+    public static final class StreamStats {
+        private final int subscribers;
+        private final long subscribed;
+        private final long disconnected;
+        private final long events;
+        private final long items;
+        private final long deliveries;
+        private final long resyncs;
+        private final int seen;
+
+        public StreamStats(int subscribers, long subscribed, long disconnected, long events, long items,
+                           long deliveries, long resyncs, int seen) {
+            this.subscribers = subscribers;
+            this.subscribed = subscribed;
+            this.disconnected = disconnected;
+            this.events = events;
+            this.items = items;
+            this.deliveries = deliveries;
+            this.resyncs = resyncs;
+            this.seen = seen;
+        }
+
+        // Подписчиков сейчас
+        public int getSubscribers() { return subscribers; }
+
+        // Подписок за все время
+        public long getSubscribed() { return subscribed; }
+
+        // Отключений (клиентом, при ошибке отправки или остановке)
+        public long getDisconnected() { return disconnected; }
+
+        // Разослано событий с новыми статьями
+        public long getEvents() { return events; }
+
+        // Новых статей в этих событиях
+        public long getItems() { return items; }
+
+        // Отправлено событий подписчикам (включая resync и служебные комментарии)
+        public long getDeliveries() { return deliveries; }
+
+        // Переполнений очередей медленных подписчиков
+        public long getResyncs() { return resyncs; }
+
+        // Запомненных URL разосланных статей
+        public int getSeen() { return seen; }
+    }
+}
@@ -1,11 +1,24 @@
 package com.edu.WebScrapeApplication.config;
 
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +37,10 @@ class AsyncConfigTest {
     @Autowired
     private ExecutorService executorService;
 
+    // Инжектим пул HTTP-соединений для тестирования
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
     /**
      * Тест проверяет, что бин RestTemplate создан и доступен в контексте Spring.
      */
@@ -90,4 +107,94 @@ class AsyncConfigTest {
         assertTrue(System.currentTimeMillis() - startTime < 600,
                 "Tasks should run in parallel (fixed thread pool)");
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест проверяет, что режим пула потоков читается из конфигурации без учета регистра.
+     */
+    @Test
+    void executorModeShouldBeParsedFromProperty() {
+        assertEquals(ExecutorMode.FIXED, ExecutorMode.fromProperty("fixed"));
+        assertEquals(ExecutorMode.VIRTUAL, ExecutorMode.fromProperty(" Virtual "));
+        assertThrows(IllegalArgumentException.class, () -> ExecutorMode.fromProperty("unknown"));
+    }
+
+    /**
+     * Тест проверяет, что режим virtual выполняет задачи в виртуальных потоках.
+     * @throws Exception в случае ошибок выполнения теста
+     */
+    @Test
+    void virtualModeShouldCreateWorkingExecutor() throws Exception {
+        ExecutorService virtualExecutor = new AsyncConfig().newsExecutorService("virtual", 5);
+        try {
+            Future<Boolean> isVirtual = virtualExecutor.submit(() -> Thread.currentThread().isVirtual());
+            assertTrue(isVirtual.get(5, TimeUnit.SECONDS));
+        } finally {
+            virtualExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Тест проверяет, что RestTemplate работает через пул соединений Apache HttpClient.
+     */
+    @Test
+    void restTemplateShouldUsePooledHttpClient() {
+        // Фабрика запросов на базе HttpClient, а не HttpURLConnection
+        assertTrue(restTemplate.getRequestFactory() instanceof HttpComponentsClientHttpRequestFactory,
+                "RestTemplate should use HttpComponentsClientHttpRequestFactory");
+        // Лимиты пула по умолчанию
+        assertEquals(50, connectionManager.getMaxTotal());
+        assertEquals(10, connectionManager.getDefaultMaxPerRoute());
+        // Пул пуст, пока не было запросов
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+        assertEquals(0, connectionManager.getTotalStats().getPending());
+    }
+
+    /**
+     * Тест проверяет, что клиент запрашивает и распаковывает gzip-ответы
+     * и переиспользует одно keep-alive соединение для последовательных запросов.
+     * @throws Exception в случае ошибок выполнения теста
+     */
+    @Test
+    void restTemplateShouldDecodeGzipAndReuseConnections() throws Exception {
+        byte[] body = "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+        Set<String> clientPorts = ConcurrentHashMap.newKeySet();
+        // Локальный сервер, отвечающий gzip только если клиент его принимает
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/news", exchange -> {
+            clientPorts.add(String.valueOf(exchange.getRemoteAddress().getPort()));
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            byte[] response = body;
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(body);
+                }
+                response = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+
+        AsyncConfig config = new AsyncConfig();
+        PoolingHttpClientConnectionManager manager = config.newsConnectionManager(10, 5, 5);
+        try (CloseableHttpClient client = config.newsHttpClient(manager, 5, 30)) {
+            RestTemplate template = config.restTemplate(client);
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/news";
+
+            // Ответ прозрачно распакован
+            assertEquals("{\"status\":\"ok\"}", template.getForObject(url, String.class));
+            assertEquals("{\"status\":\"ok\"}", template.getForObject(url, String.class));
+            // Оба запроса прошли через одно соединение из пула
+            assertEquals(1, clientPorts.size(), "Keep-alive connection should be reused");
+            assertEquals(1, manager.getTotalStats().getAvailable());
+        } finally {
+            manager.close();
+            server.stop(0);
+        }
+    }
+}
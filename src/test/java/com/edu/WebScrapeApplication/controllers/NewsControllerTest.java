@@ -1,17 +1,42 @@
 package com.edu.WebScrapeApplication.controllers;
 
 import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.model.NewsPage;
 import com.edu.WebScrapeApplication.service.NewsService;
+import com.edu.WebScrapeApplication.service.aggregation.NewsSnapshot;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Тестовый класс для NewsController.
@@ -24,6 +49,10 @@ class NewsControllerTest {
     @Mock
     private NewsService newsService;
 
+    // Сериализатор снимков, как в NewsServiceImpl
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectWriter writer = objectMapper.writerFor(new TypeReference<List<NewsItem>>() { });
+
     // Тестируемый контроллер с внедренными моками
     @InjectMocks
     private NewsController newsController;
@@ -34,7 +63,7 @@ class NewsControllerTest {
      * @throws InterruptedException при прерывании потока
      */
     @Test
-    void getAggregatedNews_ShouldReturnNewsList() throws ExecutionException, InterruptedException {
+    void getAggregatedNews_ShouldReturnNewsList() throws Exception {
         // Подготовка тестовых данных
         List<NewsItem> expectedNews = Arrays.asList(
                 new NewsItem("Title 1", "Description 1", "http://example.com/1", null, "Source 1"),
@@ -42,10 +71,10 @@ class NewsControllerTest {
         );
 
         // Настройка поведения мока
-        when(newsService.getAggregatedNews()).thenReturn(expectedNews);
+        when(newsService.getSnapshotAsync()).thenReturn(CompletableFuture.completedFuture(NewsSnapshot.of(expectedNews, writer)));
 
         // Вызов тестируемого метода
-        List<NewsItem> result = newsController.getAggregatedNews();
+        List<NewsItem> result = items((byte[]) newsController.getAggregatedNews(null, null, null, null, null).get().getBody());
 
         // Проверки:
         // 1. Результат не должен быть null
@@ -53,41 +82,40 @@ class NewsControllerTest {
         // 3. Возвращенный список должен соответствовать ожидаемому
         assertNotNull(result);
         assertEquals(2, result.size());
-        assertEquals(expectedNews, result);
+        assertEquals(List.of("Title 1", "Title 2"), result.stream().map(NewsItem::getTitle).toList());
     }
 
     /**
-     * Тест проверяет обработку ExecutionException.
-     * @throws ExecutionException ожидаемое исключение
-     * @throws InterruptedException при прерывании потока
+     * Тест проверяет, что ошибка асинхронной агрегации передается через future.
      */
     @Test
-    void getAggregatedNews_ShouldHandleExecutionException() throws ExecutionException, InterruptedException {
-        // Настройка мока на выброс исключения
-        when(newsService.getAggregatedNews())
-                .thenThrow(new ExecutionException("Async error", new RuntimeException()));
-
-        // Проверка, что контроллер пробрасывает исключение
-        assertThrows(ExecutionException.class, () -> {
-            newsController.getAggregatedNews();
-        });
+    void getAggregatedNews_ShouldHandleExecutionException() {
+        // Настройка мока на future, завершенный с ошибкой
+        when(newsService.getSnapshotAsync())
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Async error")));
+
+        // Проверка, что ошибка доступна при ожидании результата
+        CompletableFuture<ResponseEntity<?>> result = newsController.getAggregatedNews(null, null, null, null, null);
+        assertTrue(result.isCompletedExceptionally());
+        assertThrows(ExecutionException.class, result::get);
     }
 
     /**
-     * Тест проверяет обработку InterruptedException.
-     * @throws ExecutionException при ошибках выполнения асинхронных задач
-     * @throws InterruptedException ожидаемое исключение
+     * Тест проверяет, что контроллер не блокируется, пока агрегация не завершена.
      */
     @Test
-    void getAggregatedNews_ShouldHandleInterruptedException() throws ExecutionException, InterruptedException {
-        // Настройка мока на выброс исключения
-        when(newsService.getAggregatedNews())
-                .thenThrow(new InterruptedException("Thread interrupted"));
-
-        // Проверка, что контроллер пробрасывает исключение
-        assertThrows(InterruptedException.class, () -> {
-            newsController.getAggregatedNews();
-        });
+    void getAggregatedNews_ShouldNotBlockWhileAggregationInProgress() throws Exception {
+        // Агрегация еще не завершена
+        CompletableFuture<NewsSnapshot> pending = new CompletableFuture<>();
+        when(newsService.getSnapshotAsync()).thenReturn(pending);
+
+        // Контроллер сразу возвращает незавершенный future
+        CompletableFuture<ResponseEntity<?>> result = newsController.getAggregatedNews(null, null, null, null, null);
+        assertFalse(result.isDone());
+
+        // После завершения агрегации результат становится доступен
+        pending.complete(NewsSnapshot.of(List.of(), writer));
+        assertTrue(items((byte[]) result.get().getBody()).isEmpty());
     }
 
     /**
@@ -96,24 +124,176 @@ class NewsControllerTest {
      * @throws InterruptedException при прерывании потока
      */
     @Test
-    void controllerShouldReturnCorrectResponseEntity() throws ExecutionException, InterruptedException {
+    void controllerShouldReturnCorrectResponseEntity() throws Exception {
         // Подготовка тестовых данных
         List<NewsItem> mockNews = List.of(
                 new NewsItem("Test Title", "Test Desc", "http://test.com", null, "Test Source")
         );
 
         // Настройка поведения мока
-        when(newsService.getAggregatedNews()).thenReturn(mockNews);
+        NewsSnapshot snapshot = NewsSnapshot.of(mockNews, writer);
+        when(newsService.getSnapshotAsync()).thenReturn(CompletableFuture.completedFuture(snapshot));
 
         // Вызов тестируемого метода
-        List<NewsItem> response = newsController.getAggregatedNews();
+        ResponseEntity<?> response = newsController.getAggregatedNews(null, null, null, null, null).get();
 
         // Проверки:
-        // 1. Ответ не должен быть null
+        // 1. Статус 200 и ETag версии снимка
         // 2. Должна вернуться 1 новость
         // 3. Заголовок новости должен соответствовать ожидаемому
-        assertNotNull(response);
-        assertEquals(1, response.size());
-        assertEquals("Test Title", response.get(0).getTitle());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(snapshot.etag(), response.getHeaders().getETag());
+        List<NewsItem> body = items((byte[]) response.getBody());
+        assertEquals(1, body.size());
+        assertEquals("Test Title", body.get(0).getTitle());
+    }
+
+    /**
+     * Тест проверяет, что постраничный запрос передает курсор и размер страницы в сервис.
+     */
+    @Test
+    void getNewsPage_ShouldDelegateCursorAndLimit() throws ExecutionException, InterruptedException {
+        NewsPage page = new NewsPage(List.of(new NewsItem("Title", "Desc", "http://test.com", null, "Source")), "next");
+        when(newsService.getNewsPageAsync("cursor", 1)).thenReturn(CompletableFuture.completedFuture(page));
+
+        NewsPage result = newsController.getNewsPage(1, "cursor", null, null, null, null).get().getBody();
+
+        assertEquals(page, result);
+        assertTrue(result.isHasMore());
+    }
+
+    /**
+     * Тест проверяет, что параметры фильтра собираются в NewsFilter и передаются в сервис,
+     * а некорректный интервал отклоняется до обращения к сервису.
+     */
+    @Test
+    void getNewsPage_ShouldPassFilterToService() throws ExecutionException, InterruptedException {
+        NewsPage page = new NewsPage(List.of(), null);
+        when(newsService.getNewsPageAsync(argThat(filter -> filter.getSources().equals(Set.of("bbc"))
+                && "technology".equals(filter.getCategory())
+                && filter.getFrom() == 1_714_521_600_000L && filter.getTo() == Long.MAX_VALUE), eq(null), eq(10)))
+                .thenReturn(CompletableFuture.completedFuture(page));
+
+        NewsPage result = newsController.getNewsPage(10, null, List.of("bbc"), "Technology",
+                "2024-05-01T00:00:00Z", null).get().getBody();
+
+        assertEquals(page, result);
+        assertThrows(IllegalArgumentException.class,
+                () -> newsController.getAggregatedNews(null, null, "2024-05-02T00:00:00Z", "2024-05-01T00:00:00Z", null));
+        assertThrows(IllegalArgumentException.class, () -> newsController.getAggregatedNews(null, null, "yesterday", null, null));
+    }
+
+    /**
+     * Тест проверяет условный запрос: клиент с актуальным ETag получает 304 без тела,
+     * а после смены снимка - 200 с новым ETag.
+     */
+    @Test
+    void getAggregatedNews_ShouldAnswerNotModifiedForCurrentEtag() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(newsController).build();
+        NewsItem item = new NewsItem("Title", "Desc", "http://test.com", null, "Source");
+        NewsSnapshot first = NewsSnapshot.of(List.of(item), writer);
+        NewsSnapshot second = NewsSnapshot.of(List.of(item, new NewsItem("Next", "Desc", "http://test.com/2", null, "Source")), writer);
+        when(newsService.getSnapshotAsync())
+                .thenReturn(CompletableFuture.completedFuture(first))
+                .thenReturn(CompletableFuture.completedFuture(second));
+
+        MvcResult unchanged = mockMvc.perform(get("/api/news").header(HttpHeaders.IF_NONE_MATCH, first.etag())).andReturn();
+        mockMvc.perform(asyncDispatch(unchanged))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, first.etag()));
+        MvcResult changed = mockMvc.perform(get("/api/news").header(HttpHeaders.IF_NONE_MATCH, first.etag())).andReturn();
+        mockMvc.perform(asyncDispatch(changed))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, second.etag()));
+
+        assertEquals(first.etag(), NewsSnapshot.of(List.of(item), writer).etag());  // Версия зависит только от содержимого
+        assertNotEquals(first.etag(), second.etag());
+        // Правка с тем же String.hashCode ("Aa" и "BB") меняет версию
+        assertNotEquals(NewsSnapshot.of(List.of(new NewsItem("Aa", "Desc", "http://test.com", null, "Source")), writer).etag(),
+                NewsSnapshot.of(List.of(new NewsItem("BB", "Desc", "http://test.com", null, "Source")), writer).etag());
+    }
+
+    /**
+     * Тест проверяет выбор кодировки тела по Accept-Encoding: gzip-вариант снимка отдается со своим ETag
+     * и Content-Encoding, без gzip (или с q=0) - исходный JSON; оба варианта - одни и те же статьи.
+     */
+    @Test
+    void getAggregatedNews_ShouldServePreEncodedGzipWhenAccepted() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(newsController).build();
+        NewsSnapshot snapshot = NewsSnapshot.of(List.of(new NewsItem("Title", "Desc", "http://test.com", null, "Source")), writer);
+        when(newsService.getSnapshotAsync()).thenReturn(CompletableFuture.completedFuture(snapshot));
+
+        MvcResult compressed = mockMvc.perform(get("/api/news").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8")).andReturn();
+        byte[] gzip = mockMvc.perform(asyncDispatch(compressed))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.gzipEtag()))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        MvcResult plain = mockMvc.perform(get("/api/news").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")).andReturn();
+        byte[] json = mockMvc.perform(asyncDispatch(plain))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.etag()))
+                .andExpect(content().contentType("application/json"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+        assertEquals("Title", items(json).get(0).getTitle());
+        assertFalse(NewsController.acceptsGzip(null));
+        assertFalse(NewsController.acceptsGzip("identity, deflate"));
+        assertTrue(NewsController.acceptsGzip("*"));
+    }
+
+    /**
+     * Тест проверяет, что явно указанный вес gzip важнее "*": отказ от gzip не отменяется подстановкой.
+     */
+    @Test
+    void acceptsGzip_ShouldPreferExplicitGzipWeightOverWildcard() {
+        assertFalse(NewsController.acceptsGzip("gzip;q=0, *"));
+        assertFalse(NewsController.acceptsGzip("*, x-gzip;q=0"));
+        assertTrue(NewsController.acceptsGzip("gzip;q=0.5, *;q=0"));
+        assertTrue(NewsController.acceptsGzip("br, *;q=0.1"));
+        assertFalse(NewsController.acceptsGzip("br, *;q=0"));
+    }
+
+    /**
+     * Тест проверяет, что поисковый запрос передает текст и лимит в сервис.
+     */
+    @Test
+    void search_ShouldDelegateQueryAndLimit() throws ExecutionException, InterruptedException {
+        List<NewsItem> found = List.of(new NewsItem("Выборы", "Desc", "http://test.com", null, "Source"));
+        when(newsService.searchAsync("выборы", 20)).thenReturn(CompletableFuture.completedFuture(found));
+
+        assertEquals(found, newsController.search("выборы", 20).get());
+    }
+
+    /**
+     * Тест проверяет, что кворум вместе с limit отклоняется ответом 400, а не отбрасывается молча.
+     */
+    @Test
+    void getNews_ShouldRejectQuorumCombinedWithLimit() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(newsController).build();
+
+        mockMvc.perform(get("/api/news").param("limit", "20").param("quorum", "2"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json("{\"error\":\"quorum cannot be combined with limit\"}"));
+        verifyNoInteractions(newsService);
+    }
+
+    /**
+     * Тест проверяет, что некорректные параметры страницы превращаются в ответ с описанием ошибки.
+     */
+    @Test
+    void handleBadRequest_ShouldReturnErrorMessage() {
+        assertEquals(Map.of("error", "Invalid cursor: x"),
+                newsController.handleBadRequest(new IllegalArgumentException("Invalid cursor: x")));
+    }
+
+    // Статьи из готового JSON-тела снимка
+    private List<NewsItem> items(byte[] body) throws IOException {
+        return objectMapper.readValue(body, new TypeReference<List<NewsItem>>() { });
     }
-}
\ No newline at end of file
+}
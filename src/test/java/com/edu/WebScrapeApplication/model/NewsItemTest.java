@@ -160,4 +160,37 @@ class NewsItemTest {
                 () -> assertNotEquals(initialDate, item.getPublishedAt())
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест проверяет, что дата хранится в миллисекундах: изменение переданного или полученного Date
+     * не меняет статью, а отсутствие даты обозначается NO_DATE.
+     */
+    @Test
+    void shouldKeepPublishedAtIndependentOfDateInstances() {
+        Date date = new Date(1_700_000_000_000L);
+        NewsItem item = new NewsItem("Title", "Desc", "http://url.com", date, "Source");
+
+        date.setTime(0);
+        item.getPublishedAt().setTime(0);
+
+        assertEquals(1_700_000_000_000L, item.getPublishedAtMillis());
+        assertEquals(new Date(1_700_000_000_000L), item.getPublishedAt());
+        item.setPublishedAt(null);
+        assertFalse(item.hasPublishedAt());
+        assertEquals(NewsItem.NO_DATE, item.getPublishedAtMillis());
+    }
+
+    /**
+     * Тест проверяет, что одинаковые названия источника хранятся одним экземпляром.
+     */
+    @Test
+    void shouldShareSourceNameInstances() {
+        NewsItem first = new NewsItem();
+        NewsItem second = new NewsItem();
+
+        first.setSourceName(new String("BBC News"));
+        second.setSourceName(new String("BBC News"));
+
+        assertSame(first.getSourceName(), second.getSourceName());
+    }
+}
@@ -0,0 +1,131 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsDeduplicator.
+ * Проверяет поиск дубликатов по URL и заголовку, выбор сохраняемой копии и статистику.
+ */
+class NewsDeduplicatorTest {
+
+    private final NewsDeduplicator deduplicator = new NewsDeduplicator(true, 0.8);
+
+    /**
+     * Тест проверяет нормализацию URL: схема, www, фрагмент, utm-метки и завершающий слэш не учитываются.
+     */
+    @Test
+    void normalizeUrl_ShouldIgnoreInsignificantParts() {
+        String expected = NewsDeduplicator.normalizeUrl("https://bbc.co.uk/news/123?id=5");
+        assertEquals(expected, NewsDeduplicator.normalizeUrl("http://WWW.BBC.co.uk/news/123/?utm_source=tw&id=5#top"));
+        assertEquals(expected, NewsDeduplicator.normalizeUrl("https://bbc.co.uk:443/news/123?id=5&fbclid=abc"));
+        assertNotEquals(expected, NewsDeduplicator.normalizeUrl("https://bbc.co.uk/news/123?id=6"));
+        assertNull(NewsDeduplicator.normalizeUrl(" "));
+    }
+
+    /**
+     * Тест проверяет, что из копий с одним URL остается самая полная, а при равной полноте - самая ранняя.
+     */
+    @Test
+    void deduplicate_ShouldKeepMostCompleteThenEarliestCopy() {
+        NewsItem bare = new NewsItem("Title", null, "https://site.com/a", new Date(1000), null);
+        NewsItem full = new NewsItem("Title", "Desc", "https://www.site.com/a/", new Date(3000), "Site");
+        NewsItem fullEarlier = new NewsItem("Title", "Desc", "http://site.com/a", new Date(2000), "Site");
+
+        Map<String, List<NewsItem>> batches = new LinkedHashMap<>();
+        batches.put("top-headlines", List.of(bare));
+        batches.put("everything", List.of(full));
+        batches.put("sources", List.of(fullEarlier));
+
+        List<List<NewsItem>> result = deduplicator.deduplicate(batches);
+
+        assertEquals(List.of(List.of(), List.of(), List.of(fullEarlier)), result);
+        assertEquals(Map.of("top-headlines", 1L, "everything", 1L), deduplicator.getStats().getDuplicatesBySource());
+        assertEquals(2, deduplicator.getStats().getUrlDuplicates());
+    }
+
+    /**
+     * Тест проверяет поиск почти одинаковых заголовков с разными URL (в том числе на русском языке).
+     */
+    @Test
+    void deduplicate_ShouldDetectNearDuplicateTitles() {
+        NewsItem english = item("Apple unveils new iPhone with faster chip and better camera - BBC News", "https://bbc.co.uk/1");
+        NewsItem englishCopy = item("Apple unveils new iPhone with a faster chip and better camera", "https://techcrunch.com/2");
+        NewsItem russian = item("Центробанк сохранил ключевую ставку на уровне 16 процентов", "https://ria.ru/3");
+        NewsItem russianCopy = item("Центробанк сохранил ключевую ставку на уровне 16%", "https://tass.ru/4");
+        NewsItem unrelated = item("Football club announces new head coach for the season", "https://bbc.co.uk/5");
+
+        Map<String, List<NewsItem>> batches = new LinkedHashMap<>();
+        batches.put("a", List.of(english, russian, unrelated));
+        batches.put("b", List.of(englishCopy, russianCopy));
+
+        List<List<NewsItem>> result = deduplicator.deduplicate(batches);
+
+        assertEquals(List.of(english, russian, unrelated), result.get(0));
+        assertTrue(result.get(1).isEmpty());
+        assertEquals(2, deduplicator.getStats().getTitleDuplicates());
+    }
+
+    /**
+     * Тест проверяет, что пакет без дубликатов возвращается тем же объектом (порядок и упорядоченность сохраняются),
+     * а выключенная дедупликация ничего не удаляет.
+     */
+    @Test
+    void deduplicate_ShouldReuseUntouchedBatchesAndRespectDisabledFlag() {
+        List<NewsItem> first = List.of(item("First unique headline of the day", "https://a.com/1"));
+        List<NewsItem> second = List.of(item("First unique headline of the day", "https://a.com/1"));
+        Map<String, List<NewsItem>> batches = new LinkedHashMap<>();
+        batches.put("a", first);
+        batches.put("b", second);
+
+        assertSame(first, deduplicator.deduplicate(batches).get(0));
+        assertEquals(List.of(first, second), new NewsDeduplicator(false, 0.8).deduplicate(batches));
+    }
+
+    /**
+     * Тест проверяет линейную работу на большом входе: 100 тыс. статей, половина - дубликаты.
+     */
+    @Test
+    void deduplicate_ShouldHandleLargeInput() {
+        // Заголовки из случайных слов; второй источник повторяет статьи первого
+        Random random = new Random(42);
+        List<NewsItem> batch = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int word = 0; word < 8; word++) {
+                title.append(word(random)).append(' ');
+            }
+            batch.add(item(title.toString().trim(), "https://site.com/" + i));
+        }
+        Map<String, List<NewsItem>> batches = new LinkedHashMap<>();
+        batches.put("source-0", batch);
+        batches.put("source-1", new ArrayList<>(batch));
+
+        long start = System.nanoTime();
+        List<List<NewsItem>> result = deduplicator.deduplicate(batches);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(50_000, result.get(0).size());
+        assertTrue(result.get(1).isEmpty());
+        assertTrue(elapsedMillis < 5_000, "Deduplication took " + elapsedMillis + " ms");
+    }
+
+    // Случайное слово из 3-9 латинских или кириллических букв
+    private static String word(Random random) {
+        char first = random.nextBoolean() ? 'a' : 'а';
+        char[] letters = new char[3 + random.nextInt(7)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) (first + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+
+    // Вспомогательный метод для создания статьи
+    private static NewsItem item(String title, String url) {
+        return new NewsItem(title, "Desc", url, new Date(1000), "Source");
+    }
+}
@@ -0,0 +1,109 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsMerger.
+ * Проверяет k-путевое слияние пакетов источников и порядок NewsOrdering.
+ */
+class NewsMergerTest {
+
+    /**
+     * Тест проверяет, что слияние дает тот же порядок, что и полная сортировка общего списка.
+     */
+    @Test
+    void merge_ShouldMatchFullSort() {
+        Random random = new Random(42);
+        List<List<NewsItem>> batches = new ArrayList<>();
+        List<NewsItem> all = new ArrayList<>();
+        for (int source = 0; source < 5; source++) {
+            List<NewsItem> batch = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                // Часть статей без даты и с совпадающими датами
+                Date date = random.nextInt(10) == 0 ? null : new Date(1_700_000_000_000L + random.nextInt(1000) * 1000L);
+                batch.add(item("s" + source + "-" + i, date));
+            }
+            if (source % 2 == 0) {
+                batch.sort(NewsOrdering.NEWEST_FIRST);  // Часть источников уже упорядочена
+            }
+            batches.add(batch);
+            all.addAll(batch);
+        }
+        all.sort(NewsOrdering.NEWEST_FIRST);
+
+        assertEquals(all, NewsMerger.merge(batches, 0));
+        assertEquals(all.subList(0, 20), NewsMerger.merge(batches, 20));
+    }
+
+    /**
+     * Тест проверяет обработку статей без даты: они идут в конце и упорядочены по URL.
+     */
+    @Test
+    void merge_ShouldPlaceUndatedItemsLastByUrl() {
+        NewsItem dated = item("b", new Date(1000));
+        NewsItem undatedB = item("y", null);
+        NewsItem undatedA = item("x", null);
+
+        List<NewsItem> result = NewsMerger.merge(List.of(List.of(undatedB, dated), List.of(undatedA)), 0);
+
+        assertEquals(List.of(dated, undatedA, undatedB), result);
+    }
+
+    /**
+     * Тест проверяет отсечку по лимиту из конфигурации и пропуск пустых, null-пакетов и null-статей.
+     */
+    @Test
+    void merge_ShouldApplyConfiguredLimitAndSkipNulls() {
+        NewsMerger merger = new NewsMerger(2);
+        List<List<NewsItem>> batches = new ArrayList<>();
+        batches.add(Arrays.asList(item("a", new Date(3000)), null, item("c", new Date(1000))));
+        batches.add(null);
+        batches.add(List.of());
+        batches.add(List.of(item("b", new Date(2000))));
+
+        List<NewsItem> result = merger.merge(batches);
+
+        assertEquals(List.of("a", "b"), result.stream().map(NewsItem::getTitle).toList());
+        assertTrue(NewsMerger.merge(List.of(), 10).isEmpty());
+    }
+
+    /**
+     * Тест проверяет, что упорядоченный пакет не копируется, а неупорядоченный не изменяется.
+     */
+    @Test
+    void sortedBatch_ShouldReuseSortedAndCopyUnsorted() {
+        List<NewsItem> sorted = List.of(item("a", new Date(2000)), item("b", new Date(1000)));
+        List<NewsItem> unsorted = new ArrayList<>(List.of(item("b", new Date(1000)), item("a", new Date(2000))));
+
+        assertSame(sorted, NewsOrdering.sortedBatch(sorted));
+        assertEquals(List.of("a", "b"), NewsOrdering.sortedBatch(unsorted).stream().map(NewsItem::getTitle).toList());
+        assertEquals("b", unsorted.get(0).getTitle());
+    }
+
+    /**
+     * Тест проверяет отбор первых статей из неупорядоченного пакета, больше лимита.
+     */
+    @Test
+    void sortedBatch_ShouldSelectTopOfUnsortedBatch() {
+        List<NewsItem> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(item("n" + i, i % 10 == 0 ? null : new Date(i * 1000L)));
+        }
+        Collections.shuffle(batch, new Random(7));
+        batch.add(null);
+
+        List<NewsItem> top = NewsOrdering.sortedBatch(batch, 3);
+
+        assertEquals(List.of("n99", "n98", "n97"), top.stream().map(NewsItem::getTitle).toList());
+    }
+
+    // Вспомогательный метод для создания статьи; заголовок совпадает с частью URL
+    private static NewsItem item(String title, Date publishedAt) {
+        return new NewsItem(title, "Desc", "http://" + title + ".com", publishedAt, "Source");
+    }
+}
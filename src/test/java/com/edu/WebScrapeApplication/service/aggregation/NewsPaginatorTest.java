@@ -0,0 +1,113 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsFilter;
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.model.NewsPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsPaginator и NewsCursor.
+ * Проверяет постраничную выдачу из упорядоченного снимка.
+ */
+class NewsPaginatorTest {
+
+    /**
+     * Тест проверяет, что обход по курсорам возвращает каждую статью ровно один раз, включая статьи без даты.
+     */
+    @Test
+    void page_ShouldWalkWholeSnapshotByCursor() {
+        List<NewsItem> snapshot = snapshot(23);
+        List<NewsItem> walked = new ArrayList<>();
+
+        NewsPage page = NewsPaginator.page(snapshot, null, 5);
+        int pages = 1;
+        while (page.isHasMore()) {
+            walked.addAll(page.getItems());
+            page = NewsPaginator.page(snapshot, NewsCursor.decode(page.getNextCursor()), 5);
+            pages++;
+        }
+        walked.addAll(page.getItems());
+
+        assertEquals(snapshot, walked);
+        assertEquals(5, pages);
+        assertNull(page.getNextCursor());
+    }
+
+    /**
+     * Тест проверяет, что курсор остается корректным после обновления снимка: новые статьи не сдвигают страницу.
+     */
+    @Test
+    void page_ShouldContinueAfterCursorWhenSnapshotChanges() {
+        List<NewsItem> snapshot = snapshot(10);
+        NewsPage first = NewsPaginator.page(snapshot, null, 4);
+
+        List<NewsItem> refreshed = new ArrayList<>(snapshot);
+        refreshed.add(0, new NewsItem("Fresh", "Desc", "http://fresh.com", new Date(Long.MAX_VALUE / 2), "Source"));
+        NewsPage second = NewsPaginator.page(refreshed, NewsCursor.decode(first.getNextCursor()), 4);
+
+        assertEquals(snapshot.subList(4, 8), second.getItems());
+    }
+
+    /**
+     * Тест проверяет выдачу с интервалом времени из нескольких пакетов: обход по курсорам дает те же статьи,
+     * что и просмотр всего снимка, статьи без даты и вне интервала не попадают.
+     */
+    @Test
+    void page_ShouldSliceBatchesByTimeRange() {
+        List<NewsItem> snapshot = snapshot(40);
+        List<List<NewsItem>> batches = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (int i = 0; i < snapshot.size(); i++) {
+            batches.get(i % 3).add(snapshot.get(i));  // Каждый пакет остается упорядоченным
+        }
+        long from = 1_700_000_000_000L + 3000;
+        long to = 1_700_000_000_000L + 10_000;
+        NewsFilter filter = NewsFilter.of(null, null, Instant.ofEpochMilli(from).toString(), Instant.ofEpochMilli(to).toString());
+        List<NewsItem> expected = snapshot.stream()
+                .filter(item -> item.hasPublishedAt() && item.getPublishedAtMillis() >= from && item.getPublishedAtMillis() < to)
+                .toList();
+
+        List<NewsItem> walked = new ArrayList<>();
+        NewsPage page = NewsPaginator.page(batches, filter, null, 4);
+        walked.addAll(page.getItems());
+        while (page.isHasMore()) {
+            page = NewsPaginator.page(batches, filter, NewsCursor.decode(page.getNextCursor()), 4);
+            walked.addAll(page.getItems());
+        }
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, walked);
+        assertEquals(expected.subList(0, 3), NewsPaginator.select(batches, filter, null, 3));
+    }
+
+    /**
+     * Тест проверяет кодирование курсора и отказ на поврежденном курсоре.
+     */
+    @Test
+    void cursor_ShouldRoundTripAndRejectGarbage() {
+        NewsItem dated = new NewsItem("T", "D", "http://a.com/x?y=1|2", new Date(1234), "S");
+        NewsItem undated = new NewsItem("T", "D", null, null, "S");
+
+        assertEquals(0, NewsCursor.decode(NewsCursor.after(dated).encode()).compareTo(dated));
+        assertEquals(0, NewsCursor.decode(NewsCursor.after(undated).encode()).compareTo(undated));
+        assertThrows(IllegalArgumentException.class, () -> NewsCursor.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> NewsCursor.decode("bm90LWEtY3Vyc29y"));  // "not-a-cursor"
+    }
+
+    // Упорядоченный снимок: каждая пятая статья без даты, часть дат совпадает
+    private static List<NewsItem> snapshot(int size) {
+        List<NewsItem> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Date date = i % 5 == 0 ? null : new Date(1_700_000_000_000L + (i / 3) * 1000L);
+            items.add(new NewsItem("Title " + i, "Desc", "http://" + i + ".com", date, "Source"));
+        }
+        items.sort(NewsOrdering.NEWEST_FIRST);
+        return items;
+    }
+}
@@ -0,0 +1,84 @@
+package com.edu.WebScrapeApplication.service.aggregation;
+
+import com.edu.WebScrapeApplication.model.NewsFilter;
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsWindowEmitter.
+ * Проверяет слияние пакетов внутри окна, повторы между окнами и лимит выдачи.
+ */
+class NewsWindowEmitterTest {
+
+    /**
+     * Тест проверяет, что пакеты одного окна сливаются в порядке "новые сначала",
+     * а статья, уже отданная в прошлом окне, повторно не отдается.
+     */
+    @Test
+    void offer_ShouldMergeBatchesOfOneWindowAndSkipSentArticles() throws Exception {
+        BlockingQueue<List<String>> windows = new LinkedBlockingQueue<>();
+        NewsWindowEmitter emitter = new NewsWindowEmitter(NewsFilter.NONE, 0, 50, window -> windows.add(urls(window)));
+
+        emitter.offer(List.of(item("c", 3), item("a", 1)));
+        emitter.offer(List.of(item("d", 4), item("b", 2)));
+        assertEquals(List.of("d", "c", "b", "a"), windows.poll(5, TimeUnit.SECONDS));
+
+        // Следующее окно: повтор "c" (с другим URL-хвостом отслеживания) отбрасывается
+        emitter.offer(List.of(item("e", 5)));
+        emitter.offer(List.of(new NewsItem("c", "Desc", "https://example.com/c?utm_source=x", new Date(3_000), "Source")));
+        emitter.finish();
+
+        assertEquals(List.of("e"), windows.poll(5, TimeUnit.SECONDS));
+        assertTrue(emitter.completion().isDone());
+        assertNull(windows.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Тест проверяет лимит статей во всех окнах и интервал времени фильтра.
+     */
+    @Test
+    void finish_ShouldRespectLimitAndTimeRange() {
+        List<List<String>> windows = new ArrayList<>();
+        NewsFilter filter = NewsFilter.of(null, null, null, Instant.ofEpochMilli(5_000).toString());
+        NewsWindowEmitter emitter = new NewsWindowEmitter(filter, 3, 0, window -> windows.add(urls(window)));
+
+        emitter.offer(List.of(item("f", 6), item("b", 2)));
+        emitter.offer(List.of(item("d", 4), item("c", 3), item("a", 1)));
+        emitter.finish();
+        emitter.offer(List.of(item("z", 0)));
+
+        assertEquals(List.of(List.of("b"), List.of("d", "c")), windows);
+    }
+
+    /**
+     * Тест проверяет, что ошибка получателя (клиент отключился) прекращает выдачу.
+     */
+    @Test
+    void offer_ShouldStopWhenSinkFails() {
+        NewsWindowEmitter emitter = new NewsWindowEmitter(NewsFilter.NONE, 0, 0, window -> {
+            throw new IllegalStateException("Broken pipe");
+        });
+
+        emitter.offer(List.of(item("a", 1)));
+
+        assertTrue(emitter.completion().isCompletedExceptionally());
+    }
+
+    private static NewsItem item(String id, long seconds) {
+        return new NewsItem(id, "Desc", "https://example.com/" + id, new Date(seconds * 1000), "Source");
+    }
+
+    private static List<String> urls(List<NewsItem> window) {
+        return window.stream().map(NewsItem::getTitle).toList();
+    }
+}
@@ -0,0 +1,149 @@
+package com.edu.WebScrapeApplication.service.cache;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для AggregatedNewsCache.
+ * Проверяет TTL, stale-while-revalidate и single-flight загрузку.
+ */
+class AggregatedNewsCacheTest {
+
+    // Управляемые "часы" для тестов
+    private final AtomicLong now = new AtomicLong(1_000);
+    // Тестируемый кэш: TTL 100 мс, устаревший снимок живет еще 1000 мс
+    private final AggregatedNewsCache cache = new AggregatedNewsCache(100, 1_000, now::get);
+
+    /**
+     * Тест проверяет, что свежий снимок отдается без повторной загрузки.
+     */
+    @Test
+    void getAsync_ShouldServeFreshSnapshotFromCache() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<CompletableFuture<List<NewsItem>>> loader =
+                () -> CompletableFuture.completedFuture(List.of(item("Title" + calls.incrementAndGet())));
+
+        List<NewsItem> first = cache.getAsync(loader).get();
+        now.addAndGet(50);  // Снимок все еще свежий
+        List<NewsItem> second = cache.getAsync(loader).get();
+
+        assertEquals(1, calls.get());
+        assertSame(first, second);
+        assertEquals(1, cache.getStats().getMisses());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getUpstreamCallsSaved());
+    }
+
+    /**
+     * Тест проверяет, что устаревший снимок отдается сразу, а обновление выполняется в фоне один раз.
+     */
+    @Test
+    void getAsync_ShouldServeStaleSnapshotAndRefreshOnce() throws Exception {
+        List<CompletableFuture<List<NewsItem>>> pendingLoads = new ArrayList<>();
+        Supplier<CompletableFuture<List<NewsItem>>> loader = () -> {
+            CompletableFuture<List<NewsItem>> load = new CompletableFuture<>();
+            pendingLoads.add(load);
+            return load;
+        };
+
+        CompletableFuture<List<NewsItem>> initial = cache.getAsync(loader);
+        pendingLoads.get(0).complete(List.of(item("Title1")));
+        assertEquals("Title1", initial.get().get(0).getTitle());
+        now.addAndGet(500);  // TTL истек, но снимок еще можно отдавать
+
+        // Несколько запросов подряд сразу получают старый снимок, обновление запускается одно
+        CompletableFuture<List<NewsItem>> stale1 = cache.getAsync(loader);
+        CompletableFuture<List<NewsItem>> stale2 = cache.getAsync(loader);
+        assertTrue(stale1.isDone() && stale2.isDone());
+        assertEquals("Title1", stale1.get().get(0).getTitle());
+        assertEquals("Title1", stale2.get().get(0).getTitle());
+        assertEquals(2, pendingLoads.size());
+
+        // После завершения обновления отдается новый снимок
+        pendingLoads.get(1).complete(List.of(item("Title2")));
+        assertEquals("Title2", cache.getAsync(loader).get().get(0).getTitle());
+        assertEquals(1, cache.getStats().getRefreshes());
+        assertEquals(2, cache.getStats().getStaleHits());
+    }
+
+    /**
+     * Тест проверяет, что одновременные промахи разделяют одну загрузку.
+     */
+    @Test
+    void getAsync_ShouldShareSingleLoadBetweenConcurrentMisses() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<List<NewsItem>> load = new CompletableFuture<>();
+        Supplier<CompletableFuture<List<NewsItem>>> loader = () -> {
+            calls.incrementAndGet();
+            return load;
+        };
+
+        // Восемь запросов приходят, пока загрузка не завершена
+        List<CompletableFuture<List<NewsItem>>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(cache.getAsync(loader));
+        }
+        load.complete(List.of(item("Shared")));
+
+        for (CompletableFuture<List<NewsItem>> caller : callers) {
+            assertEquals("Shared", caller.get().get(0).getTitle());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getStats().getLoads());
+        assertEquals(8, cache.getStats().getMisses());
+    }
+
+    /**
+     * Тест проверяет, что ошибка загрузки пробрасывается, учитывается в статистике
+     * и не мешает следующей попытке.
+     */
+    @Test
+    void getAsync_ShouldPropagateLoadFailure() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<CompletableFuture<List<NewsItem>>> loader = () -> calls.incrementAndGet() == 1
+                ? CompletableFuture.failedFuture(new IllegalStateException("Upstream down"))
+                : CompletableFuture.completedFuture(List.of(item("Recovered")));
+
+        assertThrows(ExecutionException.class, () -> cache.getAsync(loader).get());
+        assertEquals(1, cache.getStats().getLoadFailures());
+        assertEquals("Recovered", cache.getAsync(loader).get().get(0).getTitle());
+    }
+
+    /**
+     * Тест проверяет, что запрос, пришедший сразу по завершении загрузки (из обработчика ее результата),
+     * при истекшем TTL запускает новую загрузку, а не получает только что завершенную.
+     */
+    @Test
+    void getAsync_ShouldStartNewLoadRightAfterPreviousCompletes() throws Exception {
+        AggregatedNewsCache uncached = new AggregatedNewsCache(0, 0, now::get);
+        List<CompletableFuture<List<NewsItem>>> pendingLoads = new ArrayList<>();
+        Supplier<CompletableFuture<List<NewsItem>>> loader = () -> {
+            CompletableFuture<List<NewsItem>> load = new CompletableFuture<>();
+            pendingLoads.add(load);
+            return load;
+        };
+
+        CompletableFuture<CompletableFuture<List<NewsItem>>> next =
+                uncached.getAsync(loader).thenApply(items -> uncached.getAsync(loader));
+        pendingLoads.get(0).complete(List.of(item("Title1")));
+
+        assertEquals(2, pendingLoads.size());
+        pendingLoads.get(1).complete(List.of(item("Title2")));
+        assertEquals("Title2", next.get().get().get(0).getTitle());
+    }
+
+    // Вспомогательный метод для создания новости с заданным заголовком
+    private NewsItem item(String title) {
+        return new NewsItem(title, "Desc", "http://example.com/" + title, null, "Source");
+    }
+}
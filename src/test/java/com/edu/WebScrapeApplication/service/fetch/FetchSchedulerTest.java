@@ -0,0 +1,168 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для FetchScheduler.
+ * Проверяет лимиты, порядок по приоритету, вытеснение при переполнении и отмену ожидающих задач.
+ */
+class FetchSchedulerTest {
+
+    // Пул потоков с запасом: параллелизм ограничивает сам планировщик
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    // Управляемые часы для несвежести источников
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Тест проверяет, что в пул передается не больше max-in-flight задач,
+     * а ожидающие запускаются по убыванию веса источника.
+     */
+    @Test
+    void submit_ShouldRunHigherWeightFirstWithinInFlightLimit() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(executor, new HostConcurrencyLimiter(8), 1, 10, now::get);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> blocker = scheduler.submit(null, "https://a.example.com", q -> {
+            release.await();
+            return "blocker";
+        });
+        CompletableFuture<String> light = scheduler.submit(source("light", 1.0), "https://a.example.com",
+                q -> record(order, "light"));
+        CompletableFuture<String> heavy = scheduler.submit(source("heavy", 3.0), "https://a.example.com",
+                q -> record(order, "heavy"));
+        assertEquals(1, scheduler.getRunning());
+        assertEquals(2, scheduler.getQueued());
+
+        release.countDown();
+        CompletableFuture.allOf(blocker, light, heavy).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("heavy", "light"), order);
+        assertTrue(scheduler.getStats().getMaxQueueMillis() >= 0);
+        assertEquals(0, scheduler.getRunning());
+    }
+
+    /**
+     * Тест проверяет, что несвежий источник опережает источник с тем же весом, ответивший только что.
+     */
+    @Test
+    void priority_ShouldBoostStaleSources() {
+        FetchScheduler scheduler = new FetchScheduler(executor, new HostConcurrencyLimiter(8), 1, 10, now::get);
+        NewsSource fresh = source("fresh", 1.0);
+        NewsSource stale = source("stale", 1.0);
+        scheduler.recordSuccess("fresh");
+        scheduler.recordSuccess("stale");
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(120));  // Два интервала опроса
+        scheduler.recordSuccess("fresh");
+
+        assertEquals(1.0, scheduler.priority(fresh), 1e-9);
+        assertEquals(3.0, scheduler.priority(stale), 1e-9);
+        assertEquals(1 + FetchScheduler.MAX_STALENESS, scheduler.priority(source("never", 1.0)), 1e-9);
+    }
+
+    /**
+     * Тест проверяет, что исчерпанный лимит хоста не задерживает запросы к другим хостам.
+     */
+    @Test
+    void submit_ShouldNotHoldOtherHostsBehindSaturatedHost() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(executor, new HostConcurrencyLimiter(1), 4, 10, now::get);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = scheduler.submit(null, "https://slow.example.com/1", q -> {
+            release.await();
+            return "first";
+        });
+        CompletableFuture<String> second = scheduler.submit(null, "https://slow.example.com/2", q -> "second");
+        CompletableFuture<String> other = scheduler.submit(null, "https://fast.example.com/1", q -> "other");
+
+        assertEquals("other", other.get(5, TimeUnit.SECONDS));
+        assertFalse(second.isDone());  // Ждет в очереди, а не в потоке пула
+        assertEquals(1, scheduler.getQueued());
+
+        release.countDown();
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Тест проверяет сброс нагрузки: при полной очереди важная задача вытесняет наименее важную,
+     * а неважная новая задача отклоняется.
+     */
+    @Test
+    void submit_ShouldShedLowestPriorityWhenQueueIsFull() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(executor, new HostConcurrencyLimiter(8), 1, 1, now::get);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(null, "https://a.example.com", q -> release.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> low = scheduler.submit(source("low", 1.0), "https://a.example.com", q -> "low");
+        CompletableFuture<String> high = scheduler.submit(source("high", 2.0), "https://a.example.com", q -> "high");
+        CompletableFuture<String> late = scheduler.submit(source("late", 1.0), "https://a.example.com", q -> "late");
+
+        assertInstanceOf(FetchRejectedException.class, assertThrows(ExecutionException.class, low::get).getCause());
+        assertInstanceOf(FetchRejectedException.class, assertThrows(ExecutionException.class, late::get).getCause());
+        release.countDown();
+        assertEquals("high", high.get(5, TimeUnit.SECONDS));
+
+        FetchScheduler.SchedulerStats stats = scheduler.getStats();
+        assertEquals(1, stats.getShed());
+        assertEquals(1, stats.getRejected());
+        assertEquals(2, stats.getStarted());
+    }
+
+    /**
+     * Тест проверяет, что отмененная вызывающим задача покидает очередь, не занимая поток,
+     * а запущенная после ожидания задача получает время ожидания в очереди.
+     */
+    @Test
+    void cancel_ShouldDropQueuedTaskAndReportQueueWait() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(executor, new HostConcurrencyLimiter(8), 1, 10, now::get);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(null, "https://a.example.com", q -> release.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> abandoned = scheduler.submit(null, "https://a.example.com", q -> fail("must not run"));
+        CompletableFuture<Long> waited = scheduler.submit(null, "https://a.example.com", q -> q);
+
+        abandoned.orTimeout(10, TimeUnit.MILLISECONDS);
+        assertThrows(ExecutionException.class, abandoned::get);
+        assertEquals(1, scheduler.getQueued());
+        Thread.sleep(20);
+        release.countDown();
+
+        assertTrue(waited.get(5, TimeUnit.SECONDS) >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(1, scheduler.getStats().getCancelled());
+    }
+
+    private static NewsSource source(String id, double weight) {
+        return new NewsSource(id, "https://a.example.com/" + id, "key", 60, 1_000, 0, weight, true);
+    }
+
+    private static String record(List<String> order, String name) {
+        order.add(name);
+        return name;
+    }
+
+    /**
+     * Тест проверяет, что без news.fetch.max-in-flight лимит берется из режима пула:
+     * размер пула для fixed и большой предел для virtual, а явное значение имеет приоритет.
+     */
+    @Test
+    void constructor_ShouldDeriveInFlightLimitFromExecutorMode() {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(8);
+
+        assertEquals(5, new FetchScheduler(executor, limiter, "fixed", 5, 0, 10).getStats().getMaxInFlight());
+        assertEquals(1024, new FetchScheduler(executor, limiter, "virtual", 5, 0, 10).getStats().getMaxInFlight());
+        assertEquals(64, new FetchScheduler(executor, limiter, "virtual", 5, 64, 10).getStats().getMaxInFlight());
+    }
+}
@@ -0,0 +1,99 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для HostConcurrencyLimiter.
+ * Проверяет ограничение одновременных запросов к одному хосту.
+ */
+class HostConcurrencyLimiterTest {
+
+    /**
+     * Тест проверяет, что разрешения хоста выдаются без ожидания до исчерпания лимита и возвращаются через release.
+     */
+    @Test
+    void tryAcquire_ShouldGrantPermitsUpToLimit() {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(2);
+
+        assertTrue(limiter.tryAcquire("newsapi.org"));
+        assertTrue(limiter.tryAcquire("newsapi.org"));
+        assertFalse(limiter.tryAcquire("newsapi.org"));
+        limiter.release("newsapi.org");
+
+        assertTrue(limiter.tryAcquire("newsapi.org"));
+        assertEquals(0, limiter.getAvailablePermits().get("newsapi.org"));
+    }
+
+    /**
+     * Тест проверяет, что в очереди загрузок к одному хосту одновременно выполняется не больше заданного числа запросов,
+     * хотя пул и лимит очереди допускают больше.
+     */
+    @Test
+    void fetchScheduler_ShouldCapConcurrentRequestsPerHost() throws Exception {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(2);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            FetchScheduler scheduler = new FetchScheduler(pool, limiter, 6, 16);
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(scheduler.submit(null, "https://newsapi.org/v2/top-headlines", queueNanos -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    Thread.sleep(50);  // Имитация сетевого запроса
+                    active.decrementAndGet();
+                    return "ok";
+                }));
+            }
+            for (CompletableFuture<String> result : results) {
+                assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(2, maxActive.get());
+        assertEquals(2, limiter.getAvailablePermits().get("newsapi.org"));
+    }
+
+    /**
+     * Тест проверяет, что разные хосты не делят общий лимит.
+     */
+    @Test
+    void fetchScheduler_ShouldUseSeparatePermitsForDifferentHosts() throws Exception {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(1);
+        CountDownLatch bothInside = new CountDownLatch(2);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            FetchScheduler scheduler = new FetchScheduler(pool, limiter, 2, 16);
+            FetchScheduler.FetchTask<Boolean> action = queueNanos -> {
+                bothInside.countDown();
+                return bothInside.await(5, TimeUnit.SECONDS);
+            };
+            CompletableFuture<Boolean> first = scheduler.submit(null, "https://a.example.com/news", action);
+            CompletableFuture<Boolean> second = scheduler.submit(null, "https://b.example.com/news", action);
+
+            // Оба запроса выполняются одновременно, несмотря на лимит 1
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertTrue(second.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Тест проверяет извлечение хоста из URL.
+     */
+    @Test
+    void hostOf_ShouldExtractLowercaseHost() {
+        assertEquals("newsapi.org", HostConcurrencyLimiter.hostOf("https://NewsAPI.org/v2/everything?q=x"));
+        assertEquals("not a url", HostConcurrencyLimiter.hostOf("not a url"));
+    }
+}
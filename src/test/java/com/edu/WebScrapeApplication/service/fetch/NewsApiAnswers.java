@@ -0,0 +1,54 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ответы NewsAPI для моков RestTemplate в тестах загрузки источников.
+ */
+public final class NewsApiAnswers {
+
+    private NewsApiAnswers() {
+    }
+
+    /**
+     * Тело ответа NewsAPI с заданными новостями.
+     */
+    public static String json(NewsItem... items) {
+        StringBuilder json = new StringBuilder("{\"status\":\"ok\",\"totalResults\":").append(items.length)
+                .append(",\"articles\":[");
+        for (int i = 0; i < items.length; i++) {
+            NewsItem item = items[i];
+            json.append(i > 0 ? "," : "")
+                    .append("{\"source\":{\"name\":\"").append(item.getSourceName()).append("\"},")
+                    .append("\"title\":\"").append(item.getTitle()).append("\",")
+                    .append("\"description\":\"").append(item.getDescription()).append("\",")
+                    .append("\"url\":\"").append(item.getUrl()).append("\",")
+                    .append("\"publishedAt\":").append(item.getPublishedAt() == null ? "null"
+                            : "\"" + item.getPublishedAt().toInstant() + "\"").append("}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Ответ NewsAPI с заданными новостями, разбираемый извлекателем RestTemplate.
+     */
+    public static Answer<Object> articles(NewsItem... items) {
+        return body(json(items));
+    }
+
+    /**
+     * Передает JSON-тело извлекателю ответа, как это делает RestTemplate.
+     */
+    public static Answer<Object> body(String json) {
+        return invocation -> {
+            ResponseExtractor<?> extractor = invocation.getArgument(3);
+            return extractor.extractData(new MockClientHttpResponse(json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsApiStreamingParser.
+ * Проверяет потоковый разбор ответов NewsAPI.
+ */
+class NewsApiStreamingParserTest {
+
+    // Тестируемый парсер
+    private final NewsApiStreamingParser parser = new NewsApiStreamingParser(new ObjectMapper());
+
+    /**
+     * Тест проверяет разбор статей с пропуском неиспользуемых полей, включая вложенные объекты.
+     */
+    @Test
+    void parse_ShouldMapUsedFieldsAndSkipOthers() throws IOException {
+        String json = "{\"status\":\"ok\",\"totalResults\":2,\"articles\":["
+                + "{\"source\":{\"id\":null,\"name\":\"Lenta\"},\"author\":null,\"title\":\"Первая\","
+                + "\"description\":null,\"url\":\"http://lenta.ru/1\",\"urlToImage\":\"http://img\","
+                + "\"publishedAt\":\"2023-05-20T10:00:00Z\",\"content\":\"...\",\"extra\":{\"nested\":[1,2,{\"a\":1}]}},"
+                + "{\"source\":\"broken\",\"title\":\"Second\",\"url\":\"http://b.com\",\"publishedAt\":\"not a date\"}"
+                + "]}";
+
+        List<NewsItem> items = parser.parse(stream(json), 100);
+
+        assertEquals(2, items.size());
+        NewsItem first = items.get(0);
+        assertEquals("Первая", first.getTitle());
+        assertNull(first.getDescription());
+        assertEquals("http://lenta.ru/1", first.getUrl());
+        assertEquals("Lenta", first.getSourceName());
+        assertEquals(Date.from(Instant.parse("2023-05-20T10:00:00Z")), first.getPublishedAt());
+
+        // Некорректные source и дата не ломают разбор
+        NewsItem second = items.get(1);
+        assertEquals("Second", second.getTitle());
+        assertNull(second.getSourceName());
+        assertNull(second.getPublishedAt());
+    }
+
+    /**
+     * Тест проверяет, что статьи передаются потребителю по одной и разбор останавливается на лимите.
+     */
+    @Test
+    void parse_ShouldStopAtArticleLimit() throws IOException {
+        StringBuilder json = new StringBuilder("{\"status\":\"ok\",\"articles\":[");
+        for (int i = 0; i < 50; i++) {
+            json.append(i > 0 ? "," : "").append("{\"title\":\"T").append(i).append("\"}");
+        }
+        // После массива статей - обрезанный JSON: до него парсер дойти не должен
+        json.append("],\"broken\": ");
+
+        List<String> titles = new ArrayList<>();
+        int count = parser.parse(stream(json.toString()), 3, item -> titles.add(item.getTitle()));
+
+        assertEquals(3, count);
+        assertEquals(List.of("T0", "T1", "T2"), titles);
+    }
+
+    /**
+     * Тест проверяет, что ответ со статусом error превращается в исключение.
+     */
+    @Test
+    void parse_ShouldFailOnErrorStatus() {
+        String json = "{\"status\":\"error\",\"code\":\"apiKeyInvalid\",\"message\":\"Your API key is invalid\"}";
+
+        IOException error = assertThrows(IOException.class, () -> parser.parse(stream(json), 100));
+        assertTrue(error.getMessage().contains("Your API key is invalid"));
+    }
+
+    /**
+     * Тест проверяет, что ответ без статей дает пустой список.
+     */
+    @Test
+    void parse_ShouldReturnEmptyListWhenNoArticles() throws IOException {
+        assertTrue(parser.parse(stream("{\"status\":\"ok\",\"totalResults\":0,\"articles\":[]}"), 100).isEmpty());
+        assertTrue(parser.parse(stream("{\"status\":\"ok\",\"articles\":null}"), 100).isEmpty());
+    }
+
+    /**
+     * Тест проверяет разбор дат: быстрый путь для формата NewsAPI и запасной для смещений.
+     */
+    @Test
+    void parseDate_ShouldHandleNewsApiAndOffsetFormats() {
+        assertEquals(Date.from(Instant.parse("2024-02-29T23:59:59Z")),
+                NewsApiStreamingParser.parseDate("2024-02-29T23:59:59Z"));
+        assertEquals(Date.from(Instant.parse("2024-05-20T10:00:00.123Z")),
+                NewsApiStreamingParser.parseDate("2024-05-20T10:00:00.123456Z"));
+        assertEquals(Date.from(Instant.parse("2024-05-20T07:00:00Z")),
+                NewsApiStreamingParser.parseDate("2024-05-20T10:00:00+03:00"));
+        assertNull(NewsApiStreamingParser.parseDate("2023-02-30T10:00:00Z"));
+        assertNull(NewsApiStreamingParser.parseDate("yesterday"));
+    }
+
+    // Вспомогательный метод для создания тела ответа
+    private InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,116 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsSourceCatalog.
+ * Проверяет встроенные источники, настройки news.sources.* и перезагрузку из файла.
+ */
+class NewsSourceCatalogTest {
+
+    // Каталог для файла настроек
+    @TempDir
+    Path dir;
+
+    /**
+     * Тест проверяет встроенные источники: ключ подставляется в URL, но не в шаблон.
+     */
+    @Test
+    void constructor_ShouldProvideBuiltInSources() {
+        NewsSourceCatalog catalog = new NewsSourceCatalog("secret");
+
+        assertEquals(List.of("russia", "bbc", "techcrunch"), new ArrayList<>(catalog.getSources().keySet()));
+        NewsSource bbc = catalog.getSource("bbc");
+        assertEquals("https://newsapi.org/v2/everything?domains=bbc.co.uk&apiKey=secret", bbc.getUrl());
+        assertFalse(bbc.getUrlTemplate().contains("secret"));
+        assertEquals(60, bbc.getIntervalSeconds());
+        assertEquals(5000, bbc.getTimeoutMillis());
+        assertEquals(-1, bbc.getAvailablePermits());
+        assertEquals("general", bbc.getCategory());
+        assertEquals("technology", catalog.getSource("techcrunch").getCategory());
+    }
+
+    /**
+     * Тест проверяет, что настройки перенастраивают встроенные источники, добавляют новые
+     * и упорядочивают включенные источники по весу.
+     */
+    @Test
+    void constructor_ShouldApplySettingsAndOrderByWeight() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("news.sources.russia.enabled", "false")
+                .withProperty("news.sources.bbc.interval-seconds", "300")
+                .withProperty("news.sources.verge.url", "https://newsapi.org/v2/everything?domains=theverge.com&apiKey={apiKey}")
+                .withProperty("news.sources.verge.weight", "3")
+                .withProperty("news.sources.verge.max-concurrency", "2")
+                .withProperty("news.sources.verge.timeout-millis", "1500")
+                .withProperty("news.sources.verge.category", "Technology");
+
+        NewsSourceCatalog catalog = new NewsSourceCatalog(environment, "key", "", 0, 60, 5);
+
+        assertEquals(List.of("verge", "bbc", "techcrunch"), new ArrayList<>(catalog.getSources().keySet()));
+        assertEquals(4, catalog.getAllSources().size());  // Выключенный источник виден в каталоге
+        assertNull(catalog.getSource("russia"));
+        assertEquals(300, catalog.getSource("bbc").getIntervalSeconds());
+        NewsSource verge = catalog.getSource("verge");
+        assertEquals(1500, verge.getTimeoutMillis());
+        assertEquals(2, verge.getAvailablePermits());
+        assertTrue(verge.getUrl().endsWith("apiKey=key"));
+        assertEquals("technology", verge.getCategory());
+        assertEquals("general", catalog.getSource("bbc").getCategory());
+    }
+
+    /**
+     * Тест проверяет, что источник без URL или с некорректным значением не принимается.
+     */
+    @Test
+    void constructor_ShouldRejectInvalidSettings() {
+        MockEnvironment noUrl = new MockEnvironment().withProperty("news.sources.extra.weight", "2");
+        MockEnvironment badWeight = new MockEnvironment().withProperty("news.sources.bbc.weight", "heavy");
+
+        assertThrows(IllegalArgumentException.class, () -> new NewsSourceCatalog(noUrl, "key", "", 0, 60, 5));
+        assertThrows(IllegalArgumentException.class, () -> new NewsSourceCatalog(badWeight, "key", "", 0, 60, 5));
+    }
+
+    /**
+     * Тест проверяет перезагрузку из файла: подписчики получают новый список, неизменные источники
+     * переиспользуются, а ошибка в файле оставляет прежний список.
+     */
+    @Test
+    void reload_ShouldApplyFileChangesAndKeepUnchangedSources() throws IOException {
+        Path file = dir.resolve("sources.properties");
+        Files.writeString(file, "news.sources.bbc.weight=2\n");
+        NewsSourceCatalog catalog = new NewsSourceCatalog(new MockEnvironment(), "key", file.toString(), 0, 60, 5);
+        List<Map<String, NewsSource>> notified = new ArrayList<>();
+        catalog.addListener(notified::add);
+        NewsSource bbc = catalog.getSource("bbc");
+        NewsSource russia = catalog.getSource("russia");
+        assertEquals("bbc", catalog.getSources().keySet().iterator().next());
+
+        assertFalse(catalog.reload());  // Файл не менялся
+        Files.writeString(file, "news.sources.bbc.weight=2\nnews.sources.russia.interval-seconds=120\n"
+                + "news.sources.techcrunch.enabled=false\n");
+        assertTrue(catalog.reload());
+
+        assertEquals(1, notified.size());
+        assertEquals(List.of("bbc", "russia"), new ArrayList<>(notified.get(0).keySet()));
+        assertSame(bbc, catalog.getSource("bbc"));
+        assertNotSame(russia, catalog.getSource("russia"));
+        assertEquals(120, catalog.getSource("russia").getIntervalSeconds());
+
+        Files.writeString(file, "news.sources.bbc.interval-seconds=0\n");
+        assertThrows(IllegalArgumentException.class, catalog::reload);
+        assertEquals(120, catalog.getSource("russia").getIntervalSeconds());
+        assertEquals(1, notified.size());
+    }
+}
@@ -0,0 +1,192 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.edu.WebScrapeApplication.service.fetch.NewsApiAnswers.articles;
+import static com.edu.WebScrapeApplication.service.fetch.NewsApiAnswers.body;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестовый класс для NewsSourceClient.
+ * Проверяет загрузку и разбор статей одного источника.
+ */
+@ExtendWith(MockitoExtension.class) // Интеграция Mockito с JUnit 5
+class NewsSourceClientTest {
+
+    // Реальный пул потоков для асинхронной загрузки
+    private ExecutorService executorService;
+
+    // Мок RestTemplate для тестирования HTTP-запросов
+    @Mock
+    private RestTemplate restTemplate;
+
+    // Ограничение запросов к хосту
+    private final HostConcurrencyLimiter hostLimiter = new HostConcurrencyLimiter(8);
+
+    // Потоковый разбор ответов NewsAPI
+    private final NewsApiStreamingParser newsParser = new NewsApiStreamingParser(new ObjectMapper());
+
+    // Тестируемый клиент
+    private NewsSourceClient sourceClient;
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newFixedThreadPool(2);
+        sourceClient = new NewsSourceClient(new FetchScheduler(executorService, hostLimiter, 2, 100), restTemplate,
+                newsParser, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Тест проверяет успешное получение новостей из источника.
+     */
+    @Test
+    void fetchResultAsync_ShouldReturnArticlesOnSuccess() throws Exception {
+        // Ответ NewsAPI с одной статьей, включая поля, которые не используются
+        String json = "{\"status\":\"ok\",\"totalResults\":1,\"articles\":[{"
+                + "\"source\":{\"id\":\"bbc-news\",\"name\":\"BBC News\"},"
+                + "\"author\":\"Author\",\"title\":\"Title\",\"description\":\"Desc\","
+                + "\"url\":\"http://bbc.co.uk/1\",\"urlToImage\":\"http://img\","
+                + "\"publishedAt\":\"2023-05-20T10:00:00Z\",\"content\":\"Long text\"}]}";
+
+        // Настройка RestTemplate: ответ разбирается переданным извлекателем
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(body(json));
+
+        // Вызов тестируемого метода
+        List<NewsItem> result = sourceClient.fetchResultAsync("test-url").get(5, TimeUnit.SECONDS).getItems();
+
+        // Проверка что получена 1 новость со всеми нужными полями
+        assertEquals(1, result.size());
+        NewsItem item = result.get(0);
+        assertEquals("Title", item.getTitle());
+        assertEquals("Desc", item.getDescription());
+        assertEquals("http://bbc.co.uk/1", item.getUrl());
+        assertEquals("BBC News", item.getSourceName());
+        assertEquals(Date.from(Instant.parse("2023-05-20T10:00:00Z")), item.getPublishedAt());
+    }
+
+    /**
+     * Тест проверяет, что из ответа разбирается не больше заданного числа статей.
+     */
+    @Test
+    void fetchResultAsync_ShouldCapArticlesPerSource() throws Exception {
+        sourceClient = new NewsSourceClient(new FetchScheduler(executorService, hostLimiter, 2, 100), restTemplate,
+                newsParser, 2);
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(
+                        new NewsItem("A", "Desc", "http://a.com", new Date(), "Source"),
+                        new NewsItem("B", "Desc", "http://b.com", new Date(), "Source"),
+                        new NewsItem("C", "Desc", "http://c.com", new Date(), "Source")));
+
+        List<NewsItem> result = sourceClient.fetchResultAsync("test-url").get(5, TimeUnit.SECONDS).getItems();
+
+        assertEquals(2, result.size());
+        assertEquals("B", result.get(1).getTitle());
+    }
+
+    /**
+     * Тест проверяет, что вместе со статьями возвращается объем прочитанного ответа.
+     */
+    @Test
+    void fetchResultAsync_ShouldCountResponseBytes() throws Exception {
+        String json = "{\"status\":\"ok\",\"articles\":[{\"title\":\"Title\",\"url\":\"http://a.com\"}]}";
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(body(json));
+
+        FetchResult result = sourceClient.fetchResultAsync("test-url").get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length, result.getBytes());
+    }
+
+    /**
+     * Тест проверяет условный запрос источника: повторный запрос отправляет If-None-Match,
+     * а на 304 возвращаются статьи прошлого ответа без чтения тела. Запрос на другой URL - безусловный.
+     */
+    @Test
+    void fetchResultAsync_ShouldReuseArticlesOnNotModified() throws Exception {
+        try (StubNewsApiServer server = StubNewsApiServer.start(5).withEtag("\"v1\"")) {
+            sourceClient = new NewsSourceClient(new FetchScheduler(executorService, hostLimiter, 2, 100), new RestTemplate(),
+                    newsParser, 100);
+            NewsSource source = new NewsSource("stub", server.url("/v2/everything?q=a"), "key", 60, 1_000, 0, 1.0, true);
+
+            FetchResult first = sourceClient.fetchResultAsync(source, source.getUrl()).get(5, TimeUnit.SECONDS);
+            FetchResult second = sourceClient.fetchResultAsync(source, source.getUrl()).get(5, TimeUnit.SECONDS);
+            FetchResult otherUrl = sourceClient.fetchResultAsync(source, server.url("/v2/everything?q=b"))
+                    .get(5, TimeUnit.SECONDS);
+
+            assertFalse(first.isNotModified());
+            assertEquals(5, first.getItems().size());
+            assertTrue(first.getBytes() > 0);
+            assertTrue(second.isNotModified());
+            assertSame(first.getItems(), second.getItems());
+            assertEquals(0, second.getBytes());
+            assertFalse(otherUrl.isNotModified());
+            assertEquals(1, server.getNotModified());
+        }
+    }
+
+    /**
+     * Тест проверяет обработку ошибок при запросе к источнику новостей.
+     */
+    @Test
+    void fetchResultAsync_ShouldReturnEmptyListOnError() throws Exception {
+        // Настройка RestTemplate на выброс исключения
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenThrow(new RuntimeException("API error"));
+
+        // Вызов тестируемого метода
+        List<NewsItem> result = sourceClient.fetchResultAsync("test-url").get(5, TimeUnit.SECONDS).getItems();
+
+        // Проверка что возвращен пустой список при ошибке
+        assertTrue(result.isEmpty());
+    }
+
+    /**
+     * Тест проверяет, что таймаут future прерывает выполняющуюся загрузку.
+     */
+    @Test
+    void fetchResultAsync_ShouldInterruptTaskOnTimeout() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(invocation -> {
+                    try {
+                        Thread.sleep(10_000);  // Зависший источник
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                    return List.of();
+                });
+
+        CompletableFuture<FetchResult> result = sourceClient.fetchResultAsync("test-url").orTimeout(100, TimeUnit.MILLISECONDS);
+
+        assertThrows(ExecutionException.class, result::get);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+}
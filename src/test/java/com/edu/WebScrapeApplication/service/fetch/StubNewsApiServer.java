@@ -0,0 +1,195 @@
+package com.edu.WebScrapeApplication.service.fetch;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Локальная заглушка NewsAPI для тестов задержек, бенчмарков и нагрузочного теста: отвечает на любой путь
+ * (top-headlines, everything) одним и тем же телом после задержки, заданной функцией от номера запроса
+ * (нумерация с 1). Размер тела задается числом статей и длиной описания статьи.
+ * С заданной долей ошибок отвечает 500 с телом ошибки NewsAPI.
+ * С заданным ETag отвечает 304 Not Modified на запрос с тем же If-None-Match.
+ */
+public final class StubNewsApiServer implements AutoCloseable {
+
+    static {
+        // Без TCP_NODELAY небольшие ответы задерживаются на ~40 мс (алгоритм Нейгла + отложенный ACK).
+        // Свойство читается при первом запуске HttpServer в JVM, поэтому в тестах оно задано и в pom.xml
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    // Тело ответа с ошибкой в формате NewsAPI
+    private static final byte[] ERROR_BODY = ("{\"status\":\"error\",\"code\":\"unexpectedError\","
+            + "\"message\":\"Injected stub failure\"}").getBytes(StandardCharsets.UTF_8);
+
+    // HTTP-сервер JDK
+    private final HttpServer server;
+    // Потоки обработки: медленный запрос не задерживает остальные
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    // Число принятых запросов
+    private final AtomicLong requests = new AtomicLong();
+    // Тело ответа
+    private final byte[] body;
+    // Число ответов 304 Not Modified
+    private final AtomicLong notModified = new AtomicLong();
+    // Число ответов с ошибкой
+    private final AtomicLong errors = new AtomicLong();
+    // Задержка ответа в мс по номеру запроса
+    private volatile LongUnaryOperator latencyMillis = request -> 0;
+    // ETag тела (null - без условных ответов)
+    private volatile String etag;
+    // Доля ответов с ошибкой 500
+    private volatile double errorRate;
+
+    private StubNewsApiServer(int port, int articles, int descriptionChars) throws IOException {
+        NewsItem[] items = new NewsItem[articles];
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < articles; i++) {
+            items[i] = new NewsItem("Stub headline " + i, description(i, descriptionChars),
+                    "https://stub.example.com/news/" + i, Date.from(now.minus(i, ChronoUnit.MINUTES)), "Stub News");
+        }
+        this.body = NewsApiAnswers.json(items).getBytes(StandardCharsets.UTF_8);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    // Запускает заглушку, отдающую заданное число статей
+    public static StubNewsApiServer start(int articles) throws IOException {
+        return new StubNewsApiServer(0, articles, 0);
+    }
+
+    // Запускает заглушку, отдающую заданное число статей с описаниями не короче descriptionChars символов
+    public static StubNewsApiServer start(int articles, int descriptionChars) throws IOException {
+        return new StubNewsApiServer(0, articles, descriptionChars);
+    }
+
+    // То же на заданном порту (0 - свободный порт), например для приложения, запущенного отдельно
+    public static StubNewsApiServer start(int port, int articles, int descriptionChars) throws IOException {
+        return new StubNewsApiServer(port, articles, descriptionChars);
+    }
+
+    // Задает задержку ответа по номеру запроса
+    public StubNewsApiServer withLatency(LongUnaryOperator latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    // Задает одинаковую задержку всех ответов
+    public StubNewsApiServer withLatency(long latencyMillis) {
+        return withLatency(request -> latencyMillis);
+    }
+
+    /**
+     * Задает логнормальное распределение задержки - типичную форму задержек сетевых сервисов
+     * с длинным хвостом.
+     * @param medianMillis медиана задержки
+     * @param p99Millis 99-й перцентиль задержки (не меньше медианы)
+     */
+    public StubNewsApiServer withLogNormalLatency(long medianMillis, long p99Millis) {
+        if (medianMillis <= 0 || p99Millis <= medianMillis) {
+            return withLatency(medianMillis);
+        }
+        double sigma = Math.log((double) p99Millis / medianMillis) / 2.326;  // z(0.99) = 2.326
+        return withLatency(request -> Math.round(medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian())));
+    }
+
+    // Задает долю ответов 500 (0 - без ошибок, 1 - все запросы с ошибкой)
+    public StubNewsApiServer withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    // Задает ETag тела и включает ответы 304 на If-None-Match
+    public StubNewsApiServer withEtag(String etag) {
+        this.etag = etag;
+        return this;
+    }
+
+    // URL заглушки с заданным путем и запросом, например "/v2/everything?domains=bbc.co.uk"
+    public String url(String pathAndQuery) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + pathAndQuery;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    // Размер тела ответа 200 в байтах
+    public int getBodyBytes() {
+        return body.length;
+    }
+
+    // Описание статьи, дополненное до заданной длины
+    private static String description(int index, int chars) {
+        StringBuilder description = new StringBuilder("Stub description ").append(index);
+        while (description.length() < chars) {
+            description.append(" Lorem ipsum dolor sit amet.");
+        }
+        return description.toString();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            long delay = latencyMillis.applyAsLong(requests.incrementAndGet());
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                send(exchange, 500, ERROR_BODY);
+                return;
+            }
+            String current = etag;
+            if (current != null) {
+                exchange.getResponseHeaders().set("ETag", current);
+                if (current.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+            }
+            send(exchange, 200, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+}
@@ -1,19 +1,47 @@
 package com.edu.WebScrapeApplication.service.impl;
 
-import com.edu.WebScrapeApplication.model.NewsApiResponse;
+import com.edu.WebScrapeApplication.model.NewsFilter;
 import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.model.NewsPage;
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import com.edu.WebScrapeApplication.service.aggregation.NewsMerger;
+import com.edu.WebScrapeApplication.service.cache.AggregatedNewsCache;
+import com.edu.WebScrapeApplication.service.fetch.FetchResult;
+import com.edu.WebScrapeApplication.service.fetch.FetchScheduler;
+import com.edu.WebScrapeApplication.service.fetch.HostConcurrencyLimiter;
+import com.edu.WebScrapeApplication.service.fetch.NewsApiStreamingParser;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceCatalog;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceClient;
+import com.edu.WebScrapeApplication.service.metrics.NewsMetrics;
+import com.edu.WebScrapeApplication.service.resilience.CircuitBreaker;
+import com.edu.WebScrapeApplication.service.resilience.SourceCircuitBreakers;
+import com.edu.WebScrapeApplication.service.resilience.SourceHedging;
+import com.edu.WebScrapeApplication.service.search.NewsSearchIndex;
+import com.edu.WebScrapeApplication.service.store.ArticleLog;
+import com.edu.WebScrapeApplication.service.store.ArticleStore;
+import com.edu.WebScrapeApplication.service.stream.NewsStreamHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.PrintStream;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
 
+import static com.edu.WebScrapeApplication.service.fetch.NewsApiAnswers.articles;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.not;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -24,28 +52,80 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class) // Интеграция Mockito с JUnit 5
 class NewsServiceImplTest {
 
-    // Мок ExecutorService для тестирования многопоточности
-    @Mock
+    // Реальный пул потоков: агрегация строится на CompletableFuture
     private ExecutorService executorService;
 
     // Мок RestTemplate для тестирования HTTP-запросов
     @Mock
     private RestTemplate restTemplate;
 
+    // Кэш агрегированных новостей (реальный, с настраиваемым TTL)
+    private AggregatedNewsCache newsCache;
+
+    // Ограничение запросов к хосту (все тестовые источники на одном хосте)
+    private final HostConcurrencyLimiter hostLimiter = new HostConcurrencyLimiter(8);
+
+    // Потоковый разбор ответов NewsAPI
+    private final NewsApiStreamingParser newsParser = new NewsApiStreamingParser(new ObjectMapper());
+
+    // Удаление дубликатов между источниками
+    private final NewsDeduplicator newsDeduplicator = new NewsDeduplicator(true, 0.8);
+
+    // Слияние результатов источников
+    private final NewsMerger newsMerger = new NewsMerger(1000);
+
+    // Метрики источников и слияния (в памяти)
+    private final NewsMetrics newsMetrics = new NewsMetrics(new SimpleMeterRegistry());
+
     // Тестируемый сервис
     private NewsServiceImpl newsService;
 
+    // Хранилище фонового опроса
+    private final ArticleStore articleStore = new ArticleStore(newsDeduplicator, newsMerger, newsMetrics, 48, false,
+            new ArticleLog(false, "data/article-log", 64, 0.5));
+
+    // Поисковый индекс
+    private final NewsSearchIndex searchIndex = new NewsSearchIndex(24, 1.0);
+
+    // Поток новых статей (без подписчиков пул отправителей не запускается)
+    private final NewsStreamHub streamHub = new NewsStreamHub(new ObjectMapper(), 16, 1000, 0, 1, "fixed");
+
     // Тестовые значения для конфигурации
     private final String testApiKey = "test-api-key";
-    private final int testTimeout = 5;
+    private final int testTimeout = 1;
+    private final int testMaxArticles = 100;
+    private final int testMaxPageSize = 50;
+
+    // Предохранители источников: размыкание после 3 ошибок подряд
+    private final SourceCircuitBreakers circuitBreakers = new SourceCircuitBreakers(true, 3, 30, 0.99, 2.0, 500, testTimeout);
 
     /**
      * Инициализация перед каждым тестом.
      */
     @BeforeEach
     void setUp() {
+        executorService = Executors.newFixedThreadPool(5);
+        // Кэш с нулевым TTL: каждый вызов выполняет полную агрегацию
+        newsCache = new AggregatedNewsCache(0, 0);
         // Создаем экземпляр тестируемого сервиса с моками
-        newsService = new NewsServiceImpl(executorService, restTemplate, testApiKey, testTimeout);
+        newsService = createService(false);
+    }
+
+    // Создает сервис с реальными компонентами загрузки поверх мока RestTemplate
+    private NewsServiceImpl createService(boolean ingestionEnabled) {
+        NewsSourceClient sourceClient = new NewsSourceClient(new FetchScheduler(executorService, hostLimiter, 5, 100),
+                restTemplate, newsParser, testMaxArticles);
+        return new NewsServiceImpl(new NewsSourceCatalog(testApiKey), sourceClient, newsCache, newsDeduplicator,
+                newsMerger, articleStore, circuitBreakers, new SourceHedging(false, 0.95, 0.1, 5, 20),
+                newsMetrics, searchIndex, streamHub, new ObjectMapper(), ingestionEnabled, testTimeout, testMaxPageSize, 50);
+    }
+
+    /**
+     * Остановка пула потоков после каждого теста.
+     */
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
     }
 
     /**
@@ -58,12 +138,13 @@ class NewsServiceImplTest {
         NewsItem item2 = new NewsItem("Title2", "Desc2", "http://2.com", new Date(), "Source2");
         NewsItem item3 = new NewsItem("Title3", "Desc3", "http://3.com", new Date(), "Source3");
 
-        // Настройка моков:
-        // Каждый вызов submit() будет возвращать Future с тестовыми данными
-        when(executorService.submit(any(Callable.class)))
-                .thenReturn(completedFuture(List.of(item1)))
-                .thenReturn(completedFuture(List.of(item2)))
-                .thenReturn(completedFuture(List.of(item3)));
+        // Настройка моков: каждый источник возвращает свою новость
+        when(restTemplate.execute(contains("country=ru"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(item1));
+        when(restTemplate.execute(contains("domains=bbc.co.uk"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(item2));
+        when(restTemplate.execute(contains("sources=techcrunch"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(item3));
 
         // Вызов тестируемого метода
         List<NewsItem> result = newsService.getAggregatedNews();
@@ -78,72 +159,373 @@ class NewsServiceImplTest {
     }
 
     /**
-     * Тест проверяет обработку таймаутов при запросах к источникам новостей.
+     * Тест проверяет порядок результата: новые сначала, статьи без даты в конце (без NullPointerException).
      */
     @Test
-    void getAggregatedNews_ShouldHandleTimeouts() throws Exception {
-        // Подготовка моков Future для каждого источника
-        Future<List<NewsItem>> future1 = mock(Future.class);
-        Future<List<NewsItem>> future2 = mock(Future.class);
-        Future<List<NewsItem>> future3 = mock(Future.class);
-
-        // Настройка executorService для возврата наших Future
-        when(executorService.submit(any(Callable.class)))
-                .thenReturn(future1)
-                .thenReturn(future2)
-                .thenReturn(future3);
-
-        // Настройка Future на выброс TimeoutException при вызове get()
-        when(future1.get(testTimeout, TimeUnit.SECONDS)).thenThrow(new TimeoutException());
-        when(future2.get(testTimeout, TimeUnit.SECONDS)).thenThrow(new TimeoutException());
-        when(future3.get(testTimeout, TimeUnit.SECONDS)).thenThrow(new TimeoutException());
+    void getAggregatedNews_ShouldOrderNewestFirstWithUndatedLast() throws Exception {
+        Date now = new Date();
+        NewsItem newest = new NewsItem("Newest", "Desc", "http://1.com", now, "Source1");
+        NewsItem undated = new NewsItem("Undated", "Desc", "http://2.com", null, "Source2");
+        NewsItem older = new NewsItem("Older", "Desc", "http://3.com", new Date(now.getTime() - 60_000), "Source3");
+
+        when(restTemplate.execute(contains("country=ru"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(older));
+        when(restTemplate.execute(contains("domains=bbc.co.uk"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(undated));
+        when(restTemplate.execute(contains("sources=techcrunch"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(newest));
 
-        // Вызов тестируемого метода
         List<NewsItem> result = newsService.getAggregatedNews();
 
-        // Проверка что результат пуст при таймаутах
-        assertTrue(result.isEmpty());
+        assertEquals(List.of("Newest", "Older", "Undated"), result.stream().map(NewsItem::getTitle).toList());
+    }
 
-        // Проверка что для всех Future был вызван cancel()
-        verify(future1).cancel(true);
-        verify(future2).cancel(true);
-        verify(future3).cancel(true);
+    /**
+     * Тест проверяет постраничную выдачу: страница и курсор следующей страницы из снимка кэша.
+     */
+    @Test
+    void getNewsPageAsync_ShouldServePagesFromSnapshot() throws Exception {
+        Date now = new Date();
+        for (String source : List.of("country=ru", "domains=bbc.co.uk", "sources=techcrunch")) {
+            when(restTemplate.execute(contains(source), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                    .thenAnswer(articles(
+                            new NewsItem("A", "Desc", "http://a.com/" + source, now, "Source"),
+                            new NewsItem("B", "Desc", "http://b.com/" + source, new Date(now.getTime() - 1000), "Source")));
+        }
+
+        NewsPage first = newsService.getNewsPageAsync(null, 4).get(5, TimeUnit.SECONDS);
+        NewsPage second = newsService.getNewsPageAsync(first.getNextCursor(), 4).get(5, TimeUnit.SECONDS);
+
+        // 3 источника по 2 статьи: страницы 4 + 2
+        assertEquals(4, first.getItems().size());
+        assertTrue(first.isHasMore());
+        assertEquals(2, second.getItems().size());
+        assertFalse(second.isHasMore());
     }
 
     /**
-     * Тест проверяет успешное получение новостей из источника.
+     * Тест проверяет, что некорректный размер страницы или курсор отклоняются без обращения к источникам.
      */
     @Test
-    void fetchNewsFromSource_ShouldReturnArticlesOnSuccess() {
-        // Подготовка тестового ответа
-        NewsApiResponse response = new NewsApiResponse();
-        response.setArticles(List.of(new NewsItem())); // Одна пустая новость
+    void getNewsPageAsync_ShouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> newsService.getNewsPageAsync(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> newsService.getNewsPageAsync(null, testMaxPageSize + 1));
+        assertThrows(IllegalArgumentException.class, () -> newsService.getNewsPageAsync("%%%", 10));
+        verifyNoInteractions(restTemplate);
+    }
 
-        // Настройка RestTemplate на возврат тестового ответа
-        when(restTemplate.getForObject(anyString(), eq(NewsApiResponse.class)))
-                .thenReturn(response);
+    /**
+     * Тест проверяет, что одна и та же новость из разных запросов попадает в результат один раз,
+     * а лишние копии учитываются по источникам.
+     */
+    @Test
+    void getAggregatedNews_ShouldRemoveDuplicatesAcrossSources() throws Exception {
+        NewsItem item = new NewsItem("Title1", "Desc1", "https://www.bbc.co.uk/news/1", new Date(), "BBC News");
+        NewsItem tracked = new NewsItem("Title1", "Desc1", "http://bbc.co.uk/news/1/?utm_source=x", new Date(), "BBC News");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(item));
+        when(restTemplate.execute(contains("sources=techcrunch"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(tracked));
 
-        // Вызов тестируемого метода
-        List<NewsItem> result = newsService.fetchNewsFromSource("test-url");
+        List<NewsItem> result = newsService.getAggregatedNews();
 
-        // Проверка что получена 1 новость
         assertEquals(1, result.size());
+        assertEquals(2, newsDeduplicator.getStats().getUrlDuplicates());
+        assertEquals(2, newsDeduplicator.getStats().getDuplicatesBySource().values().stream().mapToLong(Long::longValue).sum());
     }
 
     /**
-     * Тест проверяет обработку ошибок при запросе к источнику новостей.
+     * Тест проверяет, что при фоновом опросе запрос только читает хранилище и не обращается к источникам.
      */
     @Test
-    void fetchNewsFromSource_ShouldReturnEmptyListOnError() {
-        // Настройка RestTemplate на выброс исключения
-        when(restTemplate.getForObject(anyString(), eq(NewsApiResponse.class)))
+    void getAggregatedNewsAsync_ShouldReadStoreWhenIngestionEnabled() throws Exception {
+        newsService = createService(true);
+        CompletableFuture<List<NewsItem>> beforeWarm = newsService.getAggregatedNewsAsync();
+
+        // Пока первый круг опроса не завершен, запрос ждет его, а не опрашивает источники сам
+        assertFalse(beforeWarm.isDone());
+        articleStore.put("bbc", List.of(new NewsItem("Title", "Desc", "http://bbc.co.uk/1", new Date(), "BBC News")));
+        articleStore.markWarm();
+
+        assertEquals(1, beforeWarm.get(5, TimeUnit.SECONDS).size());
+        assertEquals(1, newsService.getNewsPageAsync(null, 10).get(5, TimeUnit.SECONDS).getItems().size());
+        verifyNoInteractions(restTemplate);
+    }
+
+    /**
+     * Тест проверяет поиск при агрегации по запросу: индекс строится по результату агрегации.
+     */
+    @Test
+    void searchAsync_ShouldFindArticlesOfLastAggregation() throws Exception {
+        when(restTemplate.execute(contains("country=ru"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(new NewsItem("Выборы в парламент прошли спокойно", "Итоги", "http://ria.ru/1", new Date(), "РИА")));
+        when(restTemplate.execute(contains("domains=bbc.co.uk"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(new NewsItem("Election results announced", "Desc", "http://bbc.co.uk/1", new Date(), "BBC News")));
+        when(restTemplate.execute(contains("sources=techcrunch"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles());
+
+        List<NewsItem> russian = newsService.searchAsync("выборов", 10).get(5, TimeUnit.SECONDS);
+        List<NewsItem> english = newsService.searchAsync("elections", 10).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("http://ria.ru/1"), russian.stream().map(NewsItem::getUrl).toList());
+        assertEquals(List.of("http://bbc.co.uk/1"), english.stream().map(NewsItem::getUrl).toList());
+        assertThrows(IllegalArgumentException.class, () -> newsService.searchAsync(" ", 10));
+        assertThrows(IllegalArgumentException.class, () -> newsService.searchAsync("выборы", testMaxPageSize + 1));
+    }
+
+    /**
+     * Тест проверяет, что при фоновом опросе индекс следует за хранилищем без обращения к источникам.
+     */
+    @Test
+    void searchAsync_ShouldFollowStoreWhenIngestionEnabled() throws Exception {
+        newsService = createService(true);
+        articleStore.put("bbc", List.of(new NewsItem("Markets rally on rate cut", "Desc", "http://bbc.co.uk/1", new Date(), "BBC News")));
+        articleStore.markWarm();
+
+        assertEquals(1, newsService.searchAsync("market", 10).get(5, TimeUnit.SECONDS).size());
+        articleStore.removeSource("bbc");
+        assertTrue(newsService.searchAsync("market", 10).get(5, TimeUnit.SECONDS).isEmpty());
+        verifyNoInteractions(restTemplate);
+    }
+
+    /**
+     * Тест проверяет, что при фильтре по категории или источнику запрашиваются только подходящие источники,
+     * а интервал времени отсекает старые статьи.
+     */
+    @Test
+    void getAggregatedNewsAsync_ShouldFetchOnlyMatchingSources() throws Exception {
+        Date now = new Date();
+        when(restTemplate.execute(contains("sources=techcrunch"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(new NewsItem("Gadget", "Desc", "http://techcrunch.com/1", now, "TechCrunch")));
+        when(restTemplate.execute(contains("domains=bbc.co.uk"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(
+                        new NewsItem("Fresh", "Desc", "http://bbc.co.uk/1", now, "BBC News"),
+                        new NewsItem("Old", "Desc", "http://bbc.co.uk/2", new Date(now.getTime() - 3_600_000), "BBC News")));
+        String since = Instant.ofEpochMilli(now.getTime() - 60_000).toString();
+
+        List<NewsItem> technology = newsService.getAggregatedNewsAsync(NewsFilter.of(null, "technology", null, null))
+                .get(5, TimeUnit.SECONDS);
+        List<NewsItem> recentBbc = newsService.getAggregatedNewsAsync(NewsFilter.of(List.of("bbc"), null, since, null))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("Gadget"), technology.stream().map(NewsItem::getTitle).toList());
+        assertEquals(List.of("Fresh"), recentBbc.stream().map(NewsItem::getTitle).toList());
+        verify(restTemplate, never()).execute(contains("country=ru"), any(HttpMethod.class), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any());
+        // Неизвестный источник отклоняется до обращения к источникам
+        assertThrows(IllegalArgumentException.class,
+                () -> newsService.getAggregatedNewsAsync(NewsFilter.of(List.of("cnn"), null, null, null)));
+    }
+
+    /**
+     * Тест проверяет фильтр при фоновом опросе: интервал времени вырезается из статей источников в хранилище,
+     * статьи без даты в интервал не попадают, а страницы продолжаются по курсору.
+     */
+    @Test
+    void getNewsPageAsync_ShouldSliceStoreByTimeRange() throws Exception {
+        newsService = createService(true);
+        long now = System.currentTimeMillis();
+        long hour = TimeUnit.HOURS.toMillis(1);
+        articleStore.put("bbc", List.of(
+                new NewsItem("b0", "Desc", "http://bbc.co.uk/0", new Date(now), "BBC News"),
+                new NewsItem("b2", "Desc", "http://bbc.co.uk/2", new Date(now - 2 * hour), "BBC News"),
+                new NewsItem("b4", "Desc", "http://bbc.co.uk/4", new Date(now - 4 * hour), "BBC News")));
+        articleStore.put("techcrunch", List.of(
+                new NewsItem("t1", "Desc", "http://techcrunch.com/1", new Date(now - hour), "TechCrunch"),
+                new NewsItem("t3", "Desc", "http://techcrunch.com/3", new Date(now - 3 * hour), "TechCrunch"),
+                new NewsItem("undated", "Desc", "http://techcrunch.com/u", null, "TechCrunch")));
+        articleStore.markWarm();
+        NewsFilter lastHours = NewsFilter.of(null, null,
+                Instant.ofEpochMilli(now - 3 * hour).toString(), Instant.ofEpochMilli(now).toString());
+
+        NewsPage first = newsService.getNewsPageAsync(lastHours, null, 2).get(5, TimeUnit.SECONDS);
+        NewsPage second = newsService.getNewsPageAsync(lastHours, first.getNextCursor(), 2).get(5, TimeUnit.SECONDS);
+        List<NewsItem> general = newsService.getAggregatedNewsAsync(NewsFilter.of(null, "general", null, null))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("t1", "b2"), first.getItems().stream().map(NewsItem::getTitle).toList());
+        assertEquals(List.of("t3"), second.getItems().stream().map(NewsItem::getTitle).toList());
+        assertFalse(second.isHasMore());
+        assertEquals(List.of("b0", "b2", "b4"), general.stream().map(NewsItem::getTitle).toList());
+        verifyNoInteractions(restTemplate);
+    }
+
+    /**
+     * Тест проверяет, что асинхронный вариант возвращает тот же результат, что и синхронный.
+     */
+    @Test
+    void getAggregatedNewsAsync_ShouldCompleteWithCombinedNews() throws Exception {
+        NewsItem item = new NewsItem("Title1", "Desc1", "http://1.com", new Date(), "Source1");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articlesPerSource(item));
+
+        CompletableFuture<List<NewsItem>> future = newsService.getAggregatedNewsAsync();
+
+        assertEquals(3, future.get(5, TimeUnit.SECONDS).size());
+    }
+
+    /**
+     * Тест проверяет, что после серии ошибок источник отключается предохранителем и не запрашивается,
+     * а вместо него отдается его последний успешный ответ.
+     */
+    @Test
+    void getAggregatedNews_ShouldServeLastGoodDataWhileBreakerIsOpen() throws Exception {
+        NewsItem item = new NewsItem("BBC title", "Desc", "http://bbc.co.uk/1", new Date(), "BBC News");
+        when(restTemplate.execute(contains("domains=bbc.co.uk"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(item))
                 .thenThrow(new RuntimeException("API error"));
+        when(restTemplate.execute(not(contains("domains=bbc.co.uk")), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles());
+
+        // Успешный ответ и три ошибки подряд: каждый раз отдается последний успешный ответ
+        // (агрегация вызывается в обход кэша, чтобы каждый вызов обращался к источникам)
+        for (int i = 0; i < 4; i++) {
+            assertEquals(List.of(item.getUrl()), urls(newsService.loadAggregatedNews().get()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.forSource("bbc").getState());
+
+        // Предохранитель разомкнут: источник не запрашивается
+        assertEquals(List.of(item.getUrl()), urls(newsService.loadAggregatedNews().get()));
+        verify(restTemplate, times(4)).execute(contains("domains=bbc.co.uk"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any());
+        assertEquals(1, circuitBreakers.getStats().get("bbc").getRejected());
+    }
+
+    /**
+     * Тест проверяет, что повторный запрос в пределах TTL обслуживается из кэша без обращения к источникам.
+     */
+    @Test
+    void getAggregatedNews_ShouldServeRepeatedCallsFromCache() throws Exception {
+        // Кэш с TTL 60 секунд
+        newsCache = new AggregatedNewsCache(60, 60);
+        newsService = createService(false);
+
+        NewsItem item = new NewsItem("Title1", "Desc1", "http://1.com", new Date(), "Source1");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articlesPerSource(item));
+
+        // Два последовательных запроса
+        List<NewsItem> first = newsService.getAggregatedNews();
+        List<NewsItem> second = newsService.getAggregatedNews();
+
+        // Источники опрошены только один раз (3 запроса на первый вызов)
+        assertEquals(3, first.size());
+        assertEquals(first, second);
+        verify(restTemplate, times(3)).execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any());
+        assertEquals(1, newsCache.getStats().getHits());
+    }
+
+    /**
+     * Тест проверяет обработку таймаутов: все источники зависли, общий дедлайн один на запрос,
+     * а зависшие задачи прерываются.
+     */
+    @Test
+    void getAggregatedNews_ShouldHandleTimeouts() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(3);
+        // Каждый источник отвечает дольше таймаута
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();  // Задача была отменена
+                throw e;
+            }
+            return List.of();
+        });
 
         // Вызов тестируемого метода
-        List<NewsItem> result = newsService.fetchNewsFromSource("test-url");
+        long start = System.nanoTime();
+        List<NewsItem> result = newsService.getAggregatedNews();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
 
-        // Проверка что возвращен пустой список при ошибке
+        // Проверка что результат пуст при таймаутах
         assertTrue(result.isEmpty());
+        // Общий дедлайн: ждали один таймаут, а не по таймауту на каждый источник
+        assertTrue(elapsedMillis < 2 * TimeUnit.SECONDS.toMillis(testTimeout),
+                "Deadline should be shared by all sources, took " + elapsedMillis + " ms");
+        // Проверка что все зависшие задачи были прерваны
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Тест проверяет, что источники, успевшие к дедлайну, попадают в результат, а опоздавшие отбрасываются.
+     */
+    @Test
+    void getAggregatedNews_ShouldMergeSourcesCompletedBeforeDeadline() throws Exception {
+        NewsItem fast = new NewsItem("Fast", "Desc", "http://fast.com", new Date(), "Source1");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any())).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            if (url.contains("domains=bbc.co.uk")) {
+                Thread.sleep(10_000);  // Медленный источник
+            }
+            return articlesPerSource(fast).answer(invocation);
+        });
+
+        List<NewsItem> result = newsService.getAggregatedNews();
+
+        // Два быстрых источника из трех
+        assertEquals(2, result.size());
+    }
+
+    /**
+     * Тест проверяет режим кворума: ответ готов, как только ответили 2 источника из 3,
+     * без ожидания медленного источника и общего дедлайна.
+     */
+    @Test
+    void getQuorumNewsAsync_ShouldAnswerWithoutWaitingForSlowSource() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any())).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            if (url.contains("domains=bbc.co.uk")) {
+                release.await(5, TimeUnit.SECONDS);  // Медленный источник
+            }
+            return articlesPerSource(new NewsItem("Title", "Desc", "http://fast.com", new Date(), "Source")).answer(invocation);
+        });
+
+        long start = System.nanoTime();
+        List<NewsItem> result = newsService.getQuorumNewsAsync(NewsFilter.NONE, 2).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertEquals(2, result.size());
+        assertFalse(result.stream().anyMatch(item -> item.getUrl().contains("bbc")));
+        assertTrue(elapsedMillis < TimeUnit.SECONDS.toMillis(testTimeout),
+                "Quorum should not wait for the deadline, took " + elapsedMillis + " ms");
+        assertThrows(IllegalArgumentException.class, () -> newsService.getQuorumNewsAsync(NewsFilter.NONE, 0));
+    }
+
+    /**
+     * Тест проверяет выдачу по мере ответа источников: статьи быстрых источников отдаются до ответа
+     * медленного, а статья медленного источника приходит позже, хотя она новее.
+     */
+    @Test
+    void streamAggregatedNews_ShouldEmitFastSourcesBeforeSlowOne() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Date now = new Date();
+        when(restTemplate.execute(contains("country=ru"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(new NewsItem("ru", "Desc", "http://ria.ru/1", new Date(now.getTime() - 1000), "РИА")));
+        when(restTemplate.execute(contains("sources=techcrunch"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any()))
+                .thenAnswer(articles(new NewsItem("tc", "Desc", "http://techcrunch.com/1", now, "TechCrunch")));
+        when(restTemplate.execute(contains("domains=bbc.co.uk"), eq(HttpMethod.GET), any(RequestCallback.class), ArgumentMatchers.<ResponseExtractor<FetchResult>>any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);  // Медленный источник; его статья новее остальных
+            return articles(new NewsItem("bbc", "Desc", "http://bbc.co.uk/1", new Date(now.getTime() + 1000), "BBC News"))
+                    .answer(invocation);
+        });
+        BlockingQueue<List<NewsItem>> windows = new LinkedBlockingQueue<>();
+
+        CompletableFuture<Void> done = newsService.streamAggregatedNews(NewsFilter.NONE, windows::add);
+        List<String> early = new ArrayList<>();
+        while (early.size() < 2) {
+            List<NewsItem> window = windows.poll(5, TimeUnit.SECONDS);
+            assertNotNull(window, "fast sources were not emitted");
+            window.forEach(item -> early.add(item.getTitle()));
+        }
+        assertFalse(done.isDone());
+        release.countDown();
+        done.get(5, TimeUnit.SECONDS);
+
+        assertEquals(Set.of("tc", "ru"), Set.copyOf(early));
+        List<String> late = new ArrayList<>();
+        windows.forEach(window -> window.forEach(item -> late.add(item.getTitle())));
+        assertEquals(List.of("bbc"), late);
     }
 
     /**
@@ -166,11 +548,20 @@ class NewsServiceImplTest {
     }
 
     /**
-     * Вспомогательный метод для создания завершенного Future с заданным значением.
+     * Вспомогательный метод: каждый источник возвращает свою копию новости (URL дополняется именем источника),
+     * чтобы копии не считались дубликатами.
      */
-    private <T> Future<T> completedFuture(T value) {
-        CompletableFuture<T> future = new CompletableFuture<>();
-        future.complete(value); // Немедленно завершаем Future с заданным значением
-        return future;
+    private Answer<Object> articlesPerSource(NewsItem item) {
+        return invocation -> {
+            String source = invocation.getArgument(0);
+            NewsItem copy = new NewsItem(item.getTitle(), item.getDescription(), item.getUrl() + "/" + source.hashCode(),
+                    item.getPublishedAt(), item.getSourceName());
+            return articles(copy).answer(invocation);
+        };
+    }
+
+    // URL новостей в порядке выдачи
+    private static List<String> urls(List<NewsItem> items) {
+        return items.stream().map(NewsItem::getUrl).toList();
     }
-}
\ No newline at end of file
+}
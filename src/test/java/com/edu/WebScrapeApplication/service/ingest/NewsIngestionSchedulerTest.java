@@ -0,0 +1,314 @@
+package com.edu.WebScrapeApplication.service.ingest;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import com.edu.WebScrapeApplication.service.aggregation.NewsMerger;
+import com.edu.WebScrapeApplication.service.fetch.FetchResult;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceCatalog;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceClient;
+import com.edu.WebScrapeApplication.service.metrics.NewsMetrics;
+import com.edu.WebScrapeApplication.service.resilience.SourceCircuitBreakers;
+import com.edu.WebScrapeApplication.service.store.ArticleLog;
+import com.edu.WebScrapeApplication.service.store.ArticleStore;
+import com.edu.WebScrapeApplication.service.stream.NewsStreamHub;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестовый класс для NewsIngestionScheduler.
+ * Проверяет опрос источников в хранилище и настройки интервалов.
+ */
+@ExtendWith(MockitoExtension.class) // Интеграция Mockito с JUnit 5
+class NewsIngestionSchedulerTest {
+
+    // Мок загрузки источников
+    @Mock
+    private NewsSourceClient sourceClient;
+
+    private final NewsSourceCatalog sourceCatalog = new NewsSourceCatalog("test-api-key");
+
+    private final ArticleStore articleStore = new ArticleStore(new NewsDeduplicator(true, 0.8), new NewsMerger(1000),
+            new NewsMetrics(new SimpleMeterRegistry()), 48, false, new ArticleLog(false, "data/article-log", 64, 0.5));
+
+    // Предохранители: размыкание после 2 ошибок подряд, таймаут до 1 секунды
+    private final SourceCircuitBreakers circuitBreakers = new SourceCircuitBreakers(true, 2, 30, 0.99, 2.0, 500, 1);
+
+    /**
+     * Тест проверяет, что у источника может быть собственный интервал опроса.
+     */
+    @Test
+    void getSourceStats_ShouldUsePerSourceIntervals() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("news.sources.bbc.interval-seconds", "300");
+        NewsSourceCatalog catalog = new NewsSourceCatalog(environment, "test-api-key", "", 0, 60, 5);
+
+        NewsIngestionScheduler scheduler = createScheduler(catalog, false);
+
+        assertEquals(300, scheduler.getSourceStats().get("bbc").getIntervalSeconds());
+        assertEquals(60, scheduler.getSourceStats().get("russia").getIntervalSeconds());
+    }
+
+    /**
+     * Тест проверяет, что опрос добавляет статьи источника в хранилище, а ошибка учитывается в статистике.
+     */
+    @Test
+    void poll_ShouldPutArticlesIntoStoreAndCountFailures() throws Exception {
+        NewsItem item = new NewsItem("Title", "Desc", "https://bbc.co.uk/news/1", new Date(), "BBC News");
+        when(sourceClient.fetchResultAsync(any(), contains("domains=bbc.co.uk"))).thenReturn(response(1000, item));
+        when(sourceClient.fetchResultAsync(any(), contains("country=ru"))).thenReturn(CompletableFuture.failedFuture(new RuntimeException("API error")));
+        NewsIngestionScheduler scheduler = createScheduler(false);
+
+        assertEquals(1, scheduler.poll("bbc").get(1, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.poll("russia").get(1, TimeUnit.SECONDS));
+
+        assertEquals(List.of(item), articleStore.getSnapshot());
+        assertEquals(1, scheduler.getSourceStats().get("bbc").getLastAdded());
+        assertEquals(1, scheduler.getSourceStats().get("russia").getFailures());
+    }
+
+    /**
+     * Тест проверяет, что ответ 304 Not Modified не пересобирает хранилище и учитывается в статистике.
+     */
+    @Test
+    void poll_ShouldKeepStoreOnNotModified() throws Exception {
+        NewsItem item = new NewsItem("Title", "Desc", "https://bbc.co.uk/news/1", new Date(), "BBC News");
+        when(sourceClient.fetchResultAsync(any(), anyString()))
+                .thenReturn(response(1000, item))
+                .thenReturn(CompletableFuture.completedFuture(FetchResult.notModified(List.of(item), 0)));
+        NewsIngestionScheduler scheduler = createScheduler(false);
+
+        assertEquals(1, scheduler.poll("bbc").get(1, TimeUnit.SECONDS));
+        long version = articleStore.getStats().getVersion();
+        assertEquals(0, scheduler.poll("bbc").get(1, TimeUnit.SECONDS));
+
+        NewsIngestionScheduler.SourceStats stats = scheduler.getSourceStats().get("bbc");
+        assertEquals(2, stats.getPolls());
+        assertEquals(1, stats.getNotModified());
+        assertEquals(1000, stats.getBytesDownloaded());
+        assertEquals(version, articleStore.getStats().getVersion());
+    }
+
+    /**
+     * Тест проверяет, что новый опрос источника не запускается, пока выполняется предыдущий.
+     */
+    @Test
+    void poll_ShouldSkipWhilePreviousPollInFlight() throws Exception {
+        CompletableFuture<FetchResult> slow = new CompletableFuture<>();
+        when(sourceClient.fetchResultAsync(any(), anyString())).thenReturn(slow);
+        NewsIngestionScheduler scheduler = createScheduler(false);
+
+        CompletableFuture<Integer> first = scheduler.poll("techcrunch");
+        assertEquals(0, scheduler.poll("techcrunch").get(1, TimeUnit.SECONDS));
+        slow.complete(new FetchResult(List.of(), 0));
+
+        assertEquals(0, first.get(1, TimeUnit.SECONDS));
+        verify(sourceClient, times(1)).fetchResultAsync(any(), anyString());
+    }
+
+    /**
+     * Тест проверяет, что при старте первый круг опроса заполняет хранилище и отмечает его готовым.
+     */
+    @Test
+    void start_ShouldRunFirstRoundAndWarmStore() throws Exception {
+        when(sourceClient.fetchResultAsync(any(), anyString())).thenReturn(response(0));
+        NewsIngestionScheduler scheduler = createScheduler(true);
+        try {
+            scheduler.start();
+
+            assertTrue(articleStore.awaitSnapshot().get(1, TimeUnit.SECONDS).isEmpty());
+            assertTrue(articleStore.getStats().isWarm());
+            verify(sourceClient, times(3)).fetchResultAsync(any(), anyString());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    /**
+     * Тест проверяет, что перезагрузка каталога сразу запускает опрос нового источника,
+     * а статьи выключенного источника удаляются из хранилища.
+     */
+    @Test
+    void reload_ShouldPollAddedSourcesAndDropRemovedOnes() throws Exception {
+        Path file = Files.createTempFile("sources", ".properties");
+        try {
+            NewsSourceCatalog catalog = new NewsSourceCatalog(new MockEnvironment(), "test-api-key", file.toString(), 0, 60, 5);
+            NewsItem item = new NewsItem("Title", "Desc", "https://bbc.co.uk/news/1", new Date(), "BBC News");
+            when(sourceClient.fetchResultAsync(any(), anyString())).thenReturn(response(0));
+            when(sourceClient.fetchResultAsync(any(), contains("domains=bbc.co.uk"))).thenReturn(response(1000, item));
+            NewsIngestionScheduler scheduler = createScheduler(catalog, true);
+            try {
+                scheduler.start();
+                assertEquals(List.of(item), articleStore.awaitSnapshot().get(1, TimeUnit.SECONDS));
+
+                Files.writeString(file, "news.sources.bbc.enabled=false\n"
+                        + "news.sources.verge.url=https://newsapi.org/v2/everything?domains=theverge.com&apiKey={apiKey}\n");
+                catalog.reload();
+
+                verify(sourceClient, timeout(1000)).fetchResultAsync(any(), contains("domains=theverge.com"));
+                assertTrue(articleStore.getSnapshot().isEmpty());
+                assertEquals(List.of("russia", "techcrunch", "verge"), List.copyOf(scheduler.getSourceStats().keySet()));
+            } finally {
+                scheduler.stop();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Тест проверяет, что после первого опроса источник /v2/everything запрашивается с from= от самой поздней статьи,
+     * дельта сливается с уже загруженными статьями, а экономия учитывается в статистике.
+     */
+    @Test
+    void poll_ShouldRequestOnlyNewerArticlesAfterHighWaterMark() throws Exception {
+        Instant mark = Instant.now().truncatedTo(ChronoUnit.SECONDS).minus(3, ChronoUnit.HOURS);
+        NewsItem older = new NewsItem("Older", "Desc", "https://bbc.co.uk/news/1",
+                Date.from(mark.minus(1, ChronoUnit.HOURS)), "BBC News");
+        NewsItem newest = new NewsItem("Newest", "Desc", "https://bbc.co.uk/news/2",
+                Date.from(mark.plusMillis(500)), "BBC News");
+        NewsItem fresh = new NewsItem("Fresh", "Desc", "https://bbc.co.uk/news/3",
+                Date.from(mark.plus(1, ChronoUnit.HOURS)), "BBC News");
+        when(sourceClient.fetchResultAsync(any(), anyString())).thenReturn(response(5000, newest, older));
+        when(sourceClient.fetchResultAsync(any(), endsWith("&from=" + mark))).thenReturn(response(1200, fresh, newest));
+        NewsIngestionScheduler scheduler = createScheduler(false);
+
+        assertEquals(2, scheduler.poll("bbc").get(1, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.poll("bbc").get(1, TimeUnit.SECONDS));
+
+        assertEquals(List.of(fresh, newest, older), articleStore.getSnapshot());
+        NewsIngestionScheduler.SourceStats stats = scheduler.getSourceStats().get("bbc");
+        assertEquals(mark.plus(1, ChronoUnit.HOURS).toString(), stats.getHighWaterMark());
+        assertEquals(1, stats.getIncrementalPolls());
+        assertEquals(6200, stats.getBytesDownloaded());
+        assertEquals(3800, stats.getBytesSaved());
+        assertEquals(0, stats.getArticlesSaved());  // Граница from включительна - статья метки пришла повторно
+    }
+
+    /**
+     * Тест проверяет, что дельта больше страницы читается постранично, а недочитанная дельта
+     * не сдвигает метку и продолжается следующим опросом со следующей страницы.
+     */
+    @Test
+    void poll_ShouldPageThroughDeltaLargerThanPageSize() throws Exception {
+        Instant mark = Instant.now().truncatedTo(ChronoUnit.SECONDS).minus(10, ChronoUnit.HOURS);
+        NewsItem known = new NewsItem("Known", "Desc", "https://bbc.co.uk/news/0", Date.from(mark), "BBC News");
+        NewsItem[] delta = new NewsItem[5];
+        for (int i = 0; i < delta.length; i++) {
+            delta[i] = new NewsItem("Delta" + i, "Desc", "https://bbc.co.uk/news/" + (i + 1),
+                    Date.from(mark.plus(5 - i, ChronoUnit.HOURS)), "BBC News");  // Сначала самые новые
+        }
+        when(sourceClient.fetchResultAsync(any(), anyString())).thenReturn(response(1000, known));
+        when(sourceClient.fetchResultAsync(any(), endsWith("&page=1&from=" + mark))).thenReturn(response(100, delta[0], delta[1]));
+        when(sourceClient.fetchResultAsync(any(), endsWith("&page=2&from=" + mark))).thenReturn(response(100, delta[2], delta[3]));
+        when(sourceClient.fetchResultAsync(any(), endsWith("&page=3&from=" + mark))).thenReturn(response(50, delta[4]));
+        // Страница из 2 статей (лимит разбора ответа), не больше 2 страниц за опрос
+        NewsIngestionScheduler scheduler = new NewsIngestionScheduler(sourceCatalog, sourceClient, articleStore,
+                circuitBreakers, new NewsMetrics(new SimpleMeterRegistry()),
+                new NewsStreamHub(new ObjectMapper(), 16, 1000, 0, 1, "fixed"), false, 2, 2);
+
+        assertEquals(1, scheduler.poll("bbc").get(1, TimeUnit.SECONDS));
+        assertEquals(4, scheduler.poll("bbc").get(1, TimeUnit.SECONDS));
+        assertEquals(mark.toString(), scheduler.getSourceStats().get("bbc").getHighWaterMark());  // Дельта не дочитана
+        assertEquals(1, scheduler.poll("bbc").get(1, TimeUnit.SECONDS));
+
+        assertEquals(List.of(delta[0], delta[1], delta[2], delta[3], delta[4], known), articleStore.getSnapshot());
+        NewsIngestionScheduler.SourceStats stats = scheduler.getSourceStats().get("bbc");
+        assertEquals(mark.plus(5, ChronoUnit.HOURS).toString(), stats.getHighWaterMark());
+        assertEquals(2, stats.getIncrementalPolls());
+        verify(sourceClient, times(3)).fetchResultAsync(any(), contains("pageSize=2&page="));  // Страницы 1, 2 и 3 - по одному разу
+    }
+
+    /**
+     * Тест проверяет, что /v2/top-headlines без поддержки from всегда загружается целиком.
+     */
+    @Test
+    void poll_ShouldFetchFullPageWhenEndpointHasNoFromParameter() throws Exception {
+        NewsItem item = new NewsItem("Title", "Desc", "https://techcrunch.com/1", new Date(), "TechCrunch");
+        when(sourceClient.fetchResultAsync(any(), anyString())).thenReturn(response(800, item));
+        NewsIngestionScheduler scheduler = createScheduler(false);
+
+        scheduler.poll("techcrunch").get(1, TimeUnit.SECONDS);
+        scheduler.poll("techcrunch").get(1, TimeUnit.SECONDS);
+
+        verify(sourceClient, never()).fetchResultAsync(any(), contains("from="));
+        assertEquals(0, scheduler.getSourceStats().get("techcrunch").getIncrementalPolls());
+        assertEquals(2, scheduler.getSourceStats().get("techcrunch").getArticlesDownloaded());
+    }
+
+    /**
+     * Тест проверяет, что метка не уходит в будущее, а from= округляется до секунды.
+     */
+    @Test
+    void highWaterMark_ShouldBeCappedAtNowAndFormattedInSeconds() {
+        long now = Instant.parse("2024-05-20T12:00:00Z").toEpochMilli();
+        List<NewsItem> items = List.of(
+                new NewsItem("A", "Desc", "https://a.com", Date.from(Instant.parse("2030-01-01T00:00:00Z")), "S"),
+                new NewsItem("B", "Desc", "https://b.com", null, "S"));
+
+        long mark = NewsIngestionScheduler.highWaterMark(items, now);
+
+        assertEquals(now, mark);
+        assertEquals("https://newsapi.org/v2/everything?q=x&from=2024-05-20T12:00:00Z",
+                NewsIngestionScheduler.withFrom("https://newsapi.org/v2/everything?q=x", mark + 999));
+    }
+
+    /**
+     * Тест проверяет, что источник с разомкнутым предохранителем не опрашивается, а его статьи остаются в хранилище.
+     */
+    @Test
+    void poll_ShouldSkipSourceWhileBreakerIsOpen() throws Exception {
+        NewsItem item = new NewsItem("Title", "Desc", "https://bbc.co.uk/news/1", new Date(), "BBC News");
+        when(sourceClient.fetchResultAsync(any(), anyString()))
+                .thenReturn(response(500, item))
+                .thenReturn(CompletableFuture.completedFuture(FetchResult.failed(new RuntimeException("API error"))));
+        NewsIngestionScheduler scheduler = createScheduler(false);
+
+        for (int i = 0; i < 4; i++) {
+            scheduler.poll("bbc").get(1, TimeUnit.SECONDS);
+        }
+
+        NewsIngestionScheduler.SourceStats stats = scheduler.getSourceStats().get("bbc");
+        assertEquals(3, stats.getPolls());
+        assertEquals(2, stats.getFailures());
+        assertEquals(1, stats.getSkipped());
+        verify(sourceClient, times(3)).fetchResultAsync(any(), anyString());
+        assertEquals(List.of(item), articleStore.getSnapshot());
+    }
+
+    // Ответ источника заданного размера
+    private static CompletableFuture<FetchResult> response(long bytes, NewsItem... items) {
+        return CompletableFuture.completedFuture(new FetchResult(List.of(items), bytes));
+    }
+
+    // Создает планировщик над встроенными источниками с интервалом 60 секунд
+    private NewsIngestionScheduler createScheduler(boolean enabled) {
+        return createScheduler(sourceCatalog, enabled);
+    }
+
+    private NewsIngestionScheduler createScheduler(NewsSourceCatalog catalog, boolean enabled) {
+        return new NewsIngestionScheduler(catalog, sourceClient, articleStore, circuitBreakers,
+                new NewsMetrics(new SimpleMeterRegistry()), new NewsStreamHub(new ObjectMapper(), 16, 1000, 0, 1, "fixed"),
+                enabled, 100, 5);
+    }
+}
@@ -0,0 +1,76 @@
+package com.edu.WebScrapeApplication.service.metrics;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.fetch.FetchResult;
+import com.edu.WebScrapeApplication.service.resilience.CircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsMetrics.
+ * Проверяет классификацию исходов запросов к источникам и таймер слияния.
+ */
+class NewsMetricsTest {
+
+    // Реестр метрик в памяти
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // Тестируемые метрики
+    private final NewsMetrics metrics = new NewsMetrics(registry);
+
+    /**
+     * Тест проверяет, что успешный ответ записывает время загрузки, разбора и число статей с тегом источника.
+     */
+    @Test
+    void recordSource_ShouldRecordTimingsAndArticlesOnSuccess() {
+        FetchResult result = new FetchResult(List.of(new NewsItem(), new NewsItem()), 100,
+                TimeUnit.MILLISECONDS.toNanos(30), TimeUnit.MILLISECONDS.toNanos(5));
+
+        metrics.recordSource("bbc", result, null, TimeUnit.MILLISECONDS.toNanos(40));
+        metrics.recordSource("bbc", new FetchResult(List.of(), 10), null, TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(2, registry.get("news.source.total").tag("source", "bbc").timer().count());
+        assertEquals(30, registry.get("news.source.fetch").tag("source", "bbc").timer().max(TimeUnit.MILLISECONDS));
+        assertEquals(5, registry.get("news.source.deserialize").tag("source", "bbc").timer().max(TimeUnit.MILLISECONDS));
+        assertEquals(2.0, registry.get("news.source.articles").tag("source", "bbc").summary().totalAmount());
+        assertEquals(1.0, registry.get("news.source.empty").tag("source", "bbc").counter().count());
+        assertNull(registry.find("news.source.errors").counter());
+    }
+
+    /**
+     * Тест проверяет разделение таймаутов, ошибок и отказов разомкнутого предохранителя.
+     */
+    @Test
+    void recordSource_ShouldClassifyFailures() {
+        metrics.recordSource("cnn", null, new CompletionException(new TimeoutException()), 1);
+        metrics.recordSource("cnn", FetchResult.failed(new IOException("503")), null, 1);
+        metrics.recordSource("cnn", null, new CompletionException(new CircuitOpenException("cnn")), 0);
+
+        assertEquals(1.0, registry.get("news.source.timeouts").tag("source", "cnn").counter().count());
+        assertEquals(1.0, registry.get("news.source.errors").tag("source", "cnn").counter().count());
+        assertEquals(1.0, registry.get("news.source.rejected").tag("source", "cnn").counter().count());
+        // Отклоненный запрос не выполнялся и не попадает в таймер
+        assertEquals(2, registry.get("news.source.total").tag("source", "cnn").timer().count());
+        assertNull(registry.find("news.source.fetch").timer());
+    }
+
+    /**
+     * Тест проверяет, что время слияния пишется отдельно для запроса и для снимка хранилища.
+     */
+    @Test
+    void recordMerge_ShouldTagPath() {
+        metrics.recordMerge("request", TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordMerge("store", TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordMerge("store", TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(1, registry.get("news.aggregation.merge").tag("path", "request").timer().count());
+        assertEquals(2, registry.get("news.aggregation.merge").tag("path", "store").timer().count());
+    }
+}
@@ -0,0 +1,104 @@
+package com.edu.WebScrapeApplication.service.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для CircuitBreaker.
+ * Проверяет переходы CLOSED -> OPEN -> HALF_OPEN -> CLOSED/OPEN.
+ */
+class CircuitBreakerTest {
+
+    // Управляемые "часы" для тестов
+    private final AtomicLong now = new AtomicLong(1_000);
+    // Тестируемый предохранитель: 3 ошибки подряд, пауза 100 мс
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 100, 10, now::get);
+
+    /**
+     * Тест проверяет, что предохранитель размыкается только после заданного числа ошибок подряд.
+     */
+    @Test
+    void onFailure_ShouldOpenAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess(10);  // Успех сбрасывает счетчик
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getStats(0).getRejected());
+        assertEquals(1L, breaker.getStats(0).getTransitions().get("CLOSED->OPEN"));
+    }
+
+    /**
+     * Тест проверяет, что после паузы пропускается один пробный запрос и его успех замыкает предохранитель.
+     */
+    @Test
+    void tryAcquire_ShouldAllowSingleProbeAfterPauseAndCloseOnSuccess() {
+        openBreaker();
+        now.addAndGet(100);
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());  // Пока проба выполняется, остальные запросы отклоняются
+
+        breaker.onSuccess(20);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertEquals(1L, breaker.getStats(0).getTransitions().get("HALF_OPEN->CLOSED"));
+    }
+
+    /**
+     * Тест проверяет, что неудачная проба снова размыкает предохранитель на полную паузу.
+     */
+    @Test
+    void onFailure_ShouldReopenWhenProbeFails() {
+        openBreaker();
+        now.addAndGet(100);
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        now.addAndGet(99);
+        assertFalse(breaker.tryAcquire());
+        now.addAndGet(1);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(2L, breaker.getStats(0).getTransitions().get("OPEN->HALF_OPEN"));
+    }
+
+    /**
+     * Тест проверяет, что опоздавший исход запроса прошлого поколения не занимает и не освобождает место пробы.
+     */
+    @Test
+    void onSuccess_ShouldIgnoreStaleOutcomeWhileProbeInFlight() {
+        long stale = breaker.acquire();
+        openBreaker();
+        now.addAndGet(100);
+        long probe = breaker.acquire();
+        assertTrue(probe > stale);
+
+        breaker.onSuccess(10, stale);
+        breaker.onFailure(stale);
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());  // Проба все еще выполняется
+        breaker.onSuccess(10, probe);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    // Размыкает предохранитель тремя ошибками
+    private void openBreaker() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.edu.WebScrapeApplication.service.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для SourceCircuitBreakers.
+ * Проверяет адаптивный таймаут и отклонение запросов к отключенному источнику.
+ */
+class SourceCircuitBreakersTest {
+
+    // Управляемые "часы" для пауз предохранителя
+    private final AtomicLong now = new AtomicLong(1_000);
+    // Тестируемый реестр: 2 ошибки подряд, пауза 1 с, таймаут p99 * 2 в пределах 50..1000 мс
+    private final SourceCircuitBreakers breakers =
+            new SourceCircuitBreakers(true, 2, 1_000, 0.99, 2.0, 50, 1_000, now::get);
+
+    /**
+     * Тест проверяет, что таймаут следует перцентилю задержек источника и ограничен сверху и снизу.
+     */
+    @Test
+    void timeoutMillis_ShouldFollowLatencyPercentile() {
+        assertEquals(1_000, breakers.timeoutMillis("bbc"));  // Замеров нет - верхняя граница
+
+        for (int i = 1; i <= SourceCircuitBreakers.MIN_SAMPLES; i++) {
+            breakers.forSource("bbc").onSuccess(i * 10);
+            breakers.forSource("fast").onSuccess(1);
+            breakers.forSource("slow").onSuccess(5_000);
+        }
+
+        assertEquals(200, breakers.timeoutMillis("bbc"));  // p99 = 100 мс, запас x2
+        assertEquals(50, breakers.timeoutMillis("fast"));
+        assertEquals(1_000, breakers.timeoutMillis("slow"));
+    }
+
+    /**
+     * Тест проверяет, что собственный таймаут источника ограничивает адаптивный таймаут, но не превышает общий.
+     */
+    @Test
+    void call_ShouldApplySourceTimeoutLimit() {
+        breakers.call("bbc", 300, () -> CompletableFuture.completedFuture("ok"), value -> false);
+        breakers.call("slow", 5_000, () -> CompletableFuture.completedFuture("ok"), value -> false);
+        for (int i = 0; i < SourceCircuitBreakers.MIN_SAMPLES; i++) {
+            breakers.forSource("bbc").onSuccess(400);
+        }
+
+        assertEquals(300, breakers.timeoutMillis("bbc"));
+        assertEquals(1_000, breakers.timeoutMillis("slow"));
+    }
+
+    /**
+     * Тест проверяет, что зависший запрос завершается по адаптивному таймауту и учитывается как ошибка.
+     */
+    @Test
+    void call_ShouldTimeOutSlowRequestAndCountFailure() {
+        for (int i = 0; i < SourceCircuitBreakers.MIN_SAMPLES; i++) {
+            breakers.forSource("bbc").onSuccess(10);
+        }
+        CompletableFuture<String> hanging = new CompletableFuture<>();
+
+        CompletableFuture<String> result = breakers.call("bbc", () -> hanging, value -> false);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals(1, breakers.getStats().get("bbc").getFailures());
+    }
+
+    /**
+     * Тест проверяет, что после серии неудачных результатов запрос не выполняется и завершается CircuitOpenException.
+     */
+    @Test
+    void call_ShouldRejectRequestsWhileOpen() {
+        AtomicInteger requests = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            breakers.call("bbc", () -> {
+                requests.incrementAndGet();
+                return CompletableFuture.completedFuture("failed");
+            }, "failed"::equals);
+        }
+
+        assertEquals(2, requests.get());
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getStats().get("bbc").getState());
+        CompletableFuture<String> rejected = breakers.call("bbc", () -> CompletableFuture.completedFuture("ok"), value -> false);
+        ExecutionException error = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(CircuitOpenException.class, error.getCause());
+    }
+
+    /**
+     * Тест проверяет, что отмена запроса вызывающим (общий дедлайн агрегации) не считается ошибкой источника.
+     */
+    @Test
+    void call_ShouldNotCountCallerCancellationAsFailure() {
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<String> hanging = new CompletableFuture<>();
+            CompletableFuture<String> result = breakers.call("bbc", () -> hanging, value -> false);
+
+            result.cancel(true);
+
+            assertTrue(hanging.isCancelled());
+        }
+
+        assertEquals(0, breakers.getStats().get("bbc").getFailures());
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getStats().get("bbc").getState());
+    }
+
+    /**
+     * Тест проверяет, что успех запроса, начатого до размыкания, не замыкает разомкнутый предохранитель.
+     */
+    @Test
+    void call_ShouldNotCloseOpenBreakerOnLateSuccess() {
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        breakers.call("bbc", () -> slow, value -> false);
+        for (int i = 0; i < 2; i++) {
+            breakers.call("bbc", () -> CompletableFuture.completedFuture("failed"), "failed"::equals);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getStats().get("bbc").getState());
+
+        slow.complete("ok");
+
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getStats().get("bbc").getState());
+        assertEquals(1, breakers.getStats().get("bbc").getSuccesses());
+    }
+
+    /**
+     * Тест проверяет, что после роста задержки источника таймауты поднимают адаптивный таймаут,
+     * а пробный запрос после размыкания выполняется с верхней границей и замыкает предохранитель.
+     */
+    @Test
+    void call_ShouldRecoverWhenSourceLatencyShiftsUp() throws Exception {
+        for (int i = 0; i < SourceCircuitBreakers.MIN_SAMPLES; i++) {
+            breakers.forSource("bbc").onSuccess(10);
+        }
+        assertEquals(50, breakers.timeoutMillis("bbc"));
+        // Источник стал отвечать за 150 мс
+        Supplier<CompletableFuture<String>> slow = () -> CompletableFuture.supplyAsync(() -> "ok",
+                CompletableFuture.delayedExecutor(150, TimeUnit.MILLISECONDS));
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<String> result = breakers.call("bbc", slow, value -> false);
+            ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, error.getCause());
+        }
+        assertEquals(200, breakers.timeoutMillis("bbc"));  // Таймауты 50 и 100 мс попали в окно
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getStats().get("bbc").getState());
+
+        now.addAndGet(1_000);
+        assertEquals("ok", breakers.call("bbc", slow, value -> false).get(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getStats().get("bbc").getState());
+    }
+}
@@ -0,0 +1,109 @@
+package com.edu.WebScrapeApplication.service.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для SourceHedging.
+ * Проверяет отправку второго запроса, отмену проигравшего и бюджет; выигрыш по p99 на заглушке NewsAPI
+ * измеряет {@code HedgingBenchmark}.
+ */
+class SourceHedgingTest {
+
+    // Запросов в проверке бюджета
+    private static final int REQUESTS = 100;
+
+    /**
+     * Тест проверяет, что после p95 отправляется второй запрос, его ответ побеждает, а первый запрос отменяется.
+     */
+    @Test
+    void call_ShouldSendSecondRequestAfterP95AndCancelLoser() throws Exception {
+        SourceHedging hedging = new SourceHedging(true, 0.95, 1.0, 5, 1);
+        seedLatencies(hedging, "bbc");
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        Queue<CompletableFuture<String>> responses = new ArrayDeque<>();
+        responses.add(primary);
+        responses.add(CompletableFuture.completedFuture("hedge"));
+
+        String result = hedging.call("bbc", responses::poll, value -> false).get(1, TimeUnit.SECONDS);
+
+        assertEquals("hedge", result);
+        assertTrue(primary.isCancelled());
+        assertEquals(1, hedging.getStats().get("bbc").getHedged());
+        assertEquals(1, hedging.getStats().get("bbc").getHedgeWins());
+    }
+
+    /**
+     * Тест проверяет, что без накопленного бюджета второй запрос не отправляется.
+     */
+    @Test
+    void call_ShouldNotHedgeWhenBudgetIsExhausted() throws Exception {
+        SourceHedging hedging = new SourceHedging(true, 0.95, 0.1, 5, 1);
+        seedLatencies(hedging, "bbc");
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        int[] requests = new int[1];
+
+        CompletableFuture<String> result = hedging.call("bbc", () -> {
+            requests[0]++;
+            return primary;
+        }, value -> false);
+        Thread.sleep(200);  // Хедж мог бы сработать через 1 мс
+        primary.complete("primary");
+
+        assertEquals("primary", result.get(1, TimeUnit.SECONDS));
+        assertEquals(1, requests[0]);
+        assertEquals(1, hedging.getStats().get("bbc").getBudgetDenied());
+    }
+
+    /**
+     * Тест проверяет, что при медленном источнике хеджи не выходят за бюджет: каждый запрос
+     * либо хеджируется, либо учитывается как отказ бюджета, и хеджей не больше ratio * запросов + burst.
+     */
+    @Test
+    void call_ShouldKeepHedgesWithinBudgetForSlowSource() throws Exception {
+        SourceHedging hedging = new SourceHedging(true, 0.95, 0.2, 5, 1);
+        seedLatencies(hedging, "bbc");
+
+        for (int i = 1; i <= REQUESTS; i++) {
+            CompletableFuture<String> primary = new CompletableFuture<>();
+            Queue<CompletableFuture<String>> responses = new ArrayDeque<>();
+            responses.add(primary);
+            responses.add(new CompletableFuture<>());  // Хедж тоже не отвечает - исход решает первый запрос
+            CompletableFuture<String> result = hedging.call("bbc", responses::poll, value -> false);
+            awaitHedgeDecision(hedging, i);
+            primary.complete("primary");
+            assertEquals("primary", result.get(1, TimeUnit.SECONDS));
+        }
+
+        SourceHedging.HedgeStats stats = hedging.getStats().get("bbc");
+        assertEquals(REQUESTS, stats.getHedged() + stats.getBudgetDenied());
+        assertTrue(stats.getHedged() <= REQUESTS * 0.2 + 5, "Hedged " + stats.getHedged());
+        assertTrue(stats.getBudgetDenied() > 0);
+    }
+
+    // Ждет, пока по запросу с номером request будет решено, отправлять ли хедж
+    private static void awaitHedgeDecision(SourceHedging hedging, int request) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (System.nanoTime() < deadline) {
+            SourceHedging.HedgeStats stats = hedging.getStats().get("bbc");
+            if (stats.getHedged() + stats.getBudgetDenied() >= request) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+        fail("No hedge decision for request " + request);
+    }
+
+    // Заполняет окно задержек источника быстрыми ответами (1 мс)
+    private static void seedLatencies(SourceHedging hedging, String sourceId) {
+        for (int i = 0; i < SourceHedging.MIN_SAMPLES; i++) {
+            hedging.latencies(sourceId).record(1);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.edu.WebScrapeApplication.service.search;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsSearchIndex.
+ * Проверяет поиск по всем термам, ранжирование, обновление и сжатие индекса.
+ */
+class NewsSearchIndexTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    // Управляемое время
+    private final AtomicLong now = new AtomicLong(1_000 * HOUR);
+
+    private final NewsSearchIndex index = new NewsSearchIndex(24, 1.0, now::get);
+
+    /**
+     * Тест проверяет, что результат содержит только статьи со всеми термами запроса.
+     */
+    @Test
+    void search_ShouldRequireAllTerms() {
+        put("a", "Central bank raises rates", "Inflation is high", 0);
+        put("b", "Central park reopens", "City news", 0);
+        put("c", "Банк России сохранил ставку", "Центральный банк", 0);
+
+        assertEquals(List.of("a"), urls(index.search("central bank", 10)));
+        assertEquals(List.of("c"), urls(index.search("банка ставки", 10)));
+        assertTrue(index.search("central bank inflation park", 10).isEmpty());
+        assertTrue(index.search("unknown", 10).isEmpty());
+        assertTrue(index.search("the", 10).isEmpty());
+    }
+
+    /**
+     * Тест проверяет ранжирование: совпадение в заголовке выше совпадения в описании,
+     * а при равной релевантности выше более свежая статья.
+     */
+    @Test
+    void search_ShouldRankTitleMatchesAndRecentArticlesHigher() {
+        put("description", "Weekly roundup", "Elections ahead", 0);
+        put("old", "Election day", "Roundup", 24 * HOUR);  // Свежесть вдвое ниже, но совпадение в заголовке
+        put("fresh", "Election day", "Roundup", HOUR);
+
+        assertEquals(List.of("fresh", "old", "description"), urls(index.search("election", 10)));
+        assertEquals(List.of("fresh"), urls(index.search("election", 1)));
+    }
+
+    /**
+     * Тест проверяет обновление статьи по ключу, удаление и синхронизацию со снимком.
+     */
+    @Test
+    void putAndRemove_ShouldKeepIndexInSyncWithArticles() {
+        put("a", "Old headline", "Desc", 0);
+        put("a", "New headline", "Desc", 0);
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(1, index.search("headline", 10).size());
+
+        index.remove("a");
+        assertTrue(index.search("headline", 10).isEmpty());
+
+        NewsItem kept = new NewsItem("Kept story", "Desc", "https://site.com/kept", new Date(now.get()), "Site");
+        index.sync(List.of(kept, new NewsItem("Other story", "Desc", "https://site.com/other", null, "Site")));
+        index.sync(List.of(kept));
+        assertEquals(List.of(kept), index.search("story", 10));
+        assertEquals(1, index.getStats().getDocuments());
+    }
+
+    /**
+     * Тест проверяет, что после удаления большей части статей списки термов сжимаются,
+     * а поиск по оставшимся статьям работает.
+     */
+    @Test
+    void remove_ShouldCompactPostingsWhenMostDocumentsAreDeleted() {
+        for (int i = 0; i < 3000; i++) {
+            put("k" + i, "Story number " + i, i % 2 == 0 ? "even" : "odd", 0);
+        }
+        for (int i = 0; i < 2000; i++) {
+            index.remove("k" + i);
+        }
+
+        NewsSearchIndex.SearchStats stats = index.getStats();
+        assertEquals(1000, stats.getDocuments());
+        assertEquals(1, stats.getCompactions());
+        assertTrue(stats.getDeleted() < NewsSearchIndex.MIN_COMPACTION);
+        assertEquals(500, index.search("story even", 1000).size());
+        assertEquals(List.of("k2999"), urls(index.search("2999", 10)));
+    }
+
+    // Добавляет статью; ключ статьи используется и как ее URL
+    private void put(String key, String title, String description, long ageMillis) {
+        index.put(key, new NewsItem(title, description, key, new Date(now.get() - ageMillis), "Source"));
+    }
+
+    private static List<String> urls(List<NewsItem> items) {
+        return items.stream().map(NewsItem::getUrl).toList();
+    }
+}
@@ -0,0 +1,34 @@
+package com.edu.WebScrapeApplication.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsTokenizer.
+ * Проверяет разбиение русского и английского текста на термы.
+ */
+class NewsTokenizerTest {
+
+    /**
+     * Тест проверяет, что формы русского слова дают один терм, а стоп-слова и "ё" обрабатываются.
+     */
+    @Test
+    void tokenize_ShouldNormalizeRussianWordForms() {
+        assertEquals(List.of("выбор", "выбор", "выбор", "елк"), NewsTokenizer.tokenize("Выборы, ВЫБОРОВ и в выборах: ёлка"));
+        assertEquals(NewsTokenizer.tokenize("новости России"), NewsTokenizer.tokenize("новостей о россии"));
+    }
+
+    /**
+     * Тест проверяет английские окончания, числа и пустой текст.
+     */
+    @Test
+    void tokenize_ShouldNormalizeEnglishWordForms() {
+        assertEquals(List.of("startup", "rais", "fund", "2024"), NewsTokenizer.tokenize("The startups raised funding in 2024"));
+        assertEquals(NewsTokenizer.tokenize("stories"), NewsTokenizer.tokenize("story"));
+        assertTrue(NewsTokenizer.tokenize(null).isEmpty());
+        assertTrue(NewsTokenizer.tokenize("a, и, the").isEmpty());
+    }
+}
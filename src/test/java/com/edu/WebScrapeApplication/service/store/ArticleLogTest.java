@@ -0,0 +1,150 @@
+package com.edu.WebScrapeApplication.service.store;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для ArticleLog.
+ * Проверяет чтение статей из сегмента, восстановление после недописанной записи и удаление сегментов.
+ */
+class ArticleLogTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Тест проверяет, что статья читается из отображенного сегмента без изменений,
+     * а после перезапуска контрольная точка возвращает те же записи.
+     */
+    @Test
+    void appendPut_ShouldRestoreArticlesFromCheckpoint() {
+        ArticleLog log = open();
+        assertNull(log.open());
+        NewsItem item = new NewsItem("Заголовок", null, "https://bbc.co.uk/news/1", new Date(1_700_000_000_000L), "BBC News");
+        long ref = log.appendPut("bbc", "bbc.co.uk/news/1", 1_700_000_000_000L, item);
+        log.checkpoint(List.of("bbc"), List.of(new long[]{ref}), List.of(new int[]{0}));
+
+        ArticleLog reopened = open();
+        ArticleLog.Checkpoint checkpoint = reopened.open();
+
+        assertNotNull(checkpoint);
+        assertEquals(List.of("bbc"), checkpoint.sourceIds());
+        NewsItem restored = reopened.item(checkpoint.refs().get(0)[0]);
+        assertAll(
+                () -> assertEquals("Заголовок", restored.getTitle()),
+                () -> assertNull(restored.getDescription()),
+                () -> assertEquals("https://bbc.co.uk/news/1", restored.getUrl()),
+                () -> assertEquals(1_700_000_000_000L, restored.getPublishedAtMillis()),
+                () -> assertEquals("BBC News", restored.getSourceName()),
+                () -> assertEquals("bbc.co.uk/news/1", reopened.key(ref)),
+                () -> assertEquals(1, reopened.getStats().getLiveRecords()),
+                () -> assertThrows(UnsupportedOperationException.class, () -> restored.setTitle("changed"))
+        );
+    }
+
+    /**
+     * Тест проверяет восстановление после сбоя: целая запись, не попавшая в индекс, индексируется заново,
+     * а недописанная запись отбрасывается и затирается следующей.
+     */
+    @Test
+    void open_ShouldReindexCompleteRecordsAndDropTornTail() throws IOException {
+        ArticleLog log = open();
+        log.open();
+        long first = log.appendPut("bbc", "a", 1, item("a"));
+        long second = log.appendPut("bbc", "b", 2, item("b"));
+        long third = log.appendPut("bbc", "c", 3, item("c"));
+        log.flush();
+        // Индекс не успел записать вторую и третью записи, а третья записана наполовину
+        zero(dir.resolve("0000000000.idx"), 16, 32);
+        zero(dir.resolve("0000000000.log"), (int) third + 20, 4);
+
+        ArticleLog reopened = open();
+        assertNull(reopened.open());
+        List<String> keys = new ArrayList<>();
+        reopened.replay(ArticleLog.NO_REF, visitor(reopened, keys));
+        assertEquals(List.of("a", "b"), keys);
+
+        long next = reopened.appendPut("bbc", "d", 4, item("d"));
+        assertEquals(third, next);  // Новая запись занимает место недописанной
+        keys.clear();
+        reopened.replay(ArticleLog.NO_REF, visitor(reopened, keys));
+        assertEquals(List.of("a", "b", "d"), keys);
+        assertTrue(first < second);
+    }
+
+    /**
+     * Тест проверяет, что после контрольной точки удаляются заполненные сегменты без живых записей,
+     * а сегменты с живыми записями и текущий сегмент остаются.
+     */
+    @Test
+    void checkpoint_ShouldDeleteSegmentsWithoutLiveRecords() {
+        ArticleLog log = open();
+        log.open();
+        List<Long> refs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            refs.add(log.appendPut("bbc", "key-" + i, i, item("article-" + i)));
+        }
+        int segments = log.getStats().getSegments();
+        assertTrue(segments >= 3, "articles should span several segments");
+        long kept = refs.get(refs.size() - 1);
+        for (long ref : refs) {
+            if (ref != kept) {
+                log.release(ref);
+            }
+        }
+
+        log.checkpoint(List.of("bbc"), List.of(new long[]{kept}), List.of(new int[]{0}));
+
+        assertEquals(1, log.getStats().getSegments());
+        assertEquals(segments - 1, log.getStats().getDeletedSegments());
+        assertTrue(Files.exists(dir.resolve(String.format("%010d.log", ArticleLog.segmentId(kept)))));
+        assertFalse(Files.exists(dir.resolve("0000000000.log")));
+        ArticleLog reopened = open();
+        assertNotNull(reopened.open());
+        assertEquals("article-99", reopened.item(kept).getTitle());
+    }
+
+    private ArticleLog open() {
+        return new ArticleLog(true, dir, SEGMENT_BYTES, 0.5);
+    }
+
+    private static ArticleLog.Visitor visitor(ArticleLog log, List<String> keys) {
+        return new ArticleLog.Visitor() {
+            @Override
+            public void put(long ref, String sourceId) {
+                keys.add(log.key(ref));
+            }
+
+            @Override
+            public void removeSource(String sourceId) {
+                keys.add("-" + sourceId);
+            }
+        };
+    }
+
+    private static void zero(Path file, int position, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(length), position);
+        }
+    }
+
+    // Вспомогательный метод для создания статьи
+    private static NewsItem item(String title) {
+        return new NewsItem(title, "Desc", "https://site.com/" + title, new Date(1_700_000_000_000L), "Site");
+    }
+}
@@ -0,0 +1,260 @@
+package com.edu.WebScrapeApplication.service.store;
+
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.aggregation.NewsDeduplicator;
+import com.edu.WebScrapeApplication.service.aggregation.NewsMerger;
+import com.edu.WebScrapeApplication.service.metrics.NewsMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для ArticleStore.
+ * Проверяет хранение статей по URL, порядок снимка, вытеснение по окну хранения и восстановление из журнала.
+ */
+class ArticleStoreTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    // Управляемое время
+    private final AtomicLong now = new AtomicLong(100 * HOUR);
+
+    private final ArticleStore store = new ArticleStore(new NewsDeduplicator(true, 0.8), new NewsMerger(1000),
+            new NewsMetrics(new SimpleMeterRegistry()), 24 * HOUR, now::get);
+
+    /**
+     * Тест проверяет, что повторная загрузка статьи с тем же URL ее не дублирует,
+     * а более полная копия заменяет прежнюю.
+     */
+    @Test
+    void put_ShouldKeepOneArticlePerUrl() {
+        NewsItem bare = new NewsItem("Title", null, "https://bbc.co.uk/news/1", new Date(now.get()), null);
+        NewsItem full = new NewsItem("Title", "Desc", "http://www.bbc.co.uk/news/1/", new Date(now.get()), "BBC News");
+
+        assertEquals(1, store.put("bbc", List.of(bare)));
+        assertEquals(0, store.put("russia", List.of(full)));
+        assertEquals(0, store.put("bbc", List.of(bare)));
+
+        assertEquals(List.of(full), store.getSnapshot());
+        assertEquals(1, store.getStats().getArticles());
+        assertEquals(1, store.getStats().getReplaced());
+    }
+
+    /**
+     * Тест проверяет порядок снимка (новые сначала) и рост версии при изменениях.
+     */
+    @Test
+    void getSnapshot_ShouldMergeSourcesNewestFirst() {
+        NewsItem older = item("older", now.get() - 2 * HOUR);
+        NewsItem newer = item("newer", now.get() - HOUR);
+        NewsItem newest = item("newest", now.get());
+
+        store.put("bbc", List.of(newer, older));
+        long version = store.getVersion();
+        store.put("techcrunch", List.of(newest));
+
+        assertEquals(List.of(newest, newer, older), store.getSnapshot());
+        assertTrue(store.getVersion() > version);
+    }
+
+    /**
+     * Тест проверяет вытеснение статей старше окна хранения; статьи без даты вытесняются по времени загрузки.
+     */
+    @Test
+    void evictExpired_ShouldDropArticlesOutsideRetention() {
+        NewsItem old = item("old", now.get() - 20 * HOUR);
+        NewsItem fresh = item("fresh", now.get() - HOUR);
+        NewsItem undated = new NewsItem("undated", "Desc", "https://site.com/undated", null, "Site");
+        store.put("bbc", List.of(old, fresh, undated));
+
+        // Статья старше окна не добавляется вовсе
+        assertEquals(0, store.put("bbc", List.of(item("ancient", now.get() - 30 * HOUR))));
+
+        now.addAndGet(5 * HOUR);
+        assertEquals(1, store.evictExpired());
+        assertEquals(List.of(fresh, undated), store.getSnapshot());
+
+        now.addAndGet(20 * HOUR);
+        assertEquals(2, store.evictExpired());
+        assertTrue(store.getSnapshot().isEmpty());
+        assertEquals(3, store.getStats().getEvicted());
+    }
+
+    /**
+     * Тест проверяет, что запросы до завершения первого круга опроса ждут его.
+     */
+    @Test
+    void awaitSnapshot_ShouldCompleteWhenWarm() throws Exception {
+        CompletableFuture<List<NewsItem>> pending = store.awaitSnapshot();
+        assertFalse(pending.isDone());
+
+        store.put("bbc", List.of(item("first", now.get())));
+        store.markWarm();
+
+        assertEquals(1, pending.get(1, TimeUnit.SECONDS).size());
+        assertTrue(store.awaitSnapshot().isDone());
+    }
+
+    /**
+     * Тест проверяет компактное хранение: снимок состоит из неизменяемых копий с теми же полями,
+     * а более полная копия по-прежнему заменяет прежнюю.
+     */
+    @Test
+    void put_ShouldStoreCompactCopiesWhenEnabled() {
+        ArticleStore compactStore = new ArticleStore(new NewsDeduplicator(true, 0.8), new NewsMerger(1000),
+                new NewsMetrics(new SimpleMeterRegistry()), 24 * HOUR, true, now::get);
+        NewsItem bare = new NewsItem("Заголовок", null, "https://lenta.ru/news/1", new Date(now.get()), null);
+        NewsItem full = new NewsItem("Заголовок", "Описание", "https://lenta.ru/news/1", new Date(now.get()), "Lenta");
+
+        compactStore.put("russia", List.of(bare));
+        compactStore.put("russia", List.of(full));
+
+        NewsItem stored = compactStore.getSnapshot().get(0);
+        assertInstanceOf(CompactNewsItem.class, stored);
+        assertAll(
+                () -> assertEquals("Заголовок", stored.getTitle()),
+                () -> assertEquals("Описание", stored.getDescription()),
+                () -> assertEquals("https://lenta.ru/news/1", stored.getUrl()),
+                () -> assertEquals(now.get(), stored.getPublishedAtMillis()),
+                () -> assertEquals("Lenta", stored.getSourceName()),
+                () -> assertThrows(UnsupportedOperationException.class, () -> stored.setTitle("changed"))
+        );
+        assertEquals(1, compactStore.getStats().getReplaced());
+    }
+
+    /**
+     * Тест проверяет перезапуск с журналом: снимок контрольной точки отдается до доигрывания журнала,
+     * а после доигрывания хранилище совпадает с остановленным, включая изменения после контрольной точки.
+     */
+    @Test
+    void restore_ShouldServeCheckpointAndReplayTail(@TempDir Path dir) throws Exception {
+        ArticleStore first = loggedStore(dir);
+        first.restore();
+        first.put("bbc", List.of(item("Markets rally", now.get() - 2 * HOUR), item("Election results", now.get() - HOUR)));
+        first.put("russia", List.of(item("Court ruling", now.get() - 3 * HOUR)));
+        first.evictExpired();  // Вместе с вытеснением записывается контрольная точка
+        List<String> atCheckpoint = titles(first.getSnapshot());
+        first.put("russia", List.of(item("Energy prices", now.get())));
+        first.removeSource("bbc");
+        // Хранилище остановлено без close(): последние изменения есть только в журнале после контрольной точки
+
+        ArticleStore second = loggedStore(dir);
+        synchronized (second) {  // Доигрывание ждет монитор хранилища
+            second.restore();
+            assertEquals(atCheckpoint, titles(second.getSnapshot()));
+            assertTrue(second.awaitSnapshot().isDone());
+        }
+        second.awaitRestored();
+
+        assertEquals(List.of("Energy prices", "Court ruling"), titles(second.getSnapshot()));
+        assertEquals(first.getStats().getArticles(), second.getStats().getArticles());
+        assertEquals(2, second.getLogStats().getRestoredArticles());
+    }
+
+    /**
+     * Тест проверяет обслуживание журнала: после вытеснения сегменты без живых записей удаляются,
+     * разреженные - уплотняются, а перезапуск восстанавливает только живые статьи.
+     */
+    @Test
+    void evictExpired_ShouldCompactAndTrimLog(@TempDir Path dir) {
+        ArticleStore logged = loggedStore(dir);
+        logged.restore();
+        List<NewsItem> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            // Каждая четвертая статья свежая, остальные выйдут из окна хранения через 10 часов
+            items.add(item("Article " + i, now.get() - (i % 4 == 0 ? 0 : 20 * HOUR)));
+        }
+        logged.put("bbc", items);
+        int segments = logged.getLogStats().getSegments();
+        now.addAndGet(10 * HOUR);
+
+        assertEquals(150, logged.evictExpired());
+
+        ArticleLog.LogStats stats = logged.getLogStats();
+        assertTrue(segments > 2, "articles should span several segments");
+        assertTrue(stats.getCompactedRecords() > 0);
+        assertTrue(stats.getDeletedSegments() > 0);
+        assertEquals(50, stats.getLiveRecords());
+        ArticleStore restored = loggedStore(dir);
+        restored.restore();
+        restored.awaitRestored();
+        assertEquals(50, restored.getStats().getArticles());
+        assertEquals(titles(logged.getSnapshot()), titles(restored.getSnapshot()));
+    }
+
+    /**
+     * Тест проверяет, что пересборка снимка идет вне блокировки: пока она выполняется, статистика читается,
+     * а новая статья добавляется без ожидания и попадает в снимок следующим проходом той же пересборки.
+     */
+    @Test
+    void put_ShouldNotWaitForRebuildInProgress() throws Exception {
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        NewsDeduplicator blocking = new NewsDeduplicator(true, 0.8) {
+            @Override
+            public List<List<NewsItem>> deduplicate(Map<String, List<NewsItem>> batches) {
+                if (runs.incrementAndGet() == 1) {
+                    rebuilding.countDown();
+                    awaitQuietly(release);
+                }
+                return super.deduplicate(batches);
+            }
+        };
+        ArticleStore slowStore = new ArticleStore(blocking, new NewsMerger(1000),
+                new NewsMetrics(new SimpleMeterRegistry()), 24 * HOUR, now::get);
+        List<String> listened = new CopyOnWriteArrayList<>();
+        slowStore.addListener((key, item) -> listened.add(item.getTitle()), key -> { });
+        NewsItem first = item("first", now.get() - HOUR);
+        NewsItem second = item("second", now.get());
+
+        CompletableFuture<Integer> slowPut = CompletableFuture.supplyAsync(() -> slowStore.put("bbc", List.of(first)));
+        assertTrue(rebuilding.await(5, TimeUnit.SECONDS));
+        assertEquals(1, CompletableFuture.supplyAsync(() -> slowStore.put("russia", List.of(second)))
+                .get(5, TimeUnit.SECONDS));
+        assertEquals(2, slowStore.getStats().getArticles());
+        release.countDown();
+
+        assertEquals(1, slowPut.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(second, first), slowStore.getSnapshot());
+        assertEquals(2, runs.get());  // Изменение во время пересборки - один дополнительный проход
+        assertEquals(List.of("first", "second"), listened);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ArticleStore loggedStore(Path dir) {
+        return new ArticleStore(new NewsDeduplicator(true, 0.8), new NewsMerger(1000),
+                new NewsMetrics(new SimpleMeterRegistry()), 24 * HOUR, false, now::get,
+                new ArticleLog(true, dir, 4096, 0.5));
+    }
+
+    private static List<String> titles(List<NewsItem> items) {
+        return items.stream().map(NewsItem::getTitle).toList();
+    }
+
+    // Вспомогательный метод для создания статьи
+    private static NewsItem item(String title, long publishedAt) {
+        return new NewsItem(title, "Desc", "https://site.com/" + title, new Date(publishedAt), "Site");
+    }
+}
@@ -0,0 +1,146 @@
+package com.edu.WebScrapeApplication.service.stream;
+
+import com.edu.WebScrapeApplication.model.NewsFilter;
+import com.edu.WebScrapeApplication.model.NewsItem;
+import com.edu.WebScrapeApplication.service.fetch.NewsSource;
+import com.edu.WebScrapeApplication.service.fetch.NewsSourceCatalog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тестовый класс для NewsStreamHub.
+ * Проверяет рассылку только новых статей, фильтр подписчика и обработку медленных клиентов.
+ */
+class NewsStreamHubTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Пул отправителей
+    private final ExecutorService senders = Executors.newFixedThreadPool(2);
+    private final NewsSourceCatalog catalog = new NewsSourceCatalog("key");
+    private final NewsSource bbc = catalog.getSource("bbc");
+    private final NewsSource techcrunch = catalog.getSource("techcrunch");
+
+    @AfterEach
+    void tearDown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Тест проверяет, что подписчик получает только статьи, появившиеся после подписки и еще не разосланные,
+     * и только от источников, подходящих под его фильтр.
+     */
+    @Test
+    void publish_ShouldPushOnlyNewArticlesToMatchingSubscribers() throws Exception {
+        NewsStreamHub hub = new NewsStreamHub(objectMapper, 16, 1000, 0, senders);
+        hub.publish(bbc, List.of(item("before")));
+        BlockingQueue<NewsStreamHub.StreamEvent> all = new LinkedBlockingQueue<>();
+        BlockingQueue<NewsStreamHub.StreamEvent> technology = new LinkedBlockingQueue<>();
+        hub.subscribe(NewsFilter.NONE, all::add);
+        hub.subscribe(NewsFilter.of(null, "technology", null, null), technology::add);
+
+        hub.publish(bbc, List.of(item("before"), item("a"), item("b")));
+        hub.publish(bbc, List.of(item("a"), item("b"), item("c")));  // Повторный ответ источника
+        hub.publish(techcrunch, List.of(item("t")));
+
+        assertEquals(List.of("a", "b"), urls(all.poll(5, TimeUnit.SECONDS)));
+        assertEquals(List.of("c"), urls(all.poll(5, TimeUnit.SECONDS)));
+        assertEquals(List.of("t"), urls(all.poll(5, TimeUnit.SECONDS)));
+        assertEquals(List.of("t"), urls(technology.poll(5, TimeUnit.SECONDS)));
+        assertNull(technology.poll(50, TimeUnit.MILLISECONDS));
+
+        NewsStreamHub.StreamStats stats = hub.getStats();
+        assertEquals(3, stats.getEvents());
+        assertEquals(4, stats.getItems());
+        assertEquals(5, stats.getSeen());
+    }
+
+    /**
+     * Тест проверяет, что медленный клиент не задерживает публикацию и других подписчиков,
+     * а переполнение его очереди заменяет пропущенные события событием resync.
+     */
+    @Test
+    void publish_ShouldNotWaitForSlowSubscriberAndResyncItOnOverflow() throws Exception {
+        NewsStreamHub hub = new NewsStreamHub(objectMapper, 2, 1000, 0, senders);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<NewsStreamHub.StreamEvent> slowReceived = new CopyOnWriteArrayList<>();
+        hub.subscribe(NewsFilter.NONE, event -> {
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);  // Клиент не читает соединение
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slowReceived.add(event);
+        });
+        BlockingQueue<NewsStreamHub.StreamEvent> fast = new LinkedBlockingQueue<>();
+        hub.subscribe(NewsFilter.NONE, fast::add);
+
+        hub.publish(bbc, List.of(item("1")));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1"), urls(fast.poll(5, TimeUnit.SECONDS)));
+        for (int i = 2; i <= 5; i++) {
+            // Быстрый клиент получает каждое событие, пока медленный не прочитал даже первое
+            hub.publish(bbc, List.of(item(Integer.toString(i))));
+            assertEquals(List.of(Integer.toString(i)), urls(fast.poll(5, TimeUnit.SECONDS)));
+        }
+        release.countDown();
+
+        // Очередь из 2 событий: 2, 3 -> переполнение на 4 -> [resync, 4] -> переполнение на 5 -> [resync, 5]
+        waitUntil(() -> slowReceived.size() == 3);
+        assertEquals(List.of("news", "resync", "news"), slowReceived.stream().map(NewsStreamHub.StreamEvent::type).toList());
+        assertEquals(List.of("5"), urls(slowReceived.get(2)));
+        assertEquals(2, hub.getStats().getResyncs());
+    }
+
+    /**
+     * Тест проверяет, что подписчик с закрытым соединением отписывается при первой ошибке отправки.
+     */
+    @Test
+    void publish_ShouldDropDisconnectedSubscriber() throws Exception {
+        NewsStreamHub hub = new NewsStreamHub(objectMapper, 16, 1000, 0, senders);
+        hub.subscribe(NewsFilter.NONE, event -> {
+            throw new IOException("Broken pipe");
+        });
+        assertEquals(1, hub.getSubscribers());
+
+        hub.publish(bbc, List.of(item("a")));
+
+        waitUntil(() -> hub.getSubscribers() == 0);
+        assertEquals(1, hub.getStats().getDisconnected());
+        assertEquals(0, hub.getStats().getDeliveries());
+    }
+
+    private static NewsItem item(String id) {
+        return new NewsItem("Title " + id, "Desc", "https://example.com/" + id, new Date(1_700_000_000_000L), "Source");
+    }
+
+    // URL статей события без "https://example.com/"
+    private List<String> urls(NewsStreamHub.StreamEvent event) throws IOException {
+        assertNotNull(event, "event was not delivered");
+        List<String> urls = new ArrayList<>();
+        for (JsonNode item : objectMapper.readTree(event.data())) {
+            urls.add(item.get("url").asText().substring("https://example.com/".length()));
+        }
+        return urls;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition was not met in 5 seconds");
+            Thread.sleep(5);
+        }
+    }
+}